@@ -66,6 +66,10 @@ public class AddressController {
     address.setPincode(saveAddressRequest.getPincode());
     address.setUuid(UUID.randomUUID().toString());
     address.setActive(1);
+    if (saveAddressRequest.getLatitude() != null && saveAddressRequest.getLongitude() != null) {
+      address.setLatitude(saveAddressRequest.getLatitude().doubleValue());
+      address.setLongitude(saveAddressRequest.getLongitude().doubleValue());
+    }
     StateEntity state = addressService.getStateByUUID(saveAddressRequest.getStateUuid());
     address.setCustomers(customerEntity);
 
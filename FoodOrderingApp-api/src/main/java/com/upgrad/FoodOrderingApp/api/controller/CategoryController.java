@@ -0,0 +1,108 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.api.cache.CatalogResponseCache;
+import com.upgrad.FoodOrderingApp.api.model.CategoriesListResponse;
+import com.upgrad.FoodOrderingApp.api.model.CategoryDetailsResponse;
+import com.upgrad.FoodOrderingApp.api.model.CategoryListResponse;
+import com.upgrad.FoodOrderingApp.api.model.ItemList;
+import com.upgrad.FoodOrderingApp.service.businness.CategoryService;
+import com.upgrad.FoodOrderingApp.service.dto.CategoryDetails;
+import com.upgrad.FoodOrderingApp.service.dto.CategorySummary;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.exception.CategoryNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+public class CategoryController {
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private CatalogResponseCache catalogResponseCache;
+
+  /**
+   * This method returns every category ordered by name. The body is served from the catalog
+   * response cache.
+   *
+   * @param request request, for conditional and compressed responses
+   * @param response response the cached list of categories is written to
+   * @throws IOException when writing the response fails
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/category",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public void getAllCategories(final HttpServletRequest request, final HttpServletResponse response)
+      throws IOException {
+    catalogResponseCache.write(
+        "/category",
+        request,
+        response,
+        () -> {
+          // Map retrieved category projections to Response Object List
+          final List<CategoryListResponse> categoryLists = new ArrayList<>();
+          for (CategorySummary category : categoryService.getCategorySummaries()) {
+            categoryLists.add(
+                new CategoryListResponse()
+                    .id(UUID.fromString(category.getUuid()))
+                    .categoryName(category.getCategoryName()));
+          }
+          return new CategoriesListResponse().categories(categoryLists);
+        });
+  }
+
+  /**
+   * This method takes a category id and returns the category with its items. The body is served
+   * from the catalog response cache.
+   *
+   * @param categoryId category id as path variable
+   * @param request request, for conditional and compressed responses
+   * @param response response the cached category details are written to
+   * @throws CategoryNotFoundException on empty or invalid category id
+   * @throws IOException when writing the response fails
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/category/{category_id}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public void getCategoryById(
+      @PathVariable(value = "category_id") final String categoryId,
+      final HttpServletRequest request,
+      final HttpServletResponse response)
+      throws CategoryNotFoundException, IOException {
+    catalogResponseCache.write(
+        "/category/" + categoryId,
+        request,
+        response,
+        () -> {
+          final CategoryDetails category = categoryService.getCategoryDetailsById(categoryId);
+
+          // Map the category's item projections to Response Object List
+          final List<ItemList> itemLists = new ArrayList<>();
+          for (ItemSummary item : category.getItems()) {
+            itemLists.add(
+                new ItemList()
+                    .id(UUID.fromString(item.getUuid()))
+                    .itemName(item.getItemName())
+                    .price(item.getPrice())
+                    .itemType(ItemList.ItemTypeEnum.fromValue(item.getType().getValue())));
+          }
+          return new CategoryDetailsResponse()
+              .id(UUID.fromString(category.getUuid()))
+              .categoryName(category.getCategoryName())
+              .itemList(itemLists);
+        });
+  }
+}
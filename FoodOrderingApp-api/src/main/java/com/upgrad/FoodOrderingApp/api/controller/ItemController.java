@@ -0,0 +1,197 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.api.model.DishSearchResponse;
+import com.upgrad.FoodOrderingApp.api.model.DishSearchRestaurant;
+import com.upgrad.FoodOrderingApp.api.model.ItemList;
+import com.upgrad.FoodOrderingApp.api.model.ItemListResponse;
+import com.upgrad.FoodOrderingApp.api.model.TrendingItem;
+import com.upgrad.FoodOrderingApp.api.model.TrendingItemsResponse;
+import com.upgrad.FoodOrderingApp.service.businness.ItemService;
+import com.upgrad.FoodOrderingApp.service.businness.RestaurantService;
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDishes;
+import com.upgrad.FoodOrderingApp.service.dto.TrendingDish;
+import com.upgrad.FoodOrderingApp.service.entity.ItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.ItemNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.RestaurantNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RestController
+public class ItemController {
+
+  @Autowired
+  private ItemService itemService;
+
+  @Autowired
+  private RestaurantService restaurantService;
+
+  /**
+   * This method takes a restaurant id and returns the restaurant's most ordered items
+   *
+   * @param restaurantId restaurant id as path variable
+   * @return ResponseEntity with at most POPULAR_ITEMS_LIMIT items, most ordered first
+   * @throws RestaurantNotFoundException on empty or non-existent restaurant id
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/item/restaurant/{restaurant_id}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ItemListResponse> getItemsByPopularity(
+      @PathVariable(value = "restaurant_id") final String restaurantId)
+      throws RestaurantNotFoundException {
+
+    final RestaurantEntity restaurant = restaurantService.restaurantByUUID(restaurantId);
+    return new ResponseEntity<ItemListResponse>(
+        toItemListResponse(itemService.getItemsByPopularity(restaurant)), HttpStatus.OK);
+  }
+
+  /**
+   * This method takes an item id and the restaurant it is ordered from and returns the items of
+   * that restaurant most often ordered together with it
+   *
+   * @param itemId item id as path variable
+   * @param restaurantId restaurant id
+   * @param limit maximum number of items
+   * @return ResponseEntity with the items, most often ordered together first
+   * @throws RestaurantNotFoundException on empty or non-existent restaurant id
+   * @throws ItemNotFoundException on non-existent item id
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/item/{item_id}/ordered-together",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ItemListResponse> getItemsOrderedTogether(
+      @PathVariable(value = "item_id") final String itemId,
+      @RequestParam(value = "restaurant_id") final String restaurantId,
+      @RequestParam(
+              value = "limit",
+              defaultValue = "" + AppConstants.ORDERED_TOGETHER_DEFAULT_LIMIT)
+          final int limit)
+      throws RestaurantNotFoundException, ItemNotFoundException {
+
+    final RestaurantEntity restaurant = restaurantService.restaurantByUUID(restaurantId);
+    return new ResponseEntity<ItemListResponse>(
+        toItemListResponse(itemService.getItemsOrderedTogether(restaurant, itemId, limit)),
+        HttpStatus.OK);
+  }
+
+  /**
+   * This method returns the items ordered most over the last hour or day, optionally only from
+   * the restaurants of one city
+   *
+   * @param city restaurant city, all cities if omitted
+   * @param window "hour" or "day"
+   * @param limit maximum number of items
+   * @return ResponseEntity with the trending items, highest score first
+   * @throws ItemNotFoundException on a window other than hour or day
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/item/trending",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TrendingItemsResponse> getTrendingItems(
+      @RequestParam(value = "city", required = false) final String city,
+      @RequestParam(value = "window", defaultValue = "hour") final String window,
+      @RequestParam(value = "limit", defaultValue = "" + AppConstants.TRENDING_DEFAULT_LIMIT)
+          final int limit)
+      throws ItemNotFoundException {
+
+    final List<TrendingDish> trendingDishes = itemService.getTrendingItems(city, window, limit);
+
+    // Map retrieved trending items to Response Object List
+    final List<TrendingItem> itemList =
+        trendingDishes.stream()
+            .map(
+                dish ->
+                    new TrendingItem()
+                        .id(UUID.fromString(dish.getUuid()))
+                        .itemName(dish.getItemName())
+                        .price(dish.getPrice())
+                        .itemType(TrendingItem.ItemTypeEnum.fromValue(dish.getType().getValue()))
+                        .score(dish.getScore()))
+            .collect(Collectors.toList());
+
+    return new ResponseEntity<TrendingItemsResponse>(
+        new TrendingItemsResponse().items(itemList), HttpStatus.OK);
+  }
+
+  /**
+   * This method takes a dish name and returns a page of restaurants serving matching dishes
+   *
+   * @param dishName dish name, every word is matched as a prefix
+   * @param page zero based page number
+   * @param size number of restaurants per page
+   * @return ResponseEntity with restaurants and their matching dishes
+   * @throws ItemNotFoundException on empty dish name
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/item/search",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<DishSearchResponse> searchDishes(
+      @RequestParam(value = "dish_name") final String dishName,
+      @RequestParam(value = "page", defaultValue = "0") final int page,
+      @RequestParam(value = "size", defaultValue = "" + AppConstants.DISH_SEARCH_DEFAULT_PAGE_SIZE)
+          final int size)
+      throws ItemNotFoundException {
+
+    // Retrieve one page of restaurants with matching dishes
+    final List<RestaurantDishes> restaurants = itemService.searchDishes(dishName, page, size);
+
+    // Map retrieved projections to Response Object List
+    final List<DishSearchRestaurant> restaurantList =
+        restaurants.stream()
+            .map(
+                restaurant ->
+                    new DishSearchRestaurant()
+                        .id(UUID.fromString(restaurant.getRestaurantUuid()))
+                        .restaurantName(restaurant.getRestaurantName())
+                        .photoURL(restaurant.getPhotoUrl())
+                        .customerRating(BigDecimal.valueOf(restaurant.getCustomerRating()))
+                        .itemList(
+                            restaurant.getItems().stream()
+                                .map(
+                                    item ->
+                                        new ItemList()
+                                            .id(UUID.fromString(item.getUuid()))
+                                            .itemName(item.getItemName())
+                                            .price(item.getPrice())
+                                            .itemType(
+                                                ItemList.ItemTypeEnum.fromValue(
+                                                    item.getType().getValue())))
+                                .collect(Collectors.toList())))
+            .collect(Collectors.toList());
+
+    final DishSearchResponse dishSearchResponse =
+        new DishSearchResponse().restaurants(restaurantList).page(page).size(size);
+    return new ResponseEntity<DishSearchResponse>(dishSearchResponse, HttpStatus.OK);
+  }
+
+  // Map Item Entities to Response Object List, keeping their order
+  private ItemListResponse toItemListResponse(final List<ItemEntity> items) {
+    final ItemListResponse itemListResponse = new ItemListResponse();
+    for (ItemEntity item : items) {
+      itemListResponse.add(
+          new ItemList()
+              .id(UUID.fromString(item.getUuid()))
+              .itemName(item.getItemName())
+              .price(item.getPrice())
+              .itemType(ItemList.ItemTypeEnum.fromValue(item.getType().getValue())));
+    }
+    return itemListResponse;
+  }
+}
@@ -0,0 +1,433 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.api.model.CustomerOrderResponse;
+import com.upgrad.FoodOrderingApp.api.model.ItemQuantity;
+import com.upgrad.FoodOrderingApp.api.model.ItemQuantityResponse;
+import com.upgrad.FoodOrderingApp.api.model.ItemQuantityResponseItem;
+import com.upgrad.FoodOrderingApp.api.model.OrderList;
+import com.upgrad.FoodOrderingApp.api.model.OrderListAddress;
+import com.upgrad.FoodOrderingApp.api.model.OrderListAddressState;
+import com.upgrad.FoodOrderingApp.api.model.OrderListCoupon;
+import com.upgrad.FoodOrderingApp.api.model.OrderListCustomer;
+import com.upgrad.FoodOrderingApp.api.model.OrderListPayment;
+import com.upgrad.FoodOrderingApp.api.model.OrderStatusResponse;
+import com.upgrad.FoodOrderingApp.api.model.SaveOrderRequest;
+import com.upgrad.FoodOrderingApp.api.model.SaveOrderResponse;
+import com.upgrad.FoodOrderingApp.api.stream.OrderStatusStream;
+import com.upgrad.FoodOrderingApp.service.businness.AddressService;
+import com.upgrad.FoodOrderingApp.service.businness.CustomerService;
+import com.upgrad.FoodOrderingApp.service.businness.OrderIdempotency;
+import com.upgrad.FoodOrderingApp.service.businness.OrderIntake;
+import com.upgrad.FoodOrderingApp.service.businness.OrderService;
+import com.upgrad.FoodOrderingApp.service.businness.PaymentService;
+import com.upgrad.FoodOrderingApp.service.businness.RestaurantService;
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.AppUtils;
+import com.upgrad.FoodOrderingApp.service.common.GenericErrorCode;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.common.UnexpectedException;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.dto.OrderLine;
+import com.upgrad.FoodOrderingApp.service.dto.OrderPage;
+import com.upgrad.FoodOrderingApp.service.dto.OrderReceipt;
+import com.upgrad.FoodOrderingApp.service.dto.OrderSummary;
+import com.upgrad.FoodOrderingApp.service.entity.CustomerEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import com.upgrad.FoodOrderingApp.service.exception.AddressNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.AuthorizationFailedException;
+import com.upgrad.FoodOrderingApp.service.exception.CouponNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidBillException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidIdempotencyKeyException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidOrderStatusException;
+import com.upgrad.FoodOrderingApp.service.exception.ItemNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.OrderNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.PaymentMethodNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.RestaurantNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+public class OrderController {
+
+  @Autowired
+  private CustomerService customerService;
+
+  @Autowired
+  private PaymentService paymentService;
+
+  @Autowired
+  private AddressService addressService;
+
+  @Autowired
+  private RestaurantService restaurantService;
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private OrderIntake orderIntake;
+
+  @Autowired
+  private OrderIdempotency orderIdempotency;
+
+  @Autowired
+  private OrderStatusStream orderStatusStream;
+
+  /**
+   * This method takes a customer's order and stores the order with all its items in one
+   * transaction. With asynchronous order intake the order is logged and acknowledged with 202
+   * instead, and stored shortly after. A request with an Idempotency-Key header that the customer
+   * has used before gets the response of that order and places nothing; concurrent requests with
+   * the same key wait for the one that places the order.
+   *
+   * @param authorization customer access-token
+   * @param idempotencyKey client chosen key of the order, the same for every retry
+   * @param saveOrderRequest order details
+   * @return ResponseEntity with Order Id
+   * @throws AuthorizationFailedException on invalid customer access-token
+   * @throws InvalidIdempotencyKeyException on an empty or too long idempotency key
+   * @throws PaymentMethodNotFoundException on invalid payment id
+   * @throws AddressNotFoundException on invalid address id
+   * @throws RestaurantNotFoundException on invalid restaurant id
+   * @throws CouponNotFoundException on invalid coupon id
+   * @throws ItemNotFoundException on invalid item id or an item of another restaurant
+   * @throws InvalidBillException on an order without items, or item prices, discount or bill not
+   *     matching the menu
+   * @throws UnexpectedException on any other errors
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.POST,
+      path = "/order",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<SaveOrderResponse> saveOrder(
+      @RequestHeader("authorization") final String authorization,
+      @RequestHeader(value = "Idempotency-Key", required = false) final String idempotencyKey,
+      @RequestBody final SaveOrderRequest saveOrderRequest)
+      throws AuthorizationFailedException, InvalidIdempotencyKeyException,
+          PaymentMethodNotFoundException, AddressNotFoundException, RestaurantNotFoundException,
+          CouponNotFoundException, ItemNotFoundException, InvalidBillException {
+
+    // Get Bearer Authorization Token
+    final String accessToken = AppUtils.getBearerAuthToken(authorization);
+
+    // Get customer details on successful authentication of accessToken
+    final CustomerEntity customerEntity = customerService.getCustomer(accessToken);
+
+    if (idempotencyKey == null) {
+      return toSaveOrderResponse(placeOrder(customerEntity, null, saveOrderRequest));
+    }
+
+    // Answer a retry with the order placed under its key, waiting if it is still being placed
+    final OrderReceipt previous = orderIdempotency.claim(customerEntity.getId(), idempotencyKey);
+    if (previous != null) {
+      return toSaveOrderResponse(previous);
+    }
+    try {
+      final OrderReceipt receipt = placeOrder(customerEntity, idempotencyKey, saveOrderRequest);
+      orderIdempotency.complete(customerEntity.getId(), idempotencyKey, receipt);
+      return toSaveOrderResponse(receipt);
+    } catch (DataIntegrityViolationException e) {
+      // Another node stored an order under the same key first; answer with that order
+      orderIdempotency.release(customerEntity.getId(), idempotencyKey);
+      final OrderReceipt stored = orderIdempotency.claim(customerEntity.getId(), idempotencyKey);
+      if (stored == null) {
+        throw e;
+      }
+      return toSaveOrderResponse(stored);
+    } finally {
+      // Let a waiting retry place the order if this request did not
+      orderIdempotency.release(customerEntity.getId(), idempotencyKey);
+    }
+  }
+
+  /**
+   * This method returns the customer's past orders, latest first, one page at a time
+   *
+   * @param authorization customer access-token
+   * @param cursor next_cursor of the previous page, absent for the first page
+   * @param size number of orders per page
+   * @return ResponseEntity with a page of orders and the cursor of the next page
+   * @throws AuthorizationFailedException on invalid customer access-token
+   * @throws OrderNotFoundException on a malformed cursor
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/order/customer",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<CustomerOrderResponse> getOrdersByCustomer(
+      @RequestHeader("authorization") final String authorization,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "size", required = false) final Integer size)
+      throws AuthorizationFailedException, OrderNotFoundException {
+
+    // Get Bearer Authorization Token
+    final String accessToken = AppUtils.getBearerAuthToken(authorization);
+
+    // Get customer details on successful authentication of accessToken
+    final CustomerEntity customerEntity = customerService.getCustomer(accessToken);
+
+    // Retrieve one page of orders after the cursor
+    final OrderPage page =
+        orderService.getOrdersByCustomers(
+            customerEntity,
+            cursor,
+            size == null ? AppConstants.ORDER_HISTORY_DEFAULT_PAGE_SIZE : size);
+
+    // Every order of the page belongs to the authenticated customer
+    final OrderListCustomer customer =
+        new OrderListCustomer()
+            .id(UUID.fromString(customerEntity.getUuid()))
+            .firstName(customerEntity.getFirstName())
+            .lastName(customerEntity.getLastName())
+            .emailAddress(customerEntity.getEmail())
+            .contactNumber(customerEntity.getContactNumber());
+    final CustomerOrderResponse customerOrderResponse =
+        new CustomerOrderResponse().nextCursor(page.getNextCursor());
+    customerOrderResponse.setOrders(new ArrayList<>(page.getOrders().size()));
+    for (OrderSummary order : page.getOrders()) {
+      customerOrderResponse.addOrdersItem(toOrderList(order).customer(customer));
+    }
+    return new ResponseEntity<CustomerOrderResponse>(customerOrderResponse, HttpStatus.OK);
+  }
+
+  /**
+   * This method returns how far one of the customer's orders has come: QUEUED while it waits in
+   * the order intake, PLACED once stored, then ACCEPTED by the restaurant, PREPARING,
+   * OUT_FOR_DELIVERY and DELIVERED, or FAILED if storing it was rejected
+   *
+   * @param authorization customer access-token
+   * @param orderId order uuid returned when the order was saved
+   * @return ResponseEntity with the order status
+   * @throws AuthorizationFailedException on invalid customer access-token
+   * @throws OrderNotFoundException if the customer has no order by this id
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/order/{order_id}/status",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<OrderStatusResponse> getOrderStatus(
+      @RequestHeader("authorization") final String authorization,
+      @PathVariable("order_id") final String orderId)
+      throws AuthorizationFailedException, OrderNotFoundException {
+
+    // Get Bearer Authorization Token
+    final String accessToken = AppUtils.getBearerAuthToken(authorization);
+
+    // Get customer details on successful authentication of accessToken
+    final CustomerEntity customerEntity = customerService.getCustomer(accessToken);
+
+    final OrderStatus status = orderIntake.getOrderStatus(customerEntity, orderId);
+
+    return new ResponseEntity<OrderStatusResponse>(
+        new OrderStatusResponse().id(orderId).status(status.name()), HttpStatus.OK);
+  }
+
+  /**
+   * This method moves an order forward in its lifecycle on behalf of the restaurant or the delivery
+   * partner, and pushes the change to the customer's order status streams
+   *
+   * @param fulfilmentToken fulfilment token of the order's restaurant
+   * @param orderId order uuid
+   * @param status new status: ACCEPTED, PREPARING, OUT_FOR_DELIVERY or DELIVERED
+   * @return ResponseEntity with the order status
+   * @throws AuthorizationFailedException on invalid fulfilment token, or one of another restaurant
+   * @throws OrderNotFoundException if there is no stored order by this id
+   * @throws InvalidOrderStatusException if the order cannot move to the status
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.PUT,
+      path = "/order/{order_id}/status",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<OrderStatusResponse> updateOrderStatus(
+      @RequestHeader(value = "fulfilment-token", required = false) final String fulfilmentToken,
+      @PathVariable("order_id") final String orderId,
+      @RequestParam(value = "status", required = false) final String status)
+      throws AuthorizationFailedException, OrderNotFoundException, InvalidOrderStatusException {
+
+    orderService.updateOrderStatus(fulfilmentToken, orderId, status);
+
+    return new ResponseEntity<OrderStatusResponse>(
+        new OrderStatusResponse().id(orderId).status(status), HttpStatus.OK);
+  }
+
+  /**
+   * This method opens a Server-Sent Events stream of the customer's order status changes. The
+   * stream starts with the current status of the customer's orders not yet delivered, then sends
+   * an order-status event for every change, so the client never has to poll.
+   *
+   * @param authorization customer access-token
+   * @return ResponseEntity with the event stream, 503 if the server holds too many streams
+   * @throws AuthorizationFailedException on invalid customer access-token
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/order/customer/stream",
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamOrderStatus(
+      @RequestHeader("authorization") final String authorization)
+      throws AuthorizationFailedException {
+
+    // Get Bearer Authorization Token
+    final String accessToken = AppUtils.getBearerAuthToken(authorization);
+
+    // Get customer details on successful authentication of accessToken
+    final CustomerEntity customerEntity = customerService.getCustomer(accessToken);
+
+    final SseEmitter emitter =
+        orderStatusStream.subscribe(
+            customerEntity.getId(), orderIntake.getOpenOrderStatuses(customerEntity));
+    if (emitter == null) {
+      return new ResponseEntity<SseEmitter>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    return new ResponseEntity<SseEmitter>(emitter, HttpStatus.OK);
+  }
+
+  // Validates, prices and places or accepts a new order
+  private OrderReceipt placeOrder(
+      final CustomerEntity customerEntity,
+      final String idempotencyKey,
+      final SaveOrderRequest saveOrderRequest)
+      throws AuthorizationFailedException, PaymentMethodNotFoundException, AddressNotFoundException,
+          RestaurantNotFoundException, CouponNotFoundException, ItemNotFoundException,
+          InvalidBillException {
+
+    // Generate Order entity for insert
+    final OrderEntity order = new OrderEntity();
+    order.setUuid(UUID.randomUUID().toString());
+    order.setCustomer(customerEntity);
+    order.setPayment(paymentService.getPaymentByUUID(toString(saveOrderRequest.getPaymentId())));
+    order.setAddress(
+        addressService.getAddressByUUID(saveOrderRequest.getAddressId(), customerEntity));
+    order.setRestaurant(
+        restaurantService.restaurantByUUID(toString(saveOrderRequest.getRestaurantId())));
+    order.setDate(LocalDateTime.now());
+
+    // Check the client's prices, discount and bill against the price book, no item is loaded
+    final List<ItemQuantity> itemQuantities =
+        saveOrderRequest.getItemQuantities() == null
+            ? Collections.emptyList()
+            : saveOrderRequest.getItemQuantities();
+    final UUID[] itemIds = new UUID[itemQuantities.size()];
+    final int[] quantities = new int[itemQuantities.size()];
+    final int[] prices = new int[itemQuantities.size()];
+    for (int i = 0; i < itemIds.length; i++) {
+      final ItemQuantity itemQuantity = itemQuantities.get(i);
+      if (itemQuantity.getItemId() == null) {
+        throw new ItemNotFoundException(
+            GenericErrorCode.INF_001.getCode(), GenericErrorCode.INF_001.getDefaultMessage());
+      }
+      itemIds[i] = itemQuantity.getItemId();
+      quantities[i] = itemQuantity.getQuantity() == null ? 0 : itemQuantity.getQuantity();
+      prices[i] = itemQuantity.getPrice() == null ? 0 : itemQuantity.getPrice();
+    }
+    final List<OrderItemEntity> orderItems =
+        orderService.priceOrder(
+            order,
+            saveOrderRequest.getCouponId(),
+            saveOrderRequest.getBill(),
+            saveOrderRequest.getDiscount(),
+            itemIds,
+            quantities,
+            prices);
+
+    // The key is stored with the order, so a key is only ever taken by an order that exists
+    if (idempotencyKey != null) {
+      orderIdempotency.attach(order, idempotencyKey, orderIntake.isAsync());
+    }
+
+    // Log the order and acknowledge it, the intake stores it in the database shortly after
+    if (orderIntake.isAsync()) {
+      orderIntake.accept(order, orderItems);
+      return new OrderReceipt(order.getUuid(), true);
+    }
+
+    // Store the order and its items in the database
+    final OrderEntity savedOrder = orderService.placeOrder(order, orderItems);
+    return new OrderReceipt(savedOrder.getUuid(), false);
+  }
+
+  private static ResponseEntity<SaveOrderResponse> toSaveOrderResponse(final OrderReceipt receipt) {
+    if (receipt.isAccepted()) {
+      return new ResponseEntity<SaveOrderResponse>(
+          new SaveOrderResponse().id(receipt.getOrderUuid()).status("ORDER QUEUED"),
+          HttpStatus.ACCEPTED);
+    }
+    SaveOrderResponse orderResponse =
+        new SaveOrderResponse().id(receipt.getOrderUuid()).status("ORDER SUCCESSFULLY PLACED");
+
+    return new ResponseEntity<SaveOrderResponse>(orderResponse, HttpStatus.CREATED);
+  }
+
+  private static OrderList toOrderList(final OrderSummary order) {
+    final OrderList orderList =
+        new OrderList()
+            .id(UUID.fromString(order.getUuid()))
+            .bill(BigDecimal.valueOf(order.getBill()))
+            .discount(order.getDiscount() == null ? null : BigDecimal.valueOf(order.getDiscount()))
+            .date(order.getDate().toString())
+            .address(
+                new OrderListAddress()
+                    .id(UUID.fromString(order.getAddressUuid()))
+                    .flatBuildingName(order.getFlatBuilNo())
+                    .locality(order.getLocality())
+                    .city(order.getCity())
+                    .pincode(order.getPincode())
+                    .state(
+                        order.getStateUuid() == null
+                            ? null
+                            : new OrderListAddressState()
+                                .id(UUID.fromString(order.getStateUuid()))
+                                .stateName(order.getStateName())));
+    if (order.getCouponUuid() != null) {
+      orderList.coupon(
+          new OrderListCoupon()
+              .id(UUID.fromString(order.getCouponUuid()))
+              .couponName(order.getCouponName())
+              .percent(order.getCouponPercent()));
+    }
+    if (order.getPaymentUuid() != null) {
+      orderList.payment(
+          new OrderListPayment()
+              .id(UUID.fromString(order.getPaymentUuid()))
+              .paymentName(order.getPaymentName()));
+    }
+    orderList.setItemQuantities(new ArrayList<>(order.getLines().size()));
+    for (OrderLine line : order.getLines()) {
+      final ItemSummary item = line.getItem();
+      orderList.addItemQuantitiesItem(
+          new ItemQuantityResponse()
+              .item(
+                  new ItemQuantityResponseItem()
+                      .id(UUID.fromString(item.getUuid()))
+                      .itemName(item.getItemName())
+                      .itemPrice(item.getPrice())
+                      .type(ItemQuantityResponseItem.TypeEnum.fromValue(item.getType().getValue())))
+              .quantity(line.getQuantity())
+              .price(line.getPrice()));
+    }
+    return orderList;
+  }
+
+  private static String toString(final UUID uuid) {
+    return uuid == null ? null : uuid.toString();
+  }
+}
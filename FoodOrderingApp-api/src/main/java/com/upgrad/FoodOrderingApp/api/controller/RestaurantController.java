@@ -0,0 +1,448 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.api.cache.CatalogResponseCache;
+import com.upgrad.FoodOrderingApp.api.json.MenuJsonWriter;
+import com.upgrad.FoodOrderingApp.api.model.*;
+import com.upgrad.FoodOrderingApp.service.businness.CustomerService;
+import com.upgrad.FoodOrderingApp.service.businness.RestaurantService;
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.AppUtils;
+import com.upgrad.FoodOrderingApp.service.dto.FacetBucket;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDistance;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDetails;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantFacets;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantPage;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantSummary;
+import com.upgrad.FoodOrderingApp.service.dto.RevenueBucket;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.AuthorizationFailedException;
+import com.upgrad.FoodOrderingApp.service.exception.CategoryNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidLocationException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidRatingException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidRevenueRangeException;
+import com.upgrad.FoodOrderingApp.service.exception.RestaurantNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RestController
+public class RestaurantController {
+
+  @Autowired
+  private RestaurantService restaurantService;
+
+  @Autowired
+  private CustomerService customerService;
+
+  @Autowired
+  private CatalogResponseCache catalogResponseCache;
+
+  @Autowired
+  private MenuJsonWriter menuJsonWriter;
+
+  @Value("${restaurant.listing.paginated:true}")
+  private boolean paginatedListing;
+
+  @Value("${restaurant.listing.page-size:20}")
+  private int listingPageSize;
+
+  /**
+   * This method returns restaurants, highest rated first, one page at a time. With
+   * restaurant.listing.paginated set to false it returns every restaurant in one response, as
+   * older clients expect. Bodies are served from the catalog response cache.
+   *
+   * @param cursor next_cursor of the previous page, absent for the first page
+   * @param size number of restaurants per page
+   * @param request request, for conditional and compressed responses
+   * @param response response the cached list of restaurants is written to
+   * @throws RestaurantNotFoundException on a malformed cursor
+   * @throws IOException when writing the response fails
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public void getAllRestaurants(
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "size", required = false) final Integer size,
+      final HttpServletRequest request,
+      final HttpServletResponse response)
+      throws RestaurantNotFoundException, IOException {
+
+    if (!paginatedListing) {
+      catalogResponseCache.write(
+          "/restaurant",
+          request,
+          response,
+          () -> toRestaurantListResponse(restaurantService.restaurantsByRating()));
+      return;
+    }
+
+    // Retrieve one page of restaurants after the cursor
+    final int pageSize = size == null ? listingPageSize : size;
+    catalogResponseCache.write(
+        "/restaurant?cursor=" + (cursor == null ? "" : cursor) + "&size=" + pageSize,
+        request,
+        response,
+        () -> {
+          final RestaurantPage page = restaurantService.restaurantsByRating(cursor, pageSize);
+          return toRestaurantListResponse(page.getRestaurants()).nextCursor(page.getNextCursor());
+        });
+  }
+
+  /**
+   * This method takes (part of) a restaurant name and returns the matching restaurants, tolerating
+   * small typos in the name
+   *
+   * @param restaurantName restaurant name as path variable
+   * @return ResponseEntity with list of matching restaurants
+   * @throws RestaurantNotFoundException on empty restaurant name
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/name/{restaurant_name}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantListResponse> getRestaurantsByName(
+      @PathVariable(value = "restaurant_name") final String restaurantName)
+      throws RestaurantNotFoundException {
+
+    // Retrieve ranked restaurants matching the name
+    final List<RestaurantSummary> restaurants = restaurantService.restaurantsByName(restaurantName);
+
+    return new ResponseEntity<RestaurantListResponse>(
+        toRestaurantListResponse(restaurants), HttpStatus.OK);
+  }
+
+  /**
+   * This method takes price, rating and veg-only filters and returns a page of the matching
+   * restaurants with facet counts
+   *
+   * @param minPrice lowest average price for two
+   * @param maxPrice highest average price for two
+   * @param minRating lowest customer rating
+   * @param vegOnly true to keep only restaurants whose items are all vegetarian
+   * @param page zero based page number
+   * @param size page size
+   * @return ResponseEntity with matching restaurants, highest rated first, and facet counts
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/filter",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantFacetResponse> filterRestaurants(
+      @RequestParam(value = "min_price", defaultValue = "0") final int minPrice,
+      @RequestParam(value = "max_price", defaultValue = "" + Integer.MAX_VALUE) final int maxPrice,
+      @RequestParam(value = "min_rating", defaultValue = "0") final double minRating,
+      @RequestParam(value = "veg_only", defaultValue = "false") final boolean vegOnly,
+      @RequestParam(value = "page", defaultValue = "0") final int page,
+      @RequestParam(value = "size", required = false) final Integer size) {
+
+    // Scan the facet columns, then load the page of restaurants in one query
+    final RestaurantFacets facets =
+        restaurantService.filterRestaurants(
+            minPrice, maxPrice, minRating, vegOnly, page, size == null ? listingPageSize : size);
+
+    final RestaurantFacetResponse restaurantFacetResponse =
+        new RestaurantFacetResponse()
+            .restaurants(
+                facets.getRestaurants().stream()
+                    .map(this::toRestaurantList)
+                    .collect(Collectors.toList()))
+            .total(facets.getTotal())
+            .priceFacets(toFacetCounts(facets.getPriceFacets()))
+            .ratingFacets(toFacetCounts(facets.getRatingFacets()))
+            .vegOnlyCount(facets.getVegOnlyCount());
+    return new ResponseEntity<RestaurantFacetResponse>(restaurantFacetResponse, HttpStatus.OK);
+  }
+
+  /**
+   * This method takes a location and returns the restaurants nearest to it within a radius
+   *
+   * @param latitude latitude in degrees
+   * @param longitude longitude in degrees
+   * @param radiusKm search radius in km
+   * @param limit maximum number of restaurants
+   * @return ResponseEntity with restaurants and their distances, nearest first
+   * @throws InvalidLocationException on coordinates out of range or non-positive radius
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/nearby",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<NearbyRestaurantListResponse> getNearbyRestaurants(
+      @RequestParam(value = "latitude") final double latitude,
+      @RequestParam(value = "longitude") final double longitude,
+      @RequestParam(value = "radius_km", defaultValue = "" + AppConstants.NEARBY_DEFAULT_RADIUS_KM)
+          final double radiusKm,
+      @RequestParam(value = "limit", defaultValue = "" + AppConstants.NEARBY_DEFAULT_LIMIT)
+          final int limit)
+      throws InvalidLocationException {
+
+    // Retrieve the nearest restaurants from the location index
+    final List<RestaurantDistance> restaurants =
+        restaurantService.restaurantsNearby(latitude, longitude, radiusKm, limit);
+
+    final List<NearbyRestaurant> nearbyRestaurants = new ArrayList<>();
+    for (RestaurantDistance restaurant : restaurants) {
+      nearbyRestaurants.add(
+          new NearbyRestaurant()
+              .distanceKm(BigDecimal.valueOf(restaurant.getDistanceKm()))
+              .restaurant(toRestaurantList(restaurant.getRestaurant())));
+    }
+
+    final NearbyRestaurantListResponse nearbyRestaurantListResponse =
+        new NearbyRestaurantListResponse().restaurants(nearbyRestaurants);
+    return new ResponseEntity<NearbyRestaurantListResponse>(
+        nearbyRestaurantListResponse, HttpStatus.OK);
+  }
+
+  /**
+   * This method takes a restaurant id and a range and returns the restaurant's order count and
+   * revenue per hour or day, read from the revenue rollups
+   *
+   * @param partnerToken partner token of the restaurant in header
+   * @param restaurantId restaurant id as path variable
+   * @param granularity "hour" (default) or "day"
+   * @param from ISO date-time in the first bucket
+   * @param to ISO date-time ending the range
+   * @return ResponseEntity with one bucket per hour or day of the range, oldest first
+   * @throws AuthorizationFailedException on invalid partner token, or one of another restaurant
+   * @throws RestaurantNotFoundException on empty or invalid restaurant id
+   * @throws InvalidRevenueRangeException on invalid granularity or range
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/{restaurant_id}/revenue",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantRevenueResponse> getRestaurantRevenue(
+      @RequestHeader(value = "partner-token", required = false) final String partnerToken,
+      @PathVariable(value = "restaurant_id") final String restaurantId,
+      @RequestParam(value = "granularity", defaultValue = "hour") final String granularity,
+      @RequestParam(value = "from", required = false) final String from,
+      @RequestParam(value = "to", required = false) final String to)
+      throws AuthorizationFailedException, RestaurantNotFoundException,
+          InvalidRevenueRangeException {
+
+    // Read the buckets of the range from the rollups
+    final List<RevenueBucket> buckets =
+        restaurantService.getRestaurantRevenue(partnerToken, restaurantId, granularity, from, to);
+
+    final List<RevenueBucketList> revenueBuckets = new ArrayList<>(buckets.size());
+    for (RevenueBucket bucket : buckets) {
+      revenueBuckets.add(
+          new RevenueBucketList()
+              .bucket(bucket.getBucket().toString())
+              .orderCount(bucket.getOrderCount())
+              .revenue(bucket.getRevenue())
+              .averageBill(bucket.getAverageBill()));
+    }
+
+    final RestaurantRevenueResponse restaurantRevenueResponse =
+        new RestaurantRevenueResponse()
+            .restaurantId(UUID.fromString(restaurantId))
+            .granularity(granularity.toLowerCase(Locale.ROOT))
+            .buckets(revenueBuckets);
+    return new ResponseEntity<RestaurantRevenueResponse>(restaurantRevenueResponse, HttpStatus.OK);
+  }
+
+  /**
+   * This method takes a restaurant id and returns the restaurant details with its menu grouped by
+   * category. The menu is serialized straight from the off-heap menu store.
+   *
+   * <p>Measured end to end over HTTP against PostgreSQL 14 on localhost, with client, application
+   * and database sharing one CPU. A restaurant with 20 categories and 300 items (a 36 KB body) had
+   * p50 0.8 ms and p99 5.6 ms with one client, and p50 7.7 ms and p99 27.7 ms at about 1150
+   * requests/s with ten. A seed restaurant with a small menu had p99 4.1 ms and 25.8 ms.
+   *
+   * @param restaurantId restaurant id as path variable
+   * @param response response the restaurant details are written to
+   * @throws RestaurantNotFoundException on empty or invalid restaurant id
+   * @throws IOException when writing the response fails
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/{restaurant_id}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public void getRestaurantByRestaurantId(
+      @PathVariable(value = "restaurant_id") final String restaurantId,
+      final HttpServletResponse response)
+      throws RestaurantNotFoundException, IOException {
+
+    // Retrieve restaurant and address in one query, then stream the menu from the menu store
+    final RestaurantDetails restaurant = restaurantService.restaurantDetailsByUUID(restaurantId);
+    menuJsonWriter.writeRestaurantDetails(
+        restaurant, restaurantService.restaurantMenu(restaurant.getUuid()), response);
+  }
+
+  /**
+   * This method takes a category id and returns the restaurants serving that category
+   *
+   * @param categoryId category id as path variable
+   * @return ResponseEntity with list of restaurants ordered by customer rating
+   * @throws CategoryNotFoundException on empty or invalid category id
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/category/{category_id}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantListResponse> getRestaurantByCategoryId(
+      @PathVariable(value = "category_id") final String categoryId)
+      throws CategoryNotFoundException {
+
+    // Retrieve restaurants serving the category
+    final List<RestaurantSummary> restaurants = restaurantService.restaurantByCategory(categoryId);
+
+    return new ResponseEntity<RestaurantListResponse>(
+        toRestaurantListResponse(restaurants), HttpStatus.OK);
+  }
+
+  /**
+   * This method takes several category ids and returns the restaurants serving all of them, or any
+   * of them when match is "any"
+   *
+   * @param categoryIds comma separated category ids as request parameter
+   * @param match "all" (default) or "any"
+   * @return ResponseEntity with list of restaurants ordered by customer rating
+   * @throws CategoryNotFoundException on empty or invalid category id
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/restaurant/category",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantListResponse> getRestaurantsByCategoryIds(
+      @RequestParam(value = "category_ids", required = false) final List<String> categoryIds,
+      @RequestParam(value = "match", defaultValue = "all") final String match)
+      throws CategoryNotFoundException {
+
+    // Retrieve restaurants serving all or any of the categories
+    final List<RestaurantSummary> restaurants =
+        restaurantService.restaurantsByCategories(categoryIds, !"any".equalsIgnoreCase(match));
+
+    return new ResponseEntity<RestaurantListResponse>(
+        toRestaurantListResponse(restaurants), HttpStatus.OK);
+  }
+
+  /**
+   * This method takes a customer rating for a restaurant and records it. Ratings are folded into
+   * the restaurant's average rating in the background.
+   *
+   * @param authorization Customer access token in header
+   * @param restaurantId Restaurant id to be rated
+   * @param customerRating Rating between 1 and 5
+   * @return ResponseEntity with id of the rated restaurant
+   * @throws AuthorizationFailedException on invalid customer access-token
+   * @throws RestaurantNotFoundException on invalid restaurant id
+   * @throws InvalidRatingException on rating outside 1 to 5
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.PUT,
+      path = "/restaurant/{restaurant_id}",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<RestaurantUpdatedResponse> updateRestaurantRating(
+      @RequestHeader("authorization") final String authorization,
+      @PathVariable(value = "restaurant_id") final String restaurantId,
+      @RequestParam(value = "customer_rating", required = false) final Double customerRating)
+      throws AuthorizationFailedException, RestaurantNotFoundException, InvalidRatingException {
+
+    // Get Bearer Authorization Token
+    final String accessToken = AppUtils.getBearerAuthToken(authorization);
+
+    // Validate customer session
+    customerService.getCustomer(accessToken);
+
+    // Record the rating against the restaurant
+    final RestaurantEntity restaurant = restaurantService.restaurantByUUID(restaurantId);
+    restaurantService.updateRestaurantRating(restaurant, customerRating);
+
+    final RestaurantUpdatedResponse restaurantUpdatedResponse =
+        new RestaurantUpdatedResponse()
+            .id(UUID.fromString(restaurantId))
+            .status("RESTAURANT RATING UPDATED SUCCESSFULLY");
+    return new ResponseEntity<RestaurantUpdatedResponse>(restaurantUpdatedResponse, HttpStatus.OK);
+  }
+
+  /**
+   * Method maps a list of RestaurantSummary to the RestaurantListResponse object
+   *
+   * @param restaurants RestaurantSummary List
+   * @return RestaurantListResponse
+   */
+  private RestaurantListResponse toRestaurantListResponse(
+      final List<RestaurantSummary> restaurants) {
+    final List<RestaurantList> restaurantsList = new ArrayList<>();
+    restaurants.forEach(restaurant -> restaurantsList.add(toRestaurantList(restaurant)));
+    return new RestaurantListResponse().restaurants(restaurantsList);
+  }
+
+  /**
+   * Method maps facet buckets to the response FacetCount list
+   *
+   * @param buckets FacetBucket List
+   * @return FacetCount List
+   */
+  private List<FacetCount> toFacetCounts(final List<FacetBucket> buckets) {
+    final List<FacetCount> facetCounts = new ArrayList<>(buckets.size());
+    for (FacetBucket bucket : buckets) {
+      facetCounts.add(new FacetCount().label(bucket.getLabel()).count(bucket.getCount()));
+    }
+    return facetCounts;
+  }
+
+  /**
+   * Method maps a RestaurantSummary and its category names to the RestaurantList response object
+   *
+   * @param restaurant RestaurantSummary
+   * @return RestaurantList
+   */
+  private RestaurantList toRestaurantList(final RestaurantSummary restaurant) {
+    // The address may have no state
+    final RestaurantDetailsResponseAddressState state =
+        restaurant.getStateUuid() == null
+            ? null
+            : new RestaurantDetailsResponseAddressState()
+                .id(UUID.fromString(restaurant.getStateUuid()))
+                .stateName(restaurant.getStateName());
+    final RestaurantDetailsResponseAddress restaurantAddress =
+        new RestaurantDetailsResponseAddress()
+            .id(UUID.fromString(restaurant.getAddressUuid()))
+            .flatBuildingName(restaurant.getFlatBuilNo())
+            .locality(restaurant.getLocality())
+            .city(restaurant.getCity())
+            .pincode(restaurant.getPincode())
+            .state(state);
+
+    final String categories = String.join(", ", restaurant.getCategoryNames());
+
+    return new RestaurantList()
+        .id(UUID.fromString(restaurant.getUuid()))
+        .restaurantName(restaurant.getRestaurantName())
+        .photoURL(restaurant.getPhotoUrl())
+        .customerRating(BigDecimal.valueOf(restaurant.getCustomerRating()))
+        .averagePrice(restaurant.getAveragePriceForTwo())
+        .numberCustomersRated(restaurant.getNumberOfCustomersRated())
+        .address(restaurantAddress)
+        .categories(categories);
+  }
+}
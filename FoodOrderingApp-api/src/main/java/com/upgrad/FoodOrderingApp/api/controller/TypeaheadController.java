@@ -0,0 +1,55 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.api.model.TypeaheadResponse;
+import com.upgrad.FoodOrderingApp.api.model.TypeaheadSuggestion;
+import com.upgrad.FoodOrderingApp.service.businness.TypeaheadService;
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dto.Suggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+public class TypeaheadController {
+
+  @Autowired
+  private TypeaheadService typeaheadService;
+
+  /**
+   * This method takes the text typed so far and returns matching restaurant, category and dish
+   * names, most ordered first
+   *
+   * @param query text typed so far
+   * @param limit maximum number of suggestions
+   * @return ResponseEntity with suggestions
+   */
+  @CrossOrigin
+  @RequestMapping(
+      method = RequestMethod.GET,
+      path = "/typeahead",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<TypeaheadResponse> getSuggestions(
+      @RequestParam(value = "query") final String query,
+      @RequestParam(value = "limit", defaultValue = "" + AppConstants.TYPEAHEAD_DEFAULT_LIMIT)
+          final int limit) {
+
+    // Look up precomputed completions in the typeahead index
+    final List<TypeaheadSuggestion> suggestions = new ArrayList<>();
+    for (Suggestion suggestion : typeaheadService.suggest(query, limit)) {
+      suggestions.add(
+          new TypeaheadSuggestion()
+              .type(TypeaheadSuggestion.TypeEnum.fromValue(suggestion.getType().name()))
+              .id(suggestion.getUuid() == null ? null : UUID.fromString(suggestion.getUuid()))
+              .name(suggestion.getName()));
+    }
+
+    final TypeaheadResponse typeaheadResponse = new TypeaheadResponse().suggestions(suggestions);
+    return new ResponseEntity<TypeaheadResponse>(typeaheadResponse, HttpStatus.OK);
+  }
+}
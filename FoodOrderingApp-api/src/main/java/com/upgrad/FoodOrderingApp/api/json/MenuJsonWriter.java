@@ -0,0 +1,146 @@
+package com.upgrad.FoodOrderingApp.api.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.FoodOrderingApp.service.businness.MenuStore;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes menu responses straight from the off-heap MenuStore with a streaming JSON generator.
+ *
+ * <p>Building the generated response models would take an object per category and item and a
+ * String per name. Here every name is copied from the menu segment into one scratch buffer and
+ * written as UTF-8 bytes, so a response leaves behind little more than the generator and that
+ * buffer. Field names and shapes are those of RestaurantDetailsResponse, CategoryList and ItemList.
+ */
+@Component
+public class MenuJsonWriter {
+
+  @Autowired private ObjectMapper objectMapper;
+
+  /**
+   * Method writes a restaurant with its address and menu as a RestaurantDetailsResponse
+   *
+   * @param restaurant restaurant with address and state
+   * @param menu the restaurant's menu
+   * @param response response the JSON body is written to
+   * @throws IOException when writing the response fails
+   */
+  public void writeRestaurantDetails(
+      final RestaurantDetails restaurant,
+      final MenuStore.Menu menu,
+      final HttpServletResponse response)
+      throws IOException {
+    final byte[] scratch = new byte[menu.maxUtf8Length()];
+    try (JsonGenerator json = createGenerator(response)) {
+      json.writeStartObject();
+      json.writeStringField("id", restaurant.getUuid());
+      json.writeStringField("restaurant_name", restaurant.getRestaurantName());
+      json.writeStringField("photo_URL", restaurant.getPhotoUrl());
+      json.writeNumberField("customer_rating", restaurant.getCustomerRating());
+      writeIntegerField(json, "average_price", restaurant.getAveragePriceForTwo());
+      writeIntegerField(json, "number_customers_rated", restaurant.getNumberOfCustomersRated());
+
+      json.writeObjectFieldStart("address");
+      json.writeStringField("id", restaurant.getAddressUuid());
+      json.writeStringField("flat_building_name", restaurant.getFlatBuilNo());
+      json.writeStringField("locality", restaurant.getLocality());
+      json.writeStringField("city", restaurant.getCity());
+      json.writeStringField("pincode", restaurant.getPincode());
+      json.writeObjectFieldStart("state");
+      json.writeStringField("id", restaurant.getStateUuid());
+      json.writeStringField("state_name", restaurant.getStateName());
+      json.writeEndObject();
+      json.writeEndObject();
+
+      json.writeArrayFieldStart("categories");
+      for (int category = 0; category < menu.categoryCount(); category++) {
+        json.writeStartObject();
+        writeUtf8Field(json, "id", menu, menu.categoryUuid(category), scratch);
+        writeUtf8Field(json, "category_name", menu, menu.categoryName(category), scratch);
+        json.writeArrayFieldStart("item_list");
+        for (int item = 0; item < menu.itemCount(category); item++) {
+          writeItem(json, menu, category, item, scratch);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+  }
+
+  /**
+   * Method writes one item of a menu as an ItemList object
+   *
+   * @param json generator positioned where a value may be written
+   * @param menu menu holding the item
+   * @param category position of the category in the menu
+   * @param item position of the item in the category
+   * @param scratch buffer of at least menu.maxUtf8Length() bytes
+   * @throws IOException when writing fails
+   */
+  public void writeItem(
+      final JsonGenerator json,
+      final MenuStore.Menu menu,
+      final int category,
+      final int item,
+      final byte[] scratch)
+      throws IOException {
+    json.writeStartObject();
+    writeUtf8Field(json, "id", menu, menu.itemUuid(category, item), scratch);
+    writeUtf8Field(json, "item_name", menu, menu.itemName(category, item), scratch);
+    json.writeNumberField("price", menu.itemPrice(category, item));
+    json.writeStringField("item_type", menu.itemType(category, item).getValue());
+    json.writeEndObject();
+  }
+
+  /**
+   * Method starts a 200 JSON response and returns a generator over its body
+   *
+   * @param response response the JSON body is written to
+   * @return JsonGenerator writing UTF-8 to the response
+   * @throws IOException when the response cannot be written
+   */
+  public JsonGenerator createGenerator(final HttpServletResponse response) throws IOException {
+    response.setStatus(HttpStatus.OK.value());
+    response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+    return objectMapper
+        .getFactory()
+        .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+  }
+
+  private static void writeUtf8Field(
+      final JsonGenerator json,
+      final String name,
+      final MenuStore.Menu menu,
+      final long ref,
+      final byte[] scratch)
+      throws IOException {
+    json.writeFieldName(name);
+    final int length = menu.copyUtf8(ref, scratch);
+    if (length < 0) {
+      json.writeNull();
+    } else {
+      json.writeUTF8String(scratch, 0, length);
+    }
+  }
+
+  private static void writeIntegerField(
+      final JsonGenerator json, final String name, final Integer value) throws IOException {
+    json.writeFieldName(name);
+    if (value == null) {
+      json.writeNull();
+    } else {
+      json.writeNumber(value);
+    }
+  }
+}
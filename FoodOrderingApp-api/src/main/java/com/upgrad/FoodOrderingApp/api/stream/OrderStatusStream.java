@@ -0,0 +1,280 @@
+package com.upgrad.FoodOrderingApp.api.stream;
+
+import com.upgrad.FoodOrderingApp.api.model.OrderStatusResponse;
+import com.upgrad.FoodOrderingApp.service.businness.OrderStatusListener;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.dto.OrderStatusUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events streams of order status changes, one or more per customer.
+ *
+ * <p>Every open stream is a subscriber in a map from customer id to an array of subscribers that
+ * is replaced, never changed, so a status change finds its customer's streams with one map read
+ * and no lock. Publishing only queues the event on each subscriber and schedules the subscriber
+ * on a small pool of sender threads, so the thread that changed the order never waits for a
+ * client's socket. A subscriber's events are sent by one sender at a time, in order. A client
+ * that falls more than max-pending events behind, or whose connection fails, is dropped; it gets
+ * the current status of its open orders again when it reconnects. Heartbeat comments keep idle
+ * connections from being closed by proxies; they run on the order scheduler, so the background
+ * jobs never hold them back. Connections are bounded in total and per customer; a customer's
+ * oldest stream is closed to make room for a new one.
+ */
+@Component
+public class OrderStatusStream implements OrderStatusListener {
+
+  private static final String EVENT_NAME = "order-status";
+
+  private static final Subscriber[] NONE = new Subscriber[0];
+
+  // Queued in place of an event to send a heartbeat comment
+  private static final Object HEARTBEAT = new Object();
+
+  @Value("${order-status-stream.max-connections:10000}")
+  private int maxConnections;
+
+  @Value("${order-status-stream.max-connections-per-customer:5}")
+  private int maxConnectionsPerCustomer;
+
+  @Value("${order-status-stream.max-pending:64}")
+  private int maxPending;
+
+  @Value("${order-status-stream.timeout-ms:1800000}")
+  private long timeoutMillis;
+
+  @Value("${order-status-stream.sender-threads:4}")
+  private int senderThreads;
+
+  @Value("${order-status-stream.heartbeat-interval-ms:15000}")
+  private long heartbeatIntervalMillis;
+
+  @Autowired
+  @Qualifier("orderScheduler")
+  private TaskScheduler orderScheduler;
+
+  private final Map<Integer, Subscriber[]> subscribers = new ConcurrentHashMap<>();
+
+  private final AtomicInteger connections = new AtomicInteger();
+
+  private ExecutorService senders;
+
+  private ScheduledFuture<?> heartbeats;
+
+  @PostConstruct
+  public void start() {
+    final AtomicInteger threads = new AtomicInteger();
+    senders =
+        Executors.newFixedThreadPool(
+            senderThreads,
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "order-status-sender-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    heartbeats = orderScheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis);
+  }
+
+  @PreDestroy
+  public void stop() {
+    heartbeats.cancel(false);
+    senders.shutdownNow();
+    for (Subscriber[] customerSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : customerSubscribers) {
+        subscriber.emitter.complete();
+      }
+    }
+  }
+
+  /**
+   * Method opens a stream of a customer's order status changes, starting with the current status
+   * of the customer's open orders
+   *
+   * @param customerId customer id
+   * @param openOrders OrderStatusUpdate List of the customer's orders not yet delivered
+   * @return SseEmitter of the stream, null if the connection limit has been reached
+   */
+  public SseEmitter subscribe(final int customerId, final List<OrderStatusUpdate> openOrders) {
+    if (connections.incrementAndGet() > maxConnections) {
+      connections.decrementAndGet();
+      return null;
+    }
+    final Subscriber subscriber = new Subscriber(customerId, new SseEmitter(timeoutMillis));
+    subscriber.emitter.onCompletion(() -> remove(subscriber));
+    subscriber.emitter.onTimeout(() -> remove(subscriber));
+    subscriber.emitter.onError(error -> remove(subscriber));
+    for (OrderStatusUpdate order : openOrders) {
+      subscriber.offer(toEvent(order.getOrderUuid(), order.getStatus()));
+    }
+
+    final Subscriber[] evicted = new Subscriber[1];
+    subscribers.compute(
+        customerId,
+        (id, current) -> {
+          final Subscriber[] existing = current == null ? NONE : current;
+          // Make room by dropping the customer's oldest stream, usually a tab left open
+          final int kept = Math.min(existing.length, maxConnectionsPerCustomer - 1);
+          if (kept < existing.length) {
+            evicted[0] = existing[0];
+          }
+          final Subscriber[] updated =
+              Arrays.copyOfRange(existing, existing.length - kept, existing.length + 1);
+          updated[kept] = subscriber;
+          return updated;
+        });
+    if (evicted[0] != null) {
+      evicted[0].emitter.complete();
+    }
+    schedule(subscriber);
+    return subscriber.emitter;
+  }
+
+  /** Queues the change on every stream of the order's customer */
+  @Override
+  public void orderStatusChanged(
+      final int customerId, final String orderUuid, final OrderStatus status) {
+    final Subscriber[] customerSubscribers = subscribers.get(customerId);
+    if (customerSubscribers == null) {
+      return;
+    }
+    final OrderStatusResponse event = toEvent(orderUuid, status);
+    for (Subscriber subscriber : customerSubscribers) {
+      if (subscriber.offer(event)) {
+        schedule(subscriber);
+      } else {
+        subscriber.emitter.complete();
+      }
+    }
+  }
+
+  /** Sends a heartbeat comment on every open stream */
+  public void heartbeat() {
+    for (Subscriber[] customerSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : customerSubscribers) {
+        if (subscriber.offer(HEARTBEAT)) {
+          schedule(subscriber);
+        }
+      }
+    }
+  }
+
+  /** @return number of open streams */
+  public int getConnectionCount() {
+    return connections.get();
+  }
+
+  private void schedule(final Subscriber subscriber) {
+    if (subscriber.scheduled.compareAndSet(false, true)) {
+      senders.execute(() -> send(subscriber));
+    }
+  }
+
+  // Runs on a sender thread; only one runs per subscriber at a time
+  private void send(final Subscriber subscriber) {
+    do {
+      Object event;
+      while ((event = subscriber.poll()) != null) {
+        try {
+          if (event == HEARTBEAT) {
+            subscriber.emitter.send(SseEmitter.event().comment(EVENT_NAME));
+          } else {
+            subscriber.emitter.send(
+                SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+          }
+        } catch (IOException | IllegalStateException e) {
+          // Connection gone or already completed
+          subscriber.emitter.completeWithError(e);
+          remove(subscriber);
+          return;
+        }
+      }
+      subscriber.scheduled.set(false);
+      // An event queued after the last poll but before the flag was cleared is sent here
+    } while (!subscriber.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+  }
+
+  private void remove(final Subscriber subscriber) {
+    if (!subscriber.removed.compareAndSet(false, true)) {
+      return;
+    }
+    connections.decrementAndGet();
+    subscribers.computeIfPresent(
+        subscriber.customerId,
+        (id, current) -> {
+          for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscriber) {
+              if (current.length == 1) {
+                return null;
+              }
+              final Subscriber[] updated = new Subscriber[current.length - 1];
+              System.arraycopy(current, 0, updated, 0, i);
+              System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+              return updated;
+            }
+          }
+          return current;
+        });
+  }
+
+  private static OrderStatusResponse toEvent(final String orderUuid, final OrderStatus status) {
+    return new OrderStatusResponse().id(orderUuid).status(status.name());
+  }
+
+  /** One open stream and the events waiting to be sent on it */
+  private final class Subscriber {
+    private final int customerId;
+    private final SseEmitter emitter;
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean removed = new AtomicBoolean();
+
+    private Subscriber(final int customerId, final SseEmitter emitter) {
+      this.customerId = customerId;
+      this.emitter = emitter;
+    }
+
+    // False if the client is too far behind to take the event
+    private boolean offer(final Object event) {
+      if (pendingCount.incrementAndGet() > maxPending) {
+        pendingCount.decrementAndGet();
+        return false;
+      }
+      pending.add(event);
+      return true;
+    }
+
+    private Object poll() {
+      final Object event = pending.poll();
+      if (event != null) {
+        pendingCount.decrementAndGet();
+      }
+      return event;
+    }
+
+    private boolean isEmpty() {
+      return pending.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import com.upgrad.FoodOrderingApp.service.businness.CatalogVersion;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// This class checks the SQL statements and the heap allocated by GET /category and
+// GET /category/{category_id} against the database loaded by the FoodOrderingApp-db setup profile
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {StatementCounter.PROPERTY, "order-intake.log-dir=target/order-log"})
+@AutoConfigureMockMvc
+public class CategoryControllerCostTest {
+
+    // Italian, from the sample data
+    private static final String CATEGORY_ID = "2ddf5546-ecd0-11e8-8eb2-f2801f1b9fd1";
+
+    // A cached body is only copied to the response: about 3KB for the list and 10KB for Italian
+    // were measured on JDK 8, where a rebuild also runs the query and serializes the model
+    private static final long CACHED_RESPONSE_ALLOCATION_BUDGET = 16 * 1024;
+
+    private static final int WARM_UP_REQUESTS = 2000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryController categoryController;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    //This test case passes when the category list is built with one statement and then served from
+    //the response cache without any.
+    @Test
+    public void shouldListCategoriesWithOneStatementAndThenNone() throws Exception {
+        catalogVersion.bump();
+        StatementCounter.reset();
+        mockMvc
+                .perform(get("/category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("categories.length()").value(greaterThan(1)));
+        assertEquals(1, StatementCounter.count());
+
+        StatementCounter.reset();
+        mockMvc.perform(get("/category")).andExpect(status().isOk());
+        assertEquals(0, StatementCounter.count());
+    }
+
+    //This test case passes when a category with its items is built with one statement and then
+    //served from the response cache without any.
+    @Test
+    public void shouldGetCategoryWithOneStatementAndThenNone() throws Exception {
+        catalogVersion.bump();
+        StatementCounter.reset();
+        mockMvc
+                .perform(get("/category/" + CATEGORY_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("category_name").value("Italian"))
+                .andExpect(jsonPath("item_list.length()").value(greaterThan(1)));
+        assertEquals(1, StatementCounter.count());
+
+        StatementCounter.reset();
+        mockMvc.perform(get("/category/" + CATEGORY_ID)).andExpect(status().isOk());
+        assertEquals(0, StatementCounter.count());
+    }
+
+    //This test case passes when an unknown category is answered with 404 after one statement.
+    @Test
+    public void shouldLookUpUnknownCategoryWithOneStatement() throws Exception {
+        StatementCounter.reset();
+        mockMvc
+                .perform(get("/category/00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("code").value("CNF-002"));
+        assertEquals(1, StatementCounter.count());
+    }
+
+    //This test case passes when serving the cached category bodies stays within the allocation
+    //budget. The controller is called directly so that MockMvc's own allocation is not counted.
+    @Test
+    public void shouldServeCachedCategoriesWithinAllocationBudget() throws Exception {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocation =
+                (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocation.isThreadAllocatedMemorySupported());
+        allocation.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            categoryController.getAllCategories(
+                    new MockHttpServletRequest(), new MockHttpServletResponse());
+            categoryController.getCategoryById(
+                    CATEGORY_ID, new MockHttpServletRequest(), new MockHttpServletResponse());
+        }
+
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse listResponse = new MockHttpServletResponse();
+        final MockHttpServletResponse categoryResponse = new MockHttpServletResponse();
+        StatementCounter.reset();
+        final long start = allocation.getThreadAllocatedBytes(threadId);
+        categoryController.getAllCategories(request, listResponse);
+        final long listed = allocation.getThreadAllocatedBytes(threadId);
+        categoryController.getCategoryById(CATEGORY_ID, request, categoryResponse);
+        final long end = allocation.getThreadAllocatedBytes(threadId);
+
+        assertEquals(200, listResponse.getStatus());
+        assertEquals(200, categoryResponse.getStatus());
+        assertEquals(0, StatementCounter.count());
+        assertTrue(
+                "GET /category allocated " + (listed - start) + " bytes",
+                listed - start <= CACHED_RESPONSE_ALLOCATION_BUDGET);
+        assertTrue(
+                "GET /category/{category_id} allocated " + (end - listed) + " bytes",
+                end - listed <= CACHED_RESPONSE_ALLOCATION_BUDGET);
+    }
+}
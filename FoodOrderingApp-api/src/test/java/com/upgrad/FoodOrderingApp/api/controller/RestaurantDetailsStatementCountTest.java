@@ -0,0 +1,55 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// This class counts the SQL statements of GET /restaurant/{restaurant_id} against the database
+// loaded by the FoodOrderingApp-db setup profile
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {StatementCounter.PROPERTY, "order-intake.log-dir=target/order-log"})
+@AutoConfigureMockMvc
+public class RestaurantDetailsStatementCountTest {
+
+    // 3 Wise Monkeys, from the sample data
+    private static final String RESTAURANT_ID = "1dd86f90-a296-11e8-9a3a-720006ceb890";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    //This test case passes when the restaurant details with the whole menu take a single statement,
+    //however many categories and items the restaurant has.
+    @Test
+    public void shouldLoadRestaurantDetailsWithOneStatement() throws Exception {
+        StatementCounter.reset();
+        mockMvc
+                .perform(get("/restaurant/" + RESTAURANT_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(RESTAURANT_ID))
+                .andExpect(jsonPath("address.state.state_name").exists())
+                .andExpect(jsonPath("categories.length()").value(greaterThan(1)))
+                .andExpect(jsonPath("categories[0].item_list.length()").value(greaterThan(0)));
+        assertEquals(1, StatementCounter.count());
+    }
+
+    //This test case passes when an unknown restaurant is answered with 404 after a single statement.
+    @Test
+    public void shouldLookUpUnknownRestaurantWithOneStatement() throws Exception {
+        StatementCounter.reset();
+        mockMvc
+                .perform(get("/restaurant/00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("code").value("RNF-001"));
+        assertEquals(1, StatementCounter.count());
+    }
+}
@@ -0,0 +1,29 @@
+package com.upgrad.FoodOrderingApp.api.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the calling thread. Tests register it through
+// hibernate.session_factory.statement_inspector; counting per thread keeps the statements of the
+// scheduled background jobs out of the count of the request under test.
+public class StatementCounter implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.upgrad.FoodOrderingApp.api.controller.StatementCounter";
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
@@ -0,0 +1,153 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of bill computation with the price book: pricing a cart from the book and checking
+ * the client's line prices, discount and bill the way OrderService.priceOrder does, and rebuilding
+ * the book from its database rows. The book holds MENUS menus of MENU_SIZE items each.
+ *
+ * <p>Run with java -jar FoodOrderingApp-benchmark/target/benchmarks.jar PriceBookBenchmark
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceBookBenchmark {
+
+  private static final int MENUS = 2000;
+
+  private static final int MENU_SIZE = 200;
+
+  private static final int PERCENT = 10;
+
+  private List<Object[]> itemRows;
+
+  private PriceBook.Book book;
+
+  /** Builds the rows and the book */
+  @Setup(Level.Trial)
+  public void setUp() {
+    final Random random = new Random(42);
+    itemRows = new ArrayList<>(MENUS * MENU_SIZE);
+    for (int restaurant = 1; restaurant <= MENUS; restaurant++) {
+      for (int item = 1; item <= MENU_SIZE; item++) {
+        final int itemId = (restaurant - 1) * MENU_SIZE + item;
+        itemRows.add(
+            new Object[] {
+              restaurant,
+              itemId,
+              new UUID(random.nextLong(), random.nextLong()).toString(),
+              50 + random.nextInt(950)
+            });
+      }
+    }
+    book = PriceBook.build(itemRows, Collections.emptyList());
+  }
+
+  /** Cart of the given number of lines from one menu, with the client's correct figures */
+  @State(Scope.Benchmark)
+  public static class Cart {
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private int restaurantId;
+
+    private UUID[] itemUuids;
+
+    private int[] quantities;
+
+    private int[] prices;
+
+    private BigDecimal bill;
+
+    private BigDecimal discount;
+
+    /**
+     * Fills the cart from the book's rows
+     *
+     * @param benchmark benchmark state holding the rows
+     */
+    @Setup(Level.Trial)
+    public void setUp(final PriceBookBenchmark benchmark) {
+      final Random random = new Random(lines);
+      restaurantId = 1 + random.nextInt(MENUS);
+      final int firstRow = (restaurantId - 1) * MENU_SIZE;
+      itemUuids = new UUID[lines];
+      quantities = new int[lines];
+      prices = new int[lines];
+      long itemTotal = 0;
+      for (int i = 0; i < lines; i++) {
+        final Object[] row = benchmark.itemRows.get(firstRow + random.nextInt(MENU_SIZE));
+        itemUuids[i] = UUID.fromString((String) row[2]);
+        quantities[i] = 1 + random.nextInt(3);
+        prices[i] = (Integer) row[3] * quantities[i];
+        itemTotal += prices[i];
+      }
+      discount = BigDecimal.valueOf(itemTotal * PERCENT, 2);
+      bill = BigDecimal.valueOf(itemTotal * 100 - itemTotal * PERCENT, 2);
+    }
+  }
+
+  /**
+   * Prices the cart from the book and checks the client's figures, as priceOrder does when the
+   * book is current
+   *
+   * @param cart cart to price
+   * @return bill in paise
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public long priceCart(final Cart cart) {
+    final int[] menuItemIds = new int[cart.lines];
+    final int[] menuPrices = new int[cart.lines];
+    if (!book.priceItems(cart.restaurantId, cart.itemUuids, menuItemIds, menuPrices)
+        || !OrderService.linesMatch(cart.quantities, cart.prices, menuPrices)) {
+      throw new IllegalStateException("cart does not match the book");
+    }
+    long itemTotal = 0;
+    for (int i = 0; i < cart.prices.length; i++) {
+      itemTotal += cart.prices[i];
+    }
+    final long discountPaise = itemTotal * PERCENT;
+    final long billPaise = itemTotal * 100 - discountPaise;
+    if (!OrderService.equalsPaise(cart.bill, billPaise)
+        || !OrderService.equalsPaise(cart.discount, discountPaise)) {
+      throw new IllegalStateException("bill does not match the book");
+    }
+    return billPaise;
+  }
+
+  /**
+   * Rebuilds the whole book from its rows, as each scheduled refresh does
+   *
+   * @return Book
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public PriceBook.Book build() {
+    return PriceBook.build(itemRows, Collections.emptyList());
+  }
+}
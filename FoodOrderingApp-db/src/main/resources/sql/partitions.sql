@@ -0,0 +1,79 @@
+-- Monthly range partitions of ORDERS and ORDER_ITEM, both partitioned by order date in tables.sql.
+-- The partitions of a month are orders_pYYYY_MM and order_item_pYYYY_MM. The service creates the
+-- coming months ahead of time, and the order archiver drops months it has archived in full. Rows of
+-- a month without partitions, such as orders kept from before partitioning, are stored in
+-- orders_default and order_item_default until their month is created.
+-- Statements are separated by a line holding a single '/' because function bodies contain ';'.
+
+-- Creates the missing partitions of the months from p_from up to p_to, and of every other month
+-- that has rows in the default partitions. A month's partition cannot be created while the default
+-- partition holds rows of it, so such a month is built as a plain table, its rows are moved out of
+-- the default partitions, items first so that deleting the orders cascades to nothing, and the
+-- tables are then attached.
+CREATE OR REPLACE FUNCTION create_order_partitions(p_from DATE, p_to DATE) RETURNS INTEGER AS $$
+DECLARE
+  v_month DATE;
+  v_next DATE;
+  v_suffix TEXT;
+  v_created INTEGER := 0;
+BEGIN
+  -- Nodes creating the same months at once wait for each other instead of failing
+  PERFORM pg_advisory_xact_lock(hashtext('order_partitions'));
+  FOR v_month IN
+    SELECT generate_series(date_trunc('month', p_from), p_to - 1, INTERVAL '1 month')::DATE
+    UNION SELECT DISTINCT date_trunc('month', date)::DATE FROM orders_default
+    UNION SELECT DISTINCT date_trunc('month', order_date)::DATE FROM order_item_default
+    ORDER BY 1
+  LOOP
+    v_next := v_month + INTERVAL '1 month';
+    v_suffix := to_char(v_month, '"p"YYYY_MM');
+    IF to_regclass('order_item_' || v_suffix) IS NULL THEN
+      EXECUTE format('CREATE TABLE order_item_%s (LIKE ORDER_ITEM INCLUDING DEFAULTS)', v_suffix);
+      EXECUTE format('WITH moved AS (DELETE FROM order_item_default WHERE order_date >= %L'
+        ' AND order_date < %L RETURNING *) INSERT INTO order_item_%s SELECT * FROM moved',
+        v_month, v_next, v_suffix);
+    END IF;
+    IF to_regclass('orders_' || v_suffix) IS NULL THEN
+      EXECUTE format('CREATE TABLE orders_%s (LIKE ORDERS INCLUDING DEFAULTS)', v_suffix);
+      EXECUTE format('WITH moved AS (DELETE FROM orders_default WHERE date >= %L AND date < %L'
+        ' RETURNING *) INSERT INTO orders_%s SELECT * FROM moved', v_month, v_next, v_suffix);
+      EXECUTE format('ALTER TABLE ORDERS ATTACH PARTITION orders_%s FOR VALUES FROM (%L) TO (%L)',
+        v_suffix, v_month, v_next);
+      v_created := v_created + 1;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits
+        WHERE inhrelid = to_regclass('order_item_' || v_suffix)) THEN
+      EXECUTE format('ALTER TABLE ORDER_ITEM ATTACH PARTITION order_item_%s'
+        ' FOR VALUES FROM (%L) TO (%L)', v_suffix, v_month, v_next);
+      v_created := v_created + 1;
+    END IF;
+  END LOOP;
+  RETURN v_created;
+END;
+$$ LANGUAGE plpgsql
+/
+
+CREATE OR REPLACE FUNCTION drop_order_partition(p_month DATE) RETURNS INTEGER AS $$
+DECLARE
+  v_suffix TEXT := to_char(date_trunc('month', p_month), '"p"YYYY_MM');
+  v_dropped INTEGER := 0;
+BEGIN
+  PERFORM pg_advisory_xact_lock(hashtext('order_partitions'));
+  -- Items go first; the orders partition can only be detached once nothing references it
+  IF to_regclass('order_item_' || v_suffix) IS NOT NULL THEN
+    EXECUTE format('DROP TABLE order_item_%s', v_suffix);
+    v_dropped := v_dropped + 1;
+  END IF;
+  IF to_regclass('orders_' || v_suffix) IS NOT NULL THEN
+    EXECUTE format('ALTER TABLE ORDERS DETACH PARTITION orders_%s', v_suffix);
+    EXECUTE format('DROP TABLE orders_%s', v_suffix);
+    v_dropped := v_dropped + 1;
+  END IF;
+  RETURN v_dropped;
+END;
+$$ LANGUAGE plpgsql
+/
+
+-- The current month and the three after it; the service keeps extending them
+SELECT create_order_partitions(CURRENT_DATE, (date_trunc('month', CURRENT_DATE) + INTERVAL '4 months')::DATE)
+/
@@ -0,0 +1,77 @@
+-- Full-text dish search over item names (weight A) and category names (weight B).
+-- Statements are separated by a line holding a single '/' because function bodies contain ';'.
+
+ALTER TABLE ITEM ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+/
+
+CREATE INDEX IF NOT EXISTS item_search_vector_idx ON ITEM USING GIN (search_vector)
+/
+
+CREATE INDEX IF NOT EXISTS category_item_item_id_idx ON CATEGORY_ITEM (item_id)
+/
+
+CREATE INDEX IF NOT EXISTS restaurant_item_item_id_idx ON RESTAURANT_ITEM (item_id)
+/
+
+CREATE OR REPLACE FUNCTION item_search_vector(p_item_id INTEGER, p_item_name VARCHAR) RETURNS TSVECTOR AS $$
+  SELECT setweight(to_tsvector('simple', coalesce(p_item_name, '')), 'A')
+      || setweight(to_tsvector('simple', coalesce(string_agg(c.category_name, ' '), '')), 'B')
+  FROM CATEGORY_ITEM ci JOIN CATEGORY c ON c.id = ci.category_id
+  WHERE ci.item_id = p_item_id;
+$$ LANGUAGE sql STABLE
+/
+
+CREATE OR REPLACE FUNCTION item_search_vector_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  NEW.search_vector := item_search_vector(NEW.id, NEW.item_name);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql
+/
+
+DROP TRIGGER IF EXISTS item_search_vector_update ON ITEM
+/
+
+CREATE TRIGGER item_search_vector_update BEFORE INSERT OR UPDATE OF item_name ON ITEM
+  FOR EACH ROW EXECUTE PROCEDURE item_search_vector_trigger()
+/
+
+CREATE OR REPLACE FUNCTION category_item_search_vector_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    UPDATE ITEM SET search_vector = item_search_vector(id, item_name) WHERE id = NEW.item_id;
+  END IF;
+  IF TG_OP IN ('DELETE', 'UPDATE') THEN
+    UPDATE ITEM SET search_vector = item_search_vector(id, item_name) WHERE id = OLD.item_id;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql
+/
+
+DROP TRIGGER IF EXISTS category_item_search_vector_update ON CATEGORY_ITEM
+/
+
+CREATE TRIGGER category_item_search_vector_update AFTER INSERT OR UPDATE OR DELETE ON CATEGORY_ITEM
+  FOR EACH ROW EXECUTE PROCEDURE category_item_search_vector_trigger()
+/
+
+CREATE OR REPLACE FUNCTION category_search_vector_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE ITEM i SET search_vector = item_search_vector(i.id, i.item_name)
+  FROM CATEGORY_ITEM ci WHERE ci.item_id = i.id AND ci.category_id = NEW.id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql
+/
+
+DROP TRIGGER IF EXISTS category_search_vector_update ON CATEGORY
+/
+
+CREATE TRIGGER category_search_vector_update AFTER UPDATE OF category_name ON CATEGORY
+  FOR EACH ROW EXECUTE PROCEDURE category_search_vector_trigger()
+/
+
+-- Backfill rows inserted before the triggers existed
+UPDATE ITEM SET search_vector = item_search_vector(id, item_name)
+/
@@ -0,0 +1,35 @@
+-- Pooled id allocation: every entity sequence steps by ID_BLOCK_SIZE (AppConstants, 50) and
+-- Hibernate's pooled-lo optimizer hands out the ids [nextval, nextval + 50) without further
+-- round trips. Each node takes whole blocks from the shared sequence, so ids stay unique across
+-- nodes. Runs after insert.sql, which relies on the seed rows getting consecutive ids.
+--
+-- Measured on PostgreSQL 14 on localhost, placing orders of 3 items through OrderService, steady
+-- state after warm-up: 50 orders per transaction (an intake drain) went from about 1170 orders/s
+-- with INCREMENT BY 1 to about 1760 orders/s; one order per transaction from about 440 to about
+-- 600 orders/s, where the commit dominates. Remote databases gain more, as each nextval saved is a
+-- network round trip.
+--
+-- Signup, login and address save insert one row per request, so they save one nextval each. Over
+-- HTTP with 8 clients they ran at about 150 to 195 signups/s, 140 to 180 logins/s and 50 to 65
+-- address saves/s with either increment, the differences within run-to-run noise. Through a proxy
+-- adding 1 ms per round trip they stayed level too: 153 vs 157, 107 vs 110 and 38 vs 36 per second
+-- with blocks of 50 vs 1. Password hashing and the rest of each request dominate.
+--
+-- The block size is fixed at build time: ID_BLOCK_SIZE is the allocationSize of the entities'
+-- @SequenceGenerator annotations, so changing it means changing AppConstants and the statements
+-- below together and rebuilding. On an existing database, also move each sequence past the ids
+-- already handed out, e.g. setval to max(id) + the old block size.
+
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE customer_auth_id_seq INCREMENT BY 50;
+ALTER SEQUENCE address_id_seq INCREMENT BY 50;
+ALTER SEQUENCE state_id_seq INCREMENT BY 50;
+ALTER SEQUENCE category_id_seq INCREMENT BY 50;
+ALTER SEQUENCE item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE coupon_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payment_id_seq INCREMENT BY 50;
+ALTER SEQUENCE restaurant_id_seq INCREMENT BY 50;
+ALTER SEQUENCE restaurant_category_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_idempotency_key_id_seq INCREMENT BY 50;
@@ -15,7 +15,7 @@ DROP TABLE IF EXISTS STATE CASCADE;
 CREATE TABLE STATE(id SERIAL,uuid VARCHAR(200) UNIQUE NOT NULL, state_name VARCHAR(30),PRIMARY KEY (id));
 
 DROP TABLE IF EXISTS ADDRESS CASCADE;
-CREATE TABLE ADDRESS(id SERIAL, uuid VARCHAR(200) UNIQUE NOT NULL,flat_buil_number VARCHAR(255), locality VARCHAR(255),city VARCHAR(30),pincode VARCHAR(30), state_id INTEGER, active INTEGER DEFAULT(1), PRIMARY KEY (id),FOREIGN KEY (state_id) REFERENCES STATE(id) ON DELETE CASCADE);
+CREATE TABLE ADDRESS(id SERIAL, uuid VARCHAR(200) UNIQUE NOT NULL,flat_buil_number VARCHAR(255), locality VARCHAR(255),city VARCHAR(30),pincode VARCHAR(30), state_id INTEGER, active INTEGER DEFAULT(1), latitude DOUBLE PRECISION, longitude DOUBLE PRECISION, PRIMARY KEY (id),FOREIGN KEY (state_id) REFERENCES STATE(id) ON DELETE CASCADE);
 
 DROP TABLE IF EXISTS CUSTOMER_ADDRESS CASCADE;
 CREATE TABLE CUSTOMER_ADDRESS(id SERIAL,customer_id INTEGER NOT NULL,address_id INTEGER NOT NULL,PRIMARY KEY (id), FOREIGN KEY (customer_id) REFERENCES CUSTOMER(id) ON DELETE CASCADE,FOREIGN KEY (address_id) REFERENCES ADDRESS(id) ON DELETE CASCADE);
@@ -25,9 +25,22 @@ CREATE TABLE ITEM(id SERIAL,uuid VARCHAR(200) UNIQUE NOT NULL, item_name VARCHAR
 
 DROP TABLE IF EXISTS RESTAURANT CASCADE;
 CREATE TABLE RESTAURANT(id SERIAL,uuid VARCHAR(200) UNIQUE NOT NULL, restaurant_name VARCHAR(50) NOT NULL, photo_url VARCHAR(255), customer_rating DECIMAL NOT NULL, average_price_for_two INTEGER NOT NULL, number_of_customers_rated INTEGER NOT NULL DEFAULT 0, address_id INTEGER NOT NULL , PRIMARY KEY(id), FOREIGN KEY (address_id) REFERENCES ADDRESS(id) ON DELETE CASCADE);
+CREATE INDEX RESTAURANT_RATING_ID_IDX ON RESTAURANT(customer_rating, id);
 
 DROP TABLE IF EXISTS ORDERS CASCADE;
-CREATE TABLE ORDERS(id SERIAL,uuid VARCHAR(200) UNIQUE NOT NULL, bill DECIMAL NOT NULL, coupon_id INTEGER,discount DECIMAL DEFAULT 0, date TIMESTAMP NOT NULL , payment_id INTEGER,customer_id INTEGER NOT NULL, address_id INTEGER NOT NULL,PRIMARY KEY(id), restaurant_id INTEGER NOT NULL ,FOREIGN KEY (payment_id) REFERENCES PAYMENT(id),FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id),FOREIGN KEY (customer_id) REFERENCES CUSTOMER(id) ON DELETE CASCADE, FOREIGN KEY (address_id) REFERENCES ADDRESS(id),FOREIGN KEY (coupon_id) REFERENCES COUPON(id));
+-- ORDERS and ORDER_ITEM are partitioned by month of the order date; partitions.sql creates the
+-- monthly partitions, and rows of a month without one land in the DEFAULT partitions until
+-- create_order_partitions moves them out. Keys and unique constraints of a partitioned table
+-- include the partition key, so uuids are only unique per date: the server draws them with
+-- UUID.randomUUID(), and the one path that inserts a uuid again, the intake replay, keeps the
+-- order's date and checks the stored uuids first.
+CREATE TABLE ORDERS(id SERIAL,uuid VARCHAR(200) NOT NULL, bill DECIMAL NOT NULL, coupon_id INTEGER,discount DECIMAL DEFAULT 0, date TIMESTAMP NOT NULL , status VARCHAR(30) NOT NULL DEFAULT 'PLACED', payment_id INTEGER,customer_id INTEGER NOT NULL, address_id INTEGER NOT NULL,PRIMARY KEY(id, date), UNIQUE (uuid, date), restaurant_id INTEGER NOT NULL ,FOREIGN KEY (payment_id) REFERENCES PAYMENT(id),FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id),FOREIGN KEY (customer_id) REFERENCES CUSTOMER(id) ON DELETE CASCADE, FOREIGN KEY (address_id) REFERENCES ADDRESS(id),FOREIGN KEY (coupon_id) REFERENCES COUPON(id)) PARTITION BY RANGE (date);
+CREATE INDEX ORDERS_CUSTOMER_DATE_IDX ON ORDERS(customer_id, date DESC, id DESC);
+CREATE TABLE ORDERS_DEFAULT PARTITION OF ORDERS DEFAULT;
+
+DROP TABLE IF EXISTS ORDER_IDEMPOTENCY_KEY CASCADE;
+CREATE TABLE ORDER_IDEMPOTENCY_KEY(id SERIAL, customer_id INTEGER NOT NULL, idempotency_key VARCHAR(200) NOT NULL, order_uuid VARCHAR(200) NOT NULL, accepted BOOLEAN NOT NULL DEFAULT FALSE, created_at TIMESTAMP NOT NULL, PRIMARY KEY (id), UNIQUE (customer_id, idempotency_key), FOREIGN KEY (customer_id) REFERENCES CUSTOMER(id) ON DELETE CASCADE);
+CREATE INDEX ORDER_IDEMPOTENCY_KEY_CREATED_AT_IDX ON ORDER_IDEMPOTENCY_KEY(created_at);
 
 DROP TABLE IF EXISTS CATEGORY_ITEM CASCADE;
 CREATE TABLE CATEGORY_ITEM(id SERIAL,item_id INTEGER NOT NULL,category_id INTEGER NOT NULL, PRIMARY KEY (id),FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE, FOREIGN KEY (category_id) REFERENCES CATEGORY(id) ON DELETE CASCADE);
@@ -35,8 +48,21 @@ CREATE TABLE CATEGORY_ITEM(id SERIAL,item_id INTEGER NOT NULL,category_id INTEGE
 DROP TABLE IF EXISTS RESTAURANT_ITEM CASCADE;
 CREATE TABLE RESTAURANT_ITEM(id SERIAL,item_id INTEGER NOT NULL, restaurant_id INTEGER NOT NULL, PRIMARY KEY (id),FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE, FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id) ON DELETE CASCADE);
 
+-- Tokens issued to a restaurant for one scope (FULFILMENT or PARTNER). Only the hex SHA-256 of a token
+-- is stored; issue one with INSERT INTO RESTAURANT_TOKEN(restaurant_id, scope, token_hash)
+-- VALUES (1, 'FULFILMENT', encode(sha256(convert_to('<token>', 'UTF8')), 'hex')).
+DROP TABLE IF EXISTS RESTAURANT_TOKEN CASCADE;
+CREATE TABLE RESTAURANT_TOKEN(id SERIAL, restaurant_id INTEGER NOT NULL, scope VARCHAR(20) NOT NULL, token_hash VARCHAR(64) NOT NULL, PRIMARY KEY (id), UNIQUE (token_hash), FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id) ON DELETE CASCADE);
+
 DROP TABLE IF EXISTS ORDER_ITEM CASCADE;
-CREATE TABLE ORDER_ITEM(id SERIAL,order_id INTEGER NOT NULL, item_id INTEGER NOT NULL, quantity INTEGER NOT NULL, price INTEGER NOT NULL ,PRIMARY KEY (id),FOREIGN KEY (item_id) REFERENCES item(id), FOREIGN KEY (order_id) REFERENCES ORDERS(id) ON DELETE CASCADE);
+CREATE TABLE ORDER_ITEM(id SERIAL,order_id INTEGER NOT NULL, order_date TIMESTAMP NOT NULL, item_id INTEGER NOT NULL, quantity INTEGER NOT NULL, price INTEGER NOT NULL ,PRIMARY KEY (id, order_date),FOREIGN KEY (item_id) REFERENCES item(id), FOREIGN KEY (order_id, order_date) REFERENCES ORDERS(id, date) ON DELETE CASCADE) PARTITION BY RANGE (order_date);
+CREATE INDEX ORDER_ITEM_ORDER_ID_IDX ON ORDER_ITEM(order_id);
+CREATE TABLE ORDER_ITEM_DEFAULT PARTITION OF ORDER_ITEM DEFAULT;
+
+-- Order count and revenue per restaurant and hour or day bucket, kept up to date by order placement
+DROP TABLE IF EXISTS RESTAURANT_REVENUE CASCADE;
+CREATE TABLE RESTAURANT_REVENUE(restaurant_id INTEGER NOT NULL, granularity VARCHAR(10) NOT NULL, bucket TIMESTAMP NOT NULL, order_count INTEGER NOT NULL, revenue DECIMAL NOT NULL, PRIMARY KEY (restaurant_id, granularity, bucket), FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id) ON DELETE CASCADE);
+CREATE INDEX RESTAURANT_REVENUE_BUCKET_IDX ON RESTAURANT_REVENUE(bucket);
 
 DROP TABLE IF EXISTS RESTAURANT_CATEGORY CASCADE;
 CREATE TABLE RESTAURANT_CATEGORY(id SERIAL,restaurant_id INTEGER NOT NULL, category_id INTEGER NOT NULL,PRIMARY KEY (id), FOREIGN KEY (category_id) REFERENCES CATEGORY(id) ON DELETE CASCADE, FOREIGN KEY (restaurant_id) REFERENCES RESTAURANT(id) ON DELETE CASCADE);
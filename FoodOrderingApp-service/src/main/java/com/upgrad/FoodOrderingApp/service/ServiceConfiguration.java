@@ -1,14 +1,53 @@
 package com.upgrad.FoodOrderingApp.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Enabling the component scan and entity scan of classes in the below mentioned "com.upgrad.FoodOrderingApp.service" and "com.upgrad.FoodOrderingApp.service.entity" packages respectively.
+ * Scheduling is enabled for the background jobs of the service layer.
  */
 @Configuration
+@EnableScheduling
 @ComponentScan("com.upgrad.FoodOrderingApp.service")
 @EntityScan("com.upgrad.FoodOrderingApp.service.entity")
 public class ServiceConfiguration {
+
+  /**
+   * Pool that runs the @Scheduled background jobs, so a slow rebuild or purge does not hold back
+   * the others. @EnableScheduling picks it by name among the schedulers.
+   *
+   * @param poolSize number of threads
+   * @return ThreadPoolTaskScheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler(
+      @Value("${scheduling.pool-size:4}") final int poolSize) {
+    final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    return scheduler;
+  }
+
+  /**
+   * Scheduler of the order work whose latency customers see: the intake writer and the heartbeats
+   * of the order status streams. It is kept apart from the background jobs, so that a long job
+   * never delays it.
+   *
+   * @param poolSize number of threads
+   * @return ThreadPoolTaskScheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler orderScheduler(
+      @Value("${order-scheduler.pool-size:2}") final int poolSize) {
+    final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("order-scheduler-");
+    return scheduler;
+  }
 }
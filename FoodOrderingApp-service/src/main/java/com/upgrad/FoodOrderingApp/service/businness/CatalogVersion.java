@@ -0,0 +1,24 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version number of the restaurant and category catalog. Every change to data shown by the catalog
+ * endpoints bumps it, so anything derived from the catalog can tell whether it is still current.
+ */
+@Component
+public class CatalogVersion {
+
+  private final AtomicLong version = new AtomicLong();
+
+  public long current() {
+    return version.get();
+  }
+
+  /** Marks everything derived from an older version as stale */
+  public void bump() {
+    version.incrementAndGet();
+  }
+}
@@ -0,0 +1,75 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.CategoryDao;
+import com.upgrad.FoodOrderingApp.service.dto.CategoryDetails;
+import com.upgrad.FoodOrderingApp.service.dto.CategorySummary;
+import com.upgrad.FoodOrderingApp.service.entity.CategoryEntity;
+import com.upgrad.FoodOrderingApp.service.exception.CategoryNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+@Service
+public class CategoryService {
+
+  @Autowired
+  private CategoryDao categoryDao;
+
+  /**
+   * Method returns every category ordered by name
+   *
+   * @return CategoryEntity List ordered by category name
+   */
+  public List<CategoryEntity> getAllCategoriesOrderedByName() {
+    return categoryDao.getAllCategoriesOrderedByName();
+  }
+
+  /**
+   * Method takes category uuid and returns the matching CategoryEntity with its items
+   *
+   * @param categoryId category uuid
+   * @return CategoryEntity
+   * @throws CategoryNotFoundException on empty or non-existent category id
+   */
+  public CategoryEntity getCategoryById(final String categoryId) throws CategoryNotFoundException {
+    if (categoryId == null || categoryId.isEmpty()) {
+      throw new CategoryNotFoundException(CNF_001.getCode(), CNF_001.getDefaultMessage());
+    }
+    final CategoryEntity category = categoryDao.getCategoryByUuid(categoryId);
+    if (category == null) {
+      throw new CategoryNotFoundException(CNF_002.getCode(), CNF_002.getDefaultMessage());
+    }
+    return category;
+  }
+
+  /**
+   * Method returns the id and name of every category ordered by name
+   *
+   * @return CategorySummary List ordered by category name
+   */
+  public List<CategorySummary> getCategorySummaries() {
+    return categoryDao.getCategorySummaries();
+  }
+
+  /**
+   * Method takes category uuid and returns the category with its items ordered by name
+   *
+   * @param categoryId category uuid
+   * @return CategoryDetails
+   * @throws CategoryNotFoundException on empty or non-existent category id
+   */
+  public CategoryDetails getCategoryDetailsById(final String categoryId)
+      throws CategoryNotFoundException {
+    if (categoryId == null || categoryId.isEmpty()) {
+      throw new CategoryNotFoundException(CNF_001.getCode(), CNF_001.getDefaultMessage());
+    }
+    final CategoryDetails category = categoryDao.getCategoryDetails(categoryId);
+    if (category == null) {
+      throw new CategoryNotFoundException(CNF_002.getCode(), CNF_002.getDefaultMessage());
+    }
+    return category;
+  }
+}
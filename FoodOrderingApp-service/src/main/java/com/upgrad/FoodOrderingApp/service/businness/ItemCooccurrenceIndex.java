@@ -0,0 +1,347 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sparse item to item co-occurrence counts: how many orders contain both items of a pair.
+ *
+ * <p>Items of different restaurants never share an order, so the matrix is kept per restaurant as
+ * an open addressing map from a packed long key (lower item id in the high half, higher in the low
+ * half) to an int count. The items ordered together with an item are found by scanning its
+ * restaurant's map, which holds at most the pairs of that one menu. At startup the counts are
+ * built from every order, read page by page: each page is split into partitions by restaurant and
+ * the partitions are counted in parallel on the fork/join pool, so no two tasks ever write to the
+ * same map. After that recordOrder keeps them current as orders are saved.
+ */
+@Component
+public class ItemCooccurrenceIndex {
+
+  // Orders read from the database per query while building
+  private static final int ORDER_PAGE_SIZE = 100_000;
+
+  private volatile Map<Integer, PairCounts> pairsByRestaurant = new ConcurrentHashMap<>();
+
+  @Autowired private OrderDao orderDao;
+
+  /** Counts the item pairs of every order in the database */
+  @PostConstruct
+  public void load() {
+    final Map<Integer, PairCounts> built = new ConcurrentHashMap<>();
+    final int maxOrderId = orderDao.getMaxOrderId();
+    for (int afterId = 0; afterId < maxOrderId; afterId += ORDER_PAGE_SIZE) {
+      count(built, OrderPage.of(orderDao.getOrderItemIds(afterId, afterId + ORDER_PAGE_SIZE)));
+    }
+    pairsByRestaurant = built;
+  }
+
+  /**
+   * Method counts the item pairs of a saved order
+   *
+   * @param order saved order with its restaurant
+   * @param orderItems saved items of the order
+   */
+  public void recordOrder(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+    final int[] itemIds = new int[orderItems.size()];
+    int size = 0;
+    for (OrderItemEntity orderItem : orderItems) {
+      itemIds[size++] = orderItem.getItem().getId();
+    }
+    final int distinct = sortDistinct(itemIds, 0, size);
+    if (distinct > 1) {
+      pairs(pairsByRestaurant, order.getRestaurant().getId()).addOrder(itemIds, 0, distinct);
+    }
+  }
+
+  /**
+   * Method returns the items ordered together with an item most often
+   *
+   * @param restaurantId restaurant id
+   * @param itemId item id
+   * @param limit maximum number of items
+   * @return item ids, most often ordered together first; ties go to the lower id
+   */
+  public int[] orderedWith(final int restaurantId, final int itemId, final int limit) {
+    final PairCounts pairs = pairsByRestaurant.get(restaurantId);
+    return pairs == null || limit <= 0 ? new int[0] : pairs.neighbours(itemId, limit);
+  }
+
+  /**
+   * Method counts the item pairs of a page of orders into the given maps, one fork/join task per
+   * partition of the restaurants
+   *
+   * @param pairsByRestaurant maps to count into, by restaurant id
+   * @param page orders with sorted, distinct item ids
+   */
+  static void count(final Map<Integer, PairCounts> pairsByRestaurant, final OrderPage page) {
+    final int partitions = ForkJoinPool.commonPool().getParallelism();
+    ForkJoinPool.commonPool()
+        .invoke(new CountTask(pairsByRestaurant, page, partitions, 0, partitions));
+  }
+
+  private static PairCounts pairs(
+      final Map<Integer, PairCounts> pairsByRestaurant, final int restaurantId) {
+    final PairCounts pairs = pairsByRestaurant.get(restaurantId);
+    return pairs != null
+        ? pairs
+        : pairsByRestaurant.computeIfAbsent(restaurantId, id -> new PairCounts());
+  }
+
+  // Sorts a range and moves its distinct values to the front, returns how many there are
+  private static int sortDistinct(final int[] values, final int from, final int to) {
+    Arrays.sort(values, from, to);
+    int distinct = from;
+    for (int i = from; i < to; i++) {
+      if (i == from || values[i] != values[distinct - 1]) {
+        values[distinct++] = values[i];
+      }
+    }
+    return distinct - from;
+  }
+
+  /** Orders of one page in flat arrays, each order's item ids sorted and distinct */
+  static final class OrderPage {
+    private final int[] restaurantIds;
+    private final int[] itemStarts;
+    private final int[] itemIds;
+
+    private OrderPage(final int[] restaurantIds, final int[] itemStarts, final int[] itemIds) {
+      this.restaurantIds = restaurantIds;
+      this.itemStarts = itemStarts;
+      this.itemIds = itemIds;
+    }
+
+    /**
+     * Method packs order item rows into a page
+     *
+     * @param rows [orderId, restaurantId, itemId] rows grouped by order
+     * @return OrderPage
+     */
+    static OrderPage of(final List<Object[]> rows) {
+      final int[] restaurantIds = new int[rows.size()];
+      final int[] itemStarts = new int[rows.size() + 1];
+      final int[] itemIds = new int[rows.size()];
+      int orders = 0;
+      int items = 0;
+      int orderId = 0;
+      for (Object[] row : rows) {
+        final int rowOrderId = ((Number) row[0]).intValue();
+        if (orders == 0 || rowOrderId != orderId) {
+          if (orders > 0) {
+            items = itemStarts[orders - 1] + sortDistinct(itemIds, itemStarts[orders - 1], items);
+          }
+          orderId = rowOrderId;
+          restaurantIds[orders] = ((Number) row[1]).intValue();
+          itemStarts[orders++] = items;
+        }
+        itemIds[items++] = ((Number) row[2]).intValue();
+      }
+      if (orders > 0) {
+        items = itemStarts[orders - 1] + sortDistinct(itemIds, itemStarts[orders - 1], items);
+      }
+      itemStarts[orders] = items;
+      return new OrderPage(
+          Arrays.copyOf(restaurantIds, orders), Arrays.copyOf(itemStarts, orders + 1), itemIds);
+    }
+  }
+
+  /** Counts the orders of the restaurants in a range of partitions, splitting the range in half */
+  private static final class CountTask extends RecursiveAction {
+    private final Map<Integer, PairCounts> pairsByRestaurant;
+    private final OrderPage page;
+    private final int partitions;
+    private final int from;
+    private final int to;
+
+    private CountTask(
+        final Map<Integer, PairCounts> pairsByRestaurant,
+        final OrderPage page,
+        final int partitions,
+        final int from,
+        final int to) {
+      this.pairsByRestaurant = pairsByRestaurant;
+      this.page = page;
+      this.partitions = partitions;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(
+            new CountTask(pairsByRestaurant, page, partitions, from, middle),
+            new CountTask(pairsByRestaurant, page, partitions, middle, to));
+        return;
+      }
+      // Only this task touches the maps of its partition's restaurants, so no locking is needed
+      for (int order = 0; order < page.restaurantIds.length; order++) {
+        final int restaurantId = page.restaurantIds[order];
+        final int start = page.itemStarts[order];
+        final int end = page.itemStarts[order + 1];
+        if (end - start > 1 && Math.floorMod(restaurantId, partitions) == from) {
+          pairs(pairsByRestaurant, restaurantId).countOrder(page.itemIds, start, end);
+        }
+      }
+    }
+  }
+
+  /** Co-occurrence counts of the item pairs of one restaurant */
+  static final class PairCounts {
+    // Key 0 marks a free slot; item ids start at 1, so no pair packs to 0
+    private long[] keys = new long[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    synchronized void addOrder(final int[] itemIds, final int from, final int to) {
+      countOrder(itemIds, from, to);
+    }
+
+    // Unsynchronized, the caller must own the map; item ids in the range are sorted and distinct
+    void countOrder(final int[] itemIds, final int from, final int to) {
+      for (int i = from; i < to; i++) {
+        for (int j = i + 1; j < to; j++) {
+          increment(((long) itemIds[i] << 32) | itemIds[j]);
+        }
+      }
+    }
+
+    synchronized int[] neighbours(final int itemId, final int limit) {
+      // Bounded min-heap on (count, -id), weakest candidate on top
+      final int[] heapItemIds = new int[limit];
+      final int[] heapCounts = new int[limit];
+      int heapSize = 0;
+      for (int slot = 0; slot < keys.length; slot++) {
+        final long key = keys[slot];
+        final int other;
+        if (key == 0) {
+          continue;
+        } else if ((int) (key >>> 32) == itemId) {
+          other = (int) key;
+        } else if ((int) key == itemId) {
+          other = (int) (key >>> 32);
+        } else {
+          continue;
+        }
+        final int count = counts[slot];
+        int position;
+        if (heapSize < limit) {
+          position = heapSize++;
+          while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (!weaker(count, other, heapCounts[parent], heapItemIds[parent])) {
+              break;
+            }
+            heapItemIds[position] = heapItemIds[parent];
+            heapCounts[position] = heapCounts[parent];
+            position = parent;
+          }
+        } else if (weaker(heapCounts[0], heapItemIds[0], count, other)) {
+          position = siftDown(heapItemIds, heapCounts, heapSize, count, other);
+        } else {
+          continue;
+        }
+        heapItemIds[position] = other;
+        heapCounts[position] = count;
+      }
+      // Pop the weakest to the back so the strongest ends up first
+      final int[] ranked = new int[heapSize];
+      for (int i = heapSize - 1; i >= 0; i--) {
+        ranked[i] = heapItemIds[0];
+        final int position = siftDown(heapItemIds, heapCounts, i, heapCounts[i], heapItemIds[i]);
+        if (i > 0) {
+          heapItemIds[position] = heapItemIds[i];
+          heapCounts[position] = heapCounts[i];
+        }
+      }
+      return ranked;
+    }
+
+    int size() {
+      return size;
+    }
+
+    private void increment(final long key) {
+      if (2 * (size + 1) > keys.length) {
+        grow();
+      }
+      final int slot = slot(keys, key);
+      if (keys[slot] == 0) {
+        keys[slot] = key;
+        size++;
+      }
+      counts[slot]++;
+    }
+
+    private void grow() {
+      final long[] oldKeys = keys;
+      final int[] oldCounts = counts;
+      keys = new long[oldKeys.length * 2];
+      counts = new int[oldCounts.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != 0) {
+          final int slot = slot(keys, oldKeys[i]);
+          keys[slot] = oldKeys[i];
+          counts[slot] = oldCounts[i];
+        }
+      }
+    }
+
+    // Slot holding the key, or the free slot it belongs in
+    private static int slot(final long[] keys, final long key) {
+      final int mask = keys.length - 1;
+      final long h = key * 0x9E3779B97F4A7C15L;
+      int slot = (int) (h ^ (h >>> 32)) & mask;
+      while (keys[slot] != 0 && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    // Finds where an entry replacing the root settles in the first heapSize entries
+    private static int siftDown(
+        final int[] heapItemIds,
+        final int[] heapCounts,
+        final int heapSize,
+        final int count,
+        final int itemId) {
+      int parent = 0;
+      while (true) {
+        int child = 2 * parent + 1;
+        if (child >= heapSize) {
+          return parent;
+        }
+        final int right = child + 1;
+        if (right < heapSize
+            && weaker(
+                heapCounts[right], heapItemIds[right], heapCounts[child], heapItemIds[child])) {
+          child = right;
+        }
+        if (!weaker(heapCounts[child], heapItemIds[child], count, itemId)) {
+          return parent;
+        }
+        heapItemIds[parent] = heapItemIds[child];
+        heapCounts[parent] = heapCounts[child];
+        parent = child;
+      }
+    }
+
+    // True when the first item ranks below the second: fewer orders, or as many and a higher id
+    private static boolean weaker(
+        final int count, final int itemId, final int otherCount, final int otherItemId) {
+      return count < otherCount || (count == otherCount && itemId > otherItemId);
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dao.ItemDao;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live count of the orders containing each item of each restaurant, with the most ordered items.
+ *
+ * <p>Every restaurant owns an open addressing int to int map from item id to order count and a
+ * min-heap of its POPULAR_ITEMS_LIMIT most ordered items, weakest on top. Counts only ever grow,
+ * so an item outside the heap can only enter it by overtaking the weakest entry and the heap stays
+ * exact without rescanning the counts. Ties are broken by the lower item id. The counters are
+ * seeded at startup from one aggregate query and then kept current by recordOrder as orders are
+ * saved; updates lock a single restaurant's counters only.
+ */
+@Component
+public class ItemPopularityIndex {
+
+  private volatile Map<Integer, Counters> countersByRestaurant = new ConcurrentHashMap<>();
+
+  @Autowired private ItemDao itemDao;
+
+  /** Seeds the counters with the order count of every restaurant item in the database */
+  @PostConstruct
+  public void load() {
+    countersByRestaurant = build(itemDao.getOrderCountsByRestaurantItem());
+  }
+
+  /**
+   * Method counts a saved order once for every distinct item in it
+   *
+   * @param order saved order with its restaurant
+   * @param orderItems saved items of the order
+   */
+  public void recordOrder(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+    final Set<Integer> itemIds = new HashSet<>();
+    for (OrderItemEntity orderItem : orderItems) {
+      itemIds.add(orderItem.getItem().getId());
+    }
+    final Counters counters = counters(countersByRestaurant, order.getRestaurant().getId());
+    for (Integer itemId : itemIds) {
+      counters.add(itemId, 1);
+    }
+  }
+
+  /**
+   * Method returns the most ordered items of a restaurant
+   *
+   * @param restaurantId restaurant id
+   * @return item ids, most ordered first, at most POPULAR_ITEMS_LIMIT of them
+   */
+  public int[] topItemIds(final int restaurantId) {
+    final Counters counters = countersByRestaurant.get(restaurantId);
+    return counters == null ? new int[0] : counters.top();
+  }
+
+  /**
+   * Method builds the counters of every restaurant
+   *
+   * @param rows [restaurantId, itemId, orderCount] rows
+   * @return counters by restaurant id
+   */
+  static Map<Integer, Counters> build(final List<Object[]> rows) {
+    final Map<Integer, Counters> countersByRestaurant = new ConcurrentHashMap<>();
+    for (Object[] row : rows) {
+      counters(countersByRestaurant, ((Number) row[0]).intValue())
+          .add(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+    }
+    return countersByRestaurant;
+  }
+
+  private static Counters counters(
+      final Map<Integer, Counters> countersByRestaurant, final int restaurantId) {
+    final Counters counters = countersByRestaurant.get(restaurantId);
+    return counters != null
+        ? counters
+        : countersByRestaurant.computeIfAbsent(restaurantId, id -> new Counters());
+  }
+
+  /** Order counts of one restaurant's items and the heap of its most ordered items */
+  static final class Counters {
+    // Item id 0 marks a free slot, ids come from a sequence starting at 1
+    private int[] itemIds = new int[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    private final int[] heapItemIds = new int[AppConstants.POPULAR_ITEMS_LIMIT];
+    private final int[] heapCounts = new int[AppConstants.POPULAR_ITEMS_LIMIT];
+    private int heapSize;
+
+    synchronized void add(final int itemId, final int delta) {
+      if (delta <= 0) {
+        return;
+      }
+      final int count = increment(itemId, delta);
+      for (int i = 0; i < heapSize; i++) {
+        if (heapItemIds[i] == itemId) {
+          heapCounts[i] = count;
+          siftDown(i);
+          return;
+        }
+      }
+      if (heapSize < heapItemIds.length) {
+        heapItemIds[heapSize] = itemId;
+        heapCounts[heapSize] = count;
+        siftUp(heapSize++);
+      } else if (heapSize > 0 && weaker(heapCounts[0], heapItemIds[0], count, itemId)) {
+        heapItemIds[0] = itemId;
+        heapCounts[0] = count;
+        siftDown(0);
+      }
+    }
+
+    synchronized int[] top() {
+      // Pack count and ~id so an ascending sort puts the weakest first
+      final long[] keys = new long[heapSize];
+      for (int i = 0; i < heapSize; i++) {
+        keys[i] = ((long) heapCounts[i] << 32) | (~heapItemIds[i] & 0xFFFFFFFFL);
+      }
+      Arrays.sort(keys);
+      final int[] top = new int[heapSize];
+      for (int i = 0; i < heapSize; i++) {
+        top[i] = ~(int) keys[heapSize - 1 - i];
+      }
+      return top;
+    }
+
+    private int increment(final int itemId, final int delta) {
+      if (2 * (size + 1) > itemIds.length) {
+        grow();
+      }
+      final int mask = itemIds.length - 1;
+      int slot = mix(itemId) & mask;
+      while (itemIds[slot] != 0 && itemIds[slot] != itemId) {
+        slot = (slot + 1) & mask;
+      }
+      if (itemIds[slot] == 0) {
+        itemIds[slot] = itemId;
+        size++;
+      }
+      counts[slot] += delta;
+      return counts[slot];
+    }
+
+    private void grow() {
+      final int[] oldItemIds = itemIds;
+      final int[] oldCounts = counts;
+      itemIds = new int[oldItemIds.length * 2];
+      counts = new int[oldCounts.length * 2];
+      final int mask = itemIds.length - 1;
+      for (int i = 0; i < oldItemIds.length; i++) {
+        if (oldItemIds[i] != 0) {
+          int slot = mix(oldItemIds[i]) & mask;
+          while (itemIds[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          itemIds[slot] = oldItemIds[i];
+          counts[slot] = oldCounts[i];
+        }
+      }
+    }
+
+    private void siftUp(int child) {
+      while (child > 0) {
+        final int parent = (child - 1) >>> 1;
+        if (!weakerAt(child, parent)) {
+          break;
+        }
+        swap(child, parent);
+        child = parent;
+      }
+    }
+
+    private void siftDown(int parent) {
+      while (true) {
+        int child = 2 * parent + 1;
+        if (child >= heapSize) {
+          break;
+        }
+        if (child + 1 < heapSize && weakerAt(child + 1, child)) {
+          child++;
+        }
+        if (!weakerAt(child, parent)) {
+          break;
+        }
+        swap(child, parent);
+        parent = child;
+      }
+    }
+
+    private boolean weakerAt(final int i, final int j) {
+      return weaker(heapCounts[i], heapItemIds[i], heapCounts[j], heapItemIds[j]);
+    }
+
+    private void swap(final int i, final int j) {
+      final int itemId = heapItemIds[i];
+      heapItemIds[i] = heapItemIds[j];
+      heapItemIds[j] = itemId;
+      final int count = heapCounts[i];
+      heapCounts[i] = heapCounts[j];
+      heapCounts[j] = count;
+    }
+
+    // True when the first item ranks below the second: fewer orders, or as many and a higher id
+    private static boolean weaker(
+        final int count, final int itemId, final int otherCount, final int otherItemId) {
+      return count < otherCount || (count == otherCount && itemId > otherItemId);
+    }
+
+    // Spreads sequential ids over the table
+    private static int mix(final int itemId) {
+      final int h = itemId * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+}
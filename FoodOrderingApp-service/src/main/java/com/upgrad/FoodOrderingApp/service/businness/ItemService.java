@@ -0,0 +1,208 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dao.DishSearchDao;
+import com.upgrad.FoodOrderingApp.service.dao.ItemDao;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDishes;
+import com.upgrad.FoodOrderingApp.service.dto.TrendingDish;
+import com.upgrad.FoodOrderingApp.service.entity.ItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.ItemNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+@Service
+public class ItemService {
+
+  @Autowired
+  private DishSearchDao dishSearchDao;
+
+  @Autowired
+  private ItemDao itemDao;
+
+  @Autowired
+  private ItemPopularityIndex itemPopularityIndex;
+
+  @Autowired
+  private TrendingItemIndex trendingItemIndex;
+
+  @Autowired
+  private ItemCooccurrenceIndex itemCooccurrenceIndex;
+
+  /**
+   * Method takes a restaurant and returns its most ordered items. The ranking is read from the
+   * in-memory popularity counters, only the few ranked items are loaded from the database.
+   *
+   * @param restaurant restaurant
+   * @return ItemEntity List, most ordered first, at most POPULAR_ITEMS_LIMIT items
+   */
+  public List<ItemEntity> getItemsByPopularity(final RestaurantEntity restaurant) {
+    return itemsInRankOrder(itemPopularityIndex.topItemIds(restaurant.getId()));
+  }
+
+  /**
+   * Method takes a restaurant and an item uuid and returns the items of the restaurant most often
+   * ordered together with that item, read from the in-memory co-occurrence counts
+   *
+   * @param restaurant restaurant
+   * @param itemId item uuid
+   * @param limit maximum number of items, capped at ORDERED_TOGETHER_MAX_LIMIT
+   * @return ItemEntity List, most often ordered together first
+   * @throws ItemNotFoundException on empty or non-existent item id
+   */
+  public List<ItemEntity> getItemsOrderedTogether(
+      final RestaurantEntity restaurant, final String itemId, final int limit)
+      throws ItemNotFoundException {
+    final ItemEntity item = itemId == null ? null : itemDao.getItemByUuid(itemId);
+    if (item == null) {
+      throw new ItemNotFoundException(INF_001.getCode(), INF_001.getDefaultMessage());
+    }
+    return itemsInRankOrder(
+        itemCooccurrenceIndex.orderedWith(
+            restaurant.getId(),
+            item.getId(),
+            Math.min(limit, AppConstants.ORDERED_TOGETHER_MAX_LIMIT)));
+  }
+
+  /**
+   * Method takes item uuids and loads all the items in one query
+   *
+   * @param itemIds item uuids
+   * @return ItemEntity by uuid
+   * @throws ItemNotFoundException when any of the ids is empty or matches no item
+   */
+  public Map<String, ItemEntity> getItemsByUuids(final Collection<String> itemIds)
+      throws ItemNotFoundException {
+    final Map<String, ItemEntity> itemsByUuid = new HashMap<>();
+    if (!itemIds.isEmpty() && !itemIds.contains(null)) {
+      for (ItemEntity item : itemDao.getItemsByUuids(itemIds)) {
+        itemsByUuid.put(item.getUuid(), item);
+      }
+    }
+    if (!itemsByUuid.keySet().containsAll(itemIds)) {
+      throw new ItemNotFoundException(INF_001.getCode(), INF_001.getDefaultMessage());
+    }
+    return itemsByUuid;
+  }
+
+  /**
+   * Method returns the items ordered most over the last hour or day, optionally only from the
+   * restaurants of one city. The ranking comes from the trending snapshot, only the ranked items
+   * are loaded from the database.
+   *
+   * @param city restaurant city, null or empty for all cities
+   * @param window "hour" or "day"
+   * @param limit maximum number of items, capped at TRENDING_MAX_LIMIT
+   * @return TrendingDish List, highest score first
+   * @throws ItemNotFoundException on a window other than hour or day
+   */
+  public List<TrendingDish> getTrendingItems(
+      final String city, final String window, final int limit) throws ItemNotFoundException {
+    final TrendingItemIndex.Window trendingWindow;
+    try {
+      trendingWindow = TrendingItemIndex.Window.valueOf(window.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new ItemNotFoundException(ITR_001.getCode(), ITR_001.getDefaultMessage());
+    }
+    final TrendingItemIndex.Leaderboard leaderboard =
+        trendingItemIndex.top(
+            city, trendingWindow, Math.min(limit, AppConstants.TRENDING_MAX_LIMIT));
+    if (leaderboard.size() == 0) {
+      return Collections.emptyList();
+    }
+    final List<Integer> itemIds = new ArrayList<>(leaderboard.size());
+    for (int rank = 0; rank < leaderboard.size(); rank++) {
+      itemIds.add(leaderboard.itemId(rank));
+    }
+    final Map<Integer, ItemEntity> itemById = new HashMap<>();
+    for (ItemEntity item : itemDao.getItemsByIds(itemIds)) {
+      itemById.put(item.getId(), item);
+    }
+    final List<TrendingDish> trendingDishes = new ArrayList<>(leaderboard.size());
+    for (int rank = 0; rank < leaderboard.size(); rank++) {
+      final ItemEntity item = itemById.get(leaderboard.itemId(rank));
+      if (item != null) {
+        trendingDishes.add(
+            new TrendingDish(
+                item.getUuid(),
+                item.getItemName(),
+                item.getPrice(),
+                item.getType(),
+                leaderboard.score(rank)));
+      }
+    }
+    return trendingDishes;
+  }
+
+  /**
+   * Method takes a dish name and returns a page of restaurants serving matching dishes. Every word
+   * of the dish name is matched as a prefix of item or category names; item name matches rank
+   * above category name matches.
+   *
+   * @param dishName dish name as typed by the customer
+   * @param page zero based page number
+   * @param size number of restaurants per page, capped at DISH_SEARCH_MAX_PAGE_SIZE
+   * @return RestaurantDishes List of the requested page
+   * @throws ItemNotFoundException on empty dish name
+   */
+  public List<RestaurantDishes> searchDishes(final String dishName, final int page, final int size)
+      throws ItemNotFoundException {
+    final String tsQuery = toPrefixTsQuery(dishName);
+    if (tsQuery.isEmpty()) {
+      throw new ItemNotFoundException(ISR_001.getCode(), ISR_001.getDefaultMessage());
+    }
+    final int pageSize = Math.min(Math.max(size, 1), AppConstants.DISH_SEARCH_MAX_PAGE_SIZE);
+    return dishSearchDao.searchDishes(tsQuery, Math.max(page, 0) * pageSize, pageSize);
+  }
+
+  /**
+   * Method loads ranked items with a single IN query and keeps them in rank order
+   *
+   * @param rankedIds item ids in rank order
+   * @return ItemEntity List in rank order
+   */
+  private List<ItemEntity> itemsInRankOrder(final int[] rankedIds) {
+    if (rankedIds.length == 0) {
+      return Collections.emptyList();
+    }
+    final List<Integer> itemIds = new ArrayList<>(rankedIds.length);
+    final Map<Integer, Integer> rankById = new HashMap<>();
+    for (int rank = 0; rank < rankedIds.length; rank++) {
+      itemIds.add(rankedIds[rank]);
+      rankById.put(rankedIds[rank], rank);
+    }
+    return itemDao.getItemsByIds(itemIds).stream()
+        .sorted(Comparator.comparing(item -> rankById.get(item.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Method turns free text into a tsquery that ANDs a prefix match of every word. Only letters and
+   * digits survive, so the result is always a valid tsquery.
+   *
+   * @param text free text
+   * @return tsquery, empty if the text has no words
+   */
+  private String toPrefixTsQuery(final String text) {
+    if (text == null) {
+      return "";
+    }
+    return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+"))
+        .filter(word -> !word.isEmpty())
+        .map(word -> word + ":*")
+        .collect(Collectors.joining(" & "));
+  }
+}
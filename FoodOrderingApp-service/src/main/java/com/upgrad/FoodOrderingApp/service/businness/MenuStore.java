@@ -0,0 +1,365 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+import com.upgrad.FoodOrderingApp.service.dao.MenuDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap store of every restaurant's menu.
+ *
+ * <p>All menus are encoded into one direct ByteBuffer segment of fixed-width records: restaurants
+ * point at their categories, categories at a run of membership entries and those at item records,
+ * so an item listed in several categories of a restaurant is stored once. Names and uuids are
+ * references (offset, length) to UTF-8 bytes in a deduplicated string region at the end of the
+ * segment. Menus are read through a Menu flyweight whose accessors decode primitives in place and
+ * copy string bytes into a caller supplied buffer, so serving a menu allocates no item, category or
+ * String objects and the heap holds nothing per item. The segment is rebuilt on a fixed delay and
+ * swapped in with a single volatile write; the old one is released with its buffer.
+ */
+@Component
+public class MenuStore {
+
+  // Record sizes in bytes; a string reference is an int offset and an int length
+  private static final int RESTAURANT_BYTES = 8; // first category, category count
+  private static final int CATEGORY_BYTES = 24; // uuid, name, first member, member count
+  private static final int MEMBER_BYTES = 4; // item record index
+  private static final int ITEM_BYTES = 24; // uuid, name, price, type ordinal
+
+  // Length stored for a null string
+  private static final int NULL_LENGTH = -1;
+
+  private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+  private volatile Segment segment = build(Collections.emptyList());
+
+  @Autowired private MenuDao menuDao;
+
+  /** Rebuilds the segment from the database and swaps it in for subsequent reads */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${menu-store.refresh-interval-ms:300000}",
+      fixedDelayString = "${menu-store.refresh-interval-ms:300000}")
+  public void load() {
+    segment = build(menuDao.getMenuRows());
+  }
+
+  /**
+   * Method returns a flyweight over a restaurant's menu. A restaurant added since the last rebuild
+   * is encoded from the database on the spot.
+   *
+   * @param restaurantUuid restaurant uuid
+   * @return Menu, empty if the restaurant has no categories or does not exist
+   */
+  public Menu menu(final String restaurantUuid) {
+    final Segment current = segment;
+    final Integer restaurant = current.restaurantByUuid.get(restaurantUuid);
+    if (restaurant != null) {
+      return new Menu(current, restaurant);
+    }
+    final Segment single = build(menuDao.getMenuRows(restaurantUuid));
+    return new Menu(single, single.restaurantByUuid.isEmpty() ? -1 : 0);
+  }
+
+  /**
+   * Method encodes menu rows into a segment
+   *
+   * @param rows [restaurantUuid, categoryUuid, categoryName, itemUuid, itemName, price, type] rows,
+   *     grouped by restaurant and category
+   * @return Segment
+   */
+  static Segment build(final List<Object[]> rows) {
+    final Encoder encoder = new Encoder();
+    String restaurantUuid = null;
+    String categoryUuid = null;
+    final Map<String, Integer> itemByUuid = new HashMap<>();
+    for (Object[] row : rows) {
+      if (!row[0].equals(restaurantUuid)) {
+        restaurantUuid = (String) row[0];
+        categoryUuid = null;
+        itemByUuid.clear();
+        encoder.addRestaurant(restaurantUuid);
+      }
+      if (row[1] == null) {
+        continue;
+      }
+      if (!row[1].equals(categoryUuid)) {
+        categoryUuid = (String) row[1];
+        encoder.addCategory(categoryUuid, (String) row[2]);
+      }
+      if (row[3] != null) {
+        Integer item = itemByUuid.get(row[3]);
+        if (item == null) {
+          item =
+              encoder.addItem(
+                  (String) row[3],
+                  (String) row[4],
+                  ((Number) row[5]).intValue(),
+                  ItemType.fromColumn((String) row[6]));
+          itemByUuid.put((String) row[3], item);
+        }
+        encoder.addMember(item);
+      }
+    }
+    return encoder.finish();
+  }
+
+  /**
+   * Flyweight over one restaurant's menu. Categories and the items within a category are
+   * addressed by position; string accessors return references to be read with utf8Length,
+   * copyUtf8 or string.
+   */
+  public static final class Menu {
+    private final Segment segment;
+    private final int firstCategory;
+    private final int categoryCount;
+
+    private Menu(final Segment segment, final int restaurant) {
+      this.segment = segment;
+      if (restaurant < 0) {
+        this.firstCategory = 0;
+        this.categoryCount = 0;
+      } else {
+        this.firstCategory = segment.buffer.getInt(restaurant * RESTAURANT_BYTES);
+        this.categoryCount = segment.buffer.getInt(restaurant * RESTAURANT_BYTES + 4);
+      }
+    }
+
+    public int categoryCount() {
+      return categoryCount;
+    }
+
+    public long categoryUuid(final int category) {
+      return stringRef(categoryRecord(category));
+    }
+
+    public long categoryName(final int category) {
+      return stringRef(categoryRecord(category) + 8);
+    }
+
+    public int itemCount(final int category) {
+      return segment.buffer.getInt(categoryRecord(category) + 20);
+    }
+
+    public long itemUuid(final int category, final int item) {
+      return stringRef(itemRecord(category, item));
+    }
+
+    public long itemName(final int category, final int item) {
+      return stringRef(itemRecord(category, item) + 8);
+    }
+
+    public int itemPrice(final int category, final int item) {
+      return segment.buffer.getInt(itemRecord(category, item) + 16);
+    }
+
+    public ItemType itemType(final int category, final int item) {
+      return ITEM_TYPES[segment.buffer.getInt(itemRecord(category, item) + 20)];
+    }
+
+    /** @return size of the largest string in the segment, enough for any copyUtf8 target */
+    public int maxUtf8Length() {
+      return segment.maxStringBytes;
+    }
+
+    /** @return length in bytes of the referenced string, -1 for null */
+    public int utf8Length(final long ref) {
+      return (int) ref;
+    }
+
+    /**
+     * Method copies the UTF-8 bytes of a string to the start of the target
+     *
+     * @param ref string reference
+     * @param target buffer of at least maxUtf8Length bytes
+     * @return number of bytes copied, -1 for null
+     */
+    public int copyUtf8(final long ref, final byte[] target) {
+      final int offset = segment.stringsBase + (int) (ref >>> 32);
+      final int length = (int) ref;
+      for (int i = 0; i < length; i++) {
+        target[i] = segment.buffer.get(offset + i);
+      }
+      return length;
+    }
+
+    /** @return the referenced string decoded into a new String, null for null */
+    public String string(final long ref) {
+      final int length = (int) ref;
+      if (length == NULL_LENGTH) {
+        return null;
+      }
+      final byte[] bytes = new byte[length];
+      copyUtf8(ref, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int categoryRecord(final int category) {
+      return segment.categoriesBase + (firstCategory + category) * CATEGORY_BYTES;
+    }
+
+    private int itemRecord(final int category, final int item) {
+      final int firstMember = segment.buffer.getInt(categoryRecord(category) + 16);
+      final int itemIndex =
+          segment.buffer.getInt(segment.membersBase + (firstMember + item) * MEMBER_BYTES);
+      return segment.itemsBase + itemIndex * ITEM_BYTES;
+    }
+
+    private long stringRef(final int position) {
+      return ((long) segment.buffer.getInt(position) << 32)
+          | (segment.buffer.getInt(position + 4) & 0xFFFFFFFFL);
+    }
+  }
+
+  /** Encoded menus: one direct buffer and the restaurant index into it */
+  static final class Segment {
+    private final ByteBuffer buffer;
+    private final int categoriesBase;
+    private final int membersBase;
+    private final int itemsBase;
+    private final int stringsBase;
+    private final int maxStringBytes;
+    private final Map<String, Integer> restaurantByUuid;
+
+    private Segment(
+        final ByteBuffer buffer,
+        final int categoriesBase,
+        final int membersBase,
+        final int itemsBase,
+        final int stringsBase,
+        final int maxStringBytes,
+        final Map<String, Integer> restaurantByUuid) {
+      this.buffer = buffer;
+      this.categoriesBase = categoriesBase;
+      this.membersBase = membersBase;
+      this.itemsBase = itemsBase;
+      this.stringsBase = stringsBase;
+      this.maxStringBytes = maxStringBytes;
+      this.restaurantByUuid = restaurantByUuid;
+    }
+  }
+
+  /** Collects records in growable int arrays, then copies them into a right-sized buffer */
+  private static final class Encoder {
+    private int[] restaurants = new int[64];
+    private int restaurantInts;
+    private int[] categories = new int[64];
+    private int categoryInts;
+    private int[] members = new int[64];
+    private int memberCount;
+    private int[] items = new int[64];
+    private int itemInts;
+    private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+    private final Map<String, Long> stringRefs = new HashMap<>();
+    private int maxStringBytes;
+    private final Map<String, Integer> restaurantByUuid = new HashMap<>();
+
+    private void addRestaurant(final String uuid) {
+      restaurantByUuid.put(uuid, restaurantInts / 2);
+      restaurants = append(restaurants, restaurantInts, categoryInts / 6, 0);
+      restaurantInts += 2;
+    }
+
+    private void addCategory(final String uuid, final String name) {
+      final long uuidRef = stringRef(uuid);
+      final long nameRef = stringRef(name);
+      categories =
+          append(
+              categories,
+              categoryInts,
+              (int) (uuidRef >>> 32),
+              (int) uuidRef,
+              (int) (nameRef >>> 32),
+              (int) nameRef,
+              memberCount,
+              0);
+      categoryInts += 6;
+      restaurants[restaurantInts - 1]++;
+    }
+
+    private int addItem(
+        final String uuid, final String name, final int price, final ItemType type) {
+      final long uuidRef = stringRef(uuid);
+      final long nameRef = stringRef(name);
+      items =
+          append(
+              items,
+              itemInts,
+              (int) (uuidRef >>> 32),
+              (int) uuidRef,
+              (int) (nameRef >>> 32),
+              (int) nameRef,
+              price,
+              type.ordinal());
+      itemInts += 6;
+      return itemInts / 6 - 1;
+    }
+
+    private void addMember(final int item) {
+      members = append(members, memberCount, item);
+      memberCount++;
+      categories[categoryInts - 1]++;
+    }
+
+    private long stringRef(final String value) {
+      if (value == null) {
+        return NULL_LENGTH & 0xFFFFFFFFL;
+      }
+      Long ref = stringRefs.get(value);
+      if (ref == null) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ref = ((long) strings.size() << 32) | bytes.length;
+        strings.write(bytes, 0, bytes.length);
+        maxStringBytes = Math.max(maxStringBytes, bytes.length);
+        stringRefs.put(value, ref);
+      }
+      return ref;
+    }
+
+    private Segment finish() {
+      final int categoriesBase = restaurantInts * 4;
+      final int membersBase = categoriesBase + categoryInts * 4;
+      final int itemsBase = membersBase + memberCount * MEMBER_BYTES;
+      final int stringsBase = itemsBase + itemInts * 4;
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(stringsBase + strings.size());
+      buffer.asIntBuffer().put(restaurants, 0, restaurantInts);
+      buffer.position(categoriesBase);
+      buffer.asIntBuffer().put(categories, 0, categoryInts);
+      buffer.position(membersBase);
+      buffer.asIntBuffer().put(members, 0, memberCount);
+      buffer.position(itemsBase);
+      buffer.asIntBuffer().put(items, 0, itemInts);
+      buffer.position(stringsBase);
+      buffer.put(strings.toByteArray());
+      buffer.clear();
+      return new Segment(
+          buffer,
+          categoriesBase,
+          membersBase,
+          itemsBase,
+          stringsBase,
+          maxStringBytes,
+          Collections.unmodifiableMap(restaurantByUuid));
+    }
+
+    private static int[] append(final int[] array, final int size, final int... values) {
+      final int[] target =
+          size + values.length <= array.length
+              ? array
+              : Arrays.copyOf(array, Math.max(array.length * 2, size + values.length));
+      System.arraycopy(values, 0, target, size, values.length);
+      return target;
+    }
+  }
+}
@@ -0,0 +1,604 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+import com.upgrad.FoodOrderingApp.service.common.UnexpectedException;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.dto.OrderLine;
+import com.upgrad.FoodOrderingApp.service.dto.OrderSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+/**
+ * Archive of cold orders in compressed monthly segment files.
+ *
+ * <p>The orders of one calendar month live in orders-YYYY-MM.seg in the archive directory. A
+ * segment is a sequence of runs and is only ever appended to. A run holds orders sorted by
+ * customer id and, per customer, latest first, in deflate-compressed blocks of about block-bytes,
+ * followed by a sparse index with the first and last customer id of every block. The run's header
+ * is written last, after everything else is on disk, so a run torn by a crash is skipped by
+ * readers and cut off by the next append. A customer's archived orders of a month are found with
+ * a binary search of each run's index and usually a single block read.
+ */
+@Component
+public class OrderArchive {
+
+  // Magic, run length, index offset, block count and index CRC32 in front of every run
+  private static final int HEADER_BYTES = 28;
+  private static final int RUN_MAGIC = 0x4F415231;
+
+  // First and last customer id, offset in the run, compressed and raw length of a block
+  private static final int INDEX_ENTRY_BYTES = 20;
+
+  private static final int ANY_CUSTOMER = -1;
+
+  private static final String SEGMENT_PREFIX = "orders-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final Comparator<OrderSummary> LATEST_FIRST =
+      Comparator.comparing(OrderSummary::getDate)
+          .thenComparing(OrderSummary::getId)
+          .reversed();
+
+  @Value("${order-archive.dir:order-archive}")
+  private String directory;
+
+  @Value("${order-archive.block-bytes:16384}")
+  private int blockBytes;
+
+  // Archived months, oldest first
+  private volatile List<YearMonth> months = Collections.emptyList();
+
+  // Run indexes of every segment read so far, valid while the segment keeps its length
+  private final Map<YearMonth, Segment> segments = new ConcurrentHashMap<>();
+
+  /**
+   * Lists the archived months again, picking up segments written since, also by other nodes
+   * sharing the archive directory
+   *
+   * @throws IOException if the archive directory cannot be read
+   */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${order-archive.refresh-interval-ms:60000}",
+      fixedDelayString = "${order-archive.refresh-interval-ms:60000}")
+  public void refresh() throws IOException {
+    final Path root = Paths.get(directory);
+    final List<YearMonth> listed = new ArrayList<>();
+    if (Files.isDirectory(root)) {
+      try (DirectoryStream<Path> stream =
+          Files.newDirectoryStream(root, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+        for (Path path : stream) {
+          final String name = path.getFileName().toString();
+          final YearMonth month =
+              YearMonth.parse(
+                  name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+          // A segment holding only a torn run archives nothing yet
+          if (!segment(month).runs.isEmpty()) {
+            listed.add(month);
+          }
+        }
+      }
+    }
+    Collections.sort(listed);
+    months = Collections.unmodifiableList(listed);
+  }
+
+  /**
+   * Method returns the start of the month after the latest archived month. Orders placed before it
+   * are read from the archive only, also while their database rows wait to be deleted.
+   *
+   * @return horizon, null if nothing has been archived
+   */
+  public LocalDateTime getHorizon() {
+    final List<YearMonth> archived = months;
+    return archived.isEmpty()
+        ? null
+        : archived.get(archived.size() - 1).plusMonths(1).atDay(1).atStartOfDay();
+  }
+
+  /**
+   * Method returns a customer's archived orders, latest first, starting right after the given
+   * keyset position
+   *
+   * @param customerId customer id
+   * @param date date of the last order of the previous page, null to start from the latest order
+   * @param orderId id of the last order of the previous page, null to start from the latest order
+   * @param limit maximum number of orders to return
+   * @return OrderSummary List with item lines
+   */
+  public List<OrderSummary> getOrders(
+      final int customerId, final LocalDateTime date, final Integer orderId, final int limit) {
+    final List<YearMonth> archived = months;
+    final List<OrderSummary> orders = new ArrayList<>();
+    try {
+      for (int m = archived.size() - 1; m >= 0 && orders.size() < limit; m--) {
+        final YearMonth month = archived.get(m);
+        if (date != null && month.isAfter(YearMonth.from(date))) {
+          continue;
+        }
+        final List<OrderSummary> monthOrders = new ArrayList<>();
+        final Segment segment = segment(month);
+        for (Run run : segment.runs) {
+          run.readCustomer(segment.path, customerId, monthOrders);
+        }
+        monthOrders.sort(LATEST_FIRST);
+        for (OrderSummary order : monthOrders) {
+          if (date == null
+              || orderId == null
+              || order.getDate().isBefore(date)
+              || (order.getDate().isEqual(date) && order.getId() < orderId)) {
+            orders.add(order);
+            if (orders.size() == limit) {
+              break;
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UnexpectedException(GEN_001, e);
+    }
+    return orders;
+  }
+
+  /**
+   * Method returns the ids of every archived order of a month
+   *
+   * @param month month
+   * @return order ids, empty if the month has no segment
+   * @throws IOException if the segment cannot be read
+   */
+  public Set<Integer> getOrderIds(final YearMonth month) throws IOException {
+    final Set<Integer> ids = new HashSet<>();
+    if (!Files.exists(segmentPath(month))) {
+      return ids;
+    }
+    final Segment segment = segment(month);
+    for (Run run : segment.runs) {
+      for (int block = 0; block < run.blockCount(); block++) {
+        for (OrderSummary order : run.readBlock(segment.path, block, ANY_CUSTOMER)) {
+          ids.add(order.getId());
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Method starts a new run of a month's segment. Nothing is written until the first order is
+   * added, and the run becomes visible only when it is committed.
+   *
+   * @param month month of the orders
+   * @return Writer taking orders sorted by customer id and, per customer, latest first
+   */
+  Writer newRun(final YearMonth month) {
+    return new Writer(segmentPath(month), blockBytes);
+  }
+
+  private Segment segment(final YearMonth month) throws IOException {
+    final Path path = segmentPath(month);
+    final long size = Files.size(path);
+    Segment segment = segments.get(month);
+    if (segment == null || segment.size != size) {
+      segment = Segment.read(path, size);
+      segments.put(month, segment);
+    }
+    return segment;
+  }
+
+  private Path segmentPath(final YearMonth month) {
+    return Paths.get(directory).resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+  }
+
+  /** Appends one run to a segment */
+  static final class Writer implements Closeable {
+    private final Path path;
+    private final int blockBytes;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private FileChannel channel;
+    private long runStart;
+    private long written;
+    private int blockCount;
+    private int firstCustomerId;
+    private int lastCustomerId;
+
+    private Writer(final Path path, final int blockBytes) {
+      this.path = path;
+      this.blockBytes = blockBytes;
+    }
+
+    /**
+     * Method adds an order to the run
+     *
+     * @param order OrderSummary with its customer id and item lines
+     * @throws IOException if the segment cannot be written
+     */
+    void add(final OrderSummary order) throws IOException {
+      if (channel == null) {
+        open();
+      }
+      if (block.size() == 0) {
+        firstCustomerId = order.getCustomerId();
+      }
+      lastCustomerId = order.getCustomerId();
+      // Customer id and length in front of each record let readers skip other customers' orders
+      record.reset();
+      writeOrder(recordOut, order);
+      blockOut.writeInt(order.getCustomerId());
+      blockOut.writeInt(record.size());
+      record.writeTo(blockOut);
+      if (block.size() >= blockBytes) {
+        flushBlock();
+      }
+    }
+
+    /**
+     * Method writes the run's index and header and forces the segment to disk
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    void commit() throws IOException {
+      if (channel == null) {
+        return;
+      }
+      flushBlock();
+      final byte[] indexBytes = index.toByteArray();
+      final long indexOffset = written;
+      write(ByteBuffer.wrap(indexBytes));
+      // The header goes last, once the blocks and the index are on disk
+      channel.force(true);
+      final CRC32 crc = new CRC32();
+      crc.update(indexBytes, 0, indexBytes.length);
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(RUN_MAGIC).putLong(written).putLong(indexOffset).putInt(blockCount);
+      header.putInt((int) crc.getValue()).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, runStart + header.position());
+      }
+      channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+      deflater.end();
+      if (channel != null) {
+        channel.close();
+      }
+    }
+
+    // Opens the segment after its last complete run, dropping a torn one
+    private void open() throws IOException {
+      Files.createDirectories(path.getParent());
+      channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      runStart = Segment.read(path, channel.size()).end;
+      channel.truncate(runStart);
+      channel.position(runStart);
+      written = 0;
+      write(ByteBuffer.allocate(HEADER_BYTES));
+    }
+
+    private void flushBlock() throws IOException {
+      if (block.size() == 0) {
+        return;
+      }
+      final byte[] raw = block.toByteArray();
+      deflater.reset();
+      deflater.setInput(raw);
+      deflater.finish();
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+      final byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        compressed.write(buffer, 0, deflater.deflate(buffer));
+      }
+      indexOut.writeInt(firstCustomerId);
+      indexOut.writeInt(lastCustomerId);
+      indexOut.writeInt((int) written);
+      indexOut.writeInt(compressed.size());
+      indexOut.writeInt(raw.length);
+      write(ByteBuffer.wrap(compressed.toByteArray()));
+      blockCount++;
+      block.reset();
+    }
+
+    private void write(final ByteBuffer buffer) throws IOException {
+      written += buffer.remaining();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /** The complete runs of a segment as read at one length */
+  private static final class Segment {
+    private final Path path;
+    private final long size;
+    // End of the last complete run
+    private final long end;
+    private final List<Run> runs;
+
+    private Segment(final Path path, final long size, final long end, final List<Run> runs) {
+      this.path = path;
+      this.size = size;
+      this.end = end;
+      this.runs = runs;
+    }
+
+    // Reads run headers and indexes from the start until the end or the first torn run
+    private static Segment read(final Path path, final long size) throws IOException {
+      final List<Run> runs = new ArrayList<>();
+      long position = 0;
+      if (size > 0) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          while (position + HEADER_BYTES <= size) {
+            final ByteBuffer header = readFully(channel, position, HEADER_BYTES);
+            final long length = header.getLong(4);
+            final long indexOffset = header.getLong(12);
+            final int blockCount = header.getInt(20);
+            if (header.getInt(0) != RUN_MAGIC
+                || length < HEADER_BYTES
+                || position + length > size
+                || indexOffset + (long) blockCount * INDEX_ENTRY_BYTES != length) {
+              break;
+            }
+            final ByteBuffer index =
+                readFully(channel, position + indexOffset, blockCount * INDEX_ENTRY_BYTES);
+            final CRC32 crc = new CRC32();
+            crc.update(index.array(), 0, index.capacity());
+            if ((int) crc.getValue() != header.getInt(24)) {
+              break;
+            }
+            runs.add(new Run(position, index));
+            position += length;
+          }
+        }
+      }
+      return new Segment(path, size, position, runs);
+    }
+  }
+
+  /** One run's position in its segment and its sparse index */
+  private static final class Run {
+    private final long start;
+    private final ByteBuffer index;
+
+    private Run(final long start, final ByteBuffer index) {
+      this.start = start;
+      this.index = index;
+    }
+
+    private int blockCount() {
+      return index.capacity() / INDEX_ENTRY_BYTES;
+    }
+
+    private int firstCustomerId(final int block) {
+      return index.getInt(block * INDEX_ENTRY_BYTES);
+    }
+
+    private int lastCustomerId(final int block) {
+      return index.getInt(block * INDEX_ENTRY_BYTES + 4);
+    }
+
+    // Adds the customer's orders of this run, reading only the blocks whose range holds the id
+    private void readCustomer(
+        final Path path, final int customerId, final List<OrderSummary> orders)
+        throws IOException {
+      int low = 0;
+      int high = blockCount();
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (lastCustomerId(middle) < customerId) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      for (int block = low; block < blockCount() && firstCustomerId(block) <= customerId; block++) {
+        orders.addAll(readBlock(path, block, customerId));
+      }
+    }
+
+    // Decodes the block's orders of one customer, or of every customer for ANY_CUSTOMER
+    private List<OrderSummary> readBlock(final Path path, final int block, final int customerId)
+        throws IOException {
+      final int entry = block * INDEX_ENTRY_BYTES;
+      final byte[] raw = new byte[index.getInt(entry + 16)];
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        final ByteBuffer compressed =
+            readFully(channel, start + index.getInt(entry + 8), index.getInt(entry + 12));
+        final Inflater inflater = new Inflater();
+        try {
+          inflater.setInput(compressed.array());
+          if (inflater.inflate(raw) != raw.length) {
+            throw new IOException("Short block " + block + " in " + path);
+          }
+        } catch (DataFormatException e) {
+          throw new IOException("Corrupt block " + block + " in " + path, e);
+        } finally {
+          inflater.end();
+        }
+      }
+      final ByteBuffer records = ByteBuffer.wrap(raw);
+      final List<OrderSummary> orders = new ArrayList<>();
+      while (records.hasRemaining()) {
+        final int recordCustomerId = records.getInt();
+        final int length = records.getInt();
+        if (customerId == ANY_CUSTOMER || recordCustomerId == customerId) {
+          orders.add(
+              readOrder(
+                  recordCustomerId,
+                  new DataInputStream(
+                      new ByteArrayInputStream(raw, records.position(), length))));
+        } else if (recordCustomerId > customerId) {
+          break;
+        }
+        records.position(records.position() + length);
+      }
+      return orders;
+    }
+  }
+
+  private static ByteBuffer readFully(
+      final FileChannel channel, final long position, final int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    return buffer;
+  }
+
+  private static void writeOrder(final DataOutputStream out, final OrderSummary order)
+      throws IOException {
+    out.writeInt(order.getId());
+    out.writeUTF(order.getUuid());
+    out.writeDouble(order.getBill());
+    writeNullableDouble(out, order.getDiscount());
+    out.writeLong(order.getDate().toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(order.getDate().getNano());
+    writeNullableString(out, order.getCouponUuid());
+    writeNullableString(out, order.getCouponName());
+    writeNullableInt(out, order.getCouponPercent());
+    writeNullableString(out, order.getPaymentUuid());
+    writeNullableString(out, order.getPaymentName());
+    writeNullableString(out, order.getAddressUuid());
+    writeNullableString(out, order.getFlatBuilNo());
+    writeNullableString(out, order.getLocality());
+    writeNullableString(out, order.getCity());
+    writeNullableString(out, order.getPincode());
+    writeNullableString(out, order.getStateUuid());
+    writeNullableString(out, order.getStateName());
+    out.writeInt(order.getLines().size());
+    for (OrderLine line : order.getLines()) {
+      final ItemSummary item = line.getItem();
+      writeNullableString(out, item.getUuid());
+      writeNullableString(out, item.getItemName());
+      writeNullableInt(out, item.getPrice());
+      writeNullableString(out, item.getType() == null ? null : item.getType().name());
+      writeNullableInt(out, line.getQuantity());
+      writeNullableInt(out, line.getPrice());
+    }
+  }
+
+  private static OrderSummary readOrder(final int customerId, final DataInputStream in)
+      throws IOException {
+    final int id = in.readInt();
+    final String uuid = in.readUTF();
+    final double bill = in.readDouble();
+    final Double discount = readNullableDouble(in);
+    final LocalDateTime date =
+        LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    final OrderSummary order =
+        new OrderSummary(
+            id,
+            customerId,
+            uuid,
+            bill,
+            discount,
+            date,
+            readNullableString(in),
+            readNullableString(in),
+            readNullableInt(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in),
+            readNullableString(in));
+    for (int lines = in.readInt(); lines > 0; lines--) {
+      final String itemUuid = readNullableString(in);
+      final String itemName = readNullableString(in);
+      final Integer itemPrice = readNullableInt(in);
+      final String type = readNullableString(in);
+      order
+          .getLines()
+          .add(
+              new OrderLine(
+                  new ItemSummary(
+                      itemUuid, itemName, itemPrice, type == null ? null : ItemType.valueOf(type)),
+                  readNullableInt(in),
+                  readNullableInt(in)));
+    }
+    return order;
+  }
+
+  private static void writeNullableString(final DataOutputStream out, final String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(final DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeNullableInt(final DataOutputStream out, final Integer value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  private static Integer readNullableInt(final DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  private static void writeNullableDouble(final DataOutputStream out, final Double value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeDouble(value);
+    }
+  }
+
+  private static Double readNullableDouble(final DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readDouble() : null;
+  }
+}
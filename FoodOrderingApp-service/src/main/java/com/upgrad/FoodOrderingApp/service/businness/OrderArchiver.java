@@ -0,0 +1,123 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves orders older than min-age-days out of the database into the order archive, a whole
+ * calendar month at a time.
+ *
+ * <p>Each pass appends the month's orders that are not archived yet as one run of its segment,
+ * and deletes the rows of the orders that were already archived when the pass started. Rows thus
+ * stay in the database until the pass after the one that archived them, which gives every node
+ * time to see the new segment, and a pass that stops half way is finished by the next one. A
+ * month left with nothing to archive loses its order and order item partitions in one drop. The
+ * order history never lists an order twice meanwhile, as it reads orders before the archive
+ * horizon from the archive only. Only one node may run the archiver, and the archive directory
+ * must be shared by all nodes.
+ */
+@Service
+public class OrderArchiver {
+
+  @Value("${order-archive.enabled:false}")
+  private boolean enabled;
+
+  @Value("${order-archive.min-age-days:365}")
+  private int minAgeDays;
+
+  @Autowired
+  private OrderDao orderDao;
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private OrderArchive orderArchive;
+
+  /**
+   * Archives every month that ended more than min-age-days ago and still has orders in the
+   * database
+   *
+   * @throws IOException if a segment cannot be read or written
+   */
+  @Scheduled(
+      initialDelayString = "${order-archive.interval-ms:86400000}",
+      fixedDelayString = "${order-archive.interval-ms:86400000}")
+  public void archive() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    final LocalDateTime oldest = orderDao.getOldestOrderDate();
+    if (oldest == null) {
+      return;
+    }
+    final YearMonth cutoff = YearMonth.from(LocalDateTime.now().minusDays(minAgeDays));
+    for (YearMonth month = YearMonth.from(oldest);
+        month.isBefore(cutoff);
+        month = month.plusMonths(1)) {
+      archiveMonth(month);
+    }
+    orderArchive.refresh();
+  }
+
+  private void archiveMonth(final YearMonth month) throws IOException {
+    final LocalDateTime from = month.atDay(1).atStartOfDay();
+    final LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+    final Set<Integer> archivedIds = orderArchive.getOrderIds(month);
+    final List<Integer> deletable = new ArrayList<>();
+    int archived = 0;
+    try (OrderArchive.Writer writer = orderArchive.newRun(month)) {
+      int customerId = 0;
+      LocalDateTime date = to;
+      int orderId = 0;
+      List<OrderSummary> page;
+      do {
+        page =
+            orderDao.getOrderArchivePage(
+                from, to, customerId, date, orderId, AppConstants.ORDER_ARCHIVE_BATCH_SIZE);
+        final List<OrderSummary> orders = new ArrayList<>(page.size());
+        for (OrderSummary order : page) {
+          if (archivedIds.contains(order.getId())) {
+            deletable.add(order.getId());
+          } else {
+            orders.add(order);
+          }
+        }
+        orderDao.addOrderLines(orders);
+        for (OrderSummary order : orders) {
+          writer.add(order);
+        }
+        archived += orders.size();
+        if (!page.isEmpty()) {
+          final OrderSummary last = page.get(page.size() - 1);
+          customerId = last.getCustomerId();
+          date = last.getDate();
+          orderId = last.getId();
+        }
+      } while (page.size() == AppConstants.ORDER_ARCHIVE_BATCH_SIZE);
+      writer.commit();
+    }
+    if (archived == 0) {
+      // Every order left in the month was archived by an earlier pass
+      orderService.dropArchivedMonth(month);
+      return;
+    }
+    for (int i = 0; i < deletable.size(); i += AppConstants.ORDER_ARCHIVE_BATCH_SIZE) {
+      orderService.deleteArchivedOrders(
+          deletable.subList(
+              i, Math.min(deletable.size(), i + AppConstants.ORDER_ARCHIVE_BATCH_SIZE)));
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.UnexpectedException;
+import com.upgrad.FoodOrderingApp.service.dao.OrderIdempotencyKeyDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderReceipt;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderIdempotencyKeyEntity;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidIdempotencyKeyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+/**
+ * Idempotency keys of order placement. A client sends the same Idempotency-Key header with every
+ * retry of one order; the first request places the order and the others get its receipt back
+ * without placing it again.
+ *
+ * <p>Keys are kept per customer in a bounded in-memory map with a TTL, in front of the
+ * order_idempotency_key table whose unique index on (customer_id, idempotency_key) keeps them
+ * across restarts and nodes. The key row is written in the order's own transaction, so a key is
+ * stored exactly when its order is. A request that finds its key in flight waits for that
+ * execution and returns its receipt, so concurrent duplicates coalesce onto one placement; if the
+ * placement fails the key is released and a waiting duplicate places the order itself. A duplicate
+ * waits at most in-flight-ms from the start of the execution; after that the execution is stale
+ * and the duplicate takes the key over, the unique index still stopping a second order if the
+ * first one is stored after all.
+ */
+@Service
+public class OrderIdempotency {
+
+  @Value("${order-idempotency.max-entries:100000}")
+  private int maxEntries;
+
+  @Value("${order-idempotency.ttl-ms:86400000}")
+  private long ttlMillis;
+
+  @Value("${order-idempotency.in-flight-ms:30000}")
+  private long inFlightMillis;
+
+  @Autowired
+  private OrderIdempotencyKeyDao orderIdempotencyKeyDao;
+
+  private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+  /**
+   * Method claims an idempotency key for placing an order. If the key has been used, or is being
+   * used by a concurrent request, the receipt of that order is returned, once it is known;
+   * otherwise the caller now owns the key and must finish with complete or release.
+   *
+   * @param customerId customer id
+   * @param idempotencyKey Idempotency-Key header value
+   * @return OrderReceipt of the order placed under the key, or null if the caller owns the key
+   * @throws InvalidIdempotencyKeyException on an empty key or one longer than 200 characters
+   */
+  public OrderReceipt claim(final int customerId, final String idempotencyKey)
+      throws InvalidIdempotencyKeyException {
+    if (idempotencyKey.isEmpty()
+        || idempotencyKey.length() > AppConstants.IDEMPOTENCY_KEY_MAX_LENGTH) {
+      throw new InvalidIdempotencyKeyException(IDK_001.getCode(), IDK_001.getDefaultMessage());
+    }
+    final String key = key(customerId, idempotencyKey);
+    while (true) {
+      final long now = System.currentTimeMillis();
+      final Execution execution = new Execution(now);
+      final Execution existing = executions.putIfAbsent(key, execution);
+      if (existing == null) {
+        evictIfFull(now);
+        final OrderIdempotencyKeyEntity stored;
+        try {
+          stored = orderIdempotencyKeyDao.getIdempotencyKey(customerId, idempotencyKey);
+        } catch (RuntimeException e) {
+          // Waiting duplicates claim the key again rather than wait for a receipt that never comes
+          executions.remove(key, execution);
+          execution.receipt.completeExceptionally(e);
+          throw e;
+        }
+        if (stored == null) {
+          return null;
+        }
+        final OrderReceipt receipt = new OrderReceipt(stored.getOrderUuid(), stored.getAccepted());
+        execution.receipt.complete(receipt);
+        return receipt;
+      }
+      if (existing.receipt.isDone() && now - existing.createdAt > ttlMillis) {
+        executions.remove(key, existing);
+        continue;
+      }
+      final OrderReceipt receipt = await(key, existing, now);
+      if (receipt != null) {
+        return receipt;
+      }
+      // The owner failed, released the key or is stale; claim it again
+    }
+  }
+
+  /**
+   * Method attaches a claimed key to a new order so that it is stored along with the order
+   *
+   * @param order new OrderEntity with its uuid and customer
+   * @param idempotencyKey claimed Idempotency-Key header value
+   * @param accepted true if the order goes through the asynchronous intake
+   */
+  public void attach(final OrderEntity order, final String idempotencyKey, final boolean accepted) {
+    order.setIdempotencyKey(
+        new OrderIdempotencyKeyEntity(
+            order.getCustomer().getId(),
+            idempotencyKey,
+            order.getUuid(),
+            accepted,
+            LocalDateTime.now()));
+  }
+
+  /**
+   * Method records the receipt of an order placed under a claimed key and hands it to the
+   * requests waiting for it
+   *
+   * @param customerId customer id
+   * @param idempotencyKey claimed Idempotency-Key header value
+   * @param receipt OrderReceipt of the placed order
+   */
+  public void complete(
+      final int customerId, final String idempotencyKey, final OrderReceipt receipt) {
+    final Execution execution = executions.get(key(customerId, idempotencyKey));
+    if (execution != null) {
+      execution.receipt.complete(receipt);
+    } else {
+      executions.put(key(customerId, idempotencyKey), new Execution(receipt));
+    }
+  }
+
+  /**
+   * Method gives up a claimed key after its order could not be placed
+   *
+   * @param customerId customer id
+   * @param idempotencyKey claimed Idempotency-Key header value
+   */
+  public void release(final int customerId, final String idempotencyKey) {
+    final String key = key(customerId, idempotencyKey);
+    final Execution execution = executions.get(key);
+    if (execution != null && !execution.receipt.isDone()) {
+      executions.remove(key, execution);
+      execution.receipt.complete(null);
+    }
+  }
+
+  /** Forgets the keys older than the TTL, in memory and in the database, and stale executions */
+  @Scheduled(fixedDelayString = "${order-idempotency.purge-interval-ms:3600000}")
+  @Transactional(propagation = Propagation.REQUIRED)
+  public void purge() {
+    final long now = System.currentTimeMillis();
+    executions.values().removeIf(execution -> isExpired(execution, now));
+    orderIdempotencyKeyDao.deleteIdempotencyKeys(
+        LocalDateTime.now().minus(ttlMillis, ChronoUnit.MILLIS));
+  }
+
+  // Receipt of another request's execution, or null once it failed, was released or went stale
+  private OrderReceipt await(final String key, final Execution execution, final long now) {
+    try {
+      return execution.receipt.get(
+          Math.max(execution.createdAt + inFlightMillis - now, 0), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      return null;
+    } catch (TimeoutException e) {
+      if (executions.remove(key, execution)) {
+        execution.receipt.complete(null);
+      }
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnexpectedException(GEN_001, e);
+    }
+  }
+
+  // Stored keys are found in the table again, so finished executions go first when the map is full
+  private void evictIfFull(final long now) {
+    if (executions.size() <= maxEntries) {
+      return;
+    }
+    executions.values().removeIf(execution -> isExpired(execution, now));
+    if (executions.size() > maxEntries) {
+      executions.values().removeIf(execution -> execution.receipt.isDone());
+    }
+  }
+
+  // A finished execution past the TTL, or one in flight for longer than in-flight-ms, which is
+  // released so that its waiters claim the key again
+  private boolean isExpired(final Execution execution, final long now) {
+    if (execution.receipt.isDone()) {
+      return now - execution.createdAt > ttlMillis;
+    }
+    if (now - execution.createdAt > inFlightMillis) {
+      execution.receipt.complete(null);
+      return true;
+    }
+    return false;
+  }
+
+  private static String key(final int customerId, final String idempotencyKey) {
+    return customerId + AppConstants.COLON + idempotencyKey;
+  }
+
+  /** One placement under a key; the receipt completes with null when the key is released */
+  private static final class Execution {
+    private final CompletableFuture<OrderReceipt> receipt = new CompletableFuture<>();
+    private final long createdAt;
+
+    private Execution(final long createdAt) {
+      this.createdAt = createdAt;
+    }
+
+    private Execution(final OrderReceipt receipt) {
+      this(System.currentTimeMillis());
+      this.receipt.complete(receipt);
+    }
+  }
+}
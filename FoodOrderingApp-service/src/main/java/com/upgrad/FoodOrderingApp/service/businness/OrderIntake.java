@@ -0,0 +1,511 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.common.UnexpectedException;
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderReceipt;
+import com.upgrad.FoodOrderingApp.service.dto.OrderStatusUpdate;
+import com.upgrad.FoodOrderingApp.service.entity.AddressEntity;
+import com.upgrad.FoodOrderingApp.service.entity.CouponEntity;
+import com.upgrad.FoodOrderingApp.service.entity.CustomerEntity;
+import com.upgrad.FoodOrderingApp.service.entity.ItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderIdempotencyKeyEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.PaymentEntity;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.OrderNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+/**
+ * Asynchronous order intake. A validated order is appended to the local OrderLog and made durable
+ * there before it is acknowledged; a writer on the order scheduler then stores accepted orders in
+ * the database in batches of ORDER_INTAKE_BATCH_SIZE, one transaction per batch, and checkpoints
+ * the log past them. On startup the records after the checkpoint are read back and stored again.
+ * Orders that are already in the database are skipped by uuid, so an order is stored once even
+ * when the process stopped between a commit and its checkpoint.
+ *
+ * <p>A batch leaves the queue only once each of its orders has been stored or rejected. An order
+ * is rejected, and its status FAILED, only when the database refuses it for good: a constraint
+ * violation, or a restaurant that no longer exists. Any other error, such as a lost connection,
+ * leaves the batch queued for the next run, which skips the orders stored by then.
+ */
+@Service
+public class OrderIntake {
+
+  @Value("${order-intake.async:false}")
+  private boolean async;
+
+  @Value("${order-intake.log-dir:order-log}")
+  private String logDirectory;
+
+  @Value("${order-intake.segment-bytes:67108864}")
+  private int segmentBytes;
+
+  @Value("${order-intake.flush-interval-ms:100}")
+  private long flushIntervalMillis;
+
+  @Value("${order-intake.failed-max-entries:100000}")
+  private int failedMaxEntries;
+
+  @Value("${order-intake.failed-ttl-ms:86400000}")
+  private long failedTtlMillis;
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private OrderDao orderDao;
+
+  @Autowired
+  private RestaurantDao restaurantDao;
+
+  @Autowired
+  private OrderIdempotency orderIdempotency;
+
+  @Autowired
+  @Qualifier("orderScheduler")
+  private TaskScheduler orderScheduler;
+
+  private OrderLog log;
+
+  private ScheduledFuture<?> writer;
+
+  // Accepted orders in log order, waiting for the writer
+  private final ArrayDeque<Intake> queue = new ArrayDeque<>();
+
+  // Customer id of every order accepted but not yet stored
+  private final Map<String, Integer> acceptedCustomerIds = new ConcurrentHashMap<>();
+
+  // Rejected orders by uuid, oldest first, kept failed-max-entries deep for failed-ttl-ms
+  private final LinkedHashMap<String, Rejection> rejections = new LinkedHashMap<>();
+
+  /**
+   * Opens the log and queues the orders it holds after the checkpoint, whose idempotency keys are
+   * in use again until they are stored. The log is opened even when intake is synchronous, so
+   * orders accepted before a switch back are still stored.
+   *
+   * @throws IOException if the log cannot be opened
+   */
+  @PostConstruct
+  public void open() throws IOException {
+    log = new OrderLog(Paths.get(logDirectory), segmentBytes);
+    for (OrderLog.Record record : log.recovered()) {
+      final Intake intake = Intake.decode(record.payload(), record.position());
+      queue.add(intake);
+      acceptedCustomerIds.put(intake.uuid, intake.customerId);
+      if (intake.idempotencyKey != null) {
+        orderIdempotency.complete(
+            intake.customerId, intake.idempotencyKey, new OrderReceipt(intake.uuid, true));
+      }
+    }
+  }
+
+  /** Starts the writer once the application context is up */
+  @EventListener(ContextRefreshedEvent.class)
+  public synchronized void startWriter() {
+    if (writer == null) {
+      writer = orderScheduler.scheduleWithFixedDelay(this::drain, flushIntervalMillis);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    synchronized (this) {
+      if (writer != null) {
+        writer.cancel(false);
+      }
+    }
+    log.close();
+  }
+
+  /** @return true if new orders are to be accepted through the log instead of stored directly */
+  public boolean isAsync() {
+    return async;
+  }
+
+  /**
+   * Method logs a validated order and returns once the log record is durable
+   *
+   * @param order priced OrderEntity with its uuid, customer, payment, address and restaurant
+   * @param orderItems priced OrderItemEntity List of the order
+   */
+  public void accept(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+    final Intake intake = Intake.of(order, orderItems);
+    final byte[] payload = intake.encode();
+    try {
+      // The queue must hold the orders in log order for the writer's checkpoints
+      synchronized (queue) {
+        intake.position = log.append(payload);
+        acceptedCustomerIds.put(intake.uuid, intake.customerId);
+        queue.add(intake);
+      }
+    } catch (IOException e) {
+      throw new UnexpectedException(GEN_001, e);
+    }
+    log.sync(intake.position);
+    orderService.notifyOrderStatus(intake.customerId, intake.uuid, OrderStatus.QUEUED);
+  }
+
+  /**
+   * Method returns how far a customer's order has come
+   *
+   * @param customer customer
+   * @param orderUuid order uuid
+   * @return OrderStatus
+   * @throws OrderNotFoundException if the customer has no order by this uuid
+   */
+  public OrderStatus getOrderStatus(final CustomerEntity customer, final String orderUuid)
+      throws OrderNotFoundException {
+    final Integer customerId = customer.getId();
+    if (customerId.equals(acceptedCustomerIds.get(orderUuid))) {
+      return OrderStatus.QUEUED;
+    }
+    if (isRejected(customerId, orderUuid)) {
+      return OrderStatus.FAILED;
+    }
+    final OrderStatus status = orderDao.getOrderStatus(orderUuid, customerId);
+    if (status == null) {
+      throw new OrderNotFoundException(ODR_002.getCode(), ODR_002.getDefaultMessage());
+    }
+    return status;
+  }
+
+  /**
+   * Method returns a customer's orders that have not been delivered yet: those accepted but not
+   * yet stored, and the latest stored ones
+   *
+   * @param customer customer
+   * @return OrderStatusUpdate List
+   */
+  public List<OrderStatusUpdate> getOpenOrderStatuses(final CustomerEntity customer) {
+    final Integer customerId = customer.getId();
+    final List<OrderStatusUpdate> statuses = new ArrayList<>();
+    for (Map.Entry<String, Integer> accepted : acceptedCustomerIds.entrySet()) {
+      if (customerId.equals(accepted.getValue())) {
+        statuses.add(new OrderStatusUpdate(accepted.getKey(), OrderStatus.QUEUED));
+      }
+    }
+    statuses.addAll(
+        orderDao.getOpenOrderStatuses(customerId, AppConstants.OPEN_ORDER_STATUSES_LIMIT));
+    return statuses;
+  }
+
+  /**
+   * Stores the durable accepted orders in the database, batch by batch. A batch that cannot be
+   * stored for a reason other than a rejection stays queued, and the exception ends this run.
+   */
+  public void drain() {
+    final long durable = log.durablePosition();
+    List<Intake> batch;
+    while (!(batch = peekBatch(durable)).isEmpty()) {
+      store(batch);
+      synchronized (queue) {
+        for (int i = 0; i < batch.size(); i++) {
+          queue.poll();
+        }
+      }
+      for (Intake intake : batch) {
+        acceptedCustomerIds.remove(intake.uuid);
+      }
+      try {
+        log.checkpoint(batch.get(batch.size() - 1).position);
+      } catch (IOException e) {
+        // The batch is stored; the next checkpoint covers it, or a restart skips it by uuid
+        throw new UnexpectedException(GEN_001, e);
+      }
+    }
+  }
+
+  // Only the writer takes orders off the queue, so the batch is still at its head when stored
+  private List<Intake> peekBatch(final long durable) {
+    final List<Intake> batch = new ArrayList<>();
+    synchronized (queue) {
+      for (Intake intake : queue) {
+        if (batch.size() == AppConstants.ORDER_INTAKE_BATCH_SIZE || intake.position > durable) {
+          break;
+        }
+        batch.add(intake);
+      }
+    }
+    return batch;
+  }
+
+  private void store(final List<Intake> batch) {
+    // Skip the orders stored before a restart that came ahead of their checkpoint
+    final Set<String> uuids = new HashSet<>();
+    final Set<Integer> restaurantIds = new HashSet<>();
+    LocalDateTime since = batch.get(0).date;
+    for (Intake intake : batch) {
+      uuids.add(intake.uuid);
+      restaurantIds.add(intake.restaurantId);
+      if (intake.date.isBefore(since)) {
+        since = intake.date;
+      }
+    }
+    final Set<String> stored = new HashSet<>(orderDao.getStoredOrderUuids(uuids, since));
+
+    // The rankings read the restaurant's city after commit, so restaurants are loaded, not proxied
+    final Map<Integer, RestaurantEntity> restaurants = new HashMap<>();
+    for (RestaurantEntity restaurant :
+        restaurantDao.getRestaurantsByIds(new ArrayList<>(restaurantIds))) {
+      restaurants.put(restaurant.getId(), restaurant);
+    }
+
+    final List<Intake> pending = new ArrayList<>(batch.size());
+    final List<OrderEntity> orders = new ArrayList<>(batch.size());
+    final List<List<OrderItemEntity>> orderItems = new ArrayList<>(batch.size());
+    for (Intake intake : batch) {
+      if (intake.rejected || stored.contains(intake.uuid)) {
+        continue;
+      }
+      final RestaurantEntity restaurant = restaurants.get(intake.restaurantId);
+      if (restaurant == null) {
+        reject(intake);
+        continue;
+      }
+      pending.add(intake);
+      orders.add(toOrder(intake, restaurant));
+      orderItems.add(toOrderItems(intake));
+    }
+    if (orders.isEmpty()) {
+      return;
+    }
+    try {
+      orderService.placeOrders(orders, orderItems);
+    } catch (RuntimeException e) {
+      if (!isRejection(e)) {
+        throw e;
+      }
+      // Store the orders one by one so a single rejected order does not hold back the others
+      for (int i = 0; i < orders.size(); i++) {
+        try {
+          orderService.placeOrders(
+              Collections.singletonList(toOrder(pending.get(i), orders.get(i).getRestaurant())),
+              Collections.singletonList(toOrderItems(pending.get(i))));
+        } catch (RuntimeException rejected) {
+          if (!isRejection(rejected)) {
+            throw rejected;
+          }
+          reject(pending.get(i));
+        }
+      }
+    }
+  }
+
+  // True when the database refused the data itself, so storing the order again cannot succeed
+  private static boolean isRejection(final RuntimeException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof DataIntegrityViolationException
+          || cause instanceof ConstraintViolationException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void reject(final Intake intake) {
+    intake.rejected = true;
+    final long now = System.currentTimeMillis();
+    synchronized (rejections) {
+      rejections.put(intake.uuid, new Rejection(intake.customerId, now));
+      final Iterator<Rejection> oldest = rejections.values().iterator();
+      while (oldest.hasNext()) {
+        final Rejection rejection = oldest.next();
+        if (rejections.size() <= failedMaxEntries
+            && now - rejection.rejectedAt <= failedTtlMillis) {
+          break;
+        }
+        oldest.remove();
+      }
+    }
+    orderService.notifyOrderStatus(intake.customerId, intake.uuid, OrderStatus.FAILED);
+  }
+
+  private boolean isRejected(final int customerId, final String orderUuid) {
+    synchronized (rejections) {
+      final Rejection rejection = rejections.get(orderUuid);
+      return rejection != null
+          && rejection.customerId == customerId
+          && System.currentTimeMillis() - rejection.rejectedAt <= failedTtlMillis;
+    }
+  }
+
+  private OrderEntity toOrder(final Intake intake, final RestaurantEntity restaurant) {
+    final OrderEntity order = new OrderEntity();
+    order.setUuid(intake.uuid);
+    order.setCustomer(orderDao.getReference(CustomerEntity.class, intake.customerId));
+    order.setPayment(orderDao.getReference(PaymentEntity.class, intake.paymentId));
+    order.setAddress(orderDao.getReference(AddressEntity.class, intake.addressId));
+    order.setRestaurant(restaurant);
+    if (intake.couponId != 0) {
+      order.setCoupon(orderDao.getReference(CouponEntity.class, intake.couponId));
+    }
+    order.setBill(intake.bill);
+    order.setDiscount(intake.discount);
+    order.setDate(intake.date);
+    if (intake.idempotencyKey != null) {
+      order.setIdempotencyKey(
+          new OrderIdempotencyKeyEntity(
+              intake.customerId, intake.idempotencyKey, intake.uuid, true, intake.date));
+    }
+    return order;
+  }
+
+  private List<OrderItemEntity> toOrderItems(final Intake intake) {
+    final List<OrderItemEntity> orderItems = new ArrayList<>(intake.itemIds.length);
+    for (int i = 0; i < intake.itemIds.length; i++) {
+      final OrderItemEntity orderItem = new OrderItemEntity();
+      orderItem.setItem(orderDao.getReference(ItemEntity.class, intake.itemIds[i]));
+      orderItem.setQuantity(intake.quantities[i]);
+      orderItem.setPrice(intake.prices[i]);
+      orderItems.add(orderItem);
+    }
+    return orderItems;
+  }
+
+  /** Customer of a rejected order and when it was rejected */
+  private static final class Rejection {
+    private final int customerId;
+    private final long rejectedAt;
+
+    private Rejection(final int customerId, final long rejectedAt) {
+      this.customerId = customerId;
+      this.rejectedAt = rejectedAt;
+    }
+  }
+
+  /** An accepted order as ids and values, encoded into one log record */
+  static final class Intake {
+    private long position;
+    // Set once the order is rejected, so a retried batch does not store or report it again
+    private boolean rejected;
+    private String uuid;
+    private int customerId;
+    private int paymentId;
+    private int addressId;
+    private int restaurantId;
+    // 0 for an order without a coupon
+    private int couponId;
+    private double bill;
+    private double discount;
+    private LocalDateTime date;
+    private int[] itemIds;
+    private int[] quantities;
+    private int[] prices;
+    // null for an order placed without an Idempotency-Key header
+    private String idempotencyKey;
+
+    static Intake of(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+      final Intake intake = new Intake();
+      intake.uuid = order.getUuid();
+      intake.customerId = order.getCustomer().getId();
+      intake.paymentId = order.getPayment().getId();
+      intake.addressId = order.getAddress().getId();
+      intake.restaurantId = order.getRestaurant().getId();
+      intake.couponId = order.getCoupon() == null ? 0 : order.getCoupon().getId();
+      intake.bill = order.getBill();
+      intake.discount = order.getDiscount() == null ? 0 : order.getDiscount();
+      intake.date = order.getDate();
+      intake.itemIds = new int[orderItems.size()];
+      intake.quantities = new int[orderItems.size()];
+      intake.prices = new int[orderItems.size()];
+      for (int i = 0; i < orderItems.size(); i++) {
+        intake.itemIds[i] = orderItems.get(i).getItem().getId();
+        intake.quantities[i] = orderItems.get(i).getQuantity();
+        intake.prices[i] = orderItems.get(i).getPrice();
+      }
+      if (order.getIdempotencyKey() != null) {
+        intake.idempotencyKey = order.getIdempotencyKey().getIdempotencyKey();
+      }
+      return intake;
+    }
+
+    byte[] encode() {
+      final byte[] uuidBytes = uuid.getBytes(StandardCharsets.UTF_8);
+      final byte[] keyBytes =
+          idempotencyKey == null ? new byte[0] : idempotencyKey.getBytes(StandardCharsets.UTF_8);
+      final ByteBuffer buffer =
+          ByteBuffer.allocate(
+              4 + uuidBytes.length + 5 * 4 + 2 * 8 + 12 + 4 + 12 * itemIds.length
+                  + 4 + keyBytes.length);
+      buffer.putInt(uuidBytes.length).put(uuidBytes);
+      buffer.putInt(customerId).putInt(paymentId).putInt(addressId).putInt(restaurantId);
+      buffer.putInt(couponId).putDouble(bill).putDouble(discount);
+      buffer.putLong(date.toEpochSecond(ZoneOffset.UTC)).putInt(date.getNano());
+      buffer.putInt(itemIds.length);
+      for (int i = 0; i < itemIds.length; i++) {
+        buffer.putInt(itemIds[i]).putInt(quantities[i]).putInt(prices[i]);
+      }
+      // The key comes last, so records logged before keys existed still decode
+      buffer.putInt(keyBytes.length).put(keyBytes);
+      return buffer.array();
+    }
+
+    static Intake decode(final byte[] payload, final long position) {
+      final ByteBuffer buffer = ByteBuffer.wrap(payload);
+      final Intake intake = new Intake();
+      intake.position = position;
+      final byte[] uuidBytes = new byte[buffer.getInt()];
+      buffer.get(uuidBytes);
+      intake.uuid = new String(uuidBytes, StandardCharsets.UTF_8);
+      intake.customerId = buffer.getInt();
+      intake.paymentId = buffer.getInt();
+      intake.addressId = buffer.getInt();
+      intake.restaurantId = buffer.getInt();
+      intake.couponId = buffer.getInt();
+      intake.bill = buffer.getDouble();
+      intake.discount = buffer.getDouble();
+      intake.date = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+      final int lines = buffer.getInt();
+      intake.itemIds = new int[lines];
+      intake.quantities = new int[lines];
+      intake.prices = new int[lines];
+      for (int i = 0; i < lines; i++) {
+        intake.itemIds[i] = buffer.getInt();
+        intake.quantities[i] = buffer.getInt();
+        intake.prices[i] = buffer.getInt();
+      }
+      if (buffer.hasRemaining()) {
+        final byte[] keyBytes = new byte[buffer.getInt()];
+        buffer.get(keyBytes);
+        intake.idempotencyKey =
+            keyBytes.length == 0 ? null : new String(keyBytes, StandardCharsets.UTF_8);
+      }
+      return intake;
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead log of accepted orders.
+ *
+ * <p>The log is a directory of fixed-size segment files, each memory mapped while it is written.
+ * A record is an int payload length, the CRC32 of the payload and the payload; a zero length ends
+ * a segment's records. Positions are byte offsets into the log as a whole, so a record's end
+ * position names everything up to and including it. Appends only copy into the mapping; sync
+ * forces the mappings to disk and is shared by every append that arrived while a force was in
+ * progress, so concurrent writers are made durable in batches. A checkpoint file records the
+ * position up to which records have been stored elsewhere; segments below it are deleted. On open
+ * the records after the checkpoint are read back until the first torn or corrupt record, and the
+ * log continues from there.
+ */
+final class OrderLog implements Closeable {
+
+  // Payload length and CRC32 in front of every payload
+  private static final int HEADER_BYTES = 8;
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final List<Record> recovered = new ArrayList<>();
+
+  // Segments filled since the last sync, forced by the next one
+  private final List<MappedByteBuffer> unsynced = new ArrayList<>();
+  private MappedByteBuffer segment;
+  private long segmentIndex;
+  private int offset;
+  private long written;
+
+  private final Object syncLock = new Object();
+  private volatile long durable;
+
+  /**
+   * Opens the log in a directory, creating it if needed, and reads back the records after the
+   * checkpoint
+   *
+   * @param directory log directory
+   * @param segmentBytes size of every segment file, the same for every open of a directory
+   * @throws IOException if the directory or its files cannot be read or written
+   */
+  OrderLog(final Path directory, final int segmentBytes) throws IOException {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    final long checkpoint = readCheckpoint();
+    segmentIndex = checkpoint / segmentBytes;
+    offset = (int) (checkpoint % segmentBytes);
+    segment = map(segmentIndex);
+    while (true) {
+      if (offset + HEADER_BYTES > segmentBytes || segment.getInt(offset) == 0) {
+        // End of this segment's records; the log goes on if a later segment was started
+        if (!Files.exists(segmentPath(segmentIndex + 1))) {
+          break;
+        }
+        segment = map(++segmentIndex);
+        offset = 0;
+        continue;
+      }
+      final byte[] payload = read(segment, offset);
+      if (payload == null) {
+        break;
+      }
+      offset += HEADER_BYTES + payload.length;
+      recovered.add(new Record(position(), payload));
+    }
+    // Nothing after a torn record was ever acknowledged: clear it so it cannot be read back later
+    clear(segment, offset);
+    for (Path path : segmentPaths()) {
+      if (segmentIndex(path) > segmentIndex) {
+        Files.delete(path);
+      }
+    }
+    written = position();
+    durable = written;
+  }
+
+  /** @return records after the checkpoint found when the log was opened, in log order */
+  List<Record> recovered() {
+    return Collections.unmodifiableList(recovered);
+  }
+
+  /**
+   * Method appends a non-empty record. It is durable once sync has been called with its position.
+   *
+   * @param payload record payload
+   * @return end position of the record
+   * @throws IOException if a new segment cannot be created
+   */
+  synchronized long append(final byte[] payload) throws IOException {
+    final int recordBytes = HEADER_BYTES + payload.length;
+    if (payload.length == 0 || recordBytes > segmentBytes) {
+      throw new IllegalArgumentException("Record of " + recordBytes + " bytes does not fit");
+    }
+    if (offset + recordBytes > segmentBytes) {
+      unsynced.add(segment);
+      segment = map(++segmentIndex);
+      offset = 0;
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+    segment.putInt(offset + 4, (int) crc.getValue());
+    final ByteBuffer target = segment.duplicate();
+    target.position(offset + HEADER_BYTES);
+    target.put(payload);
+    segment.putInt(offset, payload.length);
+    offset += recordBytes;
+    written = position();
+    return written;
+  }
+
+  /**
+   * Method makes every record up to a position durable. A caller that finds a force in progress
+   * waits for it and is usually covered by it, so one force serves many appends.
+   *
+   * @param position end position of a record
+   */
+  void sync(final long position) {
+    if (durable >= position) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (durable >= position) {
+        return;
+      }
+      final List<MappedByteBuffer> full;
+      final MappedByteBuffer current;
+      final long target;
+      synchronized (this) {
+        full = new ArrayList<>(unsynced);
+        unsynced.clear();
+        current = segment;
+        target = written;
+      }
+      for (MappedByteBuffer buffer : full) {
+        buffer.force();
+      }
+      current.force();
+      durable = target;
+    }
+  }
+
+  /** @return end position of the last durable record */
+  long durablePosition() {
+    return durable;
+  }
+
+  /**
+   * Method records that every record up to a position has been stored elsewhere and deletes the
+   * segments that hold nothing after it
+   *
+   * @param position end position of a durable record
+   * @throws IOException if the checkpoint cannot be written
+   */
+  synchronized void checkpoint(final long position) throws IOException {
+    final Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+    try (FileChannel channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer buffer = ByteBuffer.allocate(8);
+      buffer.putLong(0, position);
+      channel.write(buffer);
+      channel.force(true);
+    }
+    Files.move(
+        temp,
+        directory.resolve(CHECKPOINT_FILE),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    for (Path path : segmentPaths()) {
+      if (segmentIndex(path) < position / segmentBytes) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    sync(Long.MAX_VALUE);
+  }
+
+  private long position() {
+    return segmentIndex * segmentBytes + offset;
+  }
+
+  private long readCheckpoint() throws IOException {
+    final Path path = directory.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    final byte[] bytes = Files.readAllBytes(path);
+    return bytes.length == 8 ? ByteBuffer.wrap(bytes).getLong() : 0;
+  }
+
+  // Maps a segment, creating a zero-filled file for a new one; the mapping outlives the channel
+  private MappedByteBuffer map(final long index) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            segmentPath(index),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+  }
+
+  // Payload of the record at an offset, null if the record is torn or corrupt
+  private byte[] read(final MappedByteBuffer buffer, final int at) {
+    final int length = buffer.getInt(at);
+    if (length < 0 || at + HEADER_BYTES + length > segmentBytes) {
+      return null;
+    }
+    final byte[] payload = new byte[length];
+    final ByteBuffer source = buffer.duplicate();
+    source.position(at + HEADER_BYTES);
+    source.get(payload);
+    final CRC32 crc = new CRC32();
+    crc.update(payload, 0, length);
+    return (int) crc.getValue() == buffer.getInt(at + 4) ? payload : null;
+  }
+
+  private void clear(final MappedByteBuffer buffer, final int from) {
+    final byte[] zeros = new byte[Math.min(64 * 1024, segmentBytes)];
+    final ByteBuffer target = buffer.duplicate();
+    target.position(from);
+    while (target.hasRemaining()) {
+      target.put(zeros, 0, Math.min(zeros.length, target.remaining()));
+    }
+    buffer.force();
+  }
+
+  private Path segmentPath(final long index) {
+    return directory.resolve(String.format("%019d%s", index, SEGMENT_SUFFIX));
+  }
+
+  private List<Path> segmentPaths() throws IOException {
+    final List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path path : stream) {
+        paths.add(path);
+      }
+    }
+    return paths;
+  }
+
+  private static long segmentIndex(final Path path) {
+    final String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /** A record read back on open */
+  static final class Record {
+    private final long position;
+    private final byte[] payload;
+
+    private Record(final long position, final byte[] payload) {
+      this.position = position;
+      this.payload = payload;
+    }
+
+    /** @return end position of the record */
+    long position() {
+      return position;
+    }
+
+    byte[] payload() {
+      return payload;
+    }
+  }
+}
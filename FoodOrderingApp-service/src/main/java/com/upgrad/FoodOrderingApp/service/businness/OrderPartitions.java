@@ -0,0 +1,35 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.YearMonth;
+
+/**
+ * Creates the monthly partitions of the orders and order_item tables ahead of time, so that an
+ * order never falls in a month without one. Runs at startup and every interval-ms, creating the
+ * partitions missing from the current month through months-ahead months after it, and those of
+ * any month whose rows wait in the default partitions, such as orders stored before partitioning.
+ */
+@Service
+public class OrderPartitions {
+
+  @Value("${order-partitions.months-ahead:3}")
+  private int monthsAhead;
+
+  @Autowired
+  private OrderDao orderDao;
+
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${order-partitions.interval-ms:86400000}",
+      fixedDelayString = "${order-partitions.interval-ms:86400000}")
+  public void createPartitions() {
+    final YearMonth month = YearMonth.now();
+    orderDao.createOrderPartitions(month, month.plusMonths(monthsAhead + 1));
+  }
+}
@@ -0,0 +1,406 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import com.upgrad.FoodOrderingApp.service.dao.CouponDao;
+import com.upgrad.FoodOrderingApp.service.dao.ItemDao;
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.dao.OrderIdempotencyKeyDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderPage;
+import com.upgrad.FoodOrderingApp.service.dto.OrderSummary;
+import com.upgrad.FoodOrderingApp.service.entity.CouponEntity;
+import com.upgrad.FoodOrderingApp.service.entity.CustomerEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import com.upgrad.FoodOrderingApp.service.exception.AuthorizationFailedException;
+import com.upgrad.FoodOrderingApp.service.exception.CouponNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidBillException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidOrderStatusException;
+import com.upgrad.FoodOrderingApp.service.exception.ItemNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.OrderNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+@Service
+public class OrderService {
+
+  @Autowired
+  private OrderDao orderDao;
+
+  @Autowired
+  private CouponDao couponDao;
+
+  @Autowired
+  private ItemDao itemDao;
+
+  @Autowired
+  private OrderIdempotencyKeyDao orderIdempotencyKeyDao;
+
+  @Autowired
+  private PriceBook priceBook;
+
+  @Autowired
+  private ItemPopularityIndex itemPopularityIndex;
+
+  @Autowired
+  private TrendingItemIndex trendingItemIndex;
+
+  @Autowired
+  private ItemCooccurrenceIndex itemCooccurrenceIndex;
+
+  @Autowired
+  private OrderArchive orderArchive;
+
+  @Autowired
+  private RestaurantRevenueRollup restaurantRevenueRollup;
+
+  @Autowired(required = false)
+  private List<OrderStatusListener> orderStatusListeners = Collections.emptyList();
+
+  @Autowired
+  private RestaurantTokens restaurantTokens;
+
+  /**
+   * Method takes a coupon uuid and returns the matching CouponEntity
+   *
+   * @param couponId coupon uuid
+   * @return CouponEntity
+   * @throws CouponNotFoundException on empty or non-existent coupon id
+   */
+  public CouponEntity getCouponByCouponId(final String couponId) throws CouponNotFoundException {
+    final CouponEntity coupon = couponId == null ? null : couponDao.getCouponByUuid(couponId);
+    if (coupon == null) {
+      throw new CouponNotFoundException(CPF_003.getCode(), CPF_003.getDefaultMessage());
+    }
+    return coupon;
+  }
+
+  /**
+   * Method prices an order from the price book and checks the client's figures against it: every
+   * line price must be the item's menu price times its quantity, the discount the coupon's percent
+   * of the item total and the bill the item total less the discount. The order gets its coupon and
+   * the server's bill and discount, and its items are returned as references, so no item or coupon
+   * is loaded. A cart that does not match the book is priced again from the restaurant's menu in
+   * the database before it is rejected, so a book older than the menu never turns a correct order
+   * away.
+   *
+   * @param order new OrderEntity with its restaurant
+   * @param couponId coupon uuid, null for none
+   * @param bill bill computed by the client
+   * @param discount discount computed by the client, null for none
+   * @param itemIds item uuid of each line
+   * @param quantities quantity of each line
+   * @param prices line price of each line computed by the client
+   * @return new OrderItemEntity List, one per line
+   * @throws CouponNotFoundException on non-existent coupon id
+   * @throws ItemNotFoundException on an item that is not on the restaurant's menu
+   * @throws InvalidBillException on an order without items, or a line price, discount or bill that
+   *     does not match the menu
+   */
+  public List<OrderItemEntity> priceOrder(
+      final OrderEntity order,
+      final UUID couponId,
+      final BigDecimal bill,
+      final BigDecimal discount,
+      final UUID[] itemIds,
+      final int[] quantities,
+      final int[] prices)
+      throws CouponNotFoundException, ItemNotFoundException, InvalidBillException {
+    if (itemIds.length == 0) {
+      throw new InvalidBillException(BIL_003.getCode(), BIL_003.getDefaultMessage());
+    }
+    int percent = 0;
+    if (couponId != null) {
+      final long coupon = priceBook.coupon(couponId);
+      if (coupon == PriceBook.NO_COUPON) {
+        throw new CouponNotFoundException(CPF_003.getCode(), CPF_003.getDefaultMessage());
+      }
+      order.setCoupon(couponDao.getCouponReference((int) (coupon >>> 32)));
+      percent = (int) coupon;
+    }
+
+    final int restaurantId = order.getRestaurant().getId();
+    final int[] menuItemIds = new int[itemIds.length];
+    final int[] menuPrices = new int[itemIds.length];
+    if (!priceBook.priceItems(restaurantId, itemIds, menuItemIds, menuPrices, false)
+        || !linesMatch(quantities, prices, menuPrices)) {
+      if (!priceBook.priceItems(restaurantId, itemIds, menuItemIds, menuPrices, true)) {
+        throw new ItemNotFoundException(INF_002.getCode(), INF_002.getDefaultMessage());
+      }
+      if (!linesMatch(quantities, prices, menuPrices)) {
+        throw new InvalidBillException(BIL_001.getCode(), BIL_001.getDefaultMessage());
+      }
+    }
+
+    // Menu prices are whole rupees, so the discount and bill are exact in paise
+    long itemTotal = 0;
+    for (int i = 0; i < prices.length; i++) {
+      itemTotal += prices[i];
+    }
+    final long discountPaise = itemTotal * percent;
+    final long billPaise = itemTotal * 100 - discountPaise;
+    if (!equalsPaise(bill, billPaise)
+        || !equalsPaise(discount == null ? BigDecimal.ZERO : discount, discountPaise)) {
+      throw new InvalidBillException(BIL_002.getCode(), BIL_002.getDefaultMessage());
+    }
+    order.setBill(billPaise / 100.0);
+    order.setDiscount(discountPaise / 100.0);
+
+    final List<OrderItemEntity> orderItems = new ArrayList<>(itemIds.length);
+    for (int i = 0; i < itemIds.length; i++) {
+      final OrderItemEntity orderItem = new OrderItemEntity();
+      orderItem.setItem(itemDao.getItemReference(menuItemIds[i]));
+      orderItem.setQuantity(quantities[i]);
+      orderItem.setPrice(prices[i]);
+      orderItems.add(orderItem);
+    }
+    return orderItems;
+  }
+
+  /**
+   * Method returns one page of a customer's orders, latest first, each with its item lines. Pages
+   * are read by keyset on (date, id) from flat projections: one query for the orders of the page
+   * and one for all their item lines. Past the orders left in the database the page goes on in
+   * the order archive, with the same cursor.
+   *
+   * @param customer customer
+   * @param cursor next page cursor of the previous page, null or empty for the first page
+   * @param size number of orders on the page, capped at ORDER_HISTORY_MAX_PAGE_SIZE
+   * @return OrderPage with the cursor of the following page
+   * @throws OrderNotFoundException on a malformed cursor
+   */
+  public OrderPage getOrdersByCustomers(
+      final CustomerEntity customer, final String cursor, final int size)
+      throws OrderNotFoundException {
+    final int pageSize = Math.min(Math.max(size, 1), AppConstants.ORDER_HISTORY_MAX_PAGE_SIZE);
+    LocalDateTime date = null;
+    Integer orderId = null;
+    if (cursor != null && !cursor.isEmpty()) {
+      try {
+        final String[] position =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split(AppConstants.COLON);
+        date =
+            LocalDateTime.ofEpochSecond(
+                Long.parseLong(position[0]), Integer.parseInt(position[1]), ZoneOffset.UTC);
+        orderId = Integer.valueOf(position[2]);
+      } catch (RuntimeException e) {
+        throw new OrderNotFoundException(ODR_001.getCode(), ODR_001.getDefaultMessage());
+      }
+    }
+
+    // Read one order more than asked for to learn whether another page follows
+    final List<OrderSummary> orders =
+        new ArrayList<>(
+            orderDao.getOrderHistoryPage(customer.getId(), date, orderId, pageSize + 1));
+    final LocalDateTime horizon = orderArchive.getHorizon();
+    if (horizon != null) {
+      // Archived orders whose rows are still waiting to be deleted are read from the archive only
+      orders.removeIf(order -> order.getDate().isBefore(horizon));
+    }
+    orderDao.addOrderLines(orders.subList(0, Math.min(orders.size(), pageSize)));
+    if (horizon != null && orders.size() <= pageSize) {
+      // The page reaches past the orders in the database; go on in the archive
+      final OrderSummary last = orders.isEmpty() ? null : orders.get(orders.size() - 1);
+      orders.addAll(
+          orderArchive.getOrders(
+              customer.getId(),
+              last == null ? date : last.getDate(),
+              last == null ? orderId : last.getId(),
+              pageSize + 1 - orders.size()));
+    }
+    if (orders.size() <= pageSize) {
+      return new OrderPage(orders, null);
+    }
+    final List<OrderSummary> page = orders.subList(0, pageSize);
+    final OrderSummary last = page.get(pageSize - 1);
+    final String position =
+        last.getDate().toEpochSecond(ZoneOffset.UTC)
+            + AppConstants.COLON
+            + last.getDate().getNano()
+            + AppConstants.COLON
+            + last.getId();
+    return new OrderPage(
+        page,
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(position.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Method takes an order and its items and stores them in one transaction. The order row and
+   * every item row are written at commit, the item rows as JDBC batches, along with the order's
+   * idempotency key if it has one. Once the transaction has committed the order is added to the
+   * in-memory item rankings.
+   *
+   * @param order new OrderEntity
+   * @param orderItems new OrderItemEntity List, linked to the order here
+   * @return persisted OrderEntity
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public OrderEntity placeOrder(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+    placeOrders(Collections.singletonList(order), Collections.singletonList(orderItems));
+    return order;
+  }
+
+  /**
+   * Method takes several orders with their items and stores them all in one transaction, as
+   * placeOrder does for one
+   *
+   * @param orders new OrderEntity List
+   * @param orderItems new OrderItemEntity List of each order, linked to its order here
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public void placeOrders(
+      final List<OrderEntity> orders, final List<List<OrderItemEntity>> orderItems) {
+    for (int i = 0; i < orders.size(); i++) {
+      orderDao.saveOrder(orders.get(i));
+      for (OrderItemEntity orderItem : orderItems.get(i)) {
+        orderItem.setOrder(orders.get(i));
+        orderItem.setOrderDate(orders.get(i).getDate());
+      }
+      orderDao.saveOrderItems(orderItems.get(i));
+      if (orders.get(i).getIdempotencyKey() != null) {
+        orderIdempotencyKeyDao.saveIdempotencyKey(orders.get(i).getIdempotencyKey());
+      }
+    }
+    // Unlike the rankings, the revenue rollups commit or roll back with the orders
+    restaurantRevenueRollup.addOrders(orders);
+    // A rolled back order must not be counted, so the rankings wait for the commit
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            for (int i = 0; i < orders.size(); i++) {
+              itemPopularityIndex.recordOrder(orders.get(i), orderItems.get(i));
+              trendingItemIndex.recordOrder(orders.get(i), orderItems.get(i));
+              itemCooccurrenceIndex.recordOrder(orders.get(i), orderItems.get(i));
+              notifyOrderStatus(
+                  orders.get(i).getCustomer().getId(), orders.get(i).getUuid(), OrderStatus.PLACED);
+            }
+          }
+        });
+  }
+
+  /**
+   * Method deletes orders and their items from the database once they are in the order archive
+   *
+   * @param orderIds ids of archived orders
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public void deleteArchivedOrders(final List<Integer> orderIds) {
+    orderDao.deleteOrders(orderIds);
+  }
+
+  /**
+   * Method drops a month's order and order item partitions once all its orders are in the order
+   * archive, at the cost of a catalog change instead of deleting every row
+   *
+   * @param month archived month
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public void dropArchivedMonth(final YearMonth month) {
+    orderDao.dropOrderPartition(month);
+  }
+
+  /**
+   * Method moves a stored order forward in its lifecycle on behalf of fulfilment and notifies the
+   * order status listeners once the change has committed
+   *
+   * @param token fulfilment token of the order's restaurant
+   * @param orderUuid order uuid
+   * @param status name of the new status: ACCEPTED, PREPARING, OUT_FOR_DELIVERY or DELIVERED
+   * @throws AuthorizationFailedException if the token is not a fulfilment token, or was issued to
+   *     another restaurant than the order's
+   * @throws OrderNotFoundException if there is no stored order by this uuid
+   * @throws InvalidOrderStatusException if the order cannot move to the status
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public void updateOrderStatus(final String token, final String orderUuid, final String status)
+      throws AuthorizationFailedException, OrderNotFoundException, InvalidOrderStatusException {
+    final Integer restaurantId = restaurantTokens.getRestaurantId(token, TokenScope.FULFILMENT);
+    if (restaurantId == null) {
+      throw new AuthorizationFailedException(ATHR_006.getCode(), ATHR_006.getDefaultMessage());
+    }
+    final Object[] order = orderDao.getCustomerAndStatus(orderUuid);
+    if (order == null) {
+      throw new OrderNotFoundException(ODR_002.getCode(), ODR_002.getDefaultMessage());
+    }
+    // A restaurant's token only moves that restaurant's orders
+    if (!restaurantId.equals(order[2])) {
+      throw new AuthorizationFailedException(ATHR_006.getCode(), ATHR_006.getDefaultMessage());
+    }
+    final int customerId = (Integer) order[0];
+    final OrderStatus previous = (OrderStatus) order[1];
+    final OrderStatus next = parseOrderStatus(status);
+    // The update only applies to the status read above, so of two racing updates one fails
+    if (next == null
+        || !previous.canMoveTo(next)
+        || !orderDao.updateOrderStatus(orderUuid, previous, next)) {
+      throw new InvalidOrderStatusException(ODR_003.getCode(), ODR_003.getDefaultMessage());
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCommit() {
+            notifyOrderStatus(customerId, orderUuid, next);
+          }
+        });
+  }
+
+  /**
+   * Method passes a final change of an order's status on to the order status listeners
+   *
+   * @param customerId id of the customer who placed the order
+   * @param orderUuid order uuid
+   * @param status new status
+   */
+  public void notifyOrderStatus(
+      final int customerId, final String orderUuid, final OrderStatus status) {
+    for (OrderStatusListener listener : orderStatusListeners) {
+      listener.orderStatusChanged(customerId, orderUuid, status);
+    }
+  }
+
+  private static OrderStatus parseOrderStatus(final String status) {
+    try {
+      return status == null ? null : OrderStatus.valueOf(status);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  // True when every line has a positive quantity and is priced at menu price times quantity.
+  // Package-private, like equalsPaise, for PriceBookBenchmark.
+  static boolean linesMatch(
+      final int[] quantities, final int[] prices, final int[] menuPrices) {
+    for (int i = 0; i < menuPrices.length; i++) {
+      if (quantities[i] < 1 || (long) menuPrices[i] * quantities[i] != prices[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean equalsPaise(final BigDecimal amount, final long paise) {
+    return amount != null && amount.movePointRight(2).compareTo(BigDecimal.valueOf(paise)) == 0;
+  }
+}
@@ -0,0 +1,20 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+
+/**
+ * Receives every change of an order's status once it is final: after the order's transaction has
+ * committed, or once the asynchronous intake has logged or rejected the order. Implementations are
+ * called on the thread that made the change and must not block it.
+ */
+public interface OrderStatusListener {
+
+  /**
+   * Method is called when an order has moved to a new status
+   *
+   * @param customerId id of the customer who placed the order
+   * @param orderUuid order uuid
+   * @param status new status
+   */
+  void orderStatusChanged(int customerId, String orderUuid, OrderStatus status);
+}
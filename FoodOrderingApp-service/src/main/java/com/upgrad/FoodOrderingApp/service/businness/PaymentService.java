@@ -0,0 +1,33 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.PaymentDao;
+import com.upgrad.FoodOrderingApp.service.entity.PaymentEntity;
+import com.upgrad.FoodOrderingApp.service.exception.PaymentMethodNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+@Service
+public class PaymentService {
+
+  @Autowired
+  private PaymentDao paymentDao;
+
+  /**
+   * Method takes a payment uuid and returns the matching PaymentEntity
+   *
+   * @param paymentId payment uuid
+   * @return PaymentEntity
+   * @throws PaymentMethodNotFoundException on empty or non-existent payment id
+   */
+  public PaymentEntity getPaymentByUUID(final String paymentId)
+      throws PaymentMethodNotFoundException {
+    final PaymentEntity payment =
+        paymentId == null ? null : paymentDao.getPaymentByUuid(paymentId);
+    if (payment == null) {
+      throw new PaymentMethodNotFoundException(PNF_002.getCode(), PNF_002.getDefaultMessage());
+    }
+    return payment;
+  }
+}
@@ -0,0 +1,229 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.CouponDao;
+import com.upgrad.FoodOrderingApp.service.dao.ItemDao;
+import com.upgrad.FoodOrderingApp.service.entity.CouponEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory price book: the price of every item on every restaurant's menu and the discount of
+ * every coupon.
+ *
+ * <p>Items and coupons sit in open addressing tables keyed by the two longs of their uuid, with
+ * ids and prices or percents in parallel int arrays; menu membership is an open addressing set of
+ * longs packing restaurant id and item id. Pricing a cart costs a few array reads per line and
+ * allocates nothing beyond the caller's arrays. The book is rebuilt from the database on a fixed
+ * delay and swapped in with a single volatile write, and a cart can be priced from a restaurant's
+ * current menu in the database when the book may be older than the menu.
+ */
+@Component
+public class PriceBook {
+
+  /** Result of coupon() for a uuid that matches no coupon */
+  public static final long NO_COUPON = -1;
+
+  private volatile Book book = build(Collections.emptyList(), Collections.emptyList());
+
+  @Autowired private ItemDao itemDao;
+
+  @Autowired private CouponDao couponDao;
+
+  /** Rebuilds the book from the database and swaps it in for subsequent lookups */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${price-book.refresh-interval-ms:300000}",
+      fixedDelayString = "${price-book.refresh-interval-ms:300000}")
+  public void load() {
+    book = build(itemDao.getRestaurantItemPrices(), couponDao.getCouponPercents());
+  }
+
+  /**
+   * Method looks up the id and unit price of the item of every cart line on a restaurant's menu
+   *
+   * @param restaurantId restaurant id
+   * @param itemUuids item uuid of each line
+   * @param itemIds filled with the item id of each line, 0 where the item is not on the menu
+   * @param prices filled with the unit price of each line, 0 where the item is not on the menu
+   * @param fromDatabase true to read the restaurant's menu from the database instead of the book
+   * @return true if every item is on the menu
+   */
+  public boolean priceItems(
+      final int restaurantId,
+      final UUID[] itemUuids,
+      final int[] itemIds,
+      final int[] prices,
+      final boolean fromDatabase) {
+    final Book source =
+        fromDatabase
+            ? build(itemDao.getRestaurantItemPrices(restaurantId), Collections.emptyList())
+            : book;
+    return source.priceItems(restaurantId, itemUuids, itemIds, prices);
+  }
+
+  /**
+   * Method looks up a coupon. A coupon created since the last rebuild is read from the database.
+   *
+   * @param couponUuid coupon uuid
+   * @return coupon id in the high half and discount percent in the low half, or NO_COUPON
+   */
+  public long coupon(final UUID couponUuid) {
+    final UuidTable coupons = book.coupons;
+    final int slot =
+        coupons.find(couponUuid.getMostSignificantBits(), couponUuid.getLeastSignificantBits());
+    if (slot >= 0) {
+      return pack(coupons.ids[slot], coupons.values[slot]);
+    }
+    final CouponEntity coupon = couponDao.getCouponByUuid(couponUuid.toString());
+    return coupon == null ? NO_COUPON : pack(coupon.getId(), coupon.getPercent());
+  }
+
+  /**
+   * Method builds a book
+   *
+   * @param itemRows [restaurantId, itemId, itemUuid, price] rows
+   * @param couponRows [couponId, couponUuid, percent] rows
+   * @return Book
+   */
+  static Book build(final List<Object[]> itemRows, final List<Object[]> couponRows) {
+    final UuidTable items = new UuidTable(itemRows.size());
+    final long[] memberships = new long[capacity(itemRows.size())];
+    for (Object[] row : itemRows) {
+      final UUID uuid = parse((String) row[2]);
+      if (uuid != null) {
+        final int itemId = ((Number) row[1]).intValue();
+        items.put(
+            uuid.getMostSignificantBits(),
+            uuid.getLeastSignificantBits(),
+            itemId,
+            ((Number) row[3]).intValue());
+        final long membership = pack(((Number) row[0]).intValue(), itemId);
+        memberships[slot(memberships, membership)] = membership;
+      }
+    }
+    final UuidTable coupons = new UuidTable(couponRows.size());
+    for (Object[] row : couponRows) {
+      final UUID uuid = parse((String) row[1]);
+      if (uuid != null) {
+        coupons.put(
+            uuid.getMostSignificantBits(),
+            uuid.getLeastSignificantBits(),
+            ((Number) row[0]).intValue(),
+            ((Number) row[2]).intValue());
+      }
+    }
+    return new Book(items, memberships, coupons);
+  }
+
+  private static long pack(final int high, final int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
+
+  // A uuid that is not in standard form can never be asked for, the API only accepts UUIDs
+  private static UUID parse(final String uuid) {
+    try {
+      return UUID.fromString(uuid);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  // Smallest power of two that keeps the load factor at or below one half
+  private static int capacity(final int size) {
+    return Integer.highestOneBit(Math.max(2 * size - 1, 1)) << 1;
+  }
+
+  // Slot holding the key, or the free slot it belongs in
+  private static int slot(final long[] keys, final long key) {
+    final int mask = keys.length - 1;
+    final long h = key * 0x9E3779B97F4A7C15L;
+    int slot = (int) (h ^ (h >>> 32)) & mask;
+    while (keys[slot] != 0 && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** Item and coupon tables of one build */
+  static final class Book {
+    private final UuidTable items;
+    // Packed (restaurantId, itemId) keys; 0 marks a free slot, item ids start at 1
+    private final long[] memberships;
+    private final UuidTable coupons;
+
+    private Book(final UuidTable items, final long[] memberships, final UuidTable coupons) {
+      this.items = items;
+      this.memberships = memberships;
+      this.coupons = coupons;
+    }
+
+    boolean priceItems(
+        final int restaurantId, final UUID[] itemUuids, final int[] itemIds, final int[] prices) {
+      boolean onMenu = true;
+      for (int i = 0; i < itemUuids.length; i++) {
+        final UUID uuid = itemUuids[i];
+        final int slot = items.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        final long membership = slot < 0 ? 0 : pack(restaurantId, items.ids[slot]);
+        if (slot >= 0 && memberships[slot(memberships, membership)] == membership) {
+          itemIds[i] = items.ids[slot];
+          prices[i] = items.values[slot];
+        } else {
+          itemIds[i] = 0;
+          prices[i] = 0;
+          onMenu = false;
+        }
+      }
+      return onMenu;
+    }
+  }
+
+  /** Open addressing table from a uuid to an id and an int value; id 0 marks a free slot */
+  static final class UuidTable {
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+    private final int[] ids;
+    private final int[] values;
+
+    private UuidTable(final int size) {
+      final int capacity = capacity(size);
+      this.mostSignificantBits = new long[capacity];
+      this.leastSignificantBits = new long[capacity];
+      this.ids = new int[capacity];
+      this.values = new int[capacity];
+    }
+
+    // Keeps the first entry of a uuid, an item on several menus is listed once per restaurant
+    private void put(final long msb, final long lsb, final int id, final int value) {
+      final int slot = probe(msb, lsb);
+      if (ids[slot] == 0) {
+        mostSignificantBits[slot] = msb;
+        leastSignificantBits[slot] = lsb;
+        ids[slot] = id;
+        values[slot] = value;
+      }
+    }
+
+    private int find(final long msb, final long lsb) {
+      final int slot = probe(msb, lsb);
+      return ids[slot] == 0 ? -1 : slot;
+    }
+
+    // Slot holding the uuid, or the free slot it belongs in
+    private int probe(final long msb, final long lsb) {
+      final int mask = ids.length - 1;
+      final long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+      int slot = (int) (h ^ (h >>> 32)) & mask;
+      while (ids[slot] != 0
+          && (mostSignificantBits[slot] != msb || leastSignificantBits[slot] != lsb)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.OrdinalBitmap;
+import com.upgrad.FoodOrderingApp.service.dao.CategoryDao;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import com.upgrad.FoodOrderingApp.service.exception.CategoryNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.CNF_002;
+
+/**
+ * In-memory bitmap index from category uuid to the restaurants serving that category.
+ *
+ * <p>Restaurants are numbered by descending customer rating, so the ordinal itself is the rating
+ * rank: intersecting or uniting category bitmaps yields the matching restaurants already in rating
+ * order and no entity has to be loaded to filter or sort them. The index is an immutable snapshot
+ * rebuilt from the database on a fixed delay, which also picks up rating changes and new category
+ * links.
+ */
+@Component
+public class RestaurantCategoryIndex {
+
+  private volatile Snapshot snapshot = new Snapshot(new int[0], new HashMap<>());
+
+  @Autowired private RestaurantDao restaurantDao;
+
+  @Autowired private CategoryDao categoryDao;
+
+  /** Rebuilds the index from the database and swaps it in for subsequent lookups */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${restaurant.category-index.refresh-interval-ms:60000}",
+      fixedDelayString = "${restaurant.category-index.refresh-interval-ms:60000}")
+  public void load() {
+    // Rank restaurants by rating, ties broken by id, packed as (rating, ~id) to sort primitives
+    final List<Object[]> restaurants = restaurantDao.getRestaurantNames();
+    final long[] rankKeys = new long[restaurants.size()];
+    for (int i = 0; i < rankKeys.length; i++) {
+      final Object[] row = restaurants.get(i);
+      final long scaledRating = Math.round(((Number) row[2]).doubleValue() * 1000);
+      rankKeys[i] = (scaledRating << 32) | (~(Integer) row[0] & 0xFFFFFFFFL);
+    }
+    Arrays.sort(rankKeys);
+    final int[] restaurantIds = new int[rankKeys.length];
+    final Map<Integer, Integer> ordinalByRestaurantId = new HashMap<>();
+    for (int ordinal = 0; ordinal < restaurantIds.length; ordinal++) {
+      restaurantIds[ordinal] = ~(int) rankKeys[rankKeys.length - 1 - ordinal];
+      ordinalByRestaurantId.put(restaurantIds[ordinal], ordinal);
+    }
+
+    // Collect the ordinals of each category, then compress them once sorted
+    final Map<String, OrdinalList> ordinalsByCategory = new HashMap<>();
+    for (String categoryUuid : categoryDao.getCategoryUuids()) {
+      ordinalsByCategory.put(categoryUuid, new OrdinalList());
+    }
+    for (Object[] row : categoryDao.getCategoryRestaurantIds()) {
+      final OrdinalList ordinals = ordinalsByCategory.get((String) row[0]);
+      final Integer ordinal = ordinalByRestaurantId.get((Integer) row[1]);
+      if (ordinals != null && ordinal != null) {
+        ordinals.add(ordinal);
+      }
+    }
+    final Map<String, OrdinalBitmap> bitmaps = new HashMap<>();
+    ordinalsByCategory.forEach(
+        (categoryUuid, ordinals) -> bitmaps.put(categoryUuid, ordinals.toBitmap()));
+
+    snapshot = new Snapshot(restaurantIds, bitmaps);
+  }
+
+  /**
+   * Method returns ids of the restaurants serving all (or any) of the given categories
+   *
+   * @param categoryUuids category uuids
+   * @param matchAll true to intersect the categories, false to unite them
+   * @return restaurant ids ordered by descending customer rating
+   * @throws CategoryNotFoundException on a non-existent category id
+   */
+  public List<Integer> search(final List<String> categoryUuids, final boolean matchAll)
+      throws CategoryNotFoundException {
+    final Snapshot current = snapshot;
+    OrdinalBitmap result = null;
+    for (String categoryUuid : categoryUuids) {
+      final OrdinalBitmap bitmap = current.bitmaps.get(categoryUuid);
+      if (bitmap == null) {
+        throw new CategoryNotFoundException(CNF_002.getCode(), CNF_002.getDefaultMessage());
+      }
+      if (result == null) {
+        result = bitmap;
+      } else {
+        result = matchAll ? result.and(bitmap) : result.or(bitmap);
+      }
+    }
+    if (result == null) {
+      return new ArrayList<>();
+    }
+
+    final int[] ordinals = result.toArray();
+    final List<Integer> restaurantIds = new ArrayList<>(ordinals.length);
+    for (int ordinal : ordinals) {
+      restaurantIds.add(current.restaurantIds[ordinal]);
+    }
+    return restaurantIds;
+  }
+
+  /** Restaurant ids by rating rank together with the category bitmaps built over those ranks */
+  private static final class Snapshot {
+    private final int[] restaurantIds;
+    private final Map<String, OrdinalBitmap> bitmaps;
+
+    private Snapshot(final int[] restaurantIds, final Map<String, OrdinalBitmap> bitmaps) {
+      this.restaurantIds = restaurantIds;
+      this.bitmaps = bitmaps;
+    }
+  }
+
+  /** Growable list of ordinals that is sorted before being compressed */
+  private static final class OrdinalList {
+    private int[] ordinals = new int[4];
+    private int size;
+
+    private void add(final int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    private OrdinalBitmap toBitmap() {
+      Arrays.sort(ordinals, 0, size);
+      int distinct = 0;
+      for (int i = 0; i < size; i++) {
+        if (i == 0 || ordinals[i] != ordinals[i - 1]) {
+          ordinals[distinct++] = ordinals[i];
+        }
+      }
+      return OrdinalBitmap.of(ordinals, distinct);
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column store of the restaurant attributes customers filter on.
+ *
+ * <p>Restaurants are numbered by descending customer rating and each attribute is kept in its own
+ * primitive array indexed by that ordinal: average price for two, rating in milli-stars and a
+ * veg-only bitset. A filter scans the columns 64 rows at a time into predicate bit masks with
+ * branch-free arithmetic, so matches fall out in rating order. Facet counts come from ANDing those
+ * masks with precomputed bucket bitsets; each facet is counted under every filter but its own, so
+ * it shows what changing that one filter would return. The columns are an immutable snapshot
+ * rebuilt from the database on a fixed delay.
+ */
+@Component
+public class RestaurantFacetIndex {
+
+  // Exclusive upper bounds of the price buckets, the last bucket is open ended
+  private static final int[] PRICE_BUCKET_LIMITS = {200, 400, 600, 800};
+
+  private static final String[] PRICE_BUCKET_LABELS = {
+    "0-199", "200-399", "400-599", "600-799", "800+"
+  };
+
+  // Inclusive lower bounds of the rating buckets in milli-stars, highest first
+  private static final int[] RATING_BUCKET_FLOORS = {4000, 3000, 2000, 1000, 0};
+
+  private static final String[] RATING_BUCKET_LABELS = {"4-5", "3-4", "2-3", "1-2", "0-1"};
+
+  // Keeps price arithmetic in the scan far away from int overflow
+  private static final int MAX_PRICE = 1 << 30;
+
+  private volatile Columns columns = new Columns(new int[0], new int[0], new int[0], new long[0]);
+
+  @Autowired private RestaurantDao restaurantDao;
+
+  /** Rebuilds the columns from the database and swaps them in for subsequent filters */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${restaurant.facet-index.refresh-interval-ms:60000}",
+      fixedDelayString = "${restaurant.facet-index.refresh-interval-ms:60000}")
+  public void load() {
+    final List<Object[]> rows = restaurantDao.getRestaurantFacets();
+    final int[] restaurantIds = new int[rows.size()];
+    final int[] prices = new int[rows.size()];
+    final int[] ratings = new int[rows.size()];
+    for (int i = 0; i < restaurantIds.length; i++) {
+      final Object[] row = rows.get(i);
+      restaurantIds[i] = (Integer) row[0];
+      prices[i] = row[1] == null ? 0 : (Integer) row[1];
+      ratings[i] = (int) Math.round(((Number) row[2]).doubleValue() * 1000);
+    }
+    final List<Number> vegOnlyIds = restaurantDao.getVegOnlyRestaurantIds();
+    final int[] vegOnly = new int[vegOnlyIds.size()];
+    for (int i = 0; i < vegOnly.length; i++) {
+      vegOnly[i] = vegOnlyIds.get(i).intValue();
+    }
+    columns = build(restaurantIds, prices, ratings, vegOnly);
+  }
+
+  /**
+   * Method returns one page of restaurants passing every filter, together with the facet counts
+   *
+   * @param minPrice lowest average price for two
+   * @param maxPrice highest average price for two
+   * @param minRating lowest customer rating
+   * @param vegOnly true to keep only restaurants whose items are all vegetarian
+   * @param offset number of matching restaurants to skip
+   * @param limit maximum number of restaurants on the page
+   * @return Result with restaurant ids in descending rating order and the facet counts
+   */
+  public Result filter(
+      final int minPrice,
+      final int maxPrice,
+      final double minRating,
+      final boolean vegOnly,
+      final int offset,
+      final int limit) {
+    final Columns current = columns;
+    final int low = Math.max(0, Math.min(minPrice, MAX_PRICE));
+    final int high = Math.max(0, Math.min(maxPrice, MAX_PRICE));
+    final int minRatingMillis = (int) Math.round(Math.max(0, Math.min(minRating, 10)) * 1000);
+
+    final int[] prices = current.prices;
+    final int[] ratings = current.ratings;
+    final int[] page = new int[Math.max(0, limit)];
+    int pageSize = 0;
+    int total = 0;
+    final int[] priceCounts = new int[PRICE_BUCKET_LABELS.length];
+    final int[] ratingCounts = new int[RATING_BUCKET_LABELS.length];
+    int vegOnlyCount = 0;
+
+    for (int word = 0; word < current.vegOnly.length; word++) {
+      final int from = word << 6;
+      final int to = Math.min(from + 64, prices.length);
+      long priceBits = 0;
+      long ratingBits = 0;
+      // (~x >>> 31) is 1 exactly when x >= 0
+      for (int i = from; i < to; i++) {
+        priceBits |= (long) (~((prices[i] - low) | (high - prices[i])) >>> 31) << (i - from);
+        ratingBits |= (long) (~(ratings[i] - minRatingMillis) >>> 31) << (i - from);
+      }
+      final long vegBits = vegOnly ? current.vegOnly[word] : -1L;
+
+      for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+        priceCounts[bucket] +=
+            Long.bitCount(current.priceBuckets[bucket][word] & ratingBits & vegBits);
+      }
+      for (int bucket = 0; bucket < ratingCounts.length; bucket++) {
+        ratingCounts[bucket] +=
+            Long.bitCount(current.ratingBuckets[bucket][word] & priceBits & vegBits);
+      }
+      vegOnlyCount += Long.bitCount(current.vegOnly[word] & priceBits & ratingBits);
+
+      long matches = priceBits & ratingBits & vegBits;
+      final int matchCount = Long.bitCount(matches);
+      if (pageSize < page.length && total + matchCount > offset) {
+        // Skip matches of earlier pages, then take ordinals until the page is full
+        for (int skip = Math.max(0, offset - total); skip > 0; skip--) {
+          matches &= matches - 1;
+        }
+        while (matches != 0 && pageSize < page.length) {
+          page[pageSize++] = current.restaurantIds[from + Long.numberOfTrailingZeros(matches)];
+          matches &= matches - 1;
+        }
+      }
+      total += matchCount;
+    }
+    return new Result(
+        Arrays.copyOf(page, pageSize), total, priceCounts, ratingCounts, vegOnlyCount);
+  }
+
+  /**
+   * Method builds the columns; restaurants are reordered by descending rating, then by id
+   *
+   * @param restaurantIds restaurant ids
+   * @param prices average price for two of each restaurant
+   * @param ratings customer rating of each restaurant in milli-stars
+   * @param vegOnlyIds ids of the restaurants whose items are all vegetarian
+   * @return Columns
+   */
+  static Columns build(
+      final int[] restaurantIds, final int[] prices, final int[] ratings, final int[] vegOnlyIds) {
+    final int size = restaurantIds.length;
+    final long[] rankKeys = new long[size];
+    for (int i = 0; i < size; i++) {
+      // Rating in the high half, ~id in the low half: a descending sort breaks ties by id
+      rankKeys[i] = ((long) Math.max(ratings[i], 0) << 32) | (~restaurantIds[i] & 0xFFFFFFFFL);
+    }
+    final Map<Integer, Integer> positionById = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      positionById.put(restaurantIds[i], i);
+    }
+    Arrays.sort(rankKeys);
+
+    final int[] orderedIds = new int[size];
+    final int[] orderedPrices = new int[size];
+    final int[] orderedRatings = new int[size];
+    final Map<Integer, Integer> ordinalById = new HashMap<>();
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      final int position = positionById.get(~(int) rankKeys[size - 1 - ordinal]);
+      orderedIds[ordinal] = restaurantIds[position];
+      orderedPrices[ordinal] = Math.max(0, Math.min(prices[position], MAX_PRICE));
+      orderedRatings[ordinal] = ratings[position];
+      ordinalById.put(restaurantIds[position], ordinal);
+    }
+    final long[] vegOnly = new long[(size + 63) >>> 6];
+    for (int restaurantId : vegOnlyIds) {
+      final Integer ordinal = ordinalById.get(restaurantId);
+      if (ordinal != null) {
+        vegOnly[ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+    return new Columns(orderedIds, orderedPrices, orderedRatings, vegOnly);
+  }
+
+  public static String[] priceBucketLabels() {
+    return PRICE_BUCKET_LABELS.clone();
+  }
+
+  public static String[] ratingBucketLabels() {
+    return RATING_BUCKET_LABELS.clone();
+  }
+
+  /** Page of matching restaurant ids with the total number of matches and the facet counts */
+  public static final class Result {
+    private final int[] restaurantIds;
+    private final int total;
+    private final int[] priceCounts;
+    private final int[] ratingCounts;
+    private final int vegOnlyCount;
+
+    private Result(
+        final int[] restaurantIds,
+        final int total,
+        final int[] priceCounts,
+        final int[] ratingCounts,
+        final int vegOnlyCount) {
+      this.restaurantIds = restaurantIds;
+      this.total = total;
+      this.priceCounts = priceCounts;
+      this.ratingCounts = ratingCounts;
+      this.vegOnlyCount = vegOnlyCount;
+    }
+
+    public int[] getRestaurantIds() {
+      return restaurantIds;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+
+    /** @return count per price bucket, in the order of priceBucketLabels */
+    public int[] getPriceCounts() {
+      return priceCounts;
+    }
+
+    /** @return count per rating bucket, in the order of ratingBucketLabels */
+    public int[] getRatingCounts() {
+      return ratingCounts;
+    }
+
+    public int getVegOnlyCount() {
+      return vegOnlyCount;
+    }
+  }
+
+  /** Attribute columns by rating rank with the bucket bitsets derived from them */
+  static final class Columns {
+    private final int[] restaurantIds;
+    private final int[] prices;
+    private final int[] ratings;
+    private final long[] vegOnly;
+    private final long[][] priceBuckets;
+    private final long[][] ratingBuckets;
+
+    private Columns(
+        final int[] restaurantIds, final int[] prices, final int[] ratings, final long[] vegOnly) {
+      this.restaurantIds = restaurantIds;
+      this.prices = prices;
+      this.ratings = ratings;
+      this.vegOnly = vegOnly;
+      this.priceBuckets = new long[PRICE_BUCKET_LABELS.length][vegOnly.length];
+      this.ratingBuckets = new long[RATING_BUCKET_LABELS.length][vegOnly.length];
+      for (int ordinal = 0; ordinal < prices.length; ordinal++) {
+        int priceBucket = 0;
+        while (priceBucket < PRICE_BUCKET_LIMITS.length
+            && prices[ordinal] >= PRICE_BUCKET_LIMITS[priceBucket]) {
+          priceBucket++;
+        }
+        priceBuckets[priceBucket][ordinal >>> 6] |= 1L << ordinal;
+        int ratingBucket = 0;
+        while (ratingBucket < RATING_BUCKET_FLOORS.length - 1
+            && ratings[ordinal] < RATING_BUCKET_FLOORS[ratingBucket]) {
+          ratingBucket++;
+        }
+        ratingBuckets[ratingBucket][ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+  }
+}
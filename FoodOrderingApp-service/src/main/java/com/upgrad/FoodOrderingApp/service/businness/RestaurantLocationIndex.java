@@ -0,0 +1,319 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory k-d tree over restaurant locations.
+ *
+ * <p>Every location is stored as a point on the unit sphere in three primitive double arrays, so
+ * the straight-line (chord) distance between two points grows with their great-circle distance
+ * and no trigonometry is needed while searching. The tree is implicit: each range of the arrays is
+ * split at its median, which sits at the middle index, on the axis of its depth. The index is an
+ * immutable snapshot rebuilt from the database on a fixed delay.
+ */
+@Component
+public class RestaurantLocationIndex {
+
+  private static final double EARTH_RADIUS_KM = 6371.0088;
+
+  // Ranges this small are scanned rather than split further
+  private static final int LEAF_SIZE = 8;
+
+  private volatile Tree tree = new Tree(new int[0], new double[0], new double[0], new double[0]);
+
+  @Autowired private RestaurantDao restaurantDao;
+
+  /** Rebuilds the index from the database and swaps it in for subsequent lookups */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${restaurant.location-index.refresh-interval-ms:300000}",
+      fixedDelayString = "${restaurant.location-index.refresh-interval-ms:300000}")
+  public void load() {
+    final List<Object[]> rows = restaurantDao.getRestaurantLocations();
+    final int[] restaurantIds = new int[rows.size()];
+    final double[] latitudes = new double[rows.size()];
+    final double[] longitudes = new double[rows.size()];
+    for (int i = 0; i < restaurantIds.length; i++) {
+      final Object[] row = rows.get(i);
+      restaurantIds[i] = (Integer) row[0];
+      latitudes[i] = ((Number) row[1]).doubleValue();
+      longitudes[i] = ((Number) row[2]).doubleValue();
+    }
+    tree = build(restaurantIds, latitudes, longitudes);
+  }
+
+  /**
+   * Method returns the restaurants nearest to a location, nearest first
+   *
+   * @param latitude latitude in degrees
+   * @param longitude longitude in degrees
+   * @param radiusKm only restaurants within this great-circle distance are returned
+   * @param limit maximum number of restaurants to return
+   * @return Neighbours holding restaurant ids and their distances in km
+   */
+  public Neighbours nearest(
+      final double latitude, final double longitude, final double radiusKm, final int limit) {
+    final Tree current = tree;
+    final double latRad = Math.toRadians(latitude);
+    final double lonRad = Math.toRadians(longitude);
+    final double qx = Math.cos(latRad) * Math.cos(lonRad);
+    final double qy = Math.cos(latRad) * Math.sin(lonRad);
+    final double qz = Math.sin(latRad);
+
+    // Chord length of the radius, capped at the diameter of the unit sphere
+    final double maxChord = 2 * Math.sin(Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI) / 2);
+    final Search search = new Search(current, qx, qy, qz, limit, maxChord * maxChord);
+    if (limit > 0) {
+      search.visit(0, current.restaurantIds.length, 0);
+    }
+    return search.sortedNeighbours();
+  }
+
+  /**
+   * Method builds a tree over the given locations; the arrays are not modified
+   *
+   * @param restaurantIds restaurant ids
+   * @param latitudes latitudes in degrees
+   * @param longitudes longitudes in degrees
+   * @return Tree
+   */
+  static Tree build(
+      final int[] restaurantIds, final double[] latitudes, final double[] longitudes) {
+    final int size = restaurantIds.length;
+    final double[] xs = new double[size];
+    final double[] ys = new double[size];
+    final double[] zs = new double[size];
+    for (int i = 0; i < size; i++) {
+      final double latRad = Math.toRadians(latitudes[i]);
+      final double lonRad = Math.toRadians(longitudes[i]);
+      xs[i] = Math.cos(latRad) * Math.cos(lonRad);
+      ys[i] = Math.cos(latRad) * Math.sin(lonRad);
+      zs[i] = Math.sin(latRad);
+    }
+    final Tree tree = new Tree(Arrays.copyOf(restaurantIds, size), xs, ys, zs);
+    tree.split(0, size, 0);
+    return tree;
+  }
+
+  /** Restaurants found by a nearest search, nearest first */
+  public static final class Neighbours {
+    private final int[] restaurantIds;
+    private final double[] distancesKm;
+
+    private Neighbours(final int[] restaurantIds, final double[] distancesKm) {
+      this.restaurantIds = restaurantIds;
+      this.distancesKm = distancesKm;
+    }
+
+    public int size() {
+      return restaurantIds.length;
+    }
+
+    public int restaurantId(final int index) {
+      return restaurantIds[index];
+    }
+
+    public double distanceKm(final int index) {
+      return distancesKm[index];
+    }
+  }
+
+  /** Points in k-d tree order with the restaurant id of each point */
+  static final class Tree {
+    private final int[] restaurantIds;
+    private final double[][] axes;
+
+    private Tree(
+        final int[] restaurantIds, final double[] xs, final double[] ys, final double[] zs) {
+      this.restaurantIds = restaurantIds;
+      this.axes = new double[][] {xs, ys, zs};
+    }
+
+    private void split(final int from, final int to, final int depth) {
+      if (to - from <= LEAF_SIZE) {
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      select(from, to - 1, middle, axes[depth % 3]);
+      split(from, middle, depth + 1);
+      split(middle + 1, to, depth + 1);
+    }
+
+    // Quickselect: moves the k-th smallest value on the axis to index k, smaller ones before it
+    private void select(int left, int right, final int k, final double[] axis) {
+      while (right > left) {
+        final double pivot = axis[(left + right) >>> 1];
+        int i = left;
+        int j = right;
+        while (i <= j) {
+          while (axis[i] < pivot) {
+            i++;
+          }
+          while (axis[j] > pivot) {
+            j--;
+          }
+          if (i <= j) {
+            swap(i++, j--);
+          }
+        }
+        if (k <= j) {
+          right = j;
+        } else if (k >= i) {
+          left = i;
+        } else {
+          return;
+        }
+      }
+    }
+
+    private void swap(final int i, final int j) {
+      final int id = restaurantIds[i];
+      restaurantIds[i] = restaurantIds[j];
+      restaurantIds[j] = id;
+      for (double[] axis : axes) {
+        final double value = axis[i];
+        axis[i] = axis[j];
+        axis[j] = value;
+      }
+    }
+  }
+
+  /** One nearest search, keeping the best candidates in a bounded max-heap on chord distance */
+  private static final class Search {
+    private final Tree tree;
+    private final double[] query;
+    private final int limit;
+    private final double maxChord2;
+    private final double[] heapChord2;
+    private final int[] heapPoints;
+    private int heapSize;
+
+    private Search(
+        final Tree tree,
+        final double qx,
+        final double qy,
+        final double qz,
+        final int limit,
+        final double maxChord2) {
+      this.tree = tree;
+      this.query = new double[] {qx, qy, qz};
+      this.limit = limit;
+      this.maxChord2 = maxChord2;
+      this.heapChord2 = new double[Math.max(limit, 0)];
+      this.heapPoints = new int[Math.max(limit, 0)];
+    }
+
+    private void visit(final int from, final int to, final int depth) {
+      if (to - from <= LEAF_SIZE) {
+        for (int point = from; point < to; point++) {
+          offer(point);
+        }
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      offer(middle);
+      final double delta = query[depth % 3] - tree.axes[depth % 3][middle];
+      if (delta < 0) {
+        visit(from, middle, depth + 1);
+        if (delta * delta <= bound()) {
+          visit(middle + 1, to, depth + 1);
+        }
+      } else {
+        visit(middle + 1, to, depth + 1);
+        if (delta * delta <= bound()) {
+          visit(from, middle, depth + 1);
+        }
+      }
+    }
+
+    private double bound() {
+      return heapSize < limit ? maxChord2 : heapChord2[0];
+    }
+
+    private void offer(final int point) {
+      final double dx = query[0] - tree.axes[0][point];
+      final double dy = query[1] - tree.axes[1][point];
+      final double dz = query[2] - tree.axes[2][point];
+      final double chord2 = dx * dx + dy * dy + dz * dz;
+      if (chord2 > bound()) {
+        return;
+      }
+      if (heapSize < limit) {
+        // Sift up
+        int child = heapSize++;
+        while (child > 0) {
+          final int parent = (child - 1) >>> 1;
+          if (heapChord2[parent] >= chord2) {
+            break;
+          }
+          heapChord2[child] = heapChord2[parent];
+          heapPoints[child] = heapPoints[parent];
+          child = parent;
+        }
+        heapChord2[child] = chord2;
+        heapPoints[child] = point;
+      } else {
+        // Replace the farthest candidate and sift down
+        int parent = 0;
+        while (true) {
+          int child = 2 * parent + 1;
+          if (child >= heapSize) {
+            break;
+          }
+          if (child + 1 < heapSize && heapChord2[child + 1] > heapChord2[child]) {
+            child++;
+          }
+          if (heapChord2[child] <= chord2) {
+            break;
+          }
+          heapChord2[parent] = heapChord2[child];
+          heapPoints[parent] = heapPoints[child];
+          parent = child;
+        }
+        heapChord2[parent] = chord2;
+        heapPoints[parent] = point;
+      }
+    }
+
+    private Neighbours sortedNeighbours() {
+      // Pop the max-heap from the back so the nearest candidate ends up first
+      final int[] restaurantIds = new int[heapSize];
+      final double[] distancesKm = new double[heapSize];
+      for (int i = heapSize - 1; i >= 0; i--) {
+        final double chord2 = heapChord2[0];
+        restaurantIds[i] = tree.restaurantIds[heapPoints[0]];
+        distancesKm[i] = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(chord2) / 2));
+        final int lastPoint = heapPoints[heapSize - 1];
+        final double lastChord2 = heapChord2[--heapSize];
+        int parent = 0;
+        while (true) {
+          int child = 2 * parent + 1;
+          if (child >= heapSize) {
+            break;
+          }
+          if (child + 1 < heapSize && heapChord2[child + 1] > heapChord2[child]) {
+            child++;
+          }
+          if (heapChord2[child] <= lastChord2) {
+            break;
+          }
+          heapChord2[parent] = heapChord2[child];
+          heapPoints[parent] = heapPoints[child];
+          parent = child;
+        }
+        if (heapSize > 0) {
+          heapChord2[parent] = lastChord2;
+          heapPoints[parent] = lastPoint;
+        }
+      }
+      return new Neighbours(restaurantIds, distancesKm);
+    }
+  }
+}
@@ -0,0 +1,322 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over restaurant names.
+ *
+ * <p>Every restaurant gets an ordinal; each padded word trigram of its name maps to a posting list
+ * of ordinals kept in a plain int array. A search counts trigram overlap per ordinal, keeps the
+ * candidates that lost no more trigrams than one or two typos can destroy, and ranks them by
+ * overlap and then by customer rating. Updates never rewrite posting lists: a renamed restaurant is
+ * tombstoned and re-indexed under a new ordinal. Once tombstones make up half of the ordinals the
+ * index is rebuilt in place, renumbering the live ordinals and dropping the dead ones from every
+ * posting list, so churn does not grow the postings or the search scratch without bound.
+ */
+@Component
+public class RestaurantNameIndex {
+
+  // A single substituted character destroys at most three trigrams
+  private static final int TRIGRAMS_PER_TYPO = 3;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  // Fewer tombstones than this are not worth a rebuild, however small the index
+  private static final int MIN_TOMBSTONES_TO_COMPACT = 64;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, PostingList> postings = new HashMap<>();
+
+  private final Map<Integer, Integer> ordinalByRestaurantId = new HashMap<>();
+
+  private final BitSet live = new BitSet();
+
+  private final ThreadLocal<int[]> overlapScratch = ThreadLocal.withInitial(() -> new int[0]);
+
+  private int[] restaurantIds = new int[INITIAL_CAPACITY];
+
+  private double[] ratings = new double[INITIAL_CAPACITY];
+
+  private int size;
+
+  private int tombstones;
+
+  @Autowired private RestaurantDao restaurantDao;
+
+  /** Loads every restaurant name from the database into the index */
+  @PostConstruct
+  public void load() {
+    for (Object[] row : restaurantDao.getRestaurantNames()) {
+      index((Integer) row[0], (String) row[1], ((Number) row[2]).doubleValue());
+    }
+  }
+
+  /**
+   * Method adds a restaurant to the index, replacing any previous entry for the same restaurant
+   *
+   * @param restaurantId restaurant id
+   * @param restaurantName restaurant name
+   * @param customerRating restaurant rating used as secondary rank
+   */
+  public void index(
+      final int restaurantId, final String restaurantName, final double customerRating) {
+    final long[] trigrams = trigrams(restaurantName);
+    lock.writeLock().lock();
+    try {
+      removeLocked(restaurantId);
+      if (size == restaurantIds.length) {
+        restaurantIds = Arrays.copyOf(restaurantIds, size * 2);
+        ratings = Arrays.copyOf(ratings, size * 2);
+      }
+      final int ordinal = size++;
+      restaurantIds[ordinal] = restaurantId;
+      ratings[ordinal] = customerRating;
+      live.set(ordinal);
+      ordinalByRestaurantId.put(restaurantId, ordinal);
+      for (long trigram : trigrams) {
+        postings.computeIfAbsent(trigram, key -> new PostingList()).add(ordinal);
+      }
+      compactIfSparseLocked();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Method updates the rating used to rank a restaurant without touching its posting lists
+   *
+   * @param restaurantId restaurant id
+   * @param customerRating new restaurant rating
+   */
+  public void updateRating(final int restaurantId, final double customerRating) {
+    lock.writeLock().lock();
+    try {
+      final Integer ordinal = ordinalByRestaurantId.get(restaurantId);
+      if (ordinal != null) {
+        ratings[ordinal] = customerRating;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Method removes a restaurant from the index
+   *
+   * @param restaurantId restaurant id
+   */
+  public void remove(final int restaurantId) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(restaurantId);
+      compactIfSparseLocked();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Method returns ids of restaurants whose names match the query, tolerating one typo for short
+   * queries and two typos for longer ones
+   *
+   * @param query restaurant name as typed by the customer
+   * @param limit maximum number of ids to return
+   * @return restaurant ids ordered by trigram overlap and then by customer rating
+   */
+  public List<Integer> search(final String query, final int limit) {
+    final long[] queryTrigrams = trigrams(query);
+    if (queryTrigrams.length == 0) {
+      return new ArrayList<>();
+    }
+    // Never accept a candidate sharing less than half of the query trigrams
+    final int minOverlap =
+        Math.max(
+            (queryTrigrams.length + 1) / 2,
+            queryTrigrams.length - TRIGRAMS_PER_TYPO * allowedTypos(query.trim().length()));
+
+    lock.readLock().lock();
+    try {
+      int[] overlap = overlapScratch.get();
+      if (overlap.length < size) {
+        overlap = new int[restaurantIds.length];
+        overlapScratch.set(overlap);
+      }
+
+      // Count matching trigrams per ordinal, remembering which ordinals were touched
+      final PostingList touched = new PostingList();
+      for (long trigram : queryTrigrams) {
+        final PostingList postingList = postings.get(trigram);
+        if (postingList == null) {
+          continue;
+        }
+        final int[] ordinals = postingList.ordinals;
+        for (int i = 0; i < postingList.size; i++) {
+          if (overlap[ordinals[i]]++ == 0) {
+            touched.add(ordinals[i]);
+          }
+        }
+      }
+
+      // Pack (overlap, rating, ordinal) into one long so candidates sort without boxing
+      long[] candidates = new long[touched.size];
+      int candidateCount = 0;
+      for (int i = 0; i < touched.size; i++) {
+        final int ordinal = touched.ordinals[i];
+        if (overlap[ordinal] >= minOverlap && live.get(ordinal)) {
+          candidates[candidateCount++] = rankKey(overlap[ordinal], ratings[ordinal], ordinal);
+        }
+        overlap[ordinal] = 0;
+      }
+      candidates = Arrays.copyOf(candidates, candidateCount);
+      Arrays.sort(candidates);
+
+      final List<Integer> result = new ArrayList<>(Math.min(limit, candidateCount));
+      for (int i = candidateCount - 1; i >= 0 && result.size() < limit; i--) {
+        result.add(restaurantIds[(int) candidates[i]]);
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeLocked(final int restaurantId) {
+    final Integer ordinal = ordinalByRestaurantId.remove(restaurantId);
+    if (ordinal != null) {
+      live.clear(ordinal);
+      tombstones++;
+    }
+  }
+
+  /**
+   * Method rebuilds the index without its tombstones once they make up half of the ordinals. Live
+   * ordinals keep their relative order, so every posting list stays sorted and is compacted in
+   * place.
+   */
+  private void compactIfSparseLocked() {
+    if (tombstones < MIN_TOMBSTONES_TO_COMPACT || tombstones * 2 < size) {
+      return;
+    }
+    final int[] renumbered = new int[size];
+    int next = 0;
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      if (!live.get(ordinal)) {
+        renumbered[ordinal] = -1;
+        continue;
+      }
+      renumbered[ordinal] = next;
+      restaurantIds[next] = restaurantIds[ordinal];
+      ratings[next] = ratings[ordinal];
+      ordinalByRestaurantId.put(restaurantIds[next], next);
+      next++;
+    }
+    final Iterator<PostingList> postingLists = postings.values().iterator();
+    while (postingLists.hasNext()) {
+      final PostingList postingList = postingLists.next();
+      int kept = 0;
+      for (int i = 0; i < postingList.size; i++) {
+        final int ordinal = renumbered[postingList.ordinals[i]];
+        if (ordinal >= 0) {
+          postingList.ordinals[kept++] = ordinal;
+        }
+      }
+      if (kept == 0) {
+        postingLists.remove();
+      } else {
+        postingList.size = kept;
+        if (kept * 4 < postingList.ordinals.length) {
+          postingList.ordinals = Arrays.copyOf(postingList.ordinals, Math.max(kept, 4));
+        }
+      }
+    }
+    live.clear();
+    live.set(0, next);
+    size = next;
+    tombstones = 0;
+  }
+
+  private static int allowedTypos(final int queryLength) {
+    if (queryLength <= 3) {
+      return 0;
+    }
+    return queryLength <= 6 ? 1 : 2;
+  }
+
+  private static long rankKey(final int overlap, final double rating, final int ordinal) {
+    final long scaledRating = Math.min(0xFFFFL, Math.max(0L, Math.round(rating * 1000)));
+    return ((long) Math.min(overlap, 0x7FFF) << 48) | (scaledRating << 32) | ordinal;
+  }
+
+  /**
+   * Method splits a name into lower-case words and returns the distinct trigrams of every word
+   * padded with two leading blanks and one trailing blank
+   *
+   * @param name restaurant name or query
+   * @return distinct trigrams, each packed into a long
+   */
+  static long[] trigrams(final String name) {
+    if (name == null) {
+      return new long[0];
+    }
+    final String normalized = name.toLowerCase(Locale.ROOT);
+    long[] trigrams = new long[normalized.length() * 2 + 4];
+    int count = 0;
+    int start = -1;
+    for (int i = 0; i <= normalized.length(); i++) {
+      final boolean wordChar =
+          i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        final String padded = "  " + normalized.substring(start, i) + " ";
+        for (int j = 0; j + 3 <= padded.length(); j++) {
+          if (count == trigrams.length) {
+            trigrams = Arrays.copyOf(trigrams, count * 2);
+          }
+          trigrams[count++] =
+              ((long) padded.charAt(j) << 32)
+                  | ((long) padded.charAt(j + 1) << 16)
+                  | padded.charAt(j + 2);
+        }
+        start = -1;
+      }
+    }
+    final long[] sorted = Arrays.copyOf(trigrams, count);
+    Arrays.sort(sorted);
+    int distinct = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return Arrays.copyOf(sorted, distinct);
+  }
+
+  /** Growable list of restaurant ordinals, appended in increasing order */
+  private static final class PostingList {
+    private int[] ordinals = new int[4];
+    private int size;
+
+    private void add(final int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+  }
+}
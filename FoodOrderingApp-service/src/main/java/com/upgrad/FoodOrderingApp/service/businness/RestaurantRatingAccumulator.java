@@ -0,0 +1,81 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accepts customer ratings without locks and hands them over in per-restaurant batches.
+ *
+ * <p>Each restaurant owns a LongAdder whose striped cells absorb concurrent ratings. A rating is
+ * added as a single packed long (count in the high bits, rating sum in milli-stars in the low
+ * bits), so a rating is always seen whole. The adder is never reset: a drain subtracts what it
+ * flushed last time, so ratings that race with a drain simply show up in the next one.
+ */
+@Component
+public class RestaurantRatingAccumulator {
+
+  // Ratings are summed as milli-stars, 4.5 is stored as 4500
+  private static final int RATING_SCALE = 1000;
+
+  // Low 40 bits carry the rating sum, the bits above carry the count
+  private static final int COUNT_SHIFT = 40;
+
+  private static final long SUM_MASK = (1L << COUNT_SHIFT) - 1;
+
+  private final Map<Integer, RatingCell> cells = new ConcurrentHashMap<>();
+
+  /**
+   * Method records one rating for a restaurant
+   *
+   * @param restaurantId restaurant id
+   * @param rating customer rating
+   */
+  public void add(final int restaurantId, final double rating) {
+    RatingCell cell = cells.get(restaurantId);
+    if (cell == null) {
+      cell = cells.computeIfAbsent(restaurantId, id -> new RatingCell());
+    }
+    cell.total.add((1L << COUNT_SHIFT) + Math.round(rating * RATING_SCALE));
+  }
+
+  /**
+   * Method hands every restaurant's ratings received since the last successful drain to the sink.
+   * A restaurant whose sink call throws keeps its ratings for the next drain.
+   *
+   * @param sink receives the rating sum and count per restaurant
+   */
+  public synchronized void drain(final RatingSink sink) {
+    cells.forEach(
+        (restaurantId, cell) -> {
+          final long total = cell.total.sum();
+          final long delta = total - cell.flushed;
+          if (delta == 0) {
+            return;
+          }
+          try {
+            sink.flush(
+                restaurantId,
+                (delta & SUM_MASK) / (double) RATING_SCALE,
+                (int) (delta >>> COUNT_SHIFT));
+            cell.flushed = total;
+          } catch (RuntimeException e) {
+            // Ratings stay pending and are retried on the next drain
+          }
+        });
+  }
+
+  /** Receives the ratings of one restaurant during a drain */
+  public interface RatingSink {
+    void flush(int restaurantId, double ratingSum, int count);
+  }
+
+  private static final class RatingCell {
+    private final LongAdder total = new LongAdder();
+
+    // Only read and written by drain, which is synchronized
+    private long flushed;
+  }
+}
@@ -0,0 +1,103 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the restaurant revenue rollups for orders placed before order placement maintained them.
+ *
+ * <p>When backfill-from is set, the backfill starts in the background once the application is
+ * ready, so startup never waits for it. One query finds the stale days from that date through
+ * today, those whose day buckets do not match their orders, and only those are rebuilt, newest day
+ * first so that recent dashboards are right soonest. Days kept current by order placement, today
+ * included once the rollups have existed all day, are never locked. Days are rebuilt on
+ * backfill-threads threads, one transaction per day, and each rebuild only locks its own day
+ * against order placement. A rebuild is exact whenever it runs, so the backfill can be rerun or
+ * interrupted safely; clear backfill-from once it has completed.
+ */
+@Component
+public class RestaurantRevenueBackfill {
+
+  // ISO date of the first day to rebuild; empty to skip the backfill
+  @Value("${restaurant-revenue.backfill-from:}")
+  private String backfillFrom;
+
+  @Value("${restaurant-revenue.backfill-threads:4}")
+  private int backfillThreads;
+
+  @Autowired
+  private RestaurantRevenueRollup restaurantRevenueRollup;
+
+  private ExecutorService workers;
+
+  @PostConstruct
+  public void start() {
+    final AtomicInteger threads = new AtomicInteger();
+    workers =
+        Executors.newFixedThreadPool(
+            backfillThreads,
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "revenue-backfill-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Starts the backfill once the application is ready, if backfill-from is set */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startBackfill() {
+    if (!backfillFrom.isEmpty()) {
+      backfill(LocalDate.parse(backfillFrom), LocalDate.now().plusDays(1));
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    workers.shutdownNow();
+  }
+
+  /**
+   * Method rebuilds the rollups of the stale days in [from, to) in the background, newest day
+   * first
+   *
+   * @param from first day
+   * @param to day after the last day
+   * @return number of days rebuilt once all are done, archived days not included
+   */
+  public CompletableFuture<Integer> backfill(final LocalDate from, final LocalDate to) {
+    return CompletableFuture.supplyAsync(
+            () -> restaurantRevenueRollup.getStaleDays(from, to), workers)
+        .thenCompose(this::rebuild);
+  }
+
+  private CompletableFuture<Integer> rebuild(final List<LocalDate> staleDays) {
+    final AtomicInteger rebuilt = new AtomicInteger();
+    final List<CompletableFuture<Void>> days = new ArrayList<>();
+    for (LocalDate day : staleDays) {
+      days.add(
+          CompletableFuture.runAsync(
+              () -> {
+                if (restaurantRevenueRollup.rebuildDay(day)) {
+                  rebuilt.incrementAndGet();
+                }
+              },
+              workers));
+    }
+    return CompletableFuture.allOf(days.toArray(new CompletableFuture[0]))
+        .thenApply(done -> rebuilt.get());
+  }
+}
@@ -0,0 +1,145 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.RevenueGranularity;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import com.upgrad.FoodOrderingApp.service.dto.RevenueBucket;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Order count and revenue per restaurant in hour and day buckets, kept in the restaurant_revenue
+ * table so that a restaurant's dashboard reads a range of buckets by primary key instead of
+ * summing its orders.
+ *
+ * <p>Order placement adds its orders to their buckets in the same transaction that stores them,
+ * with one upsert per batch, so the rollups are exactly as current as the orders. A day can also
+ * be rebuilt from its orders, which the backfill does for days placed before the rollups existed.
+ * Order placement holds a shared and a rebuild an exclusive lock on the day, so a rebuild waits
+ * for the orders being placed on that day and no order is counted twice or lost. Buckets of
+ * archived days are never rebuilt, as their orders have left the database; the rollups keep them.
+ */
+@Component
+public class RestaurantRevenueRollup {
+
+  private static final Comparator<RevenueBucket> KEY_ORDER =
+      Comparator.comparing(RevenueBucket::getRestaurantId)
+          .thenComparing(RevenueBucket::getGranularity)
+          .thenComparing(RevenueBucket::getBucket);
+
+  @Autowired
+  private RestaurantDao restaurantDao;
+
+  @Autowired
+  private OrderArchive orderArchive;
+
+  /**
+   * Method adds a batch of new orders to their hour and day buckets. It must run in the
+   * transaction that stores the orders.
+   *
+   * @param orders OrderEntity List of orders being placed
+   */
+  public void addOrders(final List<OrderEntity> orders) {
+    if (orders.isEmpty()) {
+      return;
+    }
+    // One row per key: an upsert cannot update the same row twice
+    final Map<RevenueBucket, RevenueBucket> increments = new TreeMap<>(KEY_ORDER);
+    final TreeSet<Integer> days = new TreeSet<>();
+    for (OrderEntity order : orders) {
+      final BigDecimal bill = BigDecimal.valueOf(order.getBill());
+      for (RevenueGranularity granularity : RevenueGranularity.values()) {
+        final RevenueBucket increment =
+            new RevenueBucket(
+                order.getRestaurant().getId(),
+                granularity,
+                granularity.bucketOf(order.getDate()),
+                1,
+                bill);
+        increments.merge(increment, increment, RestaurantRevenueRollup::add);
+      }
+      days.add((int) order.getDate().toLocalDate().toEpochDay());
+    }
+    restaurantDao.lockRevenueDays(days);
+    restaurantDao.addRevenue(new ArrayList<>(increments.values()));
+  }
+
+  /**
+   * Method returns a restaurant's buckets covering [from, to), including the ones without orders
+   *
+   * @param restaurantId restaurant id
+   * @param granularity hour or day buckets
+   * @param from any time in the first bucket
+   * @param to end of the range
+   * @return RevenueBucket List in bucket order
+   */
+  public List<RevenueBucket> getRevenue(
+      final int restaurantId,
+      final RevenueGranularity granularity,
+      final LocalDateTime from,
+      final LocalDateTime to) {
+    final LocalDateTime start = granularity.bucketOf(from);
+    final List<RevenueBucket> stored =
+        restaurantDao.getRevenue(restaurantId, granularity, start, to);
+    final List<RevenueBucket> buckets = new ArrayList<>();
+    int next = 0;
+    for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = granularity.next(bucket)) {
+      if (next < stored.size() && stored.get(next).getBucket().equals(bucket)) {
+        buckets.add(stored.get(next++));
+      } else {
+        buckets.add(new RevenueBucket(restaurantId, granularity, bucket, 0, BigDecimal.ZERO));
+      }
+    }
+    return buckets;
+  }
+
+  /**
+   * Method recomputes the buckets of a day from its orders
+   *
+   * @param day day
+   * @return false if the day is archived and was left as it is
+   */
+  @Transactional(propagation = Propagation.REQUIRED)
+  public boolean rebuildDay(final LocalDate day) {
+    final LocalDateTime horizon = orderArchive.getHorizon();
+    if (horizon != null && day.atStartOfDay().isBefore(horizon)) {
+      return false;
+    }
+    restaurantDao.rebuildRevenue(day);
+    return true;
+  }
+
+  /**
+   * Method returns the days of a range whose buckets do not match their orders, such as the days
+   * placed before the rollups existed. Archived days whose buckets are kept count as stale too,
+   * but rebuildDay leaves them as they are.
+   *
+   * @param from first day
+   * @param to day after the last day
+   * @return LocalDate List, newest first
+   */
+  public List<LocalDate> getStaleDays(final LocalDate from, final LocalDate to) {
+    return restaurantDao.getStaleRevenueDays(from, to);
+  }
+
+  private static RevenueBucket add(final RevenueBucket a, final RevenueBucket b) {
+    return new RevenueBucket(
+        a.getRestaurantId(),
+        a.getGranularity(),
+        a.getBucket(),
+        a.getOrderCount() + b.getOrderCount(),
+        a.getRevenue().add(b.getRevenue()));
+  }
+}
@@ -0,0 +1,426 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.RevenueGranularity;
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDetailsDao;
+import com.upgrad.FoodOrderingApp.service.dto.FacetBucket;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDistance;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDetails;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantFacets;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantPage;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantSummary;
+import com.upgrad.FoodOrderingApp.service.dto.RevenueBucket;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.AuthorizationFailedException;
+import com.upgrad.FoodOrderingApp.service.exception.CategoryNotFoundException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidLocationException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidRatingException;
+import com.upgrad.FoodOrderingApp.service.exception.InvalidRevenueRangeException;
+import com.upgrad.FoodOrderingApp.service.exception.RestaurantNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.*;
+
+@Service
+public class RestaurantService {
+
+  @Autowired
+  private RestaurantDao restaurantDao;
+
+  @Autowired
+  private RestaurantDetailsDao restaurantDetailsDao;
+
+  @Autowired
+  private RestaurantNameIndex restaurantNameIndex;
+
+  @Autowired
+  private RestaurantRatingAccumulator restaurantRatingAccumulator;
+
+  @Autowired
+  private RestaurantCategoryIndex restaurantCategoryIndex;
+
+  @Autowired
+  private RestaurantLocationIndex restaurantLocationIndex;
+
+  @Autowired
+  private RestaurantFacetIndex restaurantFacetIndex;
+
+  @Autowired
+  private MenuStore menuStore;
+
+  @Autowired
+  private CatalogVersion catalogVersion;
+
+  @Autowired
+  private RestaurantRevenueRollup restaurantRevenueRollup;
+
+  @Autowired
+  private RestaurantTokens restaurantTokens;
+
+  /**
+   * Method takes restaurant uuid and returns the matching RestaurantEntity
+   *
+   * @param restaurantId restaurant uuid
+   * @return RestaurantEntity
+   * @throws RestaurantNotFoundException on empty or non-existent restaurant id
+   */
+  public RestaurantEntity restaurantByUUID(final String restaurantId)
+      throws RestaurantNotFoundException {
+    if (restaurantId == null || restaurantId.isEmpty()) {
+      throw new RestaurantNotFoundException(RNF_002.getCode(), RNF_002.getDefaultMessage());
+    }
+    final RestaurantEntity restaurant = restaurantDao.getRestaurantByUUID(restaurantId);
+    if (restaurant == null) {
+      throw new RestaurantNotFoundException(RNF_001.getCode(), RNF_001.getDefaultMessage());
+    }
+    return restaurant;
+  }
+
+  /**
+   * Method returns every restaurant, highest rated first
+   *
+   * @return RestaurantSummary List
+   */
+  public List<RestaurantSummary> restaurantsByRating() {
+    return restaurantsInRankOrder(restaurantDao.getRestaurantIdsByRating());
+  }
+
+  /**
+   * Method returns one page of restaurants, highest rated first. Pages are read by keyset on
+   * (customer rating, id), so deep pages cost the same as the first one.
+   *
+   * @param cursor next page cursor of the previous page, null or empty for the first page
+   * @param size number of restaurants on the page, capped at RESTAURANT_PAGE_MAX_SIZE
+   * @return RestaurantPage with the cursor of the following page
+   * @throws RestaurantNotFoundException on a malformed cursor
+   */
+  public RestaurantPage restaurantsByRating(final String cursor, final int size)
+      throws RestaurantNotFoundException {
+    final int pageSize = Math.min(Math.max(size, 1), AppConstants.RESTAURANT_PAGE_MAX_SIZE);
+    BigDecimal customerRating = null;
+    Integer restaurantId = null;
+    if (cursor != null && !cursor.isEmpty()) {
+      try {
+        final String[] position =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split(AppConstants.COLON);
+        customerRating = new BigDecimal(position[0]);
+        restaurantId = Integer.valueOf(position[1]);
+      } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+        throw new RestaurantNotFoundException(RNF_004.getCode(), RNF_004.getDefaultMessage());
+      }
+    }
+
+    // Read one restaurant more than asked for to learn whether another page follows
+    final List<RestaurantSummary> restaurants =
+        restaurantsInRankOrder(
+            restaurantDao.getRestaurantPageIds(customerRating, restaurantId, pageSize + 1));
+    if (restaurants.size() <= pageSize) {
+      return new RestaurantPage(restaurants, null);
+    }
+    final RestaurantSummary last = restaurants.get(pageSize - 1);
+    final String position =
+        BigDecimal.valueOf(last.getCustomerRating()).toPlainString()
+            + AppConstants.COLON
+            + last.getId();
+    return new RestaurantPage(
+        restaurants.subList(0, pageSize),
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(position.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Method takes restaurant uuid and returns the restaurant with its address, loaded with a single
+   * query; the menu is read separately through restaurantMenu
+   *
+   * @param restaurantId restaurant uuid
+   * @return RestaurantDetails
+   * @throws RestaurantNotFoundException on empty or non-existent restaurant id
+   */
+  public RestaurantDetails restaurantDetailsByUUID(final String restaurantId)
+      throws RestaurantNotFoundException {
+    if (restaurantId == null || restaurantId.isEmpty()) {
+      throw new RestaurantNotFoundException(RNF_002.getCode(), RNF_002.getDefaultMessage());
+    }
+    final RestaurantDetails restaurant = restaurantDetailsDao.getRestaurantDetails(restaurantId);
+    if (restaurant == null) {
+      throw new RestaurantNotFoundException(RNF_001.getCode(), RNF_001.getDefaultMessage());
+    }
+    return restaurant;
+  }
+
+  /**
+   * Method returns a restaurant's menu from the off-heap menu store
+   *
+   * @param restaurantUuid uuid of an existing restaurant
+   * @return MenuStore.Menu flyweight over the restaurant's categories and items
+   */
+  public MenuStore.Menu restaurantMenu(final String restaurantUuid) {
+    return menuStore.menu(restaurantUuid);
+  }
+
+  /**
+   * Method takes (part of) a restaurant name, possibly misspelt, and returns the matching
+   * restaurants from the in-memory name index
+   *
+   * @param restaurantName restaurant name as typed by the customer
+   * @return RestaurantSummary List ordered by name similarity and then by customer rating
+   * @throws RestaurantNotFoundException on empty restaurant name
+   */
+  public List<RestaurantSummary> restaurantsByName(final String restaurantName)
+      throws RestaurantNotFoundException {
+    if (restaurantName == null || restaurantName.trim().isEmpty()) {
+      throw new RestaurantNotFoundException(RNF_003.getCode(), RNF_003.getDefaultMessage());
+    }
+    return restaurantsInRankOrder(
+        restaurantNameIndex.search(restaurantName, AppConstants.RESTAURANT_NAME_SEARCH_LIMIT));
+  }
+
+  /**
+   * Method takes a category uuid and returns the restaurants serving that category
+   *
+   * @param categoryId category uuid
+   * @return RestaurantSummary List ordered by descending customer rating
+   * @throws CategoryNotFoundException on empty or non-existent category id
+   */
+  public List<RestaurantSummary> restaurantByCategory(final String categoryId)
+      throws CategoryNotFoundException {
+    return restaurantsByCategories(Collections.singletonList(categoryId), true);
+  }
+
+  /**
+   * Method takes category uuids and returns the restaurants serving all of them, or any of them,
+   * filtered and ordered by the in-memory category bitmap index
+   *
+   * @param categoryIds category uuids
+   * @param matchAll true if a restaurant must serve every category, false if any one will do
+   * @return RestaurantSummary List ordered by descending customer rating
+   * @throws CategoryNotFoundException on empty or non-existent category id
+   */
+  public List<RestaurantSummary> restaurantsByCategories(
+      final List<String> categoryIds, final boolean matchAll) throws CategoryNotFoundException {
+    if (categoryIds == null || categoryIds.isEmpty()) {
+      throw new CategoryNotFoundException(CNF_001.getCode(), CNF_001.getDefaultMessage());
+    }
+    for (String categoryId : categoryIds) {
+      if (categoryId == null || categoryId.trim().isEmpty()) {
+        throw new CategoryNotFoundException(CNF_001.getCode(), CNF_001.getDefaultMessage());
+      }
+    }
+    return restaurantsInRankOrder(restaurantCategoryIndex.search(categoryIds, matchAll));
+  }
+
+  /**
+   * Method takes a restaurant and a customer rating and records the rating. The rating is folded
+   * into the restaurant's average by the next flushRatings run, so the returned restaurant still
+   * carries the previous average.
+   *
+   * @param restaurant RestaurantEntity being rated
+   * @param customerRating rating between 1 and 5
+   * @return RestaurantEntity that was rated
+   * @throws InvalidRatingException on rating outside 1 to 5
+   */
+  public RestaurantEntity updateRestaurantRating(
+      final RestaurantEntity restaurant, final Double customerRating)
+      throws InvalidRatingException {
+    if (customerRating == null || customerRating < 1 || customerRating > 5) {
+      throw new InvalidRatingException(IRE_001.getCode(), IRE_001.getDefaultMessage());
+    }
+    restaurantRatingAccumulator.add(restaurant.getId(), customerRating);
+    return restaurant;
+  }
+
+  /**
+   * Method returns the restaurants nearest to a location, found through the in-memory location
+   * index. Restaurants whose address has no coordinates are never returned.
+   *
+   * @param latitude latitude in degrees
+   * @param longitude longitude in degrees
+   * @param radiusKm search radius in km, capped at NEARBY_MAX_RADIUS_KM
+   * @param limit maximum number of restaurants, capped at NEARBY_MAX_LIMIT
+   * @return RestaurantDistance List, nearest first
+   * @throws InvalidLocationException on coordinates out of range or non-positive radius
+   */
+  public List<RestaurantDistance> restaurantsNearby(
+      final double latitude, final double longitude, final double radiusKm, final int limit)
+      throws InvalidLocationException {
+    if (Double.isNaN(latitude) || Double.isNaN(longitude)
+        || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+      throw new InvalidLocationException(ILC_001.getCode(), ILC_001.getDefaultMessage());
+    }
+    if (!(radiusKm > 0)) {
+      throw new InvalidLocationException(ILC_002.getCode(), ILC_002.getDefaultMessage());
+    }
+    final RestaurantLocationIndex.Neighbours neighbours =
+        restaurantLocationIndex.nearest(
+            latitude,
+            longitude,
+            Math.min(radiusKm, AppConstants.NEARBY_MAX_RADIUS_KM),
+            Math.min(Math.max(limit, 1), AppConstants.NEARBY_MAX_LIMIT));
+
+    final List<Integer> rankedIds = new ArrayList<>(neighbours.size());
+    final Map<Integer, Double> distanceById = new HashMap<>();
+    for (int i = 0; i < neighbours.size(); i++) {
+      rankedIds.add(neighbours.restaurantId(i));
+      distanceById.put(neighbours.restaurantId(i), neighbours.distanceKm(i));
+    }
+    return restaurantsInRankOrder(rankedIds).stream()
+        .map(restaurant -> new RestaurantDistance(restaurant, distanceById.get(restaurant.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Method returns one page of the restaurants within a price range, at or above a rating and
+   * optionally veg-only, with facet counts, filtered through the in-memory facet index
+   *
+   * @param minPrice lowest average price for two
+   * @param maxPrice highest average price for two
+   * @param minRating lowest customer rating
+   * @param vegOnly true to keep only restaurants whose items are all vegetarian
+   * @param page zero based page number
+   * @param size page size, capped at RESTAURANT_PAGE_MAX_SIZE
+   * @return RestaurantFacets with restaurants in descending rating order
+   */
+  public RestaurantFacets filterRestaurants(
+      final int minPrice,
+      final int maxPrice,
+      final double minRating,
+      final boolean vegOnly,
+      final int page,
+      final int size) {
+    final int pageSize = Math.min(Math.max(size, 1), AppConstants.RESTAURANT_PAGE_MAX_SIZE);
+    final int offset = (int) Math.min((long) Math.max(page, 0) * pageSize, Integer.MAX_VALUE);
+    final RestaurantFacetIndex.Result result =
+        restaurantFacetIndex.filter(minPrice, maxPrice, minRating, vegOnly, offset, pageSize);
+
+    final List<Integer> rankedIds = new ArrayList<>(result.getRestaurantIds().length);
+    for (int restaurantId : result.getRestaurantIds()) {
+      rankedIds.add(restaurantId);
+    }
+    return new RestaurantFacets(
+        restaurantsInRankOrder(rankedIds),
+        result.getTotal(),
+        facetBuckets(RestaurantFacetIndex.priceBucketLabels(), result.getPriceCounts()),
+        facetBuckets(RestaurantFacetIndex.ratingBucketLabels(), result.getRatingCounts()),
+        result.getVegOnlyCount());
+  }
+
+  /**
+   * Method returns a restaurant's order count and revenue per hour or day, read from the revenue
+   * rollups, with a zero bucket wherever there were no orders
+   *
+   * @param token partner token of the restaurant
+   * @param restaurantUuid restaurant uuid
+   * @param granularity hour or day, in any case
+   * @param from ISO date-time in the first bucket
+   * @param to ISO date-time ending the range
+   * @return RevenueBucket List in bucket order
+   * @throws AuthorizationFailedException if the token is not a partner token, or was issued to
+   *     another restaurant
+   * @throws RestaurantNotFoundException on empty or non-existent restaurant uuid
+   * @throws InvalidRevenueRangeException on an unknown granularity, a malformed or empty range, or
+   *     a range of more than REVENUE_MAX_BUCKETS buckets
+   */
+  public List<RevenueBucket> getRestaurantRevenue(
+      final String token,
+      final String restaurantUuid,
+      final String granularity,
+      final String from,
+      final String to)
+      throws AuthorizationFailedException, RestaurantNotFoundException,
+          InvalidRevenueRangeException {
+    final Integer partnerRestaurantId = restaurantTokens.getRestaurantId(token, TokenScope.PARTNER);
+    if (partnerRestaurantId == null) {
+      throw new AuthorizationFailedException(ATHR_007.getCode(), ATHR_007.getDefaultMessage());
+    }
+    final RestaurantEntity restaurant = restaurantByUUID(restaurantUuid);
+    // A partner only sees the revenue of the restaurant its token was issued to
+    if (!partnerRestaurantId.equals(restaurant.getId())) {
+      throw new AuthorizationFailedException(ATHR_007.getCode(), ATHR_007.getDefaultMessage());
+    }
+    final RevenueGranularity bucketWidth;
+    try {
+      bucketWidth = RevenueGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new InvalidRevenueRangeException(RRV_001.getCode(), RRV_001.getDefaultMessage());
+    }
+    final LocalDateTime start;
+    final LocalDateTime end;
+    try {
+      start = LocalDateTime.parse(from);
+      end = LocalDateTime.parse(to);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new InvalidRevenueRangeException(RRV_002.getCode(), RRV_002.getDefaultMessage());
+    }
+    if (!start.isBefore(end)) {
+      throw new InvalidRevenueRangeException(RRV_002.getCode(), RRV_002.getDefaultMessage());
+    }
+    // Buckets from the one holding start, so a partial first bucket counts as a whole one
+    if (bucketWidth.bucketsBetween(bucketWidth.bucketOf(start), end)
+        >= AppConstants.REVENUE_MAX_BUCKETS) {
+      throw new InvalidRevenueRangeException(RRV_003.getCode(), RRV_003.getDefaultMessage());
+    }
+    return restaurantRevenueRollup.getRevenue(restaurant.getId(), bucketWidth, start, end);
+  }
+
+  private static List<FacetBucket> facetBuckets(final String[] labels, final int[] counts) {
+    final List<FacetBucket> facetBuckets = new ArrayList<>(labels.length);
+    for (int i = 0; i < labels.length; i++) {
+      facetBuckets.add(new FacetBucket(labels[i], counts[i]));
+    }
+    return facetBuckets;
+  }
+
+  /**
+   * Method fetches the summaries of the ranked restaurants, with their categories, in two queries
+   * and restores the rank order
+   *
+   * @param rankedIds restaurant ids in rank order
+   * @return RestaurantSummary List in rank order
+   */
+  private List<RestaurantSummary> restaurantsInRankOrder(final List<Integer> rankedIds) {
+    final Map<Integer, Integer> rankById = new HashMap<>();
+    for (int rank = 0; rank < rankedIds.size(); rank++) {
+      rankById.put(rankedIds.get(rank), rank);
+    }
+    return restaurantDetailsDao.getRestaurantSummaries(rankedIds).stream()
+        .sorted(Comparator.comparing(restaurant -> rankById.get(restaurant.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Method writes ratings received since the last run to the database, one atomic UPDATE per rated
+   * restaurant, refreshes the rating used to rank name searches and bumps the catalog version
+   */
+  @Scheduled(fixedDelayString = "${restaurant.rating.flush-interval-ms:5000}")
+  @PreDestroy
+  public void flushRatings() {
+    restaurantRatingAccumulator.drain(
+        (restaurantId, ratingSum, count) -> {
+          restaurantNameIndex.updateRating(
+              restaurantId, restaurantDao.addRatings(restaurantId, ratingSum, count));
+          catalogVersion.bump();
+        });
+  }
+}
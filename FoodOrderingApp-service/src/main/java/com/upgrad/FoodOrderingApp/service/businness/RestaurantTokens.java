@@ -0,0 +1,63 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import com.upgrad.FoodOrderingApp.service.common.UnexpectedException;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantTokenDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.upgrad.FoodOrderingApp.service.common.GenericErrorCode.GEN_001;
+
+/**
+ * Tokens of the restaurant side: each is issued to one restaurant for one TokenScope, so a leaked
+ * token only exposes that restaurant. Tokens are looked up by their SHA-256 in the
+ * restaurant_token table, where the unique index on the hash makes the lookup a single probe.
+ */
+@Service
+public class RestaurantTokens {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  @Autowired
+  private RestaurantTokenDao restaurantTokenDao;
+
+  /**
+   * Method returns the restaurant a token was issued to for a scope
+   *
+   * @param token token from the request header, null if absent
+   * @param scope scope the token is used for
+   * @return restaurant id, or null if the token is absent, empty or not issued for the scope
+   */
+  public Integer getRestaurantId(final String token, final TokenScope scope) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+    return restaurantTokenDao.getRestaurantId(hash(token), scope);
+  }
+
+  /**
+   * Method hashes a token the way the restaurant_token table stores it, the same as PostgreSQL's
+   * encode(sha256(convert_to(token, 'UTF8')), 'hex')
+   *
+   * @param token token
+   * @return lowercase hex SHA-256 of the token's UTF-8 bytes
+   */
+  static String hash(final String token) {
+    final byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new UnexpectedException(GEN_001, e);
+    }
+    final char[] hex = new char[2 * digest.length];
+    for (int i = 0; i < digest.length; i++) {
+      hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX[digest[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
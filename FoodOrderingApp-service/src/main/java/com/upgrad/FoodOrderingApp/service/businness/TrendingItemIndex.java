@@ -0,0 +1,374 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dao.ItemDao;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trending items across all restaurants and per restaurant city, over the last hour or day.
+ *
+ * <p>Each ordered quantity counts for exp(-age / window), so an item's score is its order volume
+ * with recent orders weighing most. Scores use forward decay: a quantity is stored multiplied by
+ * exp((orderTime - landmark) / window), which never changes afterwards, so recording an order is
+ * one add per window into a primitive open addressing map from item id to score. The landmark is
+ * moved up now and then, rescaling every score and dropping items that have faded away. Readers
+ * never touch the counters: a scheduled task ranks them into an immutable snapshot of the top
+ * TRENDING_MAX_LIMIT items per city and window, published with a single volatile write. Counters
+ * are warmed at startup from the orders of the last TRENDING_WARM_DAYS days.
+ */
+@Component
+public class TrendingItemIndex {
+
+  /** Time window an item trends over; scores decay by e every window */
+  public enum Window {
+    HOUR(60L * 60 * 1000),
+    DAY(24L * 60 * 60 * 1000);
+
+    private final long millis;
+
+    Window(final long millis) {
+      this.millis = millis;
+    }
+  }
+
+  private static final Window[] WINDOWS = Window.values();
+
+  // Counters of all cities together
+  private static final String ALL_CITIES = "";
+
+  // The landmark is moved up once it lags this far behind, long before exp() could overflow
+  private static final long RESCALE_AFTER_MILLIS = Window.HOUR.millis;
+
+  // Items whose slowest decaying score fell below this are dropped when rescaling
+  private static final double MIN_SCORE = 1e-3;
+
+  private volatile Map<String, Counters> countersByCity = new ConcurrentHashMap<>();
+
+  private volatile Map<String, Leaderboard[]> snapshot = Collections.emptyMap();
+
+  @Autowired private ItemDao itemDao;
+
+  /** Warms the counters from recent orders and publishes the first snapshot */
+  @PostConstruct
+  public void load() {
+    final long now = System.currentTimeMillis();
+    final LocalDateTime since = LocalDateTime.now().minusDays(AppConstants.TRENDING_WARM_DAYS);
+    countersByCity = build(itemDao.getOrderedQuantitiesSince(since), now);
+    rebuildSnapshot();
+  }
+
+  /** Ranks the counters into a new snapshot and swaps it in for subsequent reads */
+  @Scheduled(
+      initialDelayString = "${item.trending.snapshot-interval-ms:10000}",
+      fixedDelayString = "${item.trending.snapshot-interval-ms:10000}")
+  public void rebuildSnapshot() {
+    snapshot = rank(countersByCity, System.currentTimeMillis());
+  }
+
+  /**
+   * Method adds the quantities of a saved order to the counters of its restaurant's city
+   *
+   * @param order saved order with its restaurant and its date
+   * @param orderItems saved items of the order
+   */
+  public void recordOrder(final OrderEntity order, final List<OrderItemEntity> orderItems) {
+    final long time = order.getDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    final String city = cityKey(order.getRestaurant().getAddress().getCity());
+    final Map<String, Counters> current = countersByCity;
+    for (OrderItemEntity orderItem : orderItems) {
+      add(current, city, orderItem.getItem().getId(), orderItem.getQuantity(), time, time);
+    }
+  }
+
+  /**
+   * Method returns the trending items as of the last snapshot
+   *
+   * @param city restaurant city, null or empty for all cities
+   * @param window window the items trend over
+   * @param limit maximum number of items, at most TRENDING_MAX_LIMIT
+   * @return Leaderboard, highest score first
+   */
+  public Leaderboard top(final String city, final Window window, final int limit) {
+    final Leaderboard[] leaderboards =
+        snapshot.get(city == null || city.trim().isEmpty() ? ALL_CITIES : cityKey(city));
+    if (leaderboards == null) {
+      return new Leaderboard(new int[0], new double[0]);
+    }
+    return leaderboards[window.ordinal()].head(Math.max(limit, 0));
+  }
+
+  /**
+   * Method builds counters from ordered quantities
+   *
+   * @param rows [itemId, city, order date, quantity] rows
+   * @param now landmark time in epoch milliseconds
+   * @return counters by city key, with the counters of all cities under ALL_CITIES
+   */
+  static Map<String, Counters> build(final List<Object[]> rows, final long now) {
+    final Map<String, Counters> countersByCity = new ConcurrentHashMap<>();
+    countersByCity.put(ALL_CITIES, new Counters(now));
+    for (Object[] row : rows) {
+      add(
+          countersByCity,
+          cityKey((String) row[1]),
+          ((Number) row[0]).intValue(),
+          ((Number) row[3]).intValue(),
+          toEpochMillis(row[2]),
+          now);
+    }
+    return countersByCity;
+  }
+
+  /**
+   * Method ranks every city's counters
+   *
+   * @param countersByCity counters by city key
+   * @param now ranking time in epoch milliseconds
+   * @return top items per city key, one Leaderboard per window
+   */
+  static Map<String, Leaderboard[]> rank(
+      final Map<String, Counters> countersByCity, final long now) {
+    final Map<String, Leaderboard[]> snapshot = new HashMap<>();
+    countersByCity.forEach(
+        (city, counters) -> snapshot.put(city, counters.top(now, AppConstants.TRENDING_MAX_LIMIT)));
+    return snapshot;
+  }
+
+  private static void add(
+      final Map<String, Counters> countersByCity,
+      final String city,
+      final int itemId,
+      final int quantity,
+      final long time,
+      final long landmark) {
+    counters(countersByCity, ALL_CITIES, landmark).add(itemId, quantity, time);
+    if (city != null) {
+      counters(countersByCity, city, landmark).add(itemId, quantity, time);
+    }
+  }
+
+  private static Counters counters(
+      final Map<String, Counters> countersByCity, final String city, final long landmark) {
+    final Counters counters = countersByCity.get(city);
+    return counters != null
+        ? counters
+        : countersByCity.computeIfAbsent(city, key -> new Counters(landmark));
+  }
+
+  private static String cityKey(final String city) {
+    return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static long toEpochMillis(final Object date) {
+    if (date instanceof LocalDateTime) {
+      return ((LocalDateTime) date).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    return ((Timestamp) date).getTime();
+  }
+
+  /** Items ranked by decayed score, highest first */
+  public static final class Leaderboard {
+    private final int[] itemIds;
+    private final double[] scores;
+
+    private Leaderboard(final int[] itemIds, final double[] scores) {
+      this.itemIds = itemIds;
+      this.scores = scores;
+    }
+
+    public int size() {
+      return itemIds.length;
+    }
+
+    public int itemId(final int index) {
+      return itemIds[index];
+    }
+
+    /** @return decayed ordered quantity of the item */
+    public double score(final int index) {
+      return scores[index];
+    }
+
+    private Leaderboard head(final int limit) {
+      return limit >= itemIds.length
+          ? this
+          : new Leaderboard(Arrays.copyOf(itemIds, limit), Arrays.copyOf(scores, limit));
+    }
+  }
+
+  /** Forward decayed scores of the items ordered in one city, one score column per window */
+  static final class Counters {
+    // Item id 0 marks a free slot, ids come from a sequence starting at 1
+    private int[] itemIds = new int[64];
+    private double[][] scores = new double[WINDOWS.length][64];
+    private int size;
+    private long landmark;
+
+    Counters(final long landmark) {
+      this.landmark = landmark;
+    }
+
+    synchronized void add(final int itemId, final int quantity, final long time) {
+      if (time - landmark > RESCALE_AFTER_MILLIS) {
+        rescale(time);
+      }
+      if (2 * (size + 1) > itemIds.length) {
+        resize(itemIds.length * 2);
+      }
+      final int slot = slot(itemId);
+      if (itemIds[slot] == 0) {
+        itemIds[slot] = itemId;
+        size++;
+      }
+      for (Window window : WINDOWS) {
+        scores[window.ordinal()][slot] +=
+            quantity * Math.exp((time - landmark) / (double) window.millis);
+      }
+    }
+
+    synchronized Leaderboard[] top(final long now, final int limit) {
+      if (now - landmark > RESCALE_AFTER_MILLIS) {
+        rescale(now);
+      }
+      final Leaderboard[] leaderboards = new Leaderboard[WINDOWS.length];
+      for (Window window : WINDOWS) {
+        leaderboards[window.ordinal()] =
+            top(
+                scores[window.ordinal()],
+                Math.exp((landmark - now) / (double) window.millis),
+                limit);
+      }
+      return leaderboards;
+    }
+
+    // Bounded min-heap over the slots, weakest candidate on top
+    private Leaderboard top(final double[] column, final double factor, final int limit) {
+      final int[] heap = new int[Math.max(limit, 0)];
+      int heapSize = 0;
+      for (int slot = 0; slot < itemIds.length; slot++) {
+        if (itemIds[slot] == 0 || column[slot] <= 0) {
+          continue;
+        }
+        if (heapSize < heap.length) {
+          int child = heapSize++;
+          while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (!weaker(column, slot, heap[parent])) {
+              break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+          }
+          heap[child] = slot;
+        } else if (heapSize > 0 && weaker(column, heap[0], slot)) {
+          siftDown(column, heap, heapSize, slot);
+        }
+      }
+      // Pop the weakest to the back so the strongest ends up first
+      final int[] ranked = new int[heapSize];
+      final double[] rankedScores = new double[heapSize];
+      for (int i = heapSize - 1; i >= 0; i--) {
+        ranked[i] = itemIds[heap[0]];
+        rankedScores[i] = column[heap[0]] * factor;
+        siftDown(column, heap, i, heap[i]);
+      }
+      return new Leaderboard(ranked, rankedScores);
+    }
+
+    // Places the slot at the root and sifts it down within the first heapSize entries
+    private void siftDown(
+        final double[] column, final int[] heap, final int heapSize, final int slot) {
+      int parent = 0;
+      while (true) {
+        int child = 2 * parent + 1;
+        if (child >= heapSize) {
+          break;
+        }
+        if (child + 1 < heapSize && weaker(column, heap[child + 1], heap[child])) {
+          child++;
+        }
+        if (!weaker(column, heap[child], slot)) {
+          break;
+        }
+        heap[parent] = heap[child];
+        parent = child;
+      }
+      if (heapSize > 0) {
+        heap[parent] = slot;
+      }
+    }
+
+    // True when the first slot ranks below the second: lower score, or as high and a higher id
+    private boolean weaker(final double[] column, final int slot, final int otherSlot) {
+      return column[slot] < column[otherSlot]
+          || (column[slot] == column[otherSlot] && itemIds[slot] > itemIds[otherSlot]);
+    }
+
+    // Moves the landmark to the given time and drops the items that have faded away
+    private void rescale(final long time) {
+      for (Window window : WINDOWS) {
+        final double factor = Math.exp((landmark - time) / (double) window.millis);
+        final double[] column = scores[window.ordinal()];
+        for (int slot = 0; slot < column.length; slot++) {
+          column[slot] *= factor;
+        }
+      }
+      landmark = time;
+      final double[] slowest = scores[WINDOWS.length - 1];
+      for (int slot = 0; slot < itemIds.length; slot++) {
+        if (itemIds[slot] != 0 && slowest[slot] < MIN_SCORE) {
+          itemIds[slot] = 0;
+          size--;
+        }
+      }
+      int capacity = 64;
+      while (2 * (size + 1) > capacity) {
+        capacity *= 2;
+      }
+      resize(capacity);
+    }
+
+    private void resize(final int capacity) {
+      final int[] oldItemIds = itemIds;
+      final double[][] oldScores = scores;
+      itemIds = new int[capacity];
+      scores = new double[WINDOWS.length][capacity];
+      for (int i = 0; i < oldItemIds.length; i++) {
+        if (oldItemIds[i] != 0) {
+          final int slot = slot(oldItemIds[i]);
+          itemIds[slot] = oldItemIds[i];
+          for (int window = 0; window < WINDOWS.length; window++) {
+            scores[window][slot] = oldScores[window][i];
+          }
+        }
+      }
+    }
+
+    // Slot holding the item, or the free slot it belongs in
+    private int slot(final int itemId) {
+      final int mask = itemIds.length - 1;
+      final int h = itemId * 0x9E3779B9;
+      int slot = (h ^ (h >>> 16)) & mask;
+      while (itemIds[slot] != 0 && itemIds[slot] != itemId) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+}
@@ -0,0 +1,339 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dao.TypeaheadDao;
+import com.upgrad.FoodOrderingApp.service.dto.Suggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Prefix index of restaurant, category and dish names for typeahead.
+ *
+ * <p>Every name is normalized and indexed from each of its word starts, so "pizza" completes
+ * "Dominos Pizza". The keys are kept in one sorted array and a trie is laid over it in flat arrays:
+ * each node owns the contiguous range of keys carrying its prefix, its children are stored next to
+ * each other in label order and it holds the top completions of its range, ranked by order count.
+ * Only nodes whose range has more keys than completions are kept; below them the few remaining
+ * keys are scanned directly. A lookup therefore walks at most one node per typed character and
+ * copies out a precomputed list. The index is an immutable snapshot rebuilt on a fixed delay and
+ * swapped in with a single volatile write.
+ */
+@Component
+public class TypeaheadIndex {
+
+  // Completions kept per node, the most a single lookup can return
+  private static final int TOP_K = AppConstants.TYPEAHEAD_MAX_LIMIT;
+
+  // Node fields in the flat node array
+  private static final int LO = 0;
+  private static final int HI = 1;
+  private static final int FIRST_CHILD = 2;
+  private static final int CHILD_COUNT = 3;
+  private static final int TOP_START = 4;
+  private static final int TOP_COUNT = 5;
+  private static final int NODE_FIELDS = 6;
+
+  private volatile Trie trie = build(Collections.emptyList(), new long[0]);
+
+  @Autowired private TypeaheadDao typeaheadDao;
+
+  /** Rebuilds the index from the database and swaps it in for subsequent lookups */
+  @PostConstruct
+  @Scheduled(
+      initialDelayString = "${typeahead.refresh-interval-ms:300000}",
+      fixedDelayString = "${typeahead.refresh-interval-ms:300000}")
+  public void load() {
+    final List<Object[]> restaurants = typeaheadDao.getRestaurantSuggestions();
+    final List<Object[]> categories = typeaheadDao.getCategorySuggestions();
+    final List<Object[]> dishes = typeaheadDao.getDishSuggestions();
+    final List<Suggestion> entries = new ArrayList<>();
+    final long[] weights = new long[restaurants.size() + categories.size() + dishes.size()];
+    for (Object[] row : restaurants) {
+      weights[entries.size()] = ((Number) row[2]).longValue();
+      entries.add(new Suggestion(Suggestion.Type.RESTAURANT, (String) row[0], (String) row[1]));
+    }
+    for (Object[] row : categories) {
+      weights[entries.size()] = ((Number) row[2]).longValue();
+      entries.add(new Suggestion(Suggestion.Type.CATEGORY, (String) row[0], (String) row[1]));
+    }
+    for (Object[] row : dishes) {
+      weights[entries.size()] = ((Number) row[1]).longValue();
+      entries.add(new Suggestion(Suggestion.Type.DISH, null, (String) row[0]));
+    }
+    trie = build(entries, weights);
+  }
+
+  /**
+   * Method returns the most ordered names having a word that starts with the query
+   *
+   * @param query text typed so far
+   * @param limit maximum number of suggestions, at most TYPEAHEAD_MAX_LIMIT
+   * @return Suggestion List, most ordered first
+   */
+  public List<Suggestion> suggest(final String query, final int limit) {
+    final Trie current = trie;
+    final String prefix = normalize(query, true);
+    final int count = Math.min(limit, TOP_K);
+    if (prefix.isEmpty() || count <= 0) {
+      return new ArrayList<>();
+    }
+    int node = 0;
+    for (int depth = 0; depth < prefix.length(); depth++) {
+      final int child = current.child(node, prefix.charAt(depth));
+      if (child < 0) {
+        return current.scan(node, prefix, count);
+      }
+      node = child;
+    }
+    return current.top(node, count);
+  }
+
+  /**
+   * Method builds the index; entries are ranked by descending weight, ties going to restaurants,
+   * then categories, then dishes, then by name
+   *
+   * @param entries suggestions to index
+   * @param weights order count of each entry
+   * @return Trie
+   */
+  static Trie build(final List<Suggestion> entries, final long[] weights) {
+    final Integer[] byWeight = new Integer[entries.size()];
+    for (int i = 0; i < byWeight.length; i++) {
+      byWeight[i] = i;
+    }
+    Arrays.sort(
+        byWeight,
+        (a, b) -> {
+          final int byCount = Long.compare(weights[b], weights[a]);
+          if (byCount != 0) {
+            return byCount;
+          }
+          final int byType = entries.get(a).getType().compareTo(entries.get(b).getType());
+          return byType != 0
+              ? byType
+              : entries.get(a).getName().compareTo(entries.get(b).getName());
+        });
+    // Each key carries its entry rank behind a NUL, which sorts below every normalized character,
+    // so a plain string sort orders keys by text and equal keys by rank
+    final Suggestion[] ranked = new Suggestion[byWeight.length];
+    final List<String> rankedKeys = new ArrayList<>();
+    for (int rank = 0; rank < ranked.length; rank++) {
+      ranked[rank] = entries.get(byWeight[rank]);
+      final String name = normalize(ranked[rank].getName(), false);
+      final String suffix = new String(new char[] {'\0', (char) (rank >>> 16), (char) rank});
+      for (int i = 0; i < name.length(); i++) {
+        if (i == 0 || name.charAt(i - 1) == ' ') {
+          rankedKeys.add(name.substring(i) + suffix);
+        }
+      }
+    }
+    final String[] sortedKeys = rankedKeys.toArray(new String[0]);
+    Arrays.sort(sortedKeys);
+    final int[] sortedRanks = new int[sortedKeys.length];
+    for (int i = 0; i < sortedKeys.length; i++) {
+      final String key = sortedKeys[i];
+      final int length = key.length();
+      sortedRanks[i] = (key.charAt(length - 2) << 16) | key.charAt(length - 1);
+      sortedKeys[i] = key.substring(0, length - 3);
+    }
+
+    // Breadth first, so the children of a node are appended next to each other
+    int[] nodes = new int[NODE_FIELDS * 64];
+    char[] labels = new char[64];
+    int[] depths = new int[64];
+    int[] tops = new int[TOP_K * 64];
+    int topSize = 0;
+    int nodeCount = 1;
+    nodes[HI] = sortedKeys.length;
+    for (int node = 0; node < nodeCount; node++) {
+      final int base = node * NODE_FIELDS;
+      final int lo = nodes[base + LO];
+      final int hi = nodes[base + HI];
+      final int depth = depths[node];
+
+      final int[] top = bestRanks(sortedRanks, lo, hi, TOP_K);
+      if (topSize + top.length > tops.length) {
+        tops = Arrays.copyOf(tops, Math.max(tops.length * 2, topSize + top.length));
+      }
+      System.arraycopy(top, 0, tops, topSize, top.length);
+      nodes[base + TOP_START] = topSize;
+      nodes[base + TOP_COUNT] = top.length;
+      topSize += top.length;
+
+      // Keys ending at this depth sort first; group the rest by their next character
+      nodes[base + FIRST_CHILD] = nodeCount;
+      int i = lo;
+      while (i < hi && sortedKeys[i].length() == depth) {
+        i++;
+      }
+      while (i < hi) {
+        final char label = sortedKeys[i].charAt(depth);
+        int j = i + 1;
+        while (j < hi && sortedKeys[j].charAt(depth) == label) {
+          j++;
+        }
+        if (j - i > TOP_K) {
+          if ((nodeCount + 1) * NODE_FIELDS > nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            labels = Arrays.copyOf(labels, labels.length * 2);
+            depths = Arrays.copyOf(depths, depths.length * 2);
+          }
+          nodes[nodeCount * NODE_FIELDS + LO] = i;
+          nodes[nodeCount * NODE_FIELDS + HI] = j;
+          labels[nodeCount] = label;
+          depths[nodeCount] = depth + 1;
+          nodeCount++;
+        }
+        i = j;
+      }
+      nodes[base + CHILD_COUNT] = nodeCount - nodes[base + FIRST_CHILD];
+    }
+    return new Trie(
+        ranked,
+        sortedKeys,
+        sortedRanks,
+        Arrays.copyOf(nodes, nodeCount * NODE_FIELDS),
+        Arrays.copyOf(labels, nodeCount),
+        Arrays.copyOf(tops, topSize));
+  }
+
+  /**
+   * Method lower-cases a name and collapses every run of characters other than letters and digits
+   * into a single space
+   *
+   * @param text name or query
+   * @param keepTrailingSpace true for a query, where a trailing space ends the last word
+   * @return normalized text without a leading space
+   */
+  static String normalize(final String text, final boolean keepTrailingSpace) {
+    if (text == null) {
+      return "";
+    }
+    final StringBuilder normalized = new StringBuilder(text.length());
+    boolean separator = false;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = Character.toLowerCase(text.charAt(i));
+      if (Character.isLetterOrDigit(c)) {
+        if (separator && normalized.length() > 0) {
+          normalized.append(' ');
+        }
+        normalized.append(c);
+        separator = false;
+      } else {
+        separator = true;
+      }
+    }
+    if (separator && keepTrailingSpace && normalized.length() > 0) {
+      normalized.append(' ');
+    }
+    return normalized.toString();
+  }
+
+  // The k smallest distinct ranks in ranks[from, to), ascending, kept in a sorted buffer that most
+  // ranks fail to enter after a single comparison
+  private static int[] bestRanks(final int[] ranks, final int from, final int to, final int k) {
+    final int[] best = new int[k];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      final int rank = ranks[i];
+      if (count == k && rank >= best[k - 1]) {
+        continue;
+      }
+      int position = count;
+      while (position > 0 && best[position - 1] > rank) {
+        position--;
+      }
+      if (position > 0 && best[position - 1] == rank) {
+        continue;
+      }
+      final int moved = Math.min(count, k - 1) - position;
+      System.arraycopy(best, position, best, position + 1, moved);
+      best[position] = rank;
+      count = Math.min(count + 1, k);
+    }
+    return Arrays.copyOf(best, count);
+  }
+
+  /** Sorted keys with the trie over them, in flat arrays */
+  static final class Trie {
+    private final Suggestion[] ranked;
+    private final String[] keys;
+    private final int[] keyRanks;
+    private final int[] nodes;
+    private final char[] labels;
+    private final int[] tops;
+
+    private Trie(
+        final Suggestion[] ranked,
+        final String[] keys,
+        final int[] keyRanks,
+        final int[] nodes,
+        final char[] labels,
+        final int[] tops) {
+      this.ranked = ranked;
+      this.keys = keys;
+      this.keyRanks = keyRanks;
+      this.nodes = nodes;
+      this.labels = labels;
+      this.tops = tops;
+    }
+
+    // Binary search over the labels of the node's children, -1 when there is no such child
+    private int child(final int node, final char label) {
+      int low = nodes[node * NODE_FIELDS + FIRST_CHILD];
+      int high = low + nodes[node * NODE_FIELDS + CHILD_COUNT] - 1;
+      while (low <= high) {
+        final int middle = (low + high) >>> 1;
+        if (labels[middle] < label) {
+          low = middle + 1;
+        } else if (labels[middle] > label) {
+          high = middle - 1;
+        } else {
+          return middle;
+        }
+      }
+      return -1;
+    }
+
+    private List<Suggestion> top(final int node, final int limit) {
+      final int start = nodes[node * NODE_FIELDS + TOP_START];
+      final int count = Math.min(limit, nodes[node * NODE_FIELDS + TOP_COUNT]);
+      final List<Suggestion> suggestions = new ArrayList<>(count);
+      for (int i = start; i < start + count; i++) {
+        suggestions.add(ranked[tops[i]]);
+      }
+      return suggestions;
+    }
+
+    // Below the kept nodes at most TOP_K keys share the prefix, so they are ranked on the fly
+    private List<Suggestion> scan(final int node, final String prefix, final int limit) {
+      int low = nodes[node * NODE_FIELDS + LO];
+      int high = nodes[node * NODE_FIELDS + HI];
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (keys[middle].compareTo(prefix) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      int end = low;
+      while (end < nodes[node * NODE_FIELDS + HI] && keys[end].startsWith(prefix)) {
+        end++;
+      }
+      final int[] best = bestRanks(keyRanks, low, end, limit);
+      final List<Suggestion> suggestions = new ArrayList<>(best.length);
+      for (int rank : best) {
+        suggestions.add(ranked[rank]);
+      }
+      return suggestions;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.dto.Suggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class TypeaheadService {
+
+  @Autowired
+  private TypeaheadIndex typeaheadIndex;
+
+  /**
+   * Method takes the text typed so far and returns the most ordered restaurants, categories and
+   * dishes having a word that starts with it. Never touches the database.
+   *
+   * @param query text typed so far
+   * @param limit maximum number of suggestions, capped at TYPEAHEAD_MAX_LIMIT
+   * @return Suggestion List, most ordered first; empty for a blank query
+   */
+  public List<Suggestion> suggest(final String query, final int limit) {
+    return typeaheadIndex.suggest(
+        query, Math.min(Math.max(limit, 1), AppConstants.TYPEAHEAD_MAX_LIMIT));
+  }
+}
@@ -23,6 +23,47 @@ public class AppConstants {
   public static final Integer EIGHT_8 = 8;
   // Number '10'
   public static final Integer NUMBER_10 = 10;
+  // Maximum number of restaurants returned by a restaurant name search
+  public static final int RESTAURANT_NAME_SEARCH_LIMIT = 50;
+  // Maximum number of restaurants on a restaurant listing page
+  public static final int RESTAURANT_PAGE_MAX_SIZE = 100;
+  // Default and maximum radius in km of a nearby restaurant search
+  public static final double NEARBY_DEFAULT_RADIUS_KM = 5;
+  public static final double NEARBY_MAX_RADIUS_KM = 50;
+  // Default and maximum number of restaurants returned by a nearby restaurant search
+  public static final int NEARBY_DEFAULT_LIMIT = 10;
+  public static final int NEARBY_MAX_LIMIT = 50;
+  // Default number of restaurants on a dish search page
+  public static final int DISH_SEARCH_DEFAULT_PAGE_SIZE = 10;
+  // Maximum number of restaurants on a dish search page
+  public static final int DISH_SEARCH_MAX_PAGE_SIZE = 50;
+  // Default and maximum number of typeahead suggestions
+  public static final int TYPEAHEAD_DEFAULT_LIMIT = 5;
+  public static final int TYPEAHEAD_MAX_LIMIT = 10;
+  // Number of items returned by the most popular items of a restaurant
+  public static final int POPULAR_ITEMS_LIMIT = 5;
+  // Default and maximum number of trending items, and the days of orders trends are warmed from
+  public static final int TRENDING_DEFAULT_LIMIT = 10;
+  public static final int TRENDING_MAX_LIMIT = 50;
+  public static final int TRENDING_WARM_DAYS = 7;
+  // Default and maximum number of items suggested as ordered together with an item
+  public static final int ORDERED_TOGETHER_DEFAULT_LIMIT = 5;
+  public static final int ORDERED_TOGETHER_MAX_LIMIT = 20;
+  // Default and maximum number of orders on an order history page
+  public static final int ORDER_HISTORY_DEFAULT_PAGE_SIZE = 10;
+  public static final int ORDER_HISTORY_MAX_PAGE_SIZE = 50;
+  // Maximum number of stored orders sent when a customer opens the order status stream
+  public static final int OPEN_ORDER_STATUSES_LIMIT = 10;
+  // Maximum number of hour or day buckets in one restaurant revenue response
+  public static final int REVENUE_MAX_BUCKETS = 1000;
+  // Orders read, archived and deleted per batch by the order archiver
+  public static final int ORDER_ARCHIVE_BATCH_SIZE = 1000;
+  // Accepted orders stored per transaction by the asynchronous order intake
+  public static final int ORDER_INTAKE_BATCH_SIZE = 500;
+  // Ids reserved per sequence call, fixed at build time; must equal INCREMENT BY in sequences.sql
+  public static final int ID_BLOCK_SIZE = 50;
+  // Maximum length of an order's Idempotency-Key header
+  public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 200;
   // Character ':'
   public static final String COLON = ":";
   // Text 'access-token'
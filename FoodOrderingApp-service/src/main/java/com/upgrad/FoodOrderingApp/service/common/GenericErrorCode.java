@@ -25,6 +25,8 @@ public enum GenericErrorCode implements ErrorCode {
     ATHR_003("ATHR-003", "Your session is expired. Log in again to access this endpoint."),
     ATHR_004("ATHR-004", "You are not authorized to view/update/delete any one else's address"),
     ATHR_005("ATHR-005", "Prefix 'Bearer ' missing on Access/Authorization token"),
+    ATHR_006("ATHR-006", "Fulfilment token is not valid"),
+    ATHR_007("ATHR-007", "Partner token is not valid"),
     UCR_001("UCR-001", "Weak password!"),
     UCR_002("UCR-002", "First name field should not be empty"),
     UCR_003("UCR-003", "No field should be empty"),
@@ -38,12 +40,29 @@ public enum GenericErrorCode implements ErrorCode {
     CNF_002("CNF-002", "No category by this id"),
     CPF_001("CPF-001", "No coupon by this name"),
     CPF_002("CPF-002", "Coupon name field should not be empty"),
+    CPF_003("CPF-002", "No coupon by this id"),
     RNF_003("RNF-003", "Restaurant name field should not be empty"),
     RNF_002("RNF-002", "Restaurant id field should not be empty"),
     RNF_001("RNF-001", "No restaurant by this id"),
+    RNF_004("RNF-004", "Invalid restaurant page cursor"),
     IRE_001("IRE-001", "Restaurant should be in the range of 1 to 5"),
+    ILC_001("ILC-001", "Latitude or longitude is out of range"),
+    ILC_002("ILC-002", "Search radius should be greater than 0"),
     PNF_002("PNF-002", "No payment method found by this id"),
-    INF_001("INF-001", "No item by this id exist");
+    INF_001("INF-001", "No item by this id exist"),
+    INF_002("INF-002", "Item does not belong to the restaurant"),
+    ISR_001("ISR-001", "Dish name field should not be empty"),
+    ITR_001("ITR-001", "Trending window should be hour or day"),
+    ODR_001("ODR-001", "Invalid order page cursor"),
+    ODR_002("ODR-002", "No order by this id"),
+    ODR_003("ODR-003", "Order can only move forward to accepted, preparing, out for delivery or delivered"),
+    BIL_001("BIL-001", "Item price does not match the menu"),
+    BIL_002("BIL-002", "Bill or discount does not match the ordered items"),
+    BIL_003("BIL-003", "Order should have at least one item"),
+    IDK_001("IDK-001", "Idempotency key should be 1 to 200 characters"),
+    RRV_001("RRV-001", "Revenue granularity should be hour or day"),
+    RRV_002("RRV-002", "Revenue range should be ISO date-times with from before to"),
+    RRV_003("RRV-003", "Revenue range should span at most 1000 buckets");
 
     private static final Map<String, GenericErrorCode> LOOKUP = new HashMap<String, GenericErrorCode>();
 
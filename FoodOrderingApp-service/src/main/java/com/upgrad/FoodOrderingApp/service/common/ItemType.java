@@ -18,4 +18,15 @@ public enum ItemType {
   public String toString() {
     return getValue();
   }
+
+  /**
+   * Method maps a value of the item.type column to an ItemType. ItemEntity leaves the type to the
+   * JPA default, so the column holds the ordinal; native queries read it through this method.
+   *
+   * @param column item.type value, "0" or "1"
+   * @return ItemType
+   */
+  public static ItemType fromColumn(final String column) {
+    return values()[Integer.parseInt(column)];
+  }
 }
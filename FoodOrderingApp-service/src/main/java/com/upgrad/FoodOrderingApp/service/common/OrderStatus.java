@@ -0,0 +1,39 @@
+package com.upgrad.FoodOrderingApp.service.common;
+
+/** Progress of an order from intake to delivery, in lifecycle order */
+public enum OrderStatus {
+  // Logged and acknowledged by the asynchronous intake, not yet stored in the database
+  QUEUED,
+  // Stored in the database
+  PLACED,
+  // Taken on by the restaurant
+  ACCEPTED,
+  // Being prepared by the restaurant
+  PREPARING,
+  // Picked up and on its way to the customer
+  OUT_FOR_DELIVERY,
+  // Handed over to the customer
+  DELIVERED,
+  // Rejected by the database when the intake tried to store it
+  FAILED;
+
+  /** @return true if an order can still move on from this status */
+  public boolean isOpen() {
+    return this != DELIVERED && this != FAILED;
+  }
+
+  /**
+   * Method tells whether fulfilment may move a stored order from this status to another. Orders
+   * only move forward, from PLACED through ACCEPTED, PREPARING and OUT_FOR_DELIVERY to DELIVERED,
+   * and may skip steps.
+   *
+   * @param next requested status
+   * @return true if the order may move to the requested status
+   */
+  public boolean canMoveTo(final OrderStatus next) {
+    return this.compareTo(PLACED) >= 0
+        && this.compareTo(next) < 0
+        && next.compareTo(ACCEPTED) >= 0
+        && next.compareTo(DELIVERED) <= 0;
+  }
+}
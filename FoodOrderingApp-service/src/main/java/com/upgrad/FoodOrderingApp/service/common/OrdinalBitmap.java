@@ -0,0 +1,342 @@
+package com.upgrad.FoodOrderingApp.service.common;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of non-negative int ordinals, laid out like a Roaring bitmap.
+ *
+ * <p>Ordinals are split into 65536-wide chunks keyed by their high 16 bits. A sparse chunk is a
+ * sorted char[] of low 16 bits, a dense chunk (more than 4096 members) a long[1024] bitmap. AND and
+ * OR work chunk by chunk and pick the cheaper container for each result chunk.
+ */
+public final class OrdinalBitmap {
+
+  // Above this cardinality a chunk is cheaper as a 8 KB bitmap than as a char array
+  private static final int ARRAY_MAX = 4096;
+
+  private static final int BITMAP_WORDS = 1024;
+
+  private static final OrdinalBitmap EMPTY = new OrdinalBitmap(new char[0], new Object[0], 0);
+
+  private final char[] keys;
+
+  // Each container is either a sorted char[] or a long[BITMAP_WORDS]
+  private final Object[] containers;
+
+  private final int cardinality;
+
+  private OrdinalBitmap(final char[] keys, final Object[] containers, final int cardinality) {
+    this.keys = keys;
+    this.containers = containers;
+    this.cardinality = cardinality;
+  }
+
+  public static OrdinalBitmap empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Method builds a bitmap from ordinals sorted in ascending order without duplicates
+   *
+   * @param ordinals sorted ordinals
+   * @param length number of ordinals to take from the array
+   * @return OrdinalBitmap
+   */
+  public static OrdinalBitmap of(final int[] ordinals, final int length) {
+    final Builder builder = new Builder();
+    for (int i = 0; i < length; i++) {
+      builder.add(ordinals[i]);
+    }
+    return builder.build();
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean contains(final int ordinal) {
+    final int index = Arrays.binarySearch(keys, (char) (ordinal >>> 16));
+    if (index < 0) {
+      return false;
+    }
+    final Object container = containers[index];
+    final char low = (char) ordinal;
+    if (container instanceof char[]) {
+      return Arrays.binarySearch((char[]) container, low) >= 0;
+    }
+    return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+  }
+
+  /**
+   * Method returns the members of this bitmap in ascending order
+   *
+   * @return sorted ordinals
+   */
+  public int[] toArray() {
+    final int[] result = new int[cardinality];
+    int count = 0;
+    for (int i = 0; i < keys.length; i++) {
+      final int high = keys[i] << 16;
+      final Object container = containers[i];
+      if (container instanceof char[]) {
+        for (char low : (char[]) container) {
+          result[count++] = high | low;
+        }
+      } else {
+        final long[] words = (long[]) container;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          long word = words[w];
+          while (word != 0) {
+            result[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Method returns the intersection of this bitmap and another
+   *
+   * @param other OrdinalBitmap
+   * @return ordinals present in both bitmaps
+   */
+  public OrdinalBitmap and(final OrdinalBitmap other) {
+    final int maxChunks = Math.min(keys.length, other.keys.length);
+    final char[] resultKeys = new char[maxChunks];
+    final Object[] resultContainers = new Object[maxChunks];
+    int chunks = 0;
+    int resultCardinality = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length && j < other.keys.length) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        final Object container = andContainers(containers[i], other.containers[j]);
+        final int containerCardinality = cardinality(container);
+        if (containerCardinality > 0) {
+          resultKeys[chunks] = keys[i];
+          resultContainers[chunks++] = container;
+          resultCardinality += containerCardinality;
+        }
+        i++;
+        j++;
+      }
+    }
+    return new OrdinalBitmap(
+        Arrays.copyOf(resultKeys, chunks),
+        Arrays.copyOf(resultContainers, chunks),
+        resultCardinality);
+  }
+
+  /**
+   * Method returns the union of this bitmap and another
+   *
+   * @param other OrdinalBitmap
+   * @return ordinals present in either bitmap
+   */
+  public OrdinalBitmap or(final OrdinalBitmap other) {
+    final int maxChunks = keys.length + other.keys.length;
+    final char[] resultKeys = new char[maxChunks];
+    final Object[] resultContainers = new Object[maxChunks];
+    int chunks = 0;
+    int resultCardinality = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length || j < other.keys.length) {
+      final Object container;
+      if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+        resultKeys[chunks] = keys[i];
+        container = containers[i++];
+      } else if (i == keys.length || keys[i] > other.keys[j]) {
+        resultKeys[chunks] = other.keys[j];
+        container = other.containers[j++];
+      } else {
+        resultKeys[chunks] = keys[i];
+        container = orContainers(containers[i++], other.containers[j++]);
+      }
+      resultContainers[chunks++] = container;
+      resultCardinality += cardinality(container);
+    }
+    return new OrdinalBitmap(
+        Arrays.copyOf(resultKeys, chunks),
+        Arrays.copyOf(resultContainers, chunks),
+        resultCardinality);
+  }
+
+  private static int cardinality(final Object container) {
+    if (container instanceof char[]) {
+      return ((char[]) container).length;
+    }
+    int count = 0;
+    for (long word : (long[]) container) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  private static Object andContainers(final Object left, final Object right) {
+    if (left instanceof char[] && right instanceof char[]) {
+      final char[] a = (char[]) left;
+      final char[] b = (char[]) right;
+      final char[] result = new char[Math.min(a.length, b.length)];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < a.length && j < b.length) {
+        if (a[i] < b[j]) {
+          i++;
+        } else if (a[i] > b[j]) {
+          j++;
+        } else {
+          result[count++] = a[i];
+          i++;
+          j++;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+    if (left instanceof char[] || right instanceof char[]) {
+      final char[] array = (char[]) (left instanceof char[] ? left : right);
+      final long[] words = (long[]) (left instanceof char[] ? right : left);
+      final char[] result = new char[array.length];
+      int count = 0;
+      for (char low : array) {
+        if ((words[low >>> 6] & (1L << low)) != 0) {
+          result[count++] = low;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+    final long[] a = (long[]) left;
+    final long[] b = (long[]) right;
+    final long[] result = new long[BITMAP_WORDS];
+    int count = 0;
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      result[w] = a[w] & b[w];
+      count += Long.bitCount(result[w]);
+    }
+    return count > ARRAY_MAX ? result : toArrayContainer(result, count);
+  }
+
+  private static Object orContainers(final Object left, final Object right) {
+    if (left instanceof char[] && right instanceof char[]) {
+      final char[] a = (char[]) left;
+      final char[] b = (char[]) right;
+      if (a.length + b.length <= ARRAY_MAX) {
+        final char[] result = new char[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+          if (j == b.length || (i < a.length && a[i] < b[j])) {
+            result[count++] = a[i++];
+          } else if (i == a.length || a[i] > b[j]) {
+            result[count++] = b[j++];
+          } else {
+            result[count++] = a[i++];
+            j++;
+          }
+        }
+        return Arrays.copyOf(result, count);
+      }
+    }
+    final long[] result = toBitmapContainer(left);
+    if (right instanceof char[]) {
+      for (char low : (char[]) right) {
+        result[low >>> 6] |= 1L << low;
+      }
+    } else {
+      final long[] words = (long[]) right;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        result[w] |= words[w];
+      }
+    }
+    return result;
+  }
+
+  private static long[] toBitmapContainer(final Object container) {
+    if (container instanceof long[]) {
+      return ((long[]) container).clone();
+    }
+    final long[] words = new long[BITMAP_WORDS];
+    for (char low : (char[]) container) {
+      words[low >>> 6] |= 1L << low;
+    }
+    return words;
+  }
+
+  private static char[] toArrayContainer(final long[] words, final int cardinality) {
+    final char[] result = new char[cardinality];
+    int count = 0;
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      long word = words[w];
+      while (word != 0) {
+        result[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return result;
+  }
+
+  /** Collects ordinals added in ascending order into chunks */
+  public static final class Builder {
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];
+    private int chunks;
+    private char[] current = new char[16];
+    private long[] currentWords;
+    private int currentCount;
+    private int cardinality;
+    private int lastOrdinal = -1;
+
+    public Builder add(final int ordinal) {
+      if (ordinal <= lastOrdinal) {
+        throw new IllegalArgumentException("Ordinals must be added in ascending order");
+      }
+      if (currentCount > 0 && (lastOrdinal >>> 16) != (ordinal >>> 16)) {
+        closeChunk((char) (lastOrdinal >>> 16));
+      }
+      final char low = (char) ordinal;
+      if (currentWords != null) {
+        currentWords[low >>> 6] |= 1L << low;
+      } else if (currentCount == ARRAY_MAX) {
+        currentWords = toBitmapContainer(Arrays.copyOf(current, currentCount));
+        currentWords[low >>> 6] |= 1L << low;
+      } else {
+        if (currentCount == current.length) {
+          current = Arrays.copyOf(current, currentCount * 2);
+        }
+        current[currentCount] = low;
+      }
+      currentCount++;
+      cardinality++;
+      lastOrdinal = ordinal;
+      return this;
+    }
+
+    public OrdinalBitmap build() {
+      if (currentCount > 0) {
+        closeChunk((char) (lastOrdinal >>> 16));
+      }
+      return new OrdinalBitmap(
+          Arrays.copyOf(keys, chunks), Arrays.copyOf(containers, chunks), cardinality);
+    }
+
+    private void closeChunk(final char high) {
+      if (chunks == keys.length) {
+        keys = Arrays.copyOf(keys, chunks * 2);
+        containers = Arrays.copyOf(containers, chunks * 2);
+      }
+      keys[chunks] = high;
+      containers[chunks++] =
+          currentWords != null ? currentWords : Arrays.copyOf(current, currentCount);
+      currentWords = null;
+      currentCount = 0;
+    }
+  }
+}
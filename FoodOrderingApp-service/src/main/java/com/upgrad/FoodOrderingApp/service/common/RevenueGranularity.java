@@ -0,0 +1,41 @@
+package com.upgrad.FoodOrderingApp.service.common;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/** Width of the buckets of the restaurant revenue rollups */
+public enum RevenueGranularity {
+  HOUR(ChronoUnit.HOURS),
+  DAY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  RevenueGranularity(final ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /**
+   * @param time any time
+   * @return start of the bucket holding the time
+   */
+  public LocalDateTime bucketOf(final LocalDateTime time) {
+    return time.truncatedTo(unit);
+  }
+
+  /**
+   * @param bucket start of a bucket
+   * @return start of the following bucket
+   */
+  public LocalDateTime next(final LocalDateTime bucket) {
+    return bucket.plus(1, unit);
+  }
+
+  /**
+   * @param from start of the first bucket
+   * @param to end of the last bucket
+   * @return number of buckets in [from, to)
+   */
+  public long bucketsBetween(final LocalDateTime from, final LocalDateTime to) {
+    return unit.between(from, to);
+  }
+}
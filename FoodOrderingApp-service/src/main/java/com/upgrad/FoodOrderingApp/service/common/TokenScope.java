@@ -0,0 +1,9 @@
+package com.upgrad.FoodOrderingApp.service.common;
+
+/** What a restaurant token lets its holder do for the restaurant it was issued to */
+public enum TokenScope {
+  /** Move the restaurant's orders forward with PUT /order/{order_id}/status */
+  FULFILMENT,
+  /** Read the restaurant's revenue with GET /restaurant/{restaurant_id}/revenue */
+  PARTNER
+}
@@ -0,0 +1,109 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+import com.upgrad.FoodOrderingApp.service.dto.CategoryDetails;
+import com.upgrad.FoodOrderingApp.service.dto.CategorySummary;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.entity.CategoryEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+@Repository
+public class CategoryDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method returns every category ordered by name
+   *
+   * @return CategoryEntity List
+   */
+  public List<CategoryEntity> getAllCategoriesOrderedByName() {
+    return entityManager
+        .createNamedQuery("Category.fetchAllCategories", CategoryEntity.class)
+        .getResultList();
+  }
+
+  /**
+   * Method returns the id and name of every category ordered by name, without loading entities
+   *
+   * @return CategorySummary List
+   */
+  public List<CategorySummary> getCategorySummaries() {
+    return entityManager
+        .createNamedQuery("Category.fetchSummaries", CategorySummary.class)
+        .getResultList();
+  }
+
+  /**
+   * Method takes a category uuid and assembles the category with its items, ordered by item name,
+   * in a single query
+   *
+   * @param uuid category uuid
+   * @return CategoryDetails, or null if there is no category by this uuid
+   */
+  public CategoryDetails getCategoryDetails(final String uuid) {
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("Category.fetchDetails", Object[].class)
+            .setParameter("categoryId", uuid)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return null;
+    }
+    final CategoryDetails category =
+        new CategoryDetails((String) rows.get(0)[0], (String) rows.get(0)[1]);
+    for (Object[] row : rows) {
+      if (row[2] != null) {
+        category
+            .getItems()
+            .add(
+                new ItemSummary(
+                    (String) row[2], (String) row[3], (Integer) row[4], (ItemType) row[5]));
+      }
+    }
+    return category;
+  }
+
+  /**
+   * Method takes a category uuid and returns the matching CategoryEntity
+   *
+   * @param uuid category uuid
+   * @return CategoryEntity, or null if there is no category by this uuid
+   */
+  public CategoryEntity getCategoryByUuid(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("Category.fetchCategoryItem", CategoryEntity.class)
+          .setParameter("categoryId", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method returns the uuid of every category
+   *
+   * @return category uuid List
+   */
+  public List<String> getCategoryUuids() {
+    return entityManager.createNamedQuery("Category.fetchUuids", String.class).getResultList();
+  }
+
+  /**
+   * Method returns every category to restaurant link without loading the entity graphs
+   *
+   * @return List of [category uuid, restaurant id] rows
+   */
+  public List<Object[]> getCategoryRestaurantIds() {
+    return entityManager
+        .createNamedQuery("RestaurantCategoryEntity.fetchCategoryRestaurantIds", Object[].class)
+        .getResultList();
+  }
+}
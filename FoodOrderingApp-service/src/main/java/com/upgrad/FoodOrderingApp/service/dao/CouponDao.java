@@ -0,0 +1,53 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.entity.CouponEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+@Repository
+public class CouponDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes a coupon uuid and returns the matching CouponEntity
+   *
+   * @param uuid coupon uuid
+   * @return CouponEntity, or null if there is no coupon by this uuid
+   */
+  public CouponEntity getCouponByUuid(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("Coupon.ByUuid", CouponEntity.class)
+          .setParameter("uuid", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method takes a coupon id and returns a reference to the coupon without loading it
+   *
+   * @param couponId id of an existing coupon
+   * @return CouponEntity proxy, its state is read from the database on first access
+   */
+  public CouponEntity getCouponReference(final int couponId) {
+    return entityManager.getReference(CouponEntity.class, couponId);
+  }
+
+  /**
+   * Method returns the discount percent of every coupon
+   *
+   * @return List of [couponId, couponUuid, percent] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getCouponPercents() {
+    return entityManager.createNamedQuery("Coupon.fetchPercents").getResultList();
+  }
+}
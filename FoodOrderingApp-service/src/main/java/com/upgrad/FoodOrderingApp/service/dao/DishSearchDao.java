@@ -0,0 +1,61 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDishes;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class DishSearchDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method runs a full-text search over item and category names and returns one page of
+   * restaurants, each with its matching dishes, without loading any entity
+   *
+   * @param tsQuery PostgreSQL tsquery in the 'simple' configuration, e.g. "paneer:* & tikka:*"
+   * @param offset number of restaurants to skip
+   * @param limit number of restaurants on the page
+   * @return RestaurantDishes List ordered by best dish rank
+   */
+  @SuppressWarnings("unchecked")
+  public List<RestaurantDishes> searchDishes(
+      final String tsQuery, final int offset, final int limit) {
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("ItemEntity.searchDishes")
+            .setParameter("query", tsQuery)
+            .setParameter("offset", offset)
+            .setParameter("limit", limit)
+            .getResultList();
+
+    // Rows arrive ordered by restaurant rank, group them without losing that order
+    final Map<String, RestaurantDishes> restaurants = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      final RestaurantDishes restaurant =
+          restaurants.computeIfAbsent(
+              (String) row[0],
+              uuid ->
+                  new RestaurantDishes(
+                      uuid, (String) row[1], (String) row[2], ((Number) row[3]).doubleValue()));
+      restaurant
+          .getItems()
+          .add(
+              new ItemSummary(
+                  (String) row[4],
+                  (String) row[5],
+                  ((Number) row[6]).intValue(),
+                  ItemType.fromColumn((String) row[7])));
+    }
+    return new ArrayList<>(restaurants.values());
+  }
+}
@@ -0,0 +1,121 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.entity.ItemEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class ItemDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes an item uuid and returns the matching ItemEntity
+   *
+   * @param uuid item uuid
+   * @return ItemEntity, or null if there is no item by this uuid
+   */
+  public ItemEntity getItemByUuid(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("ItemEntity.getItemById", ItemEntity.class)
+          .setParameter("uuid", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method takes item ids and returns the matching items in one query
+   *
+   * @param itemIds item ids, must not be empty
+   * @return ItemEntity List in no particular order
+   */
+  public List<ItemEntity> getItemsByIds(final List<Integer> itemIds) {
+    return entityManager
+        .createNamedQuery("ItemEntity.byIds", ItemEntity.class)
+        .setParameter("ids", itemIds)
+        .getResultList();
+  }
+
+  /**
+   * Method takes item uuids and returns the matching items in one query
+   *
+   * @param uuids item uuids, must not be empty
+   * @return ItemEntity List in no particular order, without the uuids that match no item
+   */
+  public List<ItemEntity> getItemsByUuids(final Collection<String> uuids) {
+    return entityManager
+        .createNamedQuery("ItemEntity.byUuids", ItemEntity.class)
+        .setParameter("uuids", uuids)
+        .getResultList();
+  }
+
+  /**
+   * Method takes an item id and returns a reference to the item without loading it
+   *
+   * @param itemId id of an existing item
+   * @return ItemEntity proxy, its state is read from the database on first access
+   */
+  public ItemEntity getItemReference(final int itemId) {
+    return entityManager.getReference(ItemEntity.class, itemId);
+  }
+
+  /**
+   * Method returns the price of every item on every restaurant's menu
+   *
+   * @return List of [restaurantId, itemId, itemUuid, price] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getRestaurantItemPrices() {
+    return entityManager.createNamedQuery("ItemEntity.fetchPrices").getResultList();
+  }
+
+  /**
+   * Method returns the price of every item on one restaurant's menu
+   *
+   * @param restaurantId restaurant id
+   * @return List of rows shaped as in getRestaurantItemPrices()
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getRestaurantItemPrices(final int restaurantId) {
+    return entityManager
+        .createNamedQuery("ItemEntity.fetchPricesByRestaurant")
+        .setParameter("restaurantId", restaurantId)
+        .getResultList();
+  }
+
+  /**
+   * Method returns how many orders contain each item of each restaurant
+   *
+   * @return List of [restaurantId, itemId, orderCount] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getOrderCountsByRestaurantItem() {
+    return entityManager
+        .createNamedQuery("OrderItemEntity.countOrdersByRestaurantItem")
+        .getResultList();
+  }
+
+  /**
+   * Method returns every quantity ordered since the given time
+   *
+   * @param since earliest order date
+   * @return List of [itemId, restaurant city, order date, quantity] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getOrderedQuantitiesSince(final LocalDateTime since) {
+    return entityManager
+        .createNamedQuery("OrderItemEntity.fetchQuantitiesSince")
+        .setParameter("since", since)
+        .getResultList();
+  }
+}
@@ -0,0 +1,40 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+@Repository
+public class MenuDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method returns the menus of all restaurants as flat rows, grouped by restaurant and ordered by
+   * category name and item name within a restaurant
+   *
+   * @return List of [restaurantUuid, categoryUuid, categoryName, itemUuid, itemName, price, type]
+   *     rows; category and item columns are null for a restaurant or category without items
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getMenuRows() {
+    return entityManager.createNamedQuery("RestaurantCategoryEntity.fetchMenus").getResultList();
+  }
+
+  /**
+   * Method returns the menu of one restaurant as flat rows ordered by category name and item name
+   *
+   * @param restaurantUuid restaurant uuid
+   * @return List of rows shaped as in getMenuRows(), empty if there is no restaurant by this uuid
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getMenuRows(final String restaurantUuid) {
+    return entityManager
+        .createNamedQuery("RestaurantCategoryEntity.fetchMenu")
+        .setParameter("restaurantUuid", restaurantUuid)
+        .getResultList();
+  }
+}
@@ -0,0 +1,392 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.dto.ItemSummary;
+import com.upgrad.FoodOrderingApp.service.dto.OrderLine;
+import com.upgrad.FoodOrderingApp.service.dto.OrderStatusUpdate;
+import com.upgrad.FoodOrderingApp.service.dto.OrderSummary;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class OrderDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes a OrderEntity and stores it in the database
+   *
+   * @param order OrderEntity to persist
+   * @return persisted OrderEntity
+   */
+  public OrderEntity saveOrder(final OrderEntity order) {
+    entityManager.persist(order);
+    return order;
+  }
+
+  /**
+   * Method takes the items of an order and stores them in the database. The rows are only queued
+   * in the persistence context; they are written at flush as JDBC batches of
+   * hibernate.jdbc.batch_size inserts.
+   *
+   * @param orderItems OrderItemEntity List to persist
+   * @return persisted OrderItemEntity List
+   */
+  public List<OrderItemEntity> saveOrderItems(final List<OrderItemEntity> orderItems) {
+    for (OrderItemEntity orderItem : orderItems) {
+      entityManager.persist(orderItem);
+    }
+    return orderItems;
+  }
+
+  /**
+   * Method takes an entity type and id and returns a reference to the entity without loading it
+   *
+   * @param type entity class an order points at
+   * @param id id of an existing entity
+   * @return entity proxy, its state is read from the database on first access
+   */
+  public <T> T getReference(final Class<T> type, final int id) {
+    return entityManager.getReference(type, id);
+  }
+
+  /**
+   * Method takes order uuids and returns those already stored, in one query that reads only the
+   * order partitions from the earliest order date on
+   *
+   * @param uuids order uuids, must not be empty
+   * @param since earliest date of the orders
+   * @return List of the stored uuids
+   */
+  public List<String> getStoredOrderUuids(
+      final Collection<String> uuids, final LocalDateTime since) {
+    return entityManager
+        .createNamedQuery("Orders.uuidsIn", String.class)
+        .setParameter("uuids", uuids)
+        .setParameter("since", since)
+        .getResultList();
+  }
+
+  /**
+   * Method returns the status of a customer's stored order
+   *
+   * @param uuid order uuid
+   * @param customerId customer id
+   * @return OrderStatus, null if the customer has no stored order by this uuid
+   */
+  public OrderStatus getOrderStatus(final String uuid, final int customerId) {
+    try {
+      return entityManager
+          .createNamedQuery("Orders.statusByUuidAndCustomer", OrderStatus.class)
+          .setParameter("uuid", uuid)
+          .setParameter("customerId", customerId)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method returns the customer, status and restaurant of a stored order
+   *
+   * @param uuid order uuid
+   * @return [customerId, OrderStatus, restaurantId] row, null if there is no stored order by this
+   *     uuid
+   */
+  public Object[] getCustomerAndStatus(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("Orders.customerAndStatusByUuid", Object[].class)
+          .setParameter("uuid", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method moves an order to a new status if it still has the status it was read with
+   *
+   * @param uuid order uuid
+   * @param previous status the order was read with
+   * @param status new status
+   * @return true if the order was updated, false if its status has changed in the meantime
+   */
+  public boolean updateOrderStatus(
+      final String uuid, final OrderStatus previous, final OrderStatus status) {
+    return entityManager
+            .createNamedQuery("Orders.updateStatus")
+            .setParameter("uuid", uuid)
+            .setParameter("previous", previous)
+            .setParameter("status", status)
+            .executeUpdate()
+        == 1;
+  }
+
+  /**
+   * Method returns a customer's latest orders that are stored but not yet delivered
+   *
+   * @param customerId customer id
+   * @param limit maximum number of orders to return
+   * @return OrderStatusUpdate List, latest order first
+   */
+  public List<OrderStatusUpdate> getOpenOrderStatuses(final int customerId, final int limit) {
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("Orders.fetchOpenStatuses", Object[].class)
+            .setParameter("customerId", customerId)
+            .setParameter(
+                "statuses",
+                Arrays.asList(
+                    OrderStatus.PLACED,
+                    OrderStatus.ACCEPTED,
+                    OrderStatus.PREPARING,
+                    OrderStatus.OUT_FOR_DELIVERY))
+            .setMaxResults(limit)
+            .getResultList();
+    final List<OrderStatusUpdate> statuses = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      statuses.add(new OrderStatusUpdate((String) row[0], (OrderStatus) row[1]));
+    }
+    return statuses;
+  }
+
+  /**
+   * Method returns the highest order id
+   *
+   * @return order id, 0 if there are no orders
+   */
+  public int getMaxOrderId() {
+    final Integer maxId =
+        entityManager.createNamedQuery("Orders.maxId", Integer.class).getSingleResult();
+    return maxId == null ? 0 : maxId;
+  }
+
+  /**
+   * Method returns the items of the orders whose id lies in (afterId, upToId]
+   *
+   * @param afterId exclusive lower bound of the order ids
+   * @param upToId inclusive upper bound of the order ids
+   * @return List of [orderId, restaurantId, itemId] rows grouped by order
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getOrderItemIds(final int afterId, final int upToId) {
+    return entityManager
+        .createNamedQuery("OrderItemEntity.fetchItemIdsByOrderRange")
+        .setParameter("afterId", afterId)
+        .setParameter("upToId", upToId)
+        .getResultList();
+  }
+
+  /**
+   * Method returns a page of a customer's orders, latest first, starting right after the given
+   * keyset position
+   *
+   * @param customerId customer id
+   * @param date date of the last order of the previous page, null for the first page
+   * @param orderId id of the last order of the previous page, null for the first page
+   * @param limit maximum number of orders to return
+   * @return OrderSummary List without item lines
+   */
+  @SuppressWarnings("unchecked")
+  public List<OrderSummary> getOrderHistoryPage(
+      final int customerId, final LocalDateTime date, final Integer orderId, final int limit) {
+    final List<Object[]> rows;
+    if (date == null || orderId == null) {
+      rows =
+          entityManager
+              .createNamedQuery("Orders.fetchHistoryFirstPage")
+              .setParameter("customerId", customerId)
+              .setParameter("limit", limit)
+              .getResultList();
+    } else {
+      rows =
+          entityManager
+              .createNamedQuery("Orders.fetchHistoryPageAfter")
+              .setParameter("customerId", customerId)
+              .setParameter("date", Timestamp.valueOf(date))
+              .setParameter("id", orderId)
+              .setParameter("limit", limit)
+              .getResultList();
+    }
+    final List<OrderSummary> orders = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      orders.add(toOrderSummary(customerId, row, 0));
+    }
+    return orders;
+  }
+
+  /**
+   * Method returns the date of the oldest stored order
+   *
+   * @return order date, null if there are no orders
+   */
+  public LocalDateTime getOldestOrderDate() {
+    return entityManager
+        .createNamedQuery("Orders.minDate", LocalDateTime.class)
+        .getSingleResult();
+  }
+
+  /**
+   * Method returns a page of the orders placed in [from, to), ordered by customer id and, per
+   * customer, latest first, starting right after the given keyset position
+   *
+   * @param from inclusive lower bound of the order dates
+   * @param to exclusive upper bound of the order dates
+   * @param customerId customer id of the last order of the previous page, 0 for the first page
+   * @param date date of the last order of the previous page, any date for the first page
+   * @param orderId id of the last order of the previous page, any id for the first page
+   * @param limit maximum number of orders to return
+   * @return OrderSummary List without item lines
+   */
+  @SuppressWarnings("unchecked")
+  public List<OrderSummary> getOrderArchivePage(
+      final LocalDateTime from,
+      final LocalDateTime to,
+      final int customerId,
+      final LocalDateTime date,
+      final int orderId,
+      final int limit) {
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("Orders.fetchArchivePage")
+            .setParameter("from", Timestamp.valueOf(from))
+            .setParameter("to", Timestamp.valueOf(to))
+            .setParameter("customerId", customerId)
+            .setParameter("date", Timestamp.valueOf(date))
+            .setParameter("id", orderId)
+            .setParameter("limit", limit)
+            .getResultList();
+    final List<OrderSummary> orders = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      orders.add(toOrderSummary(((Number) row[0]).intValue(), row, 1));
+    }
+    return orders;
+  }
+
+  /**
+   * Method creates the missing monthly partitions of the orders and order_item tables
+   *
+   * @param from first month
+   * @param to month after the last month
+   * @return number of partitions created
+   */
+  public int createOrderPartitions(final YearMonth from, final YearMonth to) {
+    return ((Number)
+            entityManager
+                .createNamedQuery("Orders.createPartitions")
+                .setParameter("from", Date.valueOf(from.atDay(1)))
+                .setParameter("to", Date.valueOf(to.atDay(1)))
+                .getSingleResult())
+        .intValue();
+  }
+
+  /**
+   * Method drops a month's partitions of the orders and order_item tables with all their rows
+   *
+   * @param month month
+   * @return number of partitions dropped
+   */
+  public int dropOrderPartition(final YearMonth month) {
+    return ((Number)
+            entityManager
+                .createNamedQuery("Orders.dropPartition")
+                .setParameter("month", Date.valueOf(month.atDay(1)))
+                .getSingleResult())
+        .intValue();
+  }
+
+  /**
+   * Method deletes orders and their items
+   *
+   * @param orderIds ids of the orders
+   */
+  public void deleteOrders(final Collection<Integer> orderIds) {
+    entityManager
+        .createNamedQuery("OrderItemEntity.deleteByOrders")
+        .setParameter("orderIds", orderIds)
+        .executeUpdate();
+    entityManager
+        .createNamedQuery("Orders.deleteByIds")
+        .setParameter("orderIds", orderIds)
+        .executeUpdate();
+  }
+
+  /**
+   * Method loads the item lines of a page of orders with one query and adds them to the orders
+   *
+   * @param orders orders of one page
+   */
+  public void addOrderLines(final List<OrderSummary> orders) {
+    if (orders.isEmpty()) {
+      return;
+    }
+    final Map<Integer, OrderSummary> ordersById = new HashMap<>();
+    LocalDateTime from = orders.get(0).getDate();
+    LocalDateTime to = from;
+    for (OrderSummary order : orders) {
+      ordersById.put(order.getId(), order);
+      from = order.getDate().isBefore(from) ? order.getDate() : from;
+      to = order.getDate().isAfter(to) ? order.getDate() : to;
+    }
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("OrderItemEntity.fetchLinesByOrders", Object[].class)
+            .setParameter("orderIds", ordersById.keySet())
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList();
+    for (Object[] row : rows) {
+      ordersById
+          .get(row[0])
+          .getLines()
+          .add(
+              new OrderLine(
+                  new ItemSummary(
+                      (String) row[1], (String) row[2], (Integer) row[3], (ItemType) row[4]),
+                  (Integer) row[5],
+                  (Integer) row[6]));
+    }
+  }
+
+  // Columns of the history projection, starting at the order id
+  private static OrderSummary toOrderSummary(
+      final int customerId, final Object[] row, final int first) {
+    return new OrderSummary(
+        ((Number) row[first]).intValue(),
+        customerId,
+        (String) row[first + 1],
+        ((Number) row[first + 2]).doubleValue(),
+        row[first + 3] == null ? null : ((Number) row[first + 3]).doubleValue(),
+        ((Timestamp) row[first + 4]).toLocalDateTime(),
+        (String) row[first + 5],
+        (String) row[first + 6],
+        row[first + 7] == null ? null : ((Number) row[first + 7]).intValue(),
+        (String) row[first + 8],
+        (String) row[first + 9],
+        (String) row[first + 10],
+        (String) row[first + 11],
+        (String) row[first + 12],
+        (String) row[first + 13],
+        (String) row[first + 14],
+        (String) row[first + 15],
+        (String) row[first + 16]);
+  }
+}
@@ -0,0 +1,62 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.entity.OrderIdempotencyKeyEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+@Repository
+public class OrderIdempotencyKeyDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes an OrderIdempotencyKeyEntity and stores it in the database
+   *
+   * @param idempotencyKey OrderIdempotencyKeyEntity to persist
+   * @return persisted OrderIdempotencyKeyEntity
+   */
+  public OrderIdempotencyKeyEntity saveIdempotencyKey(
+      final OrderIdempotencyKeyEntity idempotencyKey) {
+    entityManager.persist(idempotencyKey);
+    return idempotencyKey;
+  }
+
+  /**
+   * Method takes a customer id and an idempotency key and returns the stored key
+   *
+   * @param customerId customer id
+   * @param idempotencyKey Idempotency-Key header value
+   * @return OrderIdempotencyKeyEntity, or null if the customer has not used this key
+   */
+  public OrderIdempotencyKeyEntity getIdempotencyKey(
+      final int customerId, final String idempotencyKey) {
+    try {
+      return entityManager
+          .createNamedQuery(
+              "OrderIdempotencyKey.byCustomerAndKey", OrderIdempotencyKeyEntity.class)
+          .setParameter("customerId", customerId)
+          .setParameter("idempotencyKey", idempotencyKey)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method deletes the keys stored before the given time
+   *
+   * @param createdBefore exclusive upper bound of the creation time
+   * @return number of keys deleted
+   */
+  public int deleteIdempotencyKeys(final LocalDateTime createdBefore) {
+    return entityManager
+        .createNamedQuery("OrderIdempotencyKey.deleteCreatedBefore")
+        .setParameter("createdBefore", createdBefore)
+        .executeUpdate();
+  }
+}
@@ -0,0 +1,32 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.entity.PaymentEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+
+@Repository
+public class PaymentDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes a payment uuid and returns the matching PaymentEntity
+   *
+   * @param uuid payment uuid
+   * @return PaymentEntity, or null if there is no payment method by this uuid
+   */
+  public PaymentEntity getPaymentByUuid(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("PaymentModes.getById", PaymentEntity.class)
+          .setParameter("uuid", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+}
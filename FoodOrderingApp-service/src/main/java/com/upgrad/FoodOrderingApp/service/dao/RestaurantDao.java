@@ -0,0 +1,310 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.common.RevenueGranularity;
+import com.upgrad.FoodOrderingApp.service.dto.RevenueBucket;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class RestaurantDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes a restaurant uuid and returns the matching RestaurantEntity
+   *
+   * @param uuid restaurant uuid
+   * @return RestaurantEntity
+   */
+  public RestaurantEntity getRestaurantByUUID(final String uuid) {
+    try {
+      return entityManager
+          .createNamedQuery("Restaurants.getById", RestaurantEntity.class)
+          .setParameter("id", uuid)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+
+  /**
+   * Method returns the id of every restaurant, highest rated first
+   *
+   * @return restaurant id List
+   */
+  public List<Integer> getRestaurantIdsByRating() {
+    return entityManager
+        .createNamedQuery("Restaurants.fetchIdsByRating", Integer.class)
+        .getResultList();
+  }
+
+  /**
+   * Method returns the ids of a page of restaurants ordered by rating and then id, both
+   * descending, starting right after the given keyset position
+   *
+   * @param customerRating rating of the last restaurant of the previous page, null for the first
+   *     page
+   * @param restaurantId id of the last restaurant of the previous page, null for the first page
+   * @param limit maximum number of restaurants to return
+   * @return restaurant id List in page order
+   */
+  @SuppressWarnings("unchecked")
+  public List<Integer> getRestaurantPageIds(
+      final BigDecimal customerRating, final Integer restaurantId, final int limit) {
+    final List<Number> ids;
+    if (customerRating == null || restaurantId == null) {
+      ids =
+          entityManager
+              .createNamedQuery("Restaurants.fetchFirstPageIds")
+              .setParameter("limit", limit)
+              .getResultList();
+    } else {
+      ids =
+          entityManager
+              .createNamedQuery("Restaurants.fetchPageIdsAfter")
+              .setParameter("rating", customerRating.toPlainString())
+              .setParameter("id", restaurantId)
+              .setParameter("limit", limit)
+              .getResultList();
+    }
+    final List<Integer> pageIds = new ArrayList<>(ids.size());
+    for (Number id : ids) {
+      pageIds.add(id.intValue());
+    }
+    return pageIds;
+  }
+
+  /**
+   * Method takes a list of restaurant ids and returns the matching RestaurantEntity list in a
+   * single query. The order of the returned list is undefined.
+   *
+   * @param ids restaurant ids
+   * @return RestaurantEntity List
+   */
+  public List<RestaurantEntity> getRestaurantsByIds(final List<Integer> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return entityManager
+        .createNamedQuery("Restaurants.getByIds", RestaurantEntity.class)
+        .setParameter("ids", ids)
+        .getResultList();
+  }
+
+  /**
+   * Method returns id, name and rating of every restaurant without loading the entity graphs
+   *
+   * @return List of [id, restaurantName, customerRating] rows
+   */
+  public List<Object[]> getRestaurantNames() {
+    return entityManager
+        .createNamedQuery("Restaurants.fetchNames", Object[].class)
+        .getResultList();
+  }
+
+  /**
+   * Method returns id and address coordinates of every restaurant whose address has them
+   *
+   * @return List of [id, latitude, longitude] rows
+   */
+  public List<Object[]> getRestaurantLocations() {
+    return entityManager
+        .createNamedQuery("Restaurants.fetchLocations", Object[].class)
+        .getResultList();
+  }
+
+  /**
+   * Method returns id, average price for two and rating of every restaurant
+   *
+   * @return List of [id, averagePriceForTwo, customerRating] rows
+   */
+  public List<Object[]> getRestaurantFacets() {
+    return entityManager
+        .createNamedQuery("Restaurants.fetchFacets", Object[].class)
+        .getResultList();
+  }
+
+  /**
+   * Method returns ids of the restaurants whose items are all vegetarian
+   *
+   * @return restaurant id List
+   */
+  @SuppressWarnings("unchecked")
+  public List<Number> getVegOnlyRestaurantIds() {
+    return entityManager.createNamedQuery("Restaurants.fetchVegOnlyIds").getResultList();
+  }
+
+  /**
+   * Method folds a batch of ratings into a restaurant's average rating with one atomic UPDATE that
+   * reads the current average and count inside the statement
+   *
+   * @param restaurantId restaurant id
+   * @param ratingSum sum of the new ratings
+   * @param count number of the new ratings
+   * @return the restaurant's average rating after the update
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public double addRatings(final int restaurantId, final double ratingSum, final int count) {
+    entityManager
+        .createNamedQuery("Restaurants.addRatings")
+        .setParameter("ratingSum", ratingSum)
+        .setParameter("count", count)
+        .setParameter("id", restaurantId)
+        .executeUpdate();
+    return entityManager
+        .createNamedQuery("Restaurants.fetchRating", Double.class)
+        .setParameter("id", restaurantId)
+        .getSingleResult();
+  }
+
+  /**
+   * Method takes shared locks on the days of a batch of orders, held until the end of the
+   * transaction, so that a rebuild of those days' revenue rollups waits for the batch
+   *
+   * @param days days of the orders as epoch days, in ascending order
+   */
+  public void lockRevenueDays(final Collection<Integer> days) {
+    entityManager
+        .createNamedQuery("Restaurants.lockRevenueDays")
+        .setParameter("days", toArrayLiteral(days))
+        .getSingleResult();
+  }
+
+  /**
+   * Method adds order counts and revenue to the rollup buckets with one upsert
+   *
+   * @param buckets RevenueBucket List of increments, in (restaurant, granularity, bucket) order
+   */
+  public void addRevenue(final List<RevenueBucket> buckets) {
+    final List<Integer> restaurantIds = new ArrayList<>(buckets.size());
+    final List<RevenueGranularity> granularities = new ArrayList<>(buckets.size());
+    final List<Timestamp> starts = new ArrayList<>(buckets.size());
+    final List<Integer> orderCounts = new ArrayList<>(buckets.size());
+    final List<String> revenues = new ArrayList<>(buckets.size());
+    for (RevenueBucket bucket : buckets) {
+      restaurantIds.add(bucket.getRestaurantId());
+      granularities.add(bucket.getGranularity());
+      starts.add(Timestamp.valueOf(bucket.getBucket()));
+      orderCounts.add(bucket.getOrderCount());
+      revenues.add(bucket.getRevenue().toPlainString());
+    }
+    entityManager
+        .createNamedQuery("Restaurants.addRevenue")
+        .setParameter("restaurantIds", toArrayLiteral(restaurantIds))
+        .setParameter("granularities", toArrayLiteral(granularities))
+        .setParameter("buckets", toArrayLiteral(starts))
+        .setParameter("orderCounts", toArrayLiteral(orderCounts))
+        .setParameter("revenues", toArrayLiteral(revenues))
+        .executeUpdate();
+  }
+
+  /**
+   * Method returns the rollup buckets of a restaurant in [from, to) that have orders
+   *
+   * @param restaurantId restaurant id
+   * @param granularity hour or day buckets
+   * @param from start of the first bucket
+   * @param to end of the last bucket
+   * @return RevenueBucket List in bucket order
+   */
+  @SuppressWarnings("unchecked")
+  public List<RevenueBucket> getRevenue(
+      final int restaurantId,
+      final RevenueGranularity granularity,
+      final LocalDateTime from,
+      final LocalDateTime to) {
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("Restaurants.fetchRevenue")
+            .setParameter("id", restaurantId)
+            .setParameter("granularity", granularity.name())
+            .setParameter("from", Timestamp.valueOf(from))
+            .setParameter("to", Timestamp.valueOf(to))
+            .getResultList();
+    final List<RevenueBucket> buckets = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      buckets.add(
+          new RevenueBucket(
+              restaurantId,
+              granularity,
+              ((Timestamp) row[0]).toLocalDateTime(),
+              ((Number) row[1]).intValue(),
+              (BigDecimal) row[2]));
+    }
+    return buckets;
+  }
+
+  /**
+   * Method replaces the rollup buckets of a day with ones computed from the day's orders. It waits
+   * for the transactions placing orders on that day and holds off new ones until it commits.
+   *
+   * @param day day
+   */
+  public void rebuildRevenue(final LocalDate day) {
+    final Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+    final Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+    entityManager
+        .createNamedQuery("Restaurants.lockRevenueDay")
+        .setParameter("day", (int) day.toEpochDay())
+        .getSingleResult();
+    entityManager
+        .createNamedQuery("Restaurants.deleteRevenue")
+        .setParameter("from", from)
+        .setParameter("to", to)
+        .executeUpdate();
+    entityManager
+        .createNamedQuery("Restaurants.rebuildRevenue")
+        .setParameter("from", from)
+        .setParameter("to", to)
+        .executeUpdate();
+  }
+
+  /**
+   * Method returns the days of a range whose day buckets do not match their orders
+   *
+   * @param from first day
+   * @param to day after the last day
+   * @return LocalDate List, newest first
+   */
+  @SuppressWarnings("unchecked")
+  public List<LocalDate> getStaleRevenueDays(final LocalDate from, final LocalDate to) {
+    final List<Timestamp> days =
+        entityManager
+            .createNamedQuery("Restaurants.fetchStaleRevenueDays")
+            .setParameter("from", Timestamp.valueOf(from.atStartOfDay()))
+            .setParameter("to", Timestamp.valueOf(to.atStartOfDay()))
+            .getResultList();
+    final List<LocalDate> staleDays = new ArrayList<>(days.size());
+    for (Timestamp day : days) {
+      staleDays.add(day.toLocalDateTime().toLocalDate());
+    }
+    return staleDays;
+  }
+
+  // PostgreSQL array literal of the values, cast to the element type by the query
+  private static String toArrayLiteral(final Collection<?> values) {
+    final StringBuilder literal = new StringBuilder("{");
+    for (Object value : values) {
+      if (literal.length() > 1) {
+        literal.append(',');
+      }
+      literal.append('"').append(value).append('"');
+    }
+    return literal.append('}').toString();
+  }
+}
@@ -0,0 +1,108 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantDetails;
+import com.upgrad.FoodOrderingApp.service.dto.RestaurantSummary;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class RestaurantDetailsDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes a restaurant uuid and assembles the restaurant with its address and state in a
+   * single query
+   *
+   * @param uuid restaurant uuid
+   * @return RestaurantDetails, or null if there is no restaurant by this uuid
+   */
+  public RestaurantDetails getRestaurantDetails(final String uuid) {
+    final Object[] row;
+    try {
+      row =
+          entityManager
+              .createNamedQuery("Restaurants.fetchDetails", Object[].class)
+              .setParameter("id", uuid)
+              .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+    return new RestaurantDetails(
+        (String) row[1],
+        (String) row[2],
+        (String) row[3],
+        ((Number) row[4]).doubleValue(),
+        (Integer) row[5],
+        (Integer) row[6],
+        (String) row[7],
+        (String) row[8],
+        (String) row[9],
+        (String) row[10],
+        (String) row[11],
+        (String) row[12],
+        (String) row[13]);
+  }
+
+  /**
+   * Method takes restaurant ids and assembles their summaries with two queries, one for the
+   * restaurants with their addresses and one for the names of their categories
+   *
+   * @param ids restaurant ids
+   * @return RestaurantSummary List in undefined order, unknown ids left out
+   */
+  public List<RestaurantSummary> getRestaurantSummaries(final List<Integer> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<Object[]> rows =
+        entityManager
+            .createNamedQuery("Restaurants.fetchSummaries", Object[].class)
+            .setParameter("ids", ids)
+            .getResultList();
+    final List<RestaurantSummary> summaries = new ArrayList<>(rows.size());
+    final Map<Integer, RestaurantSummary> summaryById = new HashMap<>();
+    for (Object[] row : rows) {
+      final RestaurantSummary summary =
+          new RestaurantSummary(
+              (Integer) row[0],
+              (String) row[1],
+              (String) row[2],
+              (String) row[3],
+              ((Number) row[4]).doubleValue(),
+              (Integer) row[5],
+              (Integer) row[6],
+              (String) row[7],
+              (String) row[8],
+              (String) row[9],
+              (String) row[10],
+              (String) row[11],
+              (String) row[12],
+              (String) row[13]);
+      summaries.add(summary);
+      summaryById.put(summary.getId(), summary);
+    }
+    // Rows come in category name order, so each restaurant's names end up sorted
+    for (Object[] row :
+        entityManager
+            .createNamedQuery(
+                "RestaurantCategoryEntity.fetchCategoryNamesByRestaurantIds", Object[].class)
+            .setParameter("ids", ids)
+            .getResultList()) {
+      final RestaurantSummary summary = summaryById.get(row[0]);
+      if (summary != null) {
+        summary.getCategoryNames().add((String) row[1]);
+      }
+    }
+    return summaries;
+  }
+}
@@ -0,0 +1,34 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceContext;
+
+@Repository
+public class RestaurantTokenDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method takes the hash of a token and a scope and returns the restaurant the token was issued to
+   *
+   * @param tokenHash lowercase hex SHA-256 of the token
+   * @param scope scope the token is used for
+   * @return restaurant id, or null if no token of the scope has this hash
+   */
+  public Integer getRestaurantId(final String tokenHash, final TokenScope scope) {
+    try {
+      return entityManager
+          .createNamedQuery("RestaurantToken.restaurantIdByHash", Integer.class)
+          .setParameter("tokenHash", tokenHash)
+          .setParameter("scope", scope)
+          .getSingleResult();
+    } catch (NoResultException nre) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.upgrad.FoodOrderingApp.service.dao;
+
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+@Repository
+public class TypeaheadDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method returns uuid, name and order count of every restaurant
+   *
+   * @return List of [uuid, restaurantName, orderCount] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getRestaurantSuggestions() {
+    return entityManager.createNamedQuery("Restaurants.fetchSuggestions").getResultList();
+  }
+
+  /**
+   * Method returns uuid, name and ordered item quantity of every category
+   *
+   * @return List of [uuid, categoryName, quantity] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getCategorySuggestions() {
+    return entityManager.createNamedQuery("Category.fetchSuggestions").getResultList();
+  }
+
+  /**
+   * Method returns every distinct dish name with the quantity ordered across restaurants
+   *
+   * @return List of [itemName, quantity] rows
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object[]> getDishSuggestions() {
+    return entityManager.createNamedQuery("ItemEntity.fetchSuggestions").getResultList();
+  }
+}
@@ -0,0 +1,34 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat view of a category with its items, assembled from a projection so the details endpoint
+ * neither loads CategoryEntity graphs nor the categories of every item.
+ */
+public class CategoryDetails {
+
+  private final String uuid;
+
+  private final String categoryName;
+
+  private final List<ItemSummary> items = new ArrayList<>();
+
+  public CategoryDetails(String uuid, String categoryName) {
+    this.uuid = uuid;
+    this.categoryName = categoryName;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getCategoryName() {
+    return categoryName;
+  }
+
+  public List<ItemSummary> getItems() {
+    return items;
+  }
+}
@@ -0,0 +1,25 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/**
+ * Category id and name, projected straight from the category table so that listing categories
+ * loads no CategoryEntity or item graphs.
+ */
+public class CategorySummary {
+
+  private final String uuid;
+
+  private final String categoryName;
+
+  public CategorySummary(String uuid, String categoryName) {
+    this.uuid = uuid;
+    this.categoryName = categoryName;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getCategoryName() {
+    return categoryName;
+  }
+}
@@ -0,0 +1,22 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/** Number of restaurants in one bucket of a facet. */
+public class FacetBucket {
+
+  private final String label;
+
+  private final int count;
+
+  public FacetBucket(String label, int count) {
+    this.label = label;
+    this.count = count;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public int getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,41 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+
+/**
+ * Flat, read-only view of an item carrying only what the API responses need, so that listings do
+ * not have to load ItemEntity graphs.
+ */
+public class ItemSummary {
+
+  private final String uuid;
+
+  private final String itemName;
+
+  private final Integer price;
+
+  private final ItemType type;
+
+  public ItemSummary(String uuid, String itemName, Integer price, ItemType type) {
+    this.uuid = uuid;
+    this.itemName = itemName;
+    this.price = price;
+    this.type = type;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getItemName() {
+    return itemName;
+  }
+
+  public Integer getPrice() {
+    return price;
+  }
+
+  public ItemType getType() {
+    return type;
+  }
+}
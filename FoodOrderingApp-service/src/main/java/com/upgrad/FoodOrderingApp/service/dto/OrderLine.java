@@ -0,0 +1,29 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/** Flat view of one item line of an order: the item, the quantity ordered and the line price. */
+public class OrderLine {
+
+  private final ItemSummary item;
+
+  private final Integer quantity;
+
+  private final Integer price;
+
+  public OrderLine(ItemSummary item, Integer quantity, Integer price) {
+    this.item = item;
+    this.quantity = quantity;
+    this.price = price;
+  }
+
+  public ItemSummary getItem() {
+    return item;
+  }
+
+  public Integer getQuantity() {
+    return quantity;
+  }
+
+  public Integer getPrice() {
+    return price;
+  }
+}
@@ -0,0 +1,25 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.List;
+
+/** One page of a customer's order history with the cursor of the following page. */
+public class OrderPage {
+
+  private final List<OrderSummary> orders;
+
+  private final String nextCursor;
+
+  public OrderPage(List<OrderSummary> orders, String nextCursor) {
+    this.orders = orders;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<OrderSummary> getOrders() {
+    return orders;
+  }
+
+  /** @return cursor of the next page, or null on the last page */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
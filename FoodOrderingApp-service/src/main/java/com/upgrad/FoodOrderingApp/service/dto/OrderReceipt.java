@@ -0,0 +1,23 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/** Outcome of placing an order: its uuid and whether it was only accepted for later storage. */
+public class OrderReceipt {
+
+  private final String orderUuid;
+
+  private final boolean accepted;
+
+  public OrderReceipt(String orderUuid, boolean accepted) {
+    this.orderUuid = orderUuid;
+    this.accepted = accepted;
+  }
+
+  public String getOrderUuid() {
+    return orderUuid;
+  }
+
+  /** @return true if the order went through the asynchronous intake, false if it was stored */
+  public boolean isAccepted() {
+    return accepted;
+  }
+}
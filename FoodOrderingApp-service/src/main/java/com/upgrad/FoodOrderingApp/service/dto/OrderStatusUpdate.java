@@ -0,0 +1,24 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+
+/** An order's uuid and the status it has moved to. */
+public class OrderStatusUpdate {
+
+  private final String orderUuid;
+
+  private final OrderStatus status;
+
+  public OrderStatusUpdate(String orderUuid, OrderStatus status) {
+    this.orderUuid = orderUuid;
+    this.status = status;
+  }
+
+  public String getOrderUuid() {
+    return orderUuid;
+  }
+
+  public OrderStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,167 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat view of a past order with its coupon, payment, delivery address and item lines, assembled
+ * from a projection so the order history neither loads OrderEntity graphs nor the restaurant and
+ * customer each order references. Coupon and payment fields are null when the order has none.
+ */
+public class OrderSummary {
+
+  private final Integer id;
+
+  private final Integer customerId;
+
+  private final String uuid;
+
+  private final Double bill;
+
+  private final Double discount;
+
+  private final LocalDateTime date;
+
+  private final String couponUuid;
+
+  private final String couponName;
+
+  private final Integer couponPercent;
+
+  private final String paymentUuid;
+
+  private final String paymentName;
+
+  private final String addressUuid;
+
+  private final String flatBuilNo;
+
+  private final String locality;
+
+  private final String city;
+
+  private final String pincode;
+
+  private final String stateUuid;
+
+  private final String stateName;
+
+  private final List<OrderLine> lines = new ArrayList<>();
+
+  public OrderSummary(
+      Integer id,
+      Integer customerId,
+      String uuid,
+      Double bill,
+      Double discount,
+      LocalDateTime date,
+      String couponUuid,
+      String couponName,
+      Integer couponPercent,
+      String paymentUuid,
+      String paymentName,
+      String addressUuid,
+      String flatBuilNo,
+      String locality,
+      String city,
+      String pincode,
+      String stateUuid,
+      String stateName) {
+    this.id = id;
+    this.customerId = customerId;
+    this.uuid = uuid;
+    this.bill = bill;
+    this.discount = discount;
+    this.date = date;
+    this.couponUuid = couponUuid;
+    this.couponName = couponName;
+    this.couponPercent = couponPercent;
+    this.paymentUuid = paymentUuid;
+    this.paymentName = paymentName;
+    this.addressUuid = addressUuid;
+    this.flatBuilNo = flatBuilNo;
+    this.locality = locality;
+    this.city = city;
+    this.pincode = pincode;
+    this.stateUuid = stateUuid;
+    this.stateName = stateName;
+  }
+
+  /** @return order id, the tie breaker of the history order */
+  public Integer getId() {
+    return id;
+  }
+
+  public Integer getCustomerId() {
+    return customerId;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public Double getBill() {
+    return bill;
+  }
+
+  public Double getDiscount() {
+    return discount;
+  }
+
+  public LocalDateTime getDate() {
+    return date;
+  }
+
+  public String getCouponUuid() {
+    return couponUuid;
+  }
+
+  public String getCouponName() {
+    return couponName;
+  }
+
+  public Integer getCouponPercent() {
+    return couponPercent;
+  }
+
+  public String getPaymentUuid() {
+    return paymentUuid;
+  }
+
+  public String getPaymentName() {
+    return paymentName;
+  }
+
+  public String getAddressUuid() {
+    return addressUuid;
+  }
+
+  public String getFlatBuilNo() {
+    return flatBuilNo;
+  }
+
+  public String getLocality() {
+    return locality;
+  }
+
+  public String getCity() {
+    return city;
+  }
+
+  public String getPincode() {
+    return pincode;
+  }
+
+  public String getStateUuid() {
+    return stateUuid;
+  }
+
+  public String getStateName() {
+    return stateName;
+  }
+
+  public List<OrderLine> getLines() {
+    return lines;
+  }
+}
@@ -0,0 +1,115 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/**
+ * Flat view of a restaurant with its address and state, assembled from a projection so the details
+ * page does not walk RestaurantEntity graphs. The menu is read from the MenuStore.
+ */
+public class RestaurantDetails {
+
+  private final String uuid;
+
+  private final String restaurantName;
+
+  private final String photoUrl;
+
+  private final double customerRating;
+
+  private final Integer averagePriceForTwo;
+
+  private final Integer numberOfCustomersRated;
+
+  private final String addressUuid;
+
+  private final String flatBuilNo;
+
+  private final String locality;
+
+  private final String city;
+
+  private final String pincode;
+
+  private final String stateUuid;
+
+  private final String stateName;
+
+  public RestaurantDetails(
+      String uuid,
+      String restaurantName,
+      String photoUrl,
+      double customerRating,
+      Integer averagePriceForTwo,
+      Integer numberOfCustomersRated,
+      String addressUuid,
+      String flatBuilNo,
+      String locality,
+      String city,
+      String pincode,
+      String stateUuid,
+      String stateName) {
+    this.uuid = uuid;
+    this.restaurantName = restaurantName;
+    this.photoUrl = photoUrl;
+    this.customerRating = customerRating;
+    this.averagePriceForTwo = averagePriceForTwo;
+    this.numberOfCustomersRated = numberOfCustomersRated;
+    this.addressUuid = addressUuid;
+    this.flatBuilNo = flatBuilNo;
+    this.locality = locality;
+    this.city = city;
+    this.pincode = pincode;
+    this.stateUuid = stateUuid;
+    this.stateName = stateName;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getRestaurantName() {
+    return restaurantName;
+  }
+
+  public String getPhotoUrl() {
+    return photoUrl;
+  }
+
+  public double getCustomerRating() {
+    return customerRating;
+  }
+
+  public Integer getAveragePriceForTwo() {
+    return averagePriceForTwo;
+  }
+
+  public Integer getNumberOfCustomersRated() {
+    return numberOfCustomersRated;
+  }
+
+  public String getAddressUuid() {
+    return addressUuid;
+  }
+
+  public String getFlatBuilNo() {
+    return flatBuilNo;
+  }
+
+  public String getLocality() {
+    return locality;
+  }
+
+  public String getCity() {
+    return city;
+  }
+
+  public String getPincode() {
+    return pincode;
+  }
+
+  public String getStateUuid() {
+    return stateUuid;
+  }
+
+  public String getStateName() {
+    return stateName;
+  }
+}
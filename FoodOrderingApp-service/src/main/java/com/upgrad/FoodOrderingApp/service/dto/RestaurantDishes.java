@@ -0,0 +1,46 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A restaurant together with the dishes of a dish search it serves. */
+public class RestaurantDishes {
+
+  private final String restaurantUuid;
+
+  private final String restaurantName;
+
+  private final String photoUrl;
+
+  private final double customerRating;
+
+  private final List<ItemSummary> items = new ArrayList<>();
+
+  public RestaurantDishes(
+      String restaurantUuid, String restaurantName, String photoUrl, double customerRating) {
+    this.restaurantUuid = restaurantUuid;
+    this.restaurantName = restaurantName;
+    this.photoUrl = photoUrl;
+    this.customerRating = customerRating;
+  }
+
+  public String getRestaurantUuid() {
+    return restaurantUuid;
+  }
+
+  public String getRestaurantName() {
+    return restaurantName;
+  }
+
+  public String getPhotoUrl() {
+    return photoUrl;
+  }
+
+  public double getCustomerRating() {
+    return customerRating;
+  }
+
+  public List<ItemSummary> getItems() {
+    return items;
+  }
+}
@@ -0,0 +1,22 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/** A restaurant with its distance from the searched location. */
+public class RestaurantDistance {
+
+  private final RestaurantSummary restaurant;
+
+  private final double distanceKm;
+
+  public RestaurantDistance(RestaurantSummary restaurant, double distanceKm) {
+    this.restaurant = restaurant;
+    this.distanceKm = distanceKm;
+  }
+
+  public RestaurantSummary getRestaurant() {
+    return restaurant;
+  }
+
+  public double getDistanceKm() {
+    return distanceKm;
+  }
+}
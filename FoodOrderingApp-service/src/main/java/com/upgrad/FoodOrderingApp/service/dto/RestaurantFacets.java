@@ -0,0 +1,53 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.List;
+
+/** One page of filtered restaurants with the total number of matches and the facet counts. */
+public class RestaurantFacets {
+
+  private final List<RestaurantSummary> restaurants;
+
+  private final int total;
+
+  private final List<FacetBucket> priceFacets;
+
+  private final List<FacetBucket> ratingFacets;
+
+  private final int vegOnlyCount;
+
+  public RestaurantFacets(
+      List<RestaurantSummary> restaurants,
+      int total,
+      List<FacetBucket> priceFacets,
+      List<FacetBucket> ratingFacets,
+      int vegOnlyCount) {
+    this.restaurants = restaurants;
+    this.total = total;
+    this.priceFacets = priceFacets;
+    this.ratingFacets = ratingFacets;
+    this.vegOnlyCount = vegOnlyCount;
+  }
+
+  public List<RestaurantSummary> getRestaurants() {
+    return restaurants;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  /** @return restaurants per price bucket under the rating and veg-only filters */
+  public List<FacetBucket> getPriceFacets() {
+    return priceFacets;
+  }
+
+  /** @return restaurants per rating bucket under the price and veg-only filters */
+  public List<FacetBucket> getRatingFacets() {
+    return ratingFacets;
+  }
+
+  /** @return veg-only restaurants under the price and rating filters */
+  public int getVegOnlyCount() {
+    return vegOnlyCount;
+  }
+}
@@ -0,0 +1,25 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.List;
+
+/** One page of a restaurant listing with the cursor of the following page. */
+public class RestaurantPage {
+
+  private final List<RestaurantSummary> restaurants;
+
+  private final String nextCursor;
+
+  public RestaurantPage(List<RestaurantSummary> restaurants, String nextCursor) {
+    this.restaurants = restaurants;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<RestaurantSummary> getRestaurants() {
+    return restaurants;
+  }
+
+  /** @return cursor of the next page, or null on the last page */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,57 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat view of a restaurant in a listing: its details plus the names of its categories. Listings
+ * load the summaries of a whole page with one projection query and their categories with one more,
+ * instead of walking RestaurantEntity graphs row by row.
+ */
+public class RestaurantSummary extends RestaurantDetails {
+
+  private final int id;
+
+  private final List<String> categoryNames = new ArrayList<>();
+
+  public RestaurantSummary(
+      int id,
+      String uuid,
+      String restaurantName,
+      String photoUrl,
+      double customerRating,
+      Integer averagePriceForTwo,
+      Integer numberOfCustomersRated,
+      String addressUuid,
+      String flatBuilNo,
+      String locality,
+      String city,
+      String pincode,
+      String stateUuid,
+      String stateName) {
+    super(
+        uuid,
+        restaurantName,
+        photoUrl,
+        customerRating,
+        averagePriceForTwo,
+        numberOfCustomersRated,
+        addressUuid,
+        flatBuilNo,
+        locality,
+        city,
+        pincode,
+        stateUuid,
+        stateName);
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /** @return names of the restaurant's categories in alphabetical order */
+  public List<String> getCategoryNames() {
+    return categoryNames;
+  }
+}
@@ -0,0 +1,61 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import com.upgrad.FoodOrderingApp.service.common.RevenueGranularity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/** Number of orders and revenue of a restaurant in one hour or day bucket. */
+public class RevenueBucket {
+
+  private final Integer restaurantId;
+
+  private final RevenueGranularity granularity;
+
+  private final LocalDateTime bucket;
+
+  private final int orderCount;
+
+  private final BigDecimal revenue;
+
+  public RevenueBucket(
+      Integer restaurantId,
+      RevenueGranularity granularity,
+      LocalDateTime bucket,
+      int orderCount,
+      BigDecimal revenue) {
+    this.restaurantId = restaurantId;
+    this.granularity = granularity;
+    this.bucket = bucket;
+    this.orderCount = orderCount;
+    this.revenue = revenue;
+  }
+
+  public Integer getRestaurantId() {
+    return restaurantId;
+  }
+
+  public RevenueGranularity getGranularity() {
+    return granularity;
+  }
+
+  public LocalDateTime getBucket() {
+    return bucket;
+  }
+
+  public int getOrderCount() {
+    return orderCount;
+  }
+
+  public BigDecimal getRevenue() {
+    return revenue;
+  }
+
+  /** @return revenue per order, zero for a bucket without orders */
+  public BigDecimal getAverageBill() {
+    return orderCount == 0
+        ? BigDecimal.ZERO
+        : revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+  }
+}
@@ -0,0 +1,37 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+/** A typeahead completion: a restaurant, a category or a dish name. */
+public class Suggestion {
+
+  /** What a suggestion completes to */
+  public enum Type {
+    RESTAURANT,
+    CATEGORY,
+    DISH
+  }
+
+  private final Type type;
+
+  private final String uuid;
+
+  private final String name;
+
+  public Suggestion(Type type, String uuid, String name) {
+    this.type = type;
+    this.uuid = uuid;
+    this.name = name;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /** @return restaurant or category uuid, null for a dish name */
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
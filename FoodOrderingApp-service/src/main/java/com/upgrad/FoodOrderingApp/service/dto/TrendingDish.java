@@ -0,0 +1,45 @@
+package com.upgrad.FoodOrderingApp.service.dto;
+
+import com.upgrad.FoodOrderingApp.service.common.ItemType;
+
+/** Flat view of a dish on the trending rail with its time-decayed ordered quantity */
+public class TrendingDish {
+
+  private final String uuid;
+
+  private final String itemName;
+
+  private final Integer price;
+
+  private final ItemType type;
+
+  private final double score;
+
+  public TrendingDish(String uuid, String itemName, Integer price, ItemType type, double score) {
+    this.uuid = uuid;
+    this.itemName = itemName;
+    this.price = price;
+    this.type = type;
+    this.score = score;
+  }
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public String getItemName() {
+    return itemName;
+  }
+
+  public Integer getPrice() {
+    return price;
+  }
+
+  public ItemType getType() {
+    return type;
+  }
+
+  public double getScore() {
+    return score;
+  }
+}
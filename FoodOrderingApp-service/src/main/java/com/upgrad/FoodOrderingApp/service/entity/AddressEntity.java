@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 
 import javax.persistence.*;
@@ -23,7 +24,7 @@ public class AddressEntity implements Serializable, Comparable<AddressEntity> {
       name = "addressIdGenerator",
       sequenceName = "address_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
@@ -56,6 +57,12 @@ public class AddressEntity implements Serializable, Comparable<AddressEntity> {
   @Column(name = "active")
   private Integer active;
 
+  @Column(name = "latitude")
+  private Double latitude;
+
+  @Column(name = "longitude")
+  private Double longitude;
+
   @ManyToOne
   @JoinTable(
       name = "customer_address",
@@ -147,6 +154,22 @@ public class AddressEntity implements Serializable, Comparable<AddressEntity> {
     this.active = active;
   }
 
+  public Double getLatitude() {
+    return latitude;
+  }
+
+  public void setLatitude(Double latitude) {
+    this.latitude = latitude;
+  }
+
+  public Double getLongitude() {
+    return longitude;
+  }
+
+  public void setLongitude(Double longitude) {
+    this.longitude = longitude;
+  }
+
   public CustomerEntity getCustomers() {
     return customer;
   }
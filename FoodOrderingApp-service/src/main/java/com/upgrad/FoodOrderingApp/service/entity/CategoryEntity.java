@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 
 import javax.persistence.*;
@@ -16,7 +17,31 @@ import java.util.List;
       query = "SELECT c FROM CategoryEntity c order by c.categoryName"),
   @NamedQuery(
       name = "Category.fetchCategoryItem",
-      query = "SELECT ci FROM CategoryEntity ci WHERE ci.uuid=:categoryId")
+      query = "SELECT ci FROM CategoryEntity ci WHERE ci.uuid=:categoryId"),
+  @NamedQuery(name = "Category.fetchUuids", query = "SELECT c.uuid FROM CategoryEntity c"),
+  // Id and name of every category, without touching the items
+  @NamedQuery(
+      name = "Category.fetchSummaries",
+      query =
+          "SELECT NEW com.upgrad.FoodOrderingApp.service.dto.CategorySummary("
+              + "c.uuid, c.categoryName) FROM CategoryEntity c ORDER BY c.categoryName"),
+  // One row per item of a category, a single row with null item columns if it has none
+  @NamedQuery(
+      name = "Category.fetchDetails",
+      query =
+          "SELECT c.uuid, c.categoryName, i.uuid, i.itemName, i.price, i.type"
+              + " FROM CategoryEntity c LEFT JOIN c.items i"
+              + " WHERE c.uuid = :categoryId ORDER BY i.itemName")
+})
+@NamedNativeQueries({
+  // Typeahead entries weighted by the quantity ordered of the items in each category
+  @NamedNativeQuery(
+      name = "Category.fetchSuggestions",
+      query =
+          "SELECT c.uuid, c.category_name, COALESCE(SUM(oi.quantity), 0) FROM category c"
+              + " LEFT JOIN category_item ci ON ci.category_id = c.id"
+              + " LEFT JOIN order_item oi ON oi.item_id = ci.item_id"
+              + " GROUP BY c.id, c.uuid, c.category_name")
 })
 public class CategoryEntity implements Serializable, Comparable<CategoryEntity> {
   @Id
@@ -26,7 +51,7 @@ public class CategoryEntity implements Serializable, Comparable<CategoryEntity>
       name = "categoryIdGenerator",
       sequenceName = "category_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
@@ -40,7 +65,10 @@ public class CategoryEntity implements Serializable, Comparable<CategoryEntity>
   @Size(max = 30)
   private String categoryName;
 
-  @ManyToMany(mappedBy = "categories", fetch = FetchType.EAGER)
+  @ManyToMany(mappedBy = "categories", fetch = FetchType.LAZY)
+  @ToStringExclude
+  @HashCodeExclude
+  @EqualsExclude
   private List<ItemEntity> items;
 
   public Integer getId() {
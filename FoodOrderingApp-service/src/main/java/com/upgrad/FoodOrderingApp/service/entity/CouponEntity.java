@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 
 import javax.persistence.*;
@@ -13,7 +14,10 @@ import java.io.Serializable;
   @NamedQuery(
       name = "Coupon.ByName",
       query = "SELECT C FROM CouponEntity C WHERE C.couponName = :couponName"),
-  @NamedQuery(name = "Coupon.ByUuid", query = "SELECT C FROM CouponEntity C WHERE C.uuid = :uuid")
+  @NamedQuery(name = "Coupon.ByUuid", query = "SELECT C FROM CouponEntity C WHERE C.uuid = :uuid"),
+  @NamedQuery(
+      name = "Coupon.fetchPercents",
+      query = "SELECT C.id, C.uuid, C.percent FROM CouponEntity C")
 })
 public class CouponEntity implements Serializable {
   @Id
@@ -23,7 +27,7 @@ public class CouponEntity implements Serializable {
       name = "couponIdGenerator",
       sequenceName = "coupon_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
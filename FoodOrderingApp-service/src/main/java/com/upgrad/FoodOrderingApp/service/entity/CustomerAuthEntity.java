@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
@@ -35,7 +36,7 @@ public class CustomerAuthEntity implements Serializable {
       name = "customerAuthIdGenerator",
       sequenceName = "customer_auth_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
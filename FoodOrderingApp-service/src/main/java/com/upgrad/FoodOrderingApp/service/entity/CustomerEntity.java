@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 
 import javax.persistence.*;
@@ -23,7 +24,7 @@ public class CustomerEntity implements Serializable {
       name = "customerIdGenerator",
       sequenceName = "customer_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @Column(name = "id")
   @ToStringExclude
   @HashCodeExclude
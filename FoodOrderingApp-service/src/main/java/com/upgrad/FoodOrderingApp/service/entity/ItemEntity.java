@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import com.upgrad.FoodOrderingApp.service.common.ItemType;
 import org.apache.commons.lang3.builder.*;
 import org.hibernate.annotations.OnDelete;
@@ -17,7 +18,49 @@ import java.util.Set;
 @NamedQueries({
   @NamedQuery(
       name = "ItemEntity.getItemById",
-      query = "SELECT i FROM ItemEntity i WHERE i.uuid=:uuid")
+      query = "SELECT i FROM ItemEntity i WHERE i.uuid=:uuid"),
+  @NamedQuery(name = "ItemEntity.byIds", query = "SELECT i FROM ItemEntity i WHERE i.id IN :ids"),
+  @NamedQuery(
+      name = "ItemEntity.byUuids",
+      query = "SELECT i FROM ItemEntity i WHERE i.uuid IN :uuids"),
+  @NamedQuery(
+      name = "ItemEntity.fetchPrices",
+      query = "SELECT r.id, i.id, i.uuid, i.price FROM RestaurantEntity r JOIN r.items i"),
+  @NamedQuery(
+      name = "ItemEntity.fetchPricesByRestaurant",
+      query =
+          "SELECT r.id, i.id, i.uuid, i.price FROM RestaurantEntity r JOIN r.items i"
+              + " WHERE r.id = :restaurantId")
+})
+@NamedNativeQueries({
+  // Matches items on the search_vector maintained by FoodOrderingApp-db/sql/search.sql, pages the
+  // restaurants serving them by best item rank and returns one flat row per (restaurant, item)
+  @NamedNativeQuery(
+      name = "ItemEntity.searchDishes",
+      query =
+          "WITH matches AS ("
+              + " SELECT i.id, i.uuid, i.item_name, i.price, i.type,"
+              + " ts_rank(i.search_vector, to_tsquery('simple', :query)) AS rank"
+              + " FROM item i WHERE i.search_vector @@ to_tsquery('simple', :query)),"
+              + " page AS ("
+              + " SELECT ri.restaurant_id, max(m.rank) AS rank"
+              + " FROM matches m JOIN restaurant_item ri ON ri.item_id = m.id"
+              + " GROUP BY ri.restaurant_id"
+              + " ORDER BY rank DESC, ri.restaurant_id LIMIT :limit OFFSET :offset)"
+              + " SELECT r.uuid AS restaurant_uuid, r.restaurant_name, r.photo_url,"
+              + " r.customer_rating, m.uuid AS item_uuid, m.item_name, m.price, m.type"
+              + " FROM page p"
+              + " JOIN restaurant r ON r.id = p.restaurant_id"
+              + " JOIN restaurant_item ri ON ri.restaurant_id = p.restaurant_id"
+              + " JOIN matches m ON m.id = ri.item_id"
+              + " ORDER BY p.rank DESC, p.restaurant_id, m.rank DESC, m.item_name"),
+  // Typeahead entries, one per dish name across restaurants, weighted by the quantity ordered
+  @NamedNativeQuery(
+      name = "ItemEntity.fetchSuggestions",
+      query =
+          "SELECT MIN(i.item_name), COALESCE(SUM(oi.quantity), 0) FROM item i"
+              + " LEFT JOIN order_item oi ON oi.item_id = i.id"
+              + " GROUP BY lower(i.item_name)")
 })
 public class ItemEntity implements Serializable {
   @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
@@ -35,7 +78,7 @@ public class ItemEntity implements Serializable {
       name = "itemIdGenerator",
       sequenceName = "item_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
@@ -59,7 +102,7 @@ public class ItemEntity implements Serializable {
   @NotNull
   private ItemType type;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(
       name = "category_item",
       joinColumns = {@JoinColumn(name = "item_id")},
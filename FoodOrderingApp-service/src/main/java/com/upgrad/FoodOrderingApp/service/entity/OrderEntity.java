@@ -1,5 +1,7 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
 import org.apache.commons.lang3.builder.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
@@ -24,7 +26,85 @@ import java.util.Set;
           "SELECT O FROM OrderEntity O WHERE O.customer.uuid = :customerId ORDER BY O.date DESC"),
   @NamedQuery(
       name = "fetchOrdersByRestaurant",
-      query = "SELECT o FROM OrderEntity o where o.restaurant = :restaurant")
+      query = "SELECT o FROM OrderEntity o where o.restaurant = :restaurant"),
+  @NamedQuery(name = "Orders.maxId", query = "SELECT MAX(o.id) FROM OrderEntity o"),
+  @NamedQuery(name = "Orders.minDate", query = "SELECT MIN(o.date) FROM OrderEntity o"),
+  @NamedQuery(
+      name = "Orders.deleteByIds",
+      query = "DELETE FROM OrderEntity o WHERE o.id IN :orderIds"),
+  @NamedQuery(
+      name = "Orders.uuidsIn",
+      query = "SELECT o.uuid FROM OrderEntity o WHERE o.uuid IN :uuids AND o.date >= :since"),
+  @NamedQuery(
+      name = "Orders.statusByUuidAndCustomer",
+      query =
+          "SELECT o.status FROM OrderEntity o"
+              + " WHERE o.uuid = :uuid AND o.customer.id = :customerId"),
+  @NamedQuery(
+      name = "Orders.customerAndStatusByUuid",
+      query =
+          "SELECT o.customer.id, o.status, o.restaurant.id FROM OrderEntity o"
+              + " WHERE o.uuid = :uuid"),
+  @NamedQuery(
+      name = "Orders.updateStatus",
+      query =
+          "UPDATE OrderEntity o SET o.status = :status"
+              + " WHERE o.uuid = :uuid AND o.status = :previous"),
+  // Reads the customer's entries of ORDERS_CUSTOMER_DATE_IDX, filtering on status
+  @NamedQuery(
+      name = "Orders.fetchOpenStatuses",
+      query =
+          "SELECT o.uuid, o.status FROM OrderEntity o WHERE o.customer.id = :customerId"
+              + " AND o.status IN :statuses ORDER BY o.date DESC, o.id DESC")
+})
+@NamedNativeQueries({
+  // Keyset pages of a customer's order history in (date DESC, id DESC) order, reading
+  // ORDERS_CUSTOMER_DATE_IDX; each row carries exactly the order fields of the history response.
+  // The plain bound on date prunes the partitions after the cursor, which the row comparison
+  // alone does not, and the ordered scan of the rest stops in the latest partitions it needs.
+  @NamedNativeQuery(
+      name = "Orders.fetchHistoryFirstPage",
+      query =
+          "SELECT o.id, o.uuid, o.bill, o.discount, o.date, c.uuid AS coupon_uuid, c.coupon_name,"
+              + " c.percent, p.uuid AS payment_uuid, p.payment_name, a.uuid AS address_uuid,"
+              + " a.flat_buil_number, a.locality, a.city, a.pincode, s.uuid AS state_uuid,"
+              + " s.state_name FROM orders o JOIN address a ON a.id = o.address_id"
+              + " LEFT JOIN state s ON s.id = a.state_id LEFT JOIN coupon c ON c.id = o.coupon_id"
+              + " LEFT JOIN payment p ON p.id = o.payment_id WHERE o.customer_id = :customerId"
+              + " ORDER BY o.date DESC, o.id DESC LIMIT :limit"),
+  @NamedNativeQuery(
+      name = "Orders.fetchHistoryPageAfter",
+      query =
+          "SELECT o.id, o.uuid, o.bill, o.discount, o.date, c.uuid AS coupon_uuid, c.coupon_name,"
+              + " c.percent, p.uuid AS payment_uuid, p.payment_name, a.uuid AS address_uuid,"
+              + " a.flat_buil_number, a.locality, a.city, a.pincode, s.uuid AS state_uuid,"
+              + " s.state_name FROM orders o JOIN address a ON a.id = o.address_id"
+              + " LEFT JOIN state s ON s.id = a.state_id LEFT JOIN coupon c ON c.id = o.coupon_id"
+              + " LEFT JOIN payment p ON p.id = o.payment_id WHERE o.customer_id = :customerId"
+              + " AND o.date <= :date AND (o.date, o.id) < (:date, :id)"
+              + " ORDER BY o.date DESC, o.id DESC LIMIT :limit"),
+  // Keyset pages of the orders of a date range in (customer_id, date DESC, id DESC) order, the
+  // order of the archive's runs, with the same columns as the history pages
+  @NamedNativeQuery(
+      name = "Orders.fetchArchivePage",
+      query =
+          "SELECT o.customer_id, o.id, o.uuid, o.bill, o.discount, o.date, c.uuid AS coupon_uuid,"
+              + " c.coupon_name, c.percent, p.uuid AS payment_uuid, p.payment_name,"
+              + " a.uuid AS address_uuid, a.flat_buil_number, a.locality, a.city, a.pincode,"
+              + " s.uuid AS state_uuid, s.state_name FROM orders o"
+              + " JOIN address a ON a.id = o.address_id LEFT JOIN state s ON s.id = a.state_id"
+              + " LEFT JOIN coupon c ON c.id = o.coupon_id"
+              + " LEFT JOIN payment p ON p.id = o.payment_id"
+              + " WHERE o.date >= :from AND o.date < :to AND (o.customer_id > :customerId"
+              + " OR (o.customer_id = :customerId AND (o.date, o.id) < (:date, :id)))"
+              + " ORDER BY o.customer_id, o.date DESC, o.id DESC LIMIT :limit"),
+  // Monthly partitions of orders and order_item, maintained by the functions of partitions.sql
+  @NamedNativeQuery(
+      name = "Orders.createPartitions",
+      query = "SELECT create_order_partitions(CAST(:from AS DATE), CAST(:to AS DATE))"),
+  @NamedNativeQuery(
+      name = "Orders.dropPartition",
+      query = "SELECT drop_order_partition(CAST(:month AS DATE))")
 })
 public class OrderEntity implements Serializable {
   @OneToMany(mappedBy = "order", fetch = FetchType.EAGER)
@@ -41,7 +121,7 @@ public class OrderEntity implements Serializable {
       name = "orderIdGenerator",
       sequenceName = "orders_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
@@ -70,6 +150,11 @@ public class OrderEntity implements Serializable {
   @NotNull
   private LocalDateTime date;
 
+  @Column(name = "status")
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private OrderStatus status = OrderStatus.PLACED;
+
   @OneToOne(fetch = FetchType.EAGER)
   @JoinColumn(name = "payment_id", referencedColumnName = "id")
   @OnDelete(action = OnDeleteAction.CASCADE)
@@ -105,6 +190,13 @@ public class OrderEntity implements Serializable {
   @EqualsExclude
   private RestaurantEntity restaurant;
 
+  // Idempotency key the order was placed under, stored in the order's transaction
+  @Transient
+  @ToStringExclude
+  @HashCodeExclude
+  @EqualsExclude
+  private OrderIdempotencyKeyEntity idempotencyKey;
+
   public OrderEntity() {}
 
   public OrderEntity(
@@ -177,6 +269,14 @@ public class OrderEntity implements Serializable {
     this.date = date;
   }
 
+  public OrderStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(OrderStatus status) {
+    this.status = status;
+  }
+
   public PaymentEntity getPayment() {
     return payment;
   }
@@ -209,6 +309,14 @@ public class OrderEntity implements Serializable {
     this.restaurant = restaurant;
   }
 
+  public OrderIdempotencyKeyEntity getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(OrderIdempotencyKeyEntity idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
   public Set<OrderItemEntity> getItems() {
     return items;
   }
@@ -0,0 +1,136 @@
+package com.upgrad.FoodOrderingApp.service.entity;
+
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
+import org.apache.commons.lang3.builder.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_idempotency_key")
+@NamedQueries({
+  @NamedQuery(
+      name = "OrderIdempotencyKey.byCustomerAndKey",
+      query =
+          "SELECT k FROM OrderIdempotencyKeyEntity k"
+              + " WHERE k.customerId = :customerId AND k.idempotencyKey = :idempotencyKey"),
+  @NamedQuery(
+      name = "OrderIdempotencyKey.deleteCreatedBefore",
+      query = "DELETE FROM OrderIdempotencyKeyEntity k WHERE k.createdAt < :createdBefore")
+})
+public class OrderIdempotencyKeyEntity implements Serializable {
+  @Id
+  @Column(name = "id")
+  @GeneratedValue(generator = "orderIdempotencyKeyIdGenerator")
+  @SequenceGenerator(
+      name = "orderIdempotencyKeyIdGenerator",
+      sequenceName = "order_idempotency_key_id_seq",
+      initialValue = 1,
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
+  @ToStringExclude
+  @HashCodeExclude
+  private Integer id;
+
+  @Column(name = "customer_id")
+  @NotNull
+  private Integer customerId;
+
+  @Column(name = "idempotency_key")
+  @NotNull
+  @Size(max = 200)
+  private String idempotencyKey;
+
+  @Column(name = "order_uuid")
+  @NotNull
+  @Size(max = 200)
+  private String orderUuid;
+
+  @Column(name = "accepted")
+  @NotNull
+  private Boolean accepted;
+
+  @Column(name = "created_at")
+  @NotNull
+  private LocalDateTime createdAt;
+
+  public OrderIdempotencyKeyEntity() {}
+
+  public OrderIdempotencyKeyEntity(
+      final Integer customerId,
+      final String idempotencyKey,
+      final String orderUuid,
+      final Boolean accepted,
+      final LocalDateTime createdAt) {
+    this.customerId = customerId;
+    this.idempotencyKey = idempotencyKey;
+    this.orderUuid = orderUuid;
+    this.accepted = accepted;
+    this.createdAt = createdAt;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public Integer getCustomerId() {
+    return customerId;
+  }
+
+  public void setCustomerId(Integer customerId) {
+    this.customerId = customerId;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public String getOrderUuid() {
+    return orderUuid;
+  }
+
+  public void setOrderUuid(String orderUuid) {
+    this.orderUuid = orderUuid;
+  }
+
+  public Boolean getAccepted() {
+    return accepted;
+  }
+
+  public void setAccepted(Boolean accepted) {
+    this.accepted = accepted;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return EqualsBuilder.reflectionEquals(this, obj, Boolean.FALSE);
+  }
+
+  @Override
+  public int hashCode() {
+    return HashCodeBuilder.reflectionHashCode(this, Boolean.FALSE);
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+  }
+}
@@ -1,13 +1,48 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_item")
+@NamedQueries({
+  // Number of orders per item of every restaurant, the seed of the item popularity counters
+  @NamedQuery(
+      name = "OrderItemEntity.countOrdersByRestaurantItem",
+      query =
+          "SELECT oi.order.restaurant.id, oi.item.id, COUNT(DISTINCT oi.order.id)"
+              + " FROM OrderItemEntity oi GROUP BY oi.order.restaurant.id, oi.item.id"),
+  // Ordered quantities with the order date and restaurant city, the seed of the trending items;
+  // the bounds on both order dates prune the order and item partitions before since
+  @NamedQuery(
+      name = "OrderItemEntity.fetchQuantitiesSince",
+      query =
+          "SELECT oi.item.id, a.city, o.date, oi.quantity FROM OrderItemEntity oi"
+              + " JOIN oi.order o JOIN o.restaurant r JOIN r.address a"
+              + " WHERE o.date >= :since AND oi.orderDate >= :since"),
+  // Items of a range of orders grouped by order, the input of the co-occurrence counts
+  @NamedQuery(
+      name = "OrderItemEntity.fetchItemIdsByOrderRange",
+      query =
+          "SELECT o.id, o.restaurant.id, oi.item.id FROM OrderItemEntity oi JOIN oi.order o"
+              + " WHERE o.id > :afterId AND o.id <= :upToId ORDER BY o.id"),
+  // Item lines of a page of orders in one query, read through ORDER_ITEM_ORDER_ID_IDX of only the
+  // partitions of the months the page spans
+  @NamedQuery(
+      name = "OrderItemEntity.fetchLinesByOrders",
+      query =
+          "SELECT oi.order.id, i.uuid, i.itemName, i.price, i.type, oi.quantity, oi.price"
+              + " FROM OrderItemEntity oi JOIN oi.item i WHERE oi.order.id IN :orderIds"
+              + " AND oi.orderDate BETWEEN :from AND :to ORDER BY oi.id"),
+  @NamedQuery(
+      name = "OrderItemEntity.deleteByOrders",
+      query = "DELETE FROM OrderItemEntity oi WHERE oi.order.id IN :orderIds")
+})
 public class OrderItemEntity implements Serializable {
   @Id
   @Column(name = "id")
@@ -16,7 +51,7 @@ public class OrderItemEntity implements Serializable {
       name = "orderItemIdGenerator",
       sequenceName = "order_item_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
@@ -29,6 +64,11 @@ public class OrderItemEntity implements Serializable {
   @EqualsExclude
   private OrderEntity order;
 
+  // Copy of the order's date, the partition key of order_item
+  @Column(name = "order_date")
+  @NotNull
+  private LocalDateTime orderDate;
+
   @ManyToOne(fetch = FetchType.EAGER)
   @JoinColumn(name = "item_id", referencedColumnName = "id")
   @NotNull
@@ -61,6 +101,14 @@ public class OrderItemEntity implements Serializable {
     this.order = order;
   }
 
+  public LocalDateTime getOrderDate() {
+    return orderDate;
+  }
+
+  public void setOrderDate(LocalDateTime orderDate) {
+    this.orderDate = orderDate;
+  }
+
   public ItemEntity getItem() {
     return item;
   }
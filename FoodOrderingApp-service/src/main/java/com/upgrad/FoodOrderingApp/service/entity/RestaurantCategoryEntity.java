@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.EqualsExclude;
 import org.apache.commons.lang3.builder.HashCodeExclude;
 import org.apache.commons.lang3.builder.ToStringExclude;
@@ -17,9 +18,47 @@ import java.io.Serializable;
   @NamedQuery(
       name = "RestaurantCategoryEntity.getRestaurantByCategory",
       query =
-          "SELECT rc.restaurantEntity from RestaurantCategoryEntity rc WHERE rc.categoryEntity=:category")
+          "SELECT rc.restaurantEntity from RestaurantCategoryEntity rc WHERE rc.categoryEntity=:category"),
+  @NamedQuery(
+      name = "RestaurantCategoryEntity.fetchCategoryRestaurantIds",
+      query =
+          "SELECT rc.categoryEntity.uuid, rc.restaurantEntity.id FROM RestaurantCategoryEntity rc"),
+  // Category names of a page of restaurants, for listings, in one query
+  @NamedQuery(
+      name = "RestaurantCategoryEntity.fetchCategoryNamesByRestaurantIds",
+      query =
+          "SELECT rc.restaurantEntity.id, c.categoryName FROM RestaurantCategoryEntity rc"
+              + " JOIN rc.categoryEntity c WHERE rc.restaurantEntity.id IN :ids"
+              + " ORDER BY c.categoryName")
+})
+@NamedNativeQueries({
+  // One row per (category, item) of every restaurant's menu, grouped by restaurant; a category
+  // without items of the restaurant yields a single row with null item columns and a restaurant
+  // without categories a single row with null category columns
+  @NamedNativeQuery(
+      name = "RestaurantCategoryEntity.fetchMenus",
+      query =
+          RestaurantCategoryEntity.MENU_ROWS
+              + " ORDER BY r.id, c.category_name, c.id, i.item_name"),
+  @NamedNativeQuery(
+      name = "RestaurantCategoryEntity.fetchMenu",
+      query =
+          RestaurantCategoryEntity.MENU_ROWS
+              + " WHERE r.uuid = :restaurantUuid"
+              + " ORDER BY c.category_name, c.id, i.item_name")
 })
 public class RestaurantCategoryEntity implements Serializable {
+  static final String MENU_ROWS =
+      "SELECT r.uuid AS restaurant_uuid, c.uuid AS category_uuid, c.category_name,"
+          + " i.uuid AS item_uuid, i.item_name, i.price, i.type"
+          + " FROM restaurant r"
+          + " LEFT JOIN (restaurant_category rc"
+          + " JOIN category c ON c.id = rc.category_id) ON rc.restaurant_id = r.id"
+          + " LEFT JOIN (category_item ci"
+          + " JOIN restaurant_item ri ON ri.item_id = ci.item_id"
+          + " JOIN item i ON i.id = ci.item_id)"
+          + " ON ci.category_id = c.id AND ri.restaurant_id = r.id";
+
   @Id
   @Column(name = "id")
   @GeneratedValue(generator = "restaurantCategoryIdGenerator")
@@ -27,7 +66,7 @@ public class RestaurantCategoryEntity implements Serializable {
       name = "restaurantCategoryIdGenerator",
       sequenceName = "restaurant_category_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private int id;
@@ -1,5 +1,6 @@
 package com.upgrad.FoodOrderingApp.service.entity;
 
+import com.upgrad.FoodOrderingApp.service.common.AppConstants;
 import org.apache.commons.lang3.builder.*;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
@@ -15,15 +16,145 @@ import java.util.Set;
 @Table(name = "restaurant")
 @NamedQueries({
   @NamedQuery(
-      name = "Restaurants.fetchAll",
-      query = "SELECT r FROM RestaurantEntity r ORDER BY r.customerRating DESC"),
+      name = "Restaurants.fetchIdsByRating",
+      query = "SELECT r.id FROM RestaurantEntity r ORDER BY r.customerRating DESC"),
   @NamedQuery(
       name = "Restaurants.getByName",
       query =
           "SELECT r FROM RestaurantEntity r WHERE LOWER(r.restaurantName) LIKE :name ORDER BY r.restaurantName"),
   @NamedQuery(
       name = "Restaurants.getById",
-      query = "SELECT r FROM RestaurantEntity r WHERE r.uuid=:id")
+      query = "SELECT r FROM RestaurantEntity r WHERE r.uuid=:id"),
+  @NamedQuery(
+      name = "Restaurants.getByIds",
+      query = "SELECT r FROM RestaurantEntity r WHERE r.id IN :ids"),
+  @NamedQuery(
+      name = "Restaurants.fetchNames",
+      query = "SELECT r.id, r.restaurantName, r.customerRating FROM RestaurantEntity r"),
+  @NamedQuery(
+      name = "Restaurants.addRatings",
+      query =
+          "UPDATE RestaurantEntity r SET r.customerRating ="
+              + " (r.customerRating * r.numberOfCustomersRated + :ratingSum)"
+              + " / (r.numberOfCustomersRated + :count),"
+              + " r.numberOfCustomersRated = r.numberOfCustomersRated + :count WHERE r.id = :id"),
+  @NamedQuery(
+      name = "Restaurants.fetchRating",
+      query = "SELECT r.customerRating FROM RestaurantEntity r WHERE r.id = :id"),
+  @NamedQuery(
+      name = "Restaurants.fetchDetails",
+      query =
+          "SELECT r.id, r.uuid, r.restaurantName, r.photoUrl, r.customerRating,"
+              + " r.averagePriceForTwo, r.numberOfCustomersRated, a.uuid, a.flatBuilNo,"
+              + " a.locality, a.city, a.pincode, s.uuid, s.stateName"
+              + " FROM RestaurantEntity r JOIN r.address a LEFT JOIN a.state s WHERE r.uuid = :id"),
+  // The same columns for a page of a listing, without loading the eager entity graphs
+  @NamedQuery(
+      name = "Restaurants.fetchSummaries",
+      query =
+          "SELECT r.id, r.uuid, r.restaurantName, r.photoUrl, r.customerRating,"
+              + " r.averagePriceForTwo, r.numberOfCustomersRated, a.uuid, a.flatBuilNo,"
+              + " a.locality, a.city, a.pincode, s.uuid, s.stateName"
+              + " FROM RestaurantEntity r JOIN r.address a LEFT JOIN a.state s WHERE r.id IN :ids"),
+  @NamedQuery(
+      name = "Restaurants.fetchLocations",
+      query =
+          "SELECT r.id, a.latitude, a.longitude FROM RestaurantEntity r JOIN r.address a"
+              + " WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL"),
+  @NamedQuery(
+      name = "Restaurants.fetchFacets",
+      query = "SELECT r.id, r.averagePriceForTwo, r.customerRating FROM RestaurantEntity r")
+})
+@NamedNativeQueries({
+  // Keyset pages in (customer_rating DESC, id DESC) order, walking RESTAURANT_RATING_ID_IDX
+  // backwards; the row comparison lets PostgreSQL start the scan right after the cursor
+  @NamedNativeQuery(
+      name = "Restaurants.fetchFirstPageIds",
+      query =
+          "SELECT r.id FROM restaurant r ORDER BY r.customer_rating DESC, r.id DESC LIMIT :limit"),
+  @NamedNativeQuery(
+      name = "Restaurants.fetchPageIdsAfter",
+      query =
+          "SELECT r.id FROM restaurant r"
+              + " WHERE (r.customer_rating, r.id) < (CAST(:rating AS NUMERIC), :id)"
+              + " ORDER BY r.customer_rating DESC, r.id DESC LIMIT :limit"),
+  // Restaurants serving at least one item, all of them vegetarian; item.type holds the ordinal
+  // of ItemType, so VEG is '0'
+  @NamedNativeQuery(
+      name = "Restaurants.fetchVegOnlyIds",
+      query =
+          "SELECT ri.restaurant_id FROM restaurant_item ri JOIN item i ON i.id = ri.item_id"
+              + " GROUP BY ri.restaurant_id HAVING bool_and(i.type = '0')"),
+  // Typeahead entries weighted by the number of orders placed with each restaurant
+  @NamedNativeQuery(
+      name = "Restaurants.fetchSuggestions",
+      query =
+          "SELECT r.uuid, r.restaurant_name, COUNT(o.id) FROM restaurant r"
+              + " LEFT JOIN orders o ON o.restaurant_id = r.id"
+              + " GROUP BY r.id, r.uuid, r.restaurant_name"),
+  // Revenue rollups per restaurant and hour or day bucket. Order placement holds a shared and the
+  // rebuild of a day an exclusive advisory lock on the day, so a rebuild neither misses nor
+  // overwrites the orders placed meanwhile.
+  @NamedNativeQuery(
+      name = "Restaurants.lockRevenueDays",
+      query =
+          "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock_shared("
+              + "hashtext('restaurant_revenue'), d) FROM unnest(CAST(:days AS INTEGER[])) d) l"),
+  @NamedNativeQuery(
+      name = "Restaurants.lockRevenueDay",
+      query =
+          "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock("
+              + "hashtext('restaurant_revenue'), CAST(:day AS INTEGER))) l"),
+  // One batched upsert of every bucket touched by a batch of orders, in key order so that
+  // concurrent batches lock the rows in the same order
+  @NamedNativeQuery(
+      name = "Restaurants.addRevenue",
+      query =
+          "INSERT INTO restaurant_revenue"
+              + " (restaurant_id, granularity, bucket, order_count, revenue)"
+              + " SELECT * FROM unnest(CAST(:restaurantIds AS INTEGER[]),"
+              + " CAST(:granularities AS VARCHAR[]), CAST(:buckets AS TIMESTAMP[]),"
+              + " CAST(:orderCounts AS INTEGER[]), CAST(:revenues AS NUMERIC[]))"
+              + " ON CONFLICT (restaurant_id, granularity, bucket) DO UPDATE"
+              + " SET order_count = restaurant_revenue.order_count + EXCLUDED.order_count,"
+              + " revenue = restaurant_revenue.revenue + EXCLUDED.revenue"),
+  @NamedNativeQuery(
+      name = "Restaurants.fetchRevenue",
+      query =
+          "SELECT bucket, order_count, revenue FROM restaurant_revenue"
+              + " WHERE restaurant_id = :id AND granularity = :granularity"
+              + " AND bucket >= :from AND bucket < :to ORDER BY bucket"),
+  @NamedNativeQuery(
+      name = "Restaurants.deleteRevenue",
+      query = "DELETE FROM restaurant_revenue WHERE bucket >= :from AND bucket < :to"),
+  // Hour buckets of a day from its orders partition, and day buckets from the hour buckets
+  @NamedNativeQuery(
+      name = "Restaurants.rebuildRevenue",
+      query =
+          "WITH hours AS (SELECT o.restaurant_id, date_trunc('hour', o.date) AS bucket,"
+              + " COUNT(*) AS order_count, SUM(o.bill) AS revenue FROM orders o"
+              + " WHERE o.date >= :from AND o.date < :to"
+              + " GROUP BY o.restaurant_id, date_trunc('hour', o.date))"
+              + " INSERT INTO restaurant_revenue"
+              + " (restaurant_id, granularity, bucket, order_count, revenue)"
+              + " SELECT restaurant_id, 'HOUR', bucket, order_count, revenue FROM hours"
+              + " UNION ALL SELECT restaurant_id, 'DAY', date_trunc('day', bucket),"
+              + " SUM(order_count), SUM(revenue) FROM hours"
+              + " GROUP BY restaurant_id, date_trunc('day', bucket)"),
+  // Days in a range whose day buckets disagree with their orders for some restaurant, newest first
+  @NamedNativeQuery(
+      name = "Restaurants.fetchStaleRevenueDays",
+      query =
+          "SELECT DISTINCT COALESCE(o.day, r.bucket) AS day FROM (SELECT restaurant_id,"
+              + " date_trunc('day', date) AS day, COUNT(*) AS order_count, SUM(bill) AS revenue"
+              + " FROM orders WHERE date >= :from AND date < :to"
+              + " GROUP BY restaurant_id, date_trunc('day', date)) o"
+              + " FULL JOIN (SELECT restaurant_id, bucket, order_count, revenue"
+              + " FROM restaurant_revenue WHERE granularity = 'DAY'"
+              + " AND bucket >= :from AND bucket < :to) r"
+              + " ON r.restaurant_id = o.restaurant_id AND r.bucket = o.day"
+              + " WHERE o.order_count IS DISTINCT FROM r.order_count"
+              + " OR o.revenue IS DISTINCT FROM r.revenue ORDER BY day DESC")
 })
 public class RestaurantEntity implements Serializable {
   @OneToMany(mappedBy = "restaurantEntity", fetch = FetchType.EAGER)
@@ -40,7 +171,7 @@ public class RestaurantEntity implements Serializable {
       name = "restaurantIdGenerator",
       sequenceName = "restaurant_id_seq",
       initialValue = 1,
-      allocationSize = 1)
+      allocationSize = AppConstants.ID_BLOCK_SIZE)
   @ToStringExclude
   @HashCodeExclude
   private Integer id;
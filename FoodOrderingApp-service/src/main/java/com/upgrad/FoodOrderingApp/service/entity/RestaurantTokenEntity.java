@@ -0,0 +1,93 @@
+package com.upgrad.FoodOrderingApp.service.entity;
+
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import org.apache.commons.lang3.builder.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+
+/**
+ * A token issued to one restaurant for one scope. Only the SHA-256 of the token is stored, so the
+ * table does not hand out working tokens; rows are issued and revoked by the operators.
+ */
+@Entity
+@Table(name = "restaurant_token")
+@NamedQueries({
+  @NamedQuery(
+      name = "RestaurantToken.restaurantIdByHash",
+      query =
+          "SELECT t.restaurantId FROM RestaurantTokenEntity t"
+              + " WHERE t.tokenHash = :tokenHash AND t.scope = :scope")
+})
+public class RestaurantTokenEntity implements Serializable {
+  @Id
+  @Column(name = "id")
+  @ToStringExclude
+  @HashCodeExclude
+  private Integer id;
+
+  @Column(name = "restaurant_id")
+  @NotNull
+  private Integer restaurantId;
+
+  @Column(name = "scope")
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private TokenScope scope;
+
+  // Lowercase hex SHA-256 of the token
+  @Column(name = "token_hash")
+  @NotNull
+  @Size(max = 64)
+  @ToStringExclude
+  private String tokenHash;
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public Integer getRestaurantId() {
+    return restaurantId;
+  }
+
+  public void setRestaurantId(Integer restaurantId) {
+    this.restaurantId = restaurantId;
+  }
+
+  public TokenScope getScope() {
+    return scope;
+  }
+
+  public void setScope(TokenScope scope) {
+    this.scope = scope;
+  }
+
+  public String getTokenHash() {
+    return tokenHash;
+  }
+
+  public void setTokenHash(String tokenHash) {
+    this.tokenHash = tokenHash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return EqualsBuilder.reflectionEquals(this, obj, Boolean.FALSE);
+  }
+
+  @Override
+  public int hashCode() {
+    return HashCodeBuilder.reflectionHashCode(this, Boolean.FALSE);
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+  }
+}
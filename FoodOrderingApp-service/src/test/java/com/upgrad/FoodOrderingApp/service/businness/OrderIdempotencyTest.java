@@ -0,0 +1,121 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.dao.OrderIdempotencyKeyDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderReceipt;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// This class contains the tests of idempotency key claims whose owner fails or never finishes
+public class OrderIdempotencyTest {
+
+    private static final int CUSTOMER_ID = 7;
+
+    private static final String KEY = "key-1";
+
+    private OrderIdempotencyKeyDao orderIdempotencyKeyDao;
+
+    private OrderIdempotency orderIdempotency;
+
+    @Before
+    public void setUp() {
+        orderIdempotencyKeyDao = mock(OrderIdempotencyKeyDao.class);
+        orderIdempotency = new OrderIdempotency();
+        ReflectionTestUtils.setField(orderIdempotency, "maxEntries", 100);
+        ReflectionTestUtils.setField(orderIdempotency, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(orderIdempotency, "inFlightMillis", 60_000L);
+        ReflectionTestUtils.setField(
+                orderIdempotency, "orderIdempotencyKeyDao", orderIdempotencyKeyDao);
+    }
+
+    //This test passes when a duplicate waiting on a claim whose key lookup fails claims the key
+    //itself instead of waiting forever, and the failed owner gets the lookup error.
+    @Test
+    public void shouldReleaseWaitersWhenKeyLookupFails() throws Exception {
+        final CountDownLatch lookingUp = new CountDownLatch(1);
+        final CountDownLatch fail = new CountDownLatch(1);
+        when(orderIdempotencyKeyDao.getIdempotencyKey(anyInt(), anyString()))
+                .thenAnswer(invocation -> {
+                    lookingUp.countDown();
+                    fail.await();
+                    throw new QueryTimeoutException("lookup timed out");
+                })
+                .thenReturn(null);
+
+        final CompletableFuture<OrderReceipt> owner = claimAsync();
+        assertTrue(lookingUp.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<OrderReceipt> duplicate = claimAsync();
+        // Give the duplicate time to start waiting on the owner's execution
+        Thread.sleep(200);
+        fail.countDown();
+
+        try {
+            owner.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof QueryTimeoutException);
+        }
+        // The duplicate now owns the key
+        assertNull(duplicate.get(5, TimeUnit.SECONDS));
+    }
+
+    //This test passes when a duplicate waits no longer than in-flight-ms for an owner that never
+    //finishes, and then takes the key over.
+    @Test
+    public void shouldTakeOverKeyOfStaleOwner() throws Exception {
+        ReflectionTestUtils.setField(orderIdempotency, "inFlightMillis", 200L);
+        assertNull(orderIdempotency.claim(CUSTOMER_ID, KEY));
+
+        final long start = System.nanoTime();
+        assertNull(claimAsync().get(5, TimeUnit.SECONDS));
+        final long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("waited " + waitedMillis + " ms", waitedMillis >= 150);
+
+        // The new owner's receipt reaches later duplicates
+        orderIdempotency.complete(CUSTOMER_ID, KEY, new OrderReceipt("order-1", false));
+        assertEquals("order-1", orderIdempotency.claim(CUSTOMER_ID, KEY).getOrderUuid());
+    }
+
+    //This test passes when the purge drops an execution left in flight for longer than
+    //in-flight-ms.
+    @Test
+    public void shouldPurgeStaleInFlightExecutions() throws Exception {
+        ReflectionTestUtils.setField(orderIdempotency, "inFlightMillis", 50L);
+        when(orderIdempotencyKeyDao.deleteIdempotencyKeys(any())).thenReturn(0);
+        assertNull(orderIdempotency.claim(CUSTOMER_ID, KEY));
+        Thread.sleep(100);
+
+        orderIdempotency.purge();
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(orderIdempotency, "executions"))
+                .isEmpty());
+    }
+
+    private CompletableFuture<OrderReceipt> claimAsync() {
+        final CompletableFuture<OrderReceipt> claimed = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                claimed.complete(orderIdempotency.claim(CUSTOMER_ID, KEY));
+            } catch (Throwable e) {
+                claimed.completeExceptionally(e);
+            }
+        }).start();
+        return claimed;
+    }
+}
@@ -0,0 +1,257 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantDao;
+import com.upgrad.FoodOrderingApp.service.dto.OrderReceipt;
+import com.upgrad.FoodOrderingApp.service.entity.AddressEntity;
+import com.upgrad.FoodOrderingApp.service.entity.CustomerEntity;
+import com.upgrad.FoodOrderingApp.service.entity.ItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderIdempotencyKeyEntity;
+import com.upgrad.FoodOrderingApp.service.entity.OrderItemEntity;
+import com.upgrad.FoodOrderingApp.service.entity.PaymentEntity;
+import com.upgrad.FoodOrderingApp.service.entity.RestaurantEntity;
+import com.upgrad.FoodOrderingApp.service.exception.OrderNotFoundException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// This class contains the tests of storing accepted orders from the intake log
+public class OrderIntakeTest {
+
+    private static final int CUSTOMER_ID = 7;
+
+    private static final int RESTAURANT_ID = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OrderService orderService;
+
+    private OrderDao orderDao;
+
+    private OrderIdempotency orderIdempotency;
+
+    private CustomerEntity customer;
+
+    @Before
+    public void setUp() {
+        orderService = mock(OrderService.class);
+        orderDao = mock(OrderDao.class);
+        orderIdempotency = mock(OrderIdempotency.class);
+        when(orderDao.getStoredOrderUuids(any(), any())).thenReturn(Collections.emptyList());
+        customer = new CustomerEntity();
+        customer.setId(CUSTOMER_ID);
+    }
+
+    //This test passes when orders accepted but not stored before a restart are reported QUEUED
+    //after it, their idempotency keys answer again, and the writer stores them and checkpoints.
+    @Test
+    public void shouldRecoverAndStoreOrdersAcceptedBeforeRestart() throws Exception {
+        final OrderIntake before = intake();
+        final OrderEntity keyed = order("key-1");
+        final OrderEntity plain = order(null);
+        before.accept(keyed, items());
+        before.accept(plain, items());
+        before.close();
+
+        final OrderIntake after = intake();
+        assertEquals(OrderStatus.QUEUED, after.getOrderStatus(customer, keyed.getUuid()));
+        assertEquals(OrderStatus.QUEUED, after.getOrderStatus(customer, plain.getUuid()));
+        final ArgumentCaptor<OrderReceipt> receipt = ArgumentCaptor.forClass(OrderReceipt.class);
+        verify(orderIdempotency).complete(eq(CUSTOMER_ID), eq("key-1"), receipt.capture());
+        assertEquals(keyed.getUuid(), receipt.getValue().getOrderUuid());
+
+        after.drain();
+        final List<String> stored = storedUuids(1);
+        assertEquals(2, stored.size());
+        assertEquals(keyed.getUuid(), stored.get(0));
+        assertEquals(plain.getUuid(), stored.get(1));
+        after.close();
+
+        assertTrue(new OrderLog(logDirectory(), 1 << 16).recovered().isEmpty());
+    }
+
+    //This test passes when a batch that hits a transient database error is left QUEUED,
+    //is not checkpointed, and is stored by the next run.
+    @Test
+    public void shouldKeepBatchQueuedOnTransientError() throws Exception {
+        final OrderIntake intake = intake();
+        final OrderEntity order = order(null);
+        intake.accept(order, items());
+        doThrow(new CannotCreateTransactionException("connection refused"))
+                .doNothing()
+                .when(orderService)
+                .placeOrders(anyList(), anyList());
+
+        try {
+            intake.drain();
+            fail();
+        } catch (CannotCreateTransactionException e) {
+            // Left to the next run
+        }
+        assertEquals(OrderStatus.QUEUED, intake.getOrderStatus(customer, order.getUuid()));
+        assertEquals(1, new OrderLog(logDirectory(), 1 << 16).recovered().size());
+        verify(orderService, times(0))
+                .notifyOrderStatus(CUSTOMER_ID, order.getUuid(), OrderStatus.FAILED);
+
+        intake.drain();
+        assertEquals(Collections.singletonList(order.getUuid()), storedUuids(2).subList(1, 2));
+        when(orderDao.getOrderStatus(order.getUuid(), CUSTOMER_ID)).thenReturn(OrderStatus.PLACED);
+        assertEquals(OrderStatus.PLACED, intake.getOrderStatus(customer, order.getUuid()));
+        assertTrue(new OrderLog(logDirectory(), 1 << 16).recovered().isEmpty());
+        intake.close();
+    }
+
+    //This test passes when only the order the database refuses is FAILED, the others of its batch
+    //are stored one by one, and the batch is checkpointed.
+    @Test
+    public void shouldFailOnlyOrdersTheDatabaseRejects() throws Exception {
+        final OrderIntake intake = intake();
+        final OrderEntity good = order(null);
+        final OrderEntity bad = order(null);
+        intake.accept(good, items());
+        intake.accept(bad, items());
+        doThrow(new DataIntegrityViolationException("batch"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("order"))
+                .when(orderService)
+                .placeOrders(anyList(), anyList());
+
+        intake.drain();
+        verify(orderService, times(3)).placeOrders(anyList(), anyList());
+        verify(orderService).notifyOrderStatus(CUSTOMER_ID, bad.getUuid(), OrderStatus.FAILED);
+        verify(orderService, times(0))
+                .notifyOrderStatus(CUSTOMER_ID, good.getUuid(), OrderStatus.FAILED);
+        assertEquals(OrderStatus.FAILED, intake.getOrderStatus(customer, bad.getUuid()));
+        assertTrue(new OrderLog(logDirectory(), 1 << 16).recovered().isEmpty());
+        intake.close();
+    }
+
+    //This test passes when a FAILED status is forgotten once the most recent failed-max-entries
+    //rejections no longer include it.
+    @Test
+    public void shouldBoundRejectedOrders() throws Exception {
+        final OrderIntake intake = intake();
+        ReflectionTestUtils.setField(intake, "failedMaxEntries", 2);
+        final List<OrderEntity> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orders.add(order(null));
+            intake.accept(orders.get(i), items());
+        }
+        doThrow(new DataIntegrityViolationException("rejected"))
+                .when(orderService)
+                .placeOrders(anyList(), anyList());
+
+        intake.drain();
+        when(orderDao.getOrderStatus(anyString(), eq(CUSTOMER_ID))).thenReturn(null);
+        try {
+            intake.getOrderStatus(customer, orders.get(0).getUuid());
+            fail();
+        } catch (OrderNotFoundException e) {
+            // Evicted
+        }
+        assertEquals(OrderStatus.FAILED, intake.getOrderStatus(customer, orders.get(1).getUuid()));
+        assertEquals(OrderStatus.FAILED, intake.getOrderStatus(customer, orders.get(2).getUuid()));
+        intake.close();
+    }
+
+    private OrderIntake intake() throws IOException {
+        final RestaurantDao restaurantDao = mock(RestaurantDao.class);
+        final RestaurantEntity restaurant = new RestaurantEntity();
+        restaurant.setId(RESTAURANT_ID);
+        when(restaurantDao.getRestaurantsByIds(anyList()))
+                .thenReturn(Collections.singletonList(restaurant));
+
+        final OrderIntake intake = new OrderIntake();
+        ReflectionTestUtils.setField(intake, "logDirectory", logDirectory().toString());
+        ReflectionTestUtils.setField(intake, "segmentBytes", 1 << 16);
+        ReflectionTestUtils.setField(intake, "failedMaxEntries", 100);
+        ReflectionTestUtils.setField(intake, "failedTtlMillis", 60_000L);
+        ReflectionTestUtils.setField(intake, "orderService", orderService);
+        ReflectionTestUtils.setField(intake, "orderDao", orderDao);
+        ReflectionTestUtils.setField(intake, "restaurantDao", restaurantDao);
+        ReflectionTestUtils.setField(intake, "orderIdempotency", orderIdempotency);
+        intake.open();
+        return intake;
+    }
+
+    private Path logDirectory() {
+        return folder.getRoot().toPath().resolve("order-log");
+    }
+
+    private OrderEntity order(final String idempotencyKey) {
+        final OrderEntity order = new OrderEntity();
+        order.setUuid(UUID.randomUUID().toString());
+        order.setCustomer(customer);
+        final PaymentEntity payment = new PaymentEntity();
+        payment.setId(1);
+        order.setPayment(payment);
+        final AddressEntity address = new AddressEntity();
+        address.setId(2);
+        order.setAddress(address);
+        final RestaurantEntity restaurant = new RestaurantEntity();
+        restaurant.setId(RESTAURANT_ID);
+        order.setRestaurant(restaurant);
+        order.setBill(200.0);
+        order.setDiscount(0.0);
+        order.setDate(LocalDateTime.now());
+        if (idempotencyKey != null) {
+            order.setIdempotencyKey(
+                    new OrderIdempotencyKeyEntity(
+                            CUSTOMER_ID, idempotencyKey, order.getUuid(), true, order.getDate()));
+        }
+        return order;
+    }
+
+    private static List<OrderItemEntity> items() {
+        final ItemEntity item = new ItemEntity();
+        item.setId(11);
+        final OrderItemEntity orderItem = new OrderItemEntity();
+        orderItem.setItem(item);
+        orderItem.setQuantity(2);
+        orderItem.setPrice(200);
+        return Collections.singletonList(orderItem);
+    }
+
+    // Uuids of the orders passed to placeOrders, over the given number of calls
+    @SuppressWarnings("unchecked")
+    private List<String> storedUuids(final int calls) {
+        final ArgumentCaptor<List> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderService, times(calls)).placeOrders(orders.capture(), anyList());
+        final List<String> uuids = new ArrayList<>();
+        for (List call : orders.getAllValues()) {
+            for (Object order : call) {
+                uuids.add(((OrderEntity) order).getUuid());
+            }
+        }
+        return uuids;
+    }
+}
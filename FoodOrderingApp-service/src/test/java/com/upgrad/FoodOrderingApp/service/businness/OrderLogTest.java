@@ -0,0 +1,166 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// This class contains the recovery tests of the order write-ahead log
+public class OrderLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    // 8 header bytes and a 24 byte payload
+    private static final int RECORD_BYTES = 32;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //This test passes when records appended after the checkpoint are read back on open, in order and
+    //with their positions, and the checkpointed ones are not.
+    @Test
+    public void shouldReplayOnlyRecordsAfterCheckpoint() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final List<Long> positions = new ArrayList<>();
+        final OrderLog log = new OrderLog(directory, SEGMENT_BYTES);
+        for (int i = 0; i < 5; i++) {
+            positions.add(log.append(payload(i)));
+        }
+        log.sync(positions.get(4));
+        log.checkpoint(positions.get(2));
+        log.close();
+
+        final OrderLog reopened = new OrderLog(directory, SEGMENT_BYTES);
+        final List<OrderLog.Record> recovered = reopened.recovered();
+        assertEquals(2, recovered.size());
+        assertArrayEquals(payload(3), recovered.get(0).payload());
+        assertEquals((long) positions.get(3), recovered.get(0).position());
+        assertArrayEquals(payload(4), recovered.get(1).payload());
+        assertEquals((long) positions.get(4), recovered.get(1).position());
+
+        // The log continues after the recovered records
+        assertEquals(positions.get(4) + RECORD_BYTES, reopened.append(payload(5)));
+        reopened.close();
+    }
+
+    //This test passes when every record logged but never checkpointed, the orders the writer had
+    //not stored yet, is read back on open, and again on every open until it is checkpointed.
+    @Test
+    public void shouldRecoverEveryRecordThatWasNotCheckpointed() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final OrderLog log = new OrderLog(directory, SEGMENT_BYTES);
+        long last = 0;
+        for (int i = 0; i < 10; i++) {
+            last = log.append(payload(i));
+        }
+        log.sync(last);
+        log.close();
+
+        final OrderLog first = new OrderLog(directory, SEGMENT_BYTES);
+        assertEquals(10, first.recovered().size());
+        first.close();
+
+        final OrderLog second = new OrderLog(directory, SEGMENT_BYTES);
+        assertEquals(10, second.recovered().size());
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(payload(i), second.recovered().get(i).payload());
+        }
+        second.checkpoint(last);
+        second.close();
+
+        assertTrue(new OrderLog(directory, SEGMENT_BYTES).recovered().isEmpty());
+    }
+
+    //This test passes when a torn last record is dropped on open with everything after it, and a
+    //record appended in its place is read back after the next open.
+    @Test
+    public void shouldDropTornTailRecord() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        final OrderLog log = new OrderLog(directory, SEGMENT_BYTES);
+        log.append(payload(0));
+        final long second = log.append(payload(1));
+        final long third = log.append(payload(2));
+        log.sync(third);
+        log.close();
+
+        // A crash in the middle of the third record's payload: its CRC no longer matches
+        try (FileChannel channel =
+                FileChannel.open(segment(directory, 0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), second + 8 + 3);
+        }
+
+        final OrderLog reopened = new OrderLog(directory, SEGMENT_BYTES);
+        assertEquals(2, reopened.recovered().size());
+        assertArrayEquals(payload(1), reopened.recovered().get(1).payload());
+        assertEquals(third, reopened.append(payload(7)));
+        reopened.sync(third);
+        reopened.close();
+
+        final List<OrderLog.Record> recovered = new OrderLog(directory, SEGMENT_BYTES).recovered();
+        assertEquals(3, recovered.size());
+        assertArrayEquals(payload(7), recovered.get(2).payload());
+    }
+
+    //This test passes when records roll over into new segments, are read back across segments, and
+    //a checkpoint deletes the segments wholly before it.
+    @Test
+    public void shouldRollOverSegmentsAndDeleteCheckpointedOnes() throws IOException {
+        final Path directory = folder.getRoot().toPath();
+        // Two records fit a segment
+        final int segmentBytes = 2 * RECORD_BYTES + 8;
+        final OrderLog log = new OrderLog(directory, segmentBytes);
+        final List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            positions.add(log.append(payload(i)));
+        }
+        log.sync(positions.get(4));
+        assertEquals(3, segmentCount(directory));
+        // The third record starts the second segment
+        assertEquals(segmentBytes + RECORD_BYTES, (long) positions.get(2));
+        log.close();
+
+        final OrderLog reopened = new OrderLog(directory, segmentBytes);
+        assertEquals(5, reopened.recovered().size());
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(payload(i), reopened.recovered().get(i).payload());
+        }
+        reopened.checkpoint(positions.get(3));
+        assertFalse(Files.exists(segment(directory, 0)));
+        assertTrue(Files.exists(segment(directory, 1)));
+        reopened.close();
+
+        final List<OrderLog.Record> recovered = new OrderLog(directory, segmentBytes).recovered();
+        assertEquals(1, recovered.size());
+        assertArrayEquals(payload(4), recovered.get(0).payload());
+        assertEquals((long) positions.get(4), recovered.get(0).position());
+    }
+
+    private static byte[] payload(final int i) {
+        return String.format("order-%018d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path segment(final Path directory, final long index) {
+        return directory.resolve(String.format("%019d.log", index));
+    }
+
+    private static long segmentCount(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import com.upgrad.FoodOrderingApp.service.common.OrderStatus;
+import com.upgrad.FoodOrderingApp.service.common.TokenScope;
+import com.upgrad.FoodOrderingApp.service.dao.OrderDao;
+import com.upgrad.FoodOrderingApp.service.dao.RestaurantTokenDao;
+import com.upgrad.FoodOrderingApp.service.exception.AuthorizationFailedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// This class contains the tests of the order lifecycle and the restaurant scoped fulfilment tokens
+// of order status updates
+public class OrderStatusUpdateTest {
+
+    private static final String ORDER_UUID = "order-1";
+
+    private static final String TOKEN = "token-of-restaurant-3";
+
+    private OrderDao orderDao;
+
+    private RestaurantTokenDao restaurantTokenDao;
+
+    private OrderService orderService;
+
+    @Before
+    public void setUp() {
+        orderDao = mock(OrderDao.class);
+        restaurantTokenDao = mock(RestaurantTokenDao.class);
+        final RestaurantTokens restaurantTokens = new RestaurantTokens();
+        ReflectionTestUtils.setField(restaurantTokens, "restaurantTokenDao", restaurantTokenDao);
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderDao", orderDao);
+        ReflectionTestUtils.setField(orderService, "restaurantTokens", restaurantTokens);
+        when(restaurantTokenDao.getRestaurantId(anyString(), any())).thenReturn(null);
+        when(restaurantTokenDao.getRestaurantId(
+                RestaurantTokens.hash(TOKEN), TokenScope.FULFILMENT)).thenReturn(3);
+        // Stands in for the transaction, which updateOrderStatus notifies after commit
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    //This test passes when stored orders only move forward, through the restaurant's ACCEPTED step
+    //and on to DELIVERED, and orders still QUEUED in the intake cannot be moved at all.
+    @Test
+    public void shouldMoveOrdersForwardThroughAccepted() {
+        assertTrue(OrderStatus.PLACED.canMoveTo(OrderStatus.ACCEPTED));
+        assertTrue(OrderStatus.ACCEPTED.canMoveTo(OrderStatus.PREPARING));
+        assertTrue(OrderStatus.PLACED.canMoveTo(OrderStatus.PREPARING));
+        assertTrue(OrderStatus.OUT_FOR_DELIVERY.canMoveTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.PREPARING.canMoveTo(OrderStatus.ACCEPTED));
+        assertFalse(OrderStatus.ACCEPTED.canMoveTo(OrderStatus.PLACED));
+        assertFalse(OrderStatus.QUEUED.canMoveTo(OrderStatus.ACCEPTED));
+        assertFalse(OrderStatus.PLACED.canMoveTo(OrderStatus.QUEUED));
+        assertFalse(OrderStatus.DELIVERED.canMoveTo(OrderStatus.FAILED));
+    }
+
+    //This test passes when the order's own restaurant accepts a placed order with its fulfilment
+    //token.
+    @Test
+    public void shouldLetRestaurantAcceptPlacedOrder() throws Exception {
+        when(orderDao.getCustomerAndStatus(ORDER_UUID))
+                .thenReturn(new Object[] {7, OrderStatus.PLACED, 3});
+        when(orderDao.updateOrderStatus(ORDER_UUID, OrderStatus.PLACED, OrderStatus.ACCEPTED))
+                .thenReturn(true);
+
+        orderService.updateOrderStatus(TOKEN, ORDER_UUID, "ACCEPTED");
+        verify(orderDao).updateOrderStatus(ORDER_UUID, OrderStatus.PLACED, OrderStatus.ACCEPTED);
+    }
+
+    //This test passes when tokens are hashed the way the restaurant_token table stores them, as
+    //PostgreSQL's encode(sha256(...), 'hex') does.
+    @Test
+    public void shouldHashTokensAsHexSha256() {
+        assertEquals(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                RestaurantTokens.hash("abc"));
+    }
+
+    //This test passes when a restaurant's fulfilment token is refused for another restaurant's
+    //order, and the order is left as it is.
+    @Test
+    public void shouldRefuseTokenOfAnotherRestaurant() throws Exception {
+        when(orderDao.getCustomerAndStatus(ORDER_UUID))
+                .thenReturn(new Object[] {7, OrderStatus.PLACED, 4});
+        try {
+            orderService.updateOrderStatus(TOKEN, ORDER_UUID, "ACCEPTED");
+            fail();
+        } catch (AuthorizationFailedException e) {
+            assertEquals("ATHR-006", e.getCode());
+        }
+        verify(orderDao, never()).updateOrderStatus(anyString(), any(), any());
+    }
+
+    //This test passes when an absent or unknown token is refused before the order is looked up.
+    @Test
+    public void shouldRefuseUnknownToken() throws Exception {
+        for (String token : new String[] {null, "", "unknown"}) {
+            try {
+                orderService.updateOrderStatus(token, ORDER_UUID, "PREPARING");
+                fail();
+            } catch (AuthorizationFailedException e) {
+                assertEquals("ATHR-006", e.getCode());
+            }
+        }
+        verify(orderDao, never()).getCustomerAndStatus(anyString());
+    }
+}
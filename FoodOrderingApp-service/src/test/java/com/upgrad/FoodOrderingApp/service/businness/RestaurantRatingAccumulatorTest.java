@@ -0,0 +1,117 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// This class contains the concurrency tests of the rating accumulator
+public class RestaurantRatingAccumulatorTest {
+
+    private static final int RESTAURANTS = 16;
+
+    private static final int WRITERS = 8;
+
+    private static final int RATINGS_PER_WRITER = 200_000;
+
+    //This test passes when ratings added while drains run concurrently all reach the sink exactly once,
+    //even when the sink fails now and then.
+    @Test
+    public void shouldFlushEveryRatingExactlyOnceUnderConcurrentAddAndDrain() throws Exception {
+        final RestaurantRatingAccumulator accumulator = new RestaurantRatingAccumulator();
+        final AtomicLongArray submittedMilliStars = new AtomicLongArray(RESTAURANTS);
+        final AtomicLongArray submittedCounts = new AtomicLongArray(RESTAURANTS);
+        final long[] flushedMilliStars = new long[RESTAURANTS];
+        final long[] flushedCounts = new long[RESTAURANTS];
+        final RestaurantRatingAccumulator.RatingSink sink =
+                (restaurantId, ratingSum, count) -> {
+                    // Fail one flush in ten; its ratings must come back in a later drain
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                        throw new IllegalStateException("flush failed");
+                    }
+                    flushedMilliStars[restaurantId] += Math.round(ratingSum * 1000);
+                    flushedCounts[restaurantId] += count;
+                };
+
+        final ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        for (int writer = 0; writer < WRITERS; writer++) {
+            writers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < RATINGS_PER_WRITER; i++) {
+                    final int restaurantId = random.nextInt(RESTAURANTS);
+                    // Ratings 1.0 to 5.0 in half stars are exact in milli-stars
+                    final int halfStars = 2 + random.nextInt(9);
+                    accumulator.add(restaurantId, halfStars / 2.0);
+                    submittedMilliStars.addAndGet(restaurantId, halfStars * 500L);
+                    submittedCounts.incrementAndGet(restaurantId);
+                }
+            });
+        }
+        final Thread drainer = new Thread(() -> {
+            while (writing.get()) {
+                accumulator.drain(sink);
+            }
+        });
+        drainer.start();
+        start.countDown();
+        writers.shutdown();
+        assertTrue(writers.awaitTermination(2, TimeUnit.MINUTES));
+        writing.set(false);
+        drainer.join();
+
+        // Drain until every failed flush has been retried
+        boolean pending = true;
+        while (pending) {
+            final boolean[] failed = {false};
+            accumulator.drain((restaurantId, ratingSum, count) -> {
+                try {
+                    sink.flush(restaurantId, ratingSum, count);
+                } catch (IllegalStateException e) {
+                    failed[0] = true;
+                    throw e;
+                }
+            });
+            pending = failed[0];
+        }
+
+        long totalCount = 0;
+        for (int restaurantId = 0; restaurantId < RESTAURANTS; restaurantId++) {
+            assertEquals(submittedCounts.get(restaurantId), flushedCounts[restaurantId]);
+            assertEquals(submittedMilliStars.get(restaurantId), flushedMilliStars[restaurantId]);
+            totalCount += flushedCounts[restaurantId];
+        }
+        assertEquals((long) WRITERS * RATINGS_PER_WRITER, totalCount);
+    }
+
+    //This test passes when a drain with nothing new does not call the sink.
+    @Test
+    public void shouldNotFlushRestaurantsWithoutNewRatings() {
+        final RestaurantRatingAccumulator accumulator = new RestaurantRatingAccumulator();
+        accumulator.add(1, 4.5);
+        final int[] flushes = {0};
+        accumulator.drain((restaurantId, ratingSum, count) -> {
+            assertEquals(1, restaurantId);
+            assertEquals(4.5, ratingSum, 0.0);
+            assertEquals(1, count);
+            flushes[0]++;
+        });
+        accumulator.drain((restaurantId, ratingSum, count) -> flushes[0]++);
+        assertEquals(1, flushes[0]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.upgrad.FoodOrderingApp.service.businness;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// This class contains the tests of rebuilding the revenue rollups of past days
+public class RestaurantRevenueBackfillTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 10, 1);
+
+    private static final LocalDate TO = LocalDate.of(2026, 10, 20);
+
+    private RestaurantRevenueRollup restaurantRevenueRollup;
+
+    private RestaurantRevenueBackfill backfill;
+
+    @Before
+    public void setUp() {
+        restaurantRevenueRollup = mock(RestaurantRevenueRollup.class);
+        backfill = new RestaurantRevenueBackfill();
+        ReflectionTestUtils.setField(backfill, "backfillFrom", "");
+        ReflectionTestUtils.setField(backfill, "backfillThreads", 1);
+        ReflectionTestUtils.setField(backfill, "restaurantRevenueRollup", restaurantRevenueRollup);
+        backfill.start();
+    }
+
+    @After
+    public void tearDown() {
+        backfill.stop();
+    }
+
+    //This test passes when only the stale days are rebuilt, newest first, and the days whose
+    //rollups match their orders, today among them, are never touched.
+    @Test
+    public void shouldRebuildOnlyStaleDaysNewestFirst() throws Exception {
+        final LocalDate newer = LocalDate.of(2026, 10, 12);
+        final LocalDate older = LocalDate.of(2026, 10, 10);
+        when(restaurantRevenueRollup.getStaleDays(FROM, TO))
+                .thenReturn(Arrays.asList(newer, older));
+        when(restaurantRevenueRollup.rebuildDay(any())).thenReturn(true);
+
+        assertEquals(2, (int) backfill.backfill(FROM, TO).get(5, TimeUnit.SECONDS));
+        final InOrder order = inOrder(restaurantRevenueRollup);
+        order.verify(restaurantRevenueRollup).rebuildDay(newer);
+        order.verify(restaurantRevenueRollup).rebuildDay(older);
+        verify(restaurantRevenueRollup, times(2)).rebuildDay(any());
+    }
+}